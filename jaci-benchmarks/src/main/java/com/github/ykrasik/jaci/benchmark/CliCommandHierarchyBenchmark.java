@@ -0,0 +1,91 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+
+package com.github.ykrasik.jaci.benchmark;
+
+import com.github.ykrasik.jaci.cli.assist.AutoComplete;
+import com.github.ykrasik.jaci.cli.command.CliCommand;
+import com.github.ykrasik.jaci.cli.exception.ParseException;
+import com.github.ykrasik.jaci.cli.hierarchy.CliCommandHierarchyImpl;
+import com.github.ykrasik.jaci.cli.hierarchy.SyntheticHierarchy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks resolving and auto completing paths in a {@link CliCommandHierarchyImpl}
+ * built from synthetic hierarchies of different depths.
+ * Paths always lead to the deepest level of the hierarchy.
+ *
+ * @author Yevgeny Krasik
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CliCommandHierarchyBenchmark {
+    @Param({ "1", "2", "4" })
+    private int depth;
+
+    @Param({ "10" })
+    private int fanOut;
+
+    @Param({ "10" })
+    private int commandsPerDirectory;
+
+    private CliCommandHierarchyImpl hierarchy;
+    private String commandPath;
+    private String partialCommandPath;
+    private String partialDirectoryPath;
+
+    @Setup
+    public void setUp() {
+        final SyntheticHierarchy synthetic = new SyntheticHierarchy.Builder()
+            .setDepth(depth)
+            .setFanOut(fanOut)
+            .setCommandsPerDirectory(commandsPerDirectory)
+            .build();
+        hierarchy = CliCommandHierarchyImpl.from(synthetic.getDef());
+
+        // The last generated command is the last command of the last directory at the deepest level.
+        final List<String> commandPaths = synthetic.getCommandPaths();
+        commandPath = commandPaths.get(commandPaths.size() - 1);
+
+        // Cut the path in the middle of the last command name, and in the middle of the last directory name.
+        partialCommandPath = commandPath.substring(0, commandPath.length() - 2);
+        final int lastDelimiter = commandPath.lastIndexOf('/');
+        partialDirectoryPath = lastDelimiter > 0 ? commandPath.substring(0, lastDelimiter - 1) : "d";
+    }
+
+    @Benchmark
+    public CliCommand parsePathToCommand() throws ParseException {
+        return hierarchy.parsePathToCommand(commandPath);
+    }
+
+    @Benchmark
+    public AutoComplete autoCompleteCommandPath() throws ParseException {
+        return hierarchy.autoCompletePath(partialCommandPath);
+    }
+
+    @Benchmark
+    public AutoComplete autoCompleteDirectoryPath() throws ParseException {
+        return hierarchy.autoCompletePath(partialDirectoryPath);
+    }
+}
@@ -0,0 +1,90 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+
+package com.github.ykrasik.jaci.benchmark;
+
+import com.github.ykrasik.jaci.cli.assist.ParamAssistInfo;
+import com.github.ykrasik.jaci.cli.command.CliCommand;
+import com.github.ykrasik.jaci.cli.exception.ParseException;
+import com.github.ykrasik.jaci.cli.hierarchy.SyntheticHierarchy;
+import com.github.ykrasik.jaci.cli.param.CliParamManagerImpl;
+import com.github.ykrasik.jaci.command.CommandArgs;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks parsing and assisting the args of a single command through a {@link CliParamManagerImpl},
+ * for string params constrained to different amounts of values.
+ *
+ * @author Yevgeny Krasik
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CliParamManagerBenchmark {
+    @Param({ "10", "1000", "100000" })
+    private int numValues;
+
+    private CliParamManagerImpl paramManager;
+    private List<String> positionalArgs;
+    private List<String> namedArgs;
+    private List<String> assistValueArgs;
+    private List<String> assistNameArgs;
+
+    @Setup
+    public void setUp() {
+        final SyntheticHierarchy synthetic = new SyntheticHierarchy.Builder()
+            .setDepth(0)
+            .setCommandsPerDirectory(1)
+            .setNumValues(numValues)
+            .build();
+        final CliCommand command = CliCommand.fromDef(synthetic.getDef().getRoot().getCommandDefs().get(0));
+        paramManager = new CliParamManagerImpl(command.getParams());
+
+        // The command has a string param 'param0', an int param 'param1' and an optional boolean param 'param2'.
+        positionalArgs = synthetic.getArgs();
+        namedArgs = Arrays.asList("-param1", "42", "-param0", "value" + (numValues - 1));
+        assistValueArgs = Arrays.asList("value1");
+        assistNameArgs = Arrays.asList("-param1", "42", "-");
+    }
+
+    @Benchmark
+    public CommandArgs parsePositional() throws ParseException {
+        return paramManager.parse(positionalArgs);
+    }
+
+    @Benchmark
+    public CommandArgs parseNamed() throws ParseException {
+        return paramManager.parse(namedArgs);
+    }
+
+    @Benchmark
+    public ParamAssistInfo assistValue() throws ParseException {
+        return paramManager.assist(assistValueArgs);
+    }
+
+    @Benchmark
+    public ParamAssistInfo assistName() throws ParseException {
+        return paramManager.assist(assistNameArgs);
+    }
+}
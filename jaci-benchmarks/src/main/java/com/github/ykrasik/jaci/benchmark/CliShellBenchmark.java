@@ -0,0 +1,125 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+
+package com.github.ykrasik.jaci.benchmark;
+
+import com.github.ykrasik.jaci.cli.CliShell;
+import com.github.ykrasik.jaci.cli.hierarchy.CliCommandHierarchyImpl;
+import com.github.ykrasik.jaci.cli.hierarchy.SyntheticHierarchy;
+import com.github.ykrasik.jaci.cli.output.CliOutput;
+import com.github.ykrasik.jaci.util.opt.Opt;
+import com.github.ykrasik.jaci.util.string.StringUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end benchmarks of executing and assisting command lines through a {@link CliShell}
+ * built from synthetic hierarchies of different sizes.
+ * Everything the shell prints is discarded, so output costs nothing beyond it's creation.
+ *
+ * @author Yevgeny Krasik
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CliShellBenchmark {
+    @Param({ "1", "2", "4" })
+    private int depth;
+
+    @Param({ "10" })
+    private int fanOut;
+
+    @Param({ "10" })
+    private int commandsPerDirectory;
+
+    @Param({ "100" })
+    private int numValues;
+
+    private CliShell shell;
+    private String executeCommandLine;
+    private String assistPathCommandLine;
+    private String assistParamCommandLine;
+
+    @Setup
+    public void setUp() {
+        final SyntheticHierarchy synthetic = new SyntheticHierarchy.Builder()
+            .setDepth(depth)
+            .setFanOut(fanOut)
+            .setCommandsPerDirectory(commandsPerDirectory)
+            .setNumValues(numValues)
+            .build();
+        final CliCommandHierarchyImpl hierarchy = CliCommandHierarchyImpl.from(synthetic.getDef());
+        shell = new CliShell.Builder(hierarchy, new DiscardingCliOutput()).build();
+
+        // The last generated command is the last command of the last directory at the deepest level.
+        final List<String> commandPaths = synthetic.getCommandPaths();
+        final String commandPath = commandPaths.get(commandPaths.size() - 1);
+        executeCommandLine = commandPath + ' ' + StringUtils.join(synthetic.getArgs(), " ");
+        assistPathCommandLine = commandPath.substring(0, commandPath.length() - 2);
+        assistParamCommandLine = commandPath + " value1";
+    }
+
+    @Benchmark
+    public boolean execute() {
+        return shell.execute(executeCommandLine);
+    }
+
+    @Benchmark
+    public Opt<String> assistPath() {
+        return shell.assist(assistPathCommandLine);
+    }
+
+    @Benchmark
+    public Opt<String> assistParam() {
+        return shell.assist(assistParamCommandLine);
+    }
+
+    /**
+     * A {@link CliOutput} that only remembers the last printed text, so printing can't be optimized away.
+     */
+    private static class DiscardingCliOutput implements CliOutput {
+        private String lastText;
+
+        @Override
+        public void begin() {
+        }
+
+        @Override
+        public void end() {
+        }
+
+        @Override
+        public void println(String text) {
+            lastText = text;
+        }
+
+        @Override
+        public void errorPrintln(String text) {
+            lastText = text;
+        }
+
+        @Override
+        public void setWorkingDirectory(String workingDirectory) {
+            lastText = workingDirectory;
+        }
+    }
+}
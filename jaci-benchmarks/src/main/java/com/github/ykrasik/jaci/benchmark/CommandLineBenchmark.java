@@ -0,0 +1,53 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+
+package com.github.ykrasik.jaci.benchmark;
+
+import com.github.ykrasik.jaci.cli.commandline.CommandLine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks splitting a raw command line into a {@link CommandLine}, for execution and for assistance.
+ *
+ * @author Yevgeny Krasik
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandLineBenchmark {
+    @Param({
+        "cmd",
+        "dir0/dir1/cmd2 value17 42 true",
+        "dir0/dir1/dir2/dir3/cmd4 -str value17 -num 42 -flag  "
+    })
+    private String rawCommandLine;
+
+    @Benchmark
+    public CommandLine forExecute() {
+        return CommandLine.forExecute(rawCommandLine);
+    }
+
+    @Benchmark
+    public CommandLine forAssist() {
+        return CommandLine.forAssist(rawCommandLine);
+    }
+}
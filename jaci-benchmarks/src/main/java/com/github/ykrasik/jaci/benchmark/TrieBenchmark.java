@@ -0,0 +1,138 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+
+package com.github.ykrasik.jaci.benchmark;
+
+import com.github.ykrasik.jaci.util.opt.Opt;
+import com.github.ykrasik.jaci.util.trie.Trie;
+import com.github.ykrasik.jaci.util.trie.TrieBuilder;
+import com.github.ykrasik.jaci.util.trie.TrieType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks building a {@link Trie} and it's most common read operations, at different sizes.<br>
+ * Words are random lower case strings, generated from a fixed seed so every run sees the same Trie.
+ * Lookups cycle through a fixed set of words that are contained in the Trie.
+ *
+ * @author Yevgeny Krasik
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrieBenchmark {
+    private static final int NUM_LOOKUPS = 1024;
+    private static final int MIN_WORD_LENGTH = 4;
+    private static final int MAX_WORD_LENGTH = 12;
+
+    @Param({ "1000", "100000", "1000000" })
+    private int size;
+
+    @Param({ "NODE" })
+    private TrieType type;
+
+    private Map<String, String> words;
+    private Trie<String> trie;
+    private Trie<String> otherTrie;
+    private Trie<String> narrowTrie;
+    private String[] lookups;
+    private String[] prefixes;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        words = createWords(random, size);
+        trie = build(words);
+        otherTrie = build(createWords(random, size / 2));
+
+        lookups = words.keySet().toArray(new String[words.size()]);
+        if (lookups.length > NUM_LOOKUPS) {
+            final String[] sample = new String[NUM_LOOKUPS];
+            System.arraycopy(lookups, 0, sample, 0, NUM_LOOKUPS);
+            lookups = sample;
+        }
+        prefixes = new String[lookups.length];
+        for (int i = 0; i < lookups.length; i++) {
+            prefixes[i] = lookups[i].substring(0, 2);
+        }
+        narrowTrie = trie.subTrie(lookups[0].substring(0, 3));
+    }
+
+    private Trie<String> build(Map<String, String> words) {
+        return new TrieBuilder<String>().setType(type).setAll(words).build();
+    }
+
+    private static Map<String, String> createWords(Random random, int amount) {
+        final Map<String, String> words = new HashMap<>(amount * 2);
+        final StringBuilder sb = new StringBuilder(MAX_WORD_LENGTH);
+        while (words.size() < amount) {
+            sb.setLength(0);
+            final int length = MIN_WORD_LENGTH + random.nextInt(MAX_WORD_LENGTH - MIN_WORD_LENGTH + 1);
+            for (int i = 0; i < length; i++) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+            final String word = sb.toString();
+            words.put(word, word);
+        }
+        return words;
+    }
+
+    private int nextIndex() {
+        index = (index + 1) % lookups.length;
+        return index;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Trie<String> build() {
+        return build(words);
+    }
+
+    @Benchmark
+    public Opt<String> get() {
+        return trie.get(lookups[nextIndex()]);
+    }
+
+    @Benchmark
+    public Trie<String> subTrie() {
+        return trie.subTrie(prefixes[nextIndex()]);
+    }
+
+    @Benchmark
+    public int subTrieSize() {
+        return trie.subTrie(prefixes[nextIndex()]).size();
+    }
+
+    @Benchmark
+    public String getLongestPrefix() {
+        return narrowTrie.getLongestPrefix();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Trie<String> union() {
+        return trie.union(otherTrie);
+    }
+}
@@ -19,6 +19,8 @@ package com.github.ykrasik.jaci.cli;
 import com.github.ykrasik.jaci.cli.commandline.CommandLineManager;
 import com.github.ykrasik.jaci.util.opt.Opt;
 
+import java.util.concurrent.Future;
+
 /**
  * A CLI is a component that can read from a command line via a {@link CommandLineManager},
  * pass the command line to a {@link CliShell} to be processed, and according to the return value of the shell
@@ -69,6 +71,31 @@ public class Cli {
         return shell.execute(commandLine);
     }
 
+    /**
+     * Execute the command line asynchronously, on the shell's {@link java.util.concurrent.Executor}.
+     *
+     * @return A {@link Future} that will contain {@code true} if the command line was executed successfully.
+     * @see CliShell#executeAsync(String)
+     */
+    public Future<Boolean> executeAsync() {
+        final String commandLine = commandLineManager.getCommandLine();
+        clearCommandLine();
+        return shell.executeAsync(commandLine);
+    }
+
+    /**
+     * Prepare the command line for asynchronous execution, without executing it.
+     * For when commands are executed by something other than the shell's {@link java.util.concurrent.Executor}.
+     *
+     * @return An execution of the command line, that will execute the command when run.
+     * @see CliShell#prepareExecution(String)
+     */
+    public CliExecution prepareExecution() {
+        final String commandLine = commandLineManager.getCommandLine();
+        clearCommandLine();
+        return shell.prepareExecution(commandLine);
+    }
+
     /**
      * Clear the command line.
      */
@@ -0,0 +1,203 @@
+/******************************************************************************
+ * Copyright (C) 2015 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.cli;
+
+import com.github.ykrasik.jaci.cli.command.CliCommand;
+import com.github.ykrasik.jaci.cli.command.CliCommandOutput;
+import com.github.ykrasik.jaci.cli.command.CliJobs;
+import com.github.ykrasik.jaci.cli.output.BufferedCliOutput;
+import com.github.ykrasik.jaci.cli.output.CliOutput;
+import com.github.ykrasik.jaci.cli.output.CliPrinter;
+import com.github.ykrasik.jaci.command.CommandArgs;
+
+/**
+ * A command line that was parsed by a {@link CliShell}, whose command is executed when this execution is
+ * {@link #run() run} - usually on a different thread than the one that parsed it.<br>
+ * Everything the command prints is buffered, and only printed to the shell's {@link CliOutput} after the command
+ * has finished. Executions are printed in the order they were prepared in, so the output of commands that run
+ * concurrently is never interleaved - a command that finishes early waits for the commands that were prepared before it.
+ * This means the {@link CliOutput} will be called from whichever thread finishes a command, and must be able to
+ * handle that (for example, by marshalling all calls to the UI thread). Calls are made by one thread at a time, and
+ * must be displayed in the order they were made - an output that marshals calls from other threads to the UI thread
+ * must also marshal the calls made from the UI thread itself, instead of displaying them before the calls already marshalled.<br>
+ * Running an execution more than once has no effect.<br>
+ * An execution may be cancelled from any thread. If it hasn't started running yet, it's command will never run.
+ * Otherwise, the command is {@link com.github.ykrasik.jaci.api.CommandOutput#isCancelled() notified}
+ * and is expected to stop on it's own. The same happens when the command's timeout expires.
+ *
+ * @author Yevgeny Krasik
+ */
+public class CliExecution implements Runnable, CliJobs.Job {
+    private final CliShell shell;
+    private final CliJobs jobs;
+    private final CliCommand command;
+    private final CommandArgs args;
+    private final String commandLine;
+    private final BufferedCliOutput buffer;
+    private final CliPrinter printer;
+
+    private boolean started;
+    private int jobId;
+    private volatile boolean done;
+    private volatile boolean success;
+    private volatile boolean cancelled;
+    private volatile CliCommandOutput commandOutput;
+
+    CliExecution(CliShell shell, CliPrinter printer, CliJobs jobs, CliCommand command, CommandArgs args, String commandLine) {
+        this.shell = shell;
+        this.jobs = jobs;
+        this.command = command;
+        this.args = args;
+        this.commandLine = commandLine;
+        this.buffer = new BufferedCliOutput();
+        this.printer = printer.withOutput(buffer);
+    }
+
+    private CliExecution(boolean success) {
+        this.shell = null;
+        this.jobs = null;
+        this.command = null;
+        this.args = null;
+        this.commandLine = "";
+        this.buffer = null;
+        this.printer = null;
+        this.started = true;
+        this.done = true;
+        this.success = success;
+    }
+
+    /**
+     * @return {@code true} if the command has finished executing (successfully or not). Even if the command has
+     *         finished, it's output may still be waiting for commands that were prepared before it to finish.
+     */
+    @Override
+    public boolean isDone() {
+        return done;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return started && !done;
+    }
+
+    /**
+     * @return {@code true} if the command has finished executing successfully.
+     */
+    public boolean isSuccess() {
+        return success;
+    }
+
+    @Override
+    public String getCommandLine() {
+        return commandLine;
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        final CliCommandOutput commandOutput = this.commandOutput;
+        if (commandOutput != null) {
+            commandOutput.cancel();
+        }
+    }
+
+    @Override
+    public void run() {
+        if (!start()) {
+            return;
+        }
+        try {
+            if (cancelled) {
+                // Cancelled while waiting to run.
+                printCancelled(printer);
+            } else {
+                success = execute();
+            }
+        } catch (Exception e) {
+            printer.printException(e);
+        } finally {
+            finish();
+        }
+    }
+
+    /**
+     * Fail this execution without executing the command, if it hasn't started yet.
+     *
+     * @param e Reason for failing, printed as the execution's output.
+     */
+    void fail(Exception e) {
+        if (!start()) {
+            return;
+        }
+        printer.printException(e);
+        finish();
+    }
+
+    private synchronized boolean start() {
+        if (started) {
+            return false;
+        }
+        started = true;
+        return true;
+    }
+
+    private void finish() {
+        jobs.remove(jobId);
+        done = true;
+        shell.printDoneExecutions();
+    }
+
+    /**
+     * Add this execution to the jobs of the CLI, until it is done.
+     */
+    synchronized void addToJobs() {
+        jobId = jobs.add(this);
+    }
+
+    /**
+     * Print the buffered output of the command.
+     *
+     * @param printer Printer to print to.
+     */
+    void printTo(CliPrinter printer) {
+        printer.print(buffer);
+    }
+
+    private boolean execute() throws Exception {
+        final CliCommandOutput commandOutput = new CliCommandOutput(printer, jobs, command.getTimeoutMillis());
+        this.commandOutput = commandOutput;
+        if (cancelled) {
+            // Cancelled before the command output was available to be cancelled.
+            commandOutput.cancel();
+        }
+        return command.executeAndPrintResult(commandOutput, args);
+    }
+
+    private void printCancelled(CliPrinter printer) {
+        final String message = ("Command '"+command.getName()+"' was cancelled.");
+        printer.errorPrintln(message);
+    }
+
+    /**
+     * @param success Whether the execution was successful.
+     * @return An execution that has already finished and has nothing to print, for command lines that didn't
+     *         need a command to be executed (empty or invalid command lines).
+     */
+    static CliExecution completed(boolean success) {
+        return new CliExecution(success);
+    }
+}
@@ -0,0 +1,103 @@
+/******************************************************************************
+ * Copyright (C) 2015 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.cli;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of executing a script through {@link CliShell#executeScript(Iterable, boolean)}.
+ *
+ * @author Yevgeny Krasik
+ */
+public class CliScriptResult {
+    private final int numExecuted;
+    private final List<Failure> failures;
+    private final boolean stopped;
+
+    CliScriptResult(int numExecuted, List<Failure> failures, boolean stopped) {
+        this.numExecuted = numExecuted;
+        this.failures = Collections.unmodifiableList(failures);
+        this.stopped = stopped;
+    }
+
+    /**
+     * @return {@code true} if all command lines of the script were executed successfully.
+     */
+    public boolean isSuccess() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * @return The amount of command lines that were executed (successfully or not).
+     *         Doesn't include empty lines, comments, or command lines after the script was stopped.
+     */
+    public int getNumExecuted() {
+        return numExecuted;
+    }
+
+    /**
+     * @return The command lines that failed, in the order they appear in the script.
+     */
+    public List<Failure> getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return {@code true} if the script was stopped on the first failure before all command lines were executed.
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    @Override
+    public String toString() {
+        return "CliScriptResult(numExecuted=" + numExecuted + ", failures=" + failures + ", stopped=" + stopped + ")";
+    }
+
+    /**
+     * A command line of a script that failed to parse or execute.
+     */
+    public static class Failure {
+        private final int lineNumber;
+        private final String commandLine;
+
+        Failure(int lineNumber, String commandLine) {
+            this.lineNumber = lineNumber;
+            this.commandLine = commandLine;
+        }
+
+        /**
+         * @return The line number of the command line in the script, starting from 1.
+         */
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        /**
+         * @return The command line that failed.
+         */
+        public String getCommandLine() {
+            return commandLine;
+        }
+
+        @Override
+        public String toString() {
+            return "line " + lineNumber + ": " + commandLine;
+        }
+    }
+}
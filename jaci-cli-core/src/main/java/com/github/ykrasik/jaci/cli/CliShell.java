@@ -22,19 +22,34 @@ import com.github.ykrasik.jaci.cli.assist.ParamAssistInfo;
 import com.github.ykrasik.jaci.cli.assist.Suggestions;
 import com.github.ykrasik.jaci.cli.command.CliCommand;
 import com.github.ykrasik.jaci.cli.command.CliCommandOutput;
+import com.github.ykrasik.jaci.cli.command.CliJobs;
 import com.github.ykrasik.jaci.cli.commandline.CommandLine;
 import com.github.ykrasik.jaci.cli.commandline.CommandLineHistory;
+import com.github.ykrasik.jaci.cli.exception.ParseError;
 import com.github.ykrasik.jaci.cli.exception.ParseException;
 import com.github.ykrasik.jaci.cli.hierarchy.CliCommandHierarchy;
 import com.github.ykrasik.jaci.cli.output.CliOutput;
 import com.github.ykrasik.jaci.cli.output.CliPrinter;
 import com.github.ykrasik.jaci.cli.output.CliSerializer;
 import com.github.ykrasik.jaci.cli.output.DefaultCliSerializer;
+import com.github.ykrasik.jaci.cli.param.PreparedCommandArgs;
 import com.github.ykrasik.jaci.command.CommandArgs;
 import com.github.ykrasik.jaci.util.opt.Opt;
+import com.github.ykrasik.jaci.util.string.StringUtils;
 
-
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A shell usually refers to the program logic running within a CLI.
@@ -50,6 +65,13 @@ import java.util.List;
  * The shell's API methods that print values ({@link #assist(String)}, {@link #execute(String)}) do so
  * as a side effect, by calling the {@link CliOutput} the shell was built with.
  *
+ * Scripts of many command lines can be executed in one pass through {@link #executeScript(Iterable, boolean)}.
+ *
+ * Command lines can also be executed asynchronously through {@link #executeAsync(String)}, on the {@link Executor}
+ * the shell was built with. See {@link CliExecution} for how the output of asynchronous commands is printed.
+ * Output is printed between {@link CliOutput#begin()} and {@link CliOutput#end()} by one thread at a time, so an
+ * asynchronous command that finishes while the calling thread is printing waits for it to finish before printing.
+ *
  * Built through the {@link CliShell.Builder} builder.
  *
  * @author Yevgeny Krasik
@@ -58,23 +80,58 @@ public class CliShell {
     private final CliCommandHierarchy hierarchy;
     private final CliPrinter printer;
     private final CommandLineHistory history;
+    private final Executor executor;
+
+    /**
+     * Held while printing between {@link #beginOutput()} and {@link #endOutput()}, so that output printed
+     * by executions finishing on other threads is never interleaved with output printed by the calling thread.
+     * Also guards {@link #pendingExecutions}.
+     */
+    private final Lock outputLock = new ReentrantLock();
+
+    /**
+     * Set when an execution finishes while {@link #outputLock} is held by another thread. The holder prints
+     * the done executions once it releases the lock, so finishing executions never wait for it.
+     */
+    private volatile boolean printDoneExecutionsRequested;
+
+    /**
+     * Asynchronous executions whose output wasn't printed yet, in the order they were prepared.
+     */
+    private final Queue<CliExecution> pendingExecutions = new LinkedList<>();
+
+    /**
+     * Asynchronous executions that aren't done yet, available to system commands.
+     */
+    private final CliJobs jobs = new CliJobs();
 
     /**
      * Package-protected for testing.
      */
     CliShell(CliCommandHierarchy hierarchy,
              CliPrinter printer,
-             CommandLineHistory history) {
+             CommandLineHistory history,
+             Executor executor) {
         this.hierarchy = hierarchy;
         this.printer = printer;
         this.history = history;
+        this.executor = executor;
 
         // Welcome message.
-        printer.begin();
+        beginOutput();
         printer.setWorkingDirectory(hierarchy.getWorkingDirectory());
         printer.println("Welcome!");
         printer.println("");
-        printer.end();
+        endOutput();
+    }
+
+    /**
+     * Package-protected for testing.
+     *
+     * @return Asynchronous executions that aren't done yet.
+     */
+    CliJobs getJobs() {
+        return jobs;
     }
 
     /**
@@ -107,7 +164,7 @@ public class CliShell {
      * @return A value that should be appended to the command line as a result of the auto complete operation.
      */
     public Opt<String> assist(String commandLine) {
-        printer.begin();
+        beginOutput();
         try {
             return doAssist(commandLine);
         } catch (ParseException e) {
@@ -115,7 +172,7 @@ public class CliShell {
         } catch (Exception e) {
             printer.printException(e);
         } finally {
-            printer.end();
+            endOutput();
         }
         return Opt.absent();
     }
@@ -161,53 +218,357 @@ public class CliShell {
      * The command line will be parsed, verified for correctness and executed if it passes all correctness checks.
      * Any output is printed as a side effect to the {@link CliOutput} this shell was constructed with.
      * If any error occurs while parsing the command line or executing the parsed command line, it will also be printed
-     * to the {@link CliOutput} this shell was constructed with.
+     * to the {@link CliOutput} this shell was constructed with.<br>
+     * The command is always executed on the calling thread. If the output of {@link #executeAsync(String) asynchronous}
+     * executions is still waiting to be printed, the output of this command is buffered and printed after it,
+     * like an asynchronous execution's would be - so it may only be printed after this method returns.
      *
      * @param commandLine Command line to execute.
      * @return {@code true} if the command line was executed successfully.
      */
     public boolean execute(String commandLine) {
-        printer.begin();
+        final CliExecution execution;
+        beginOutput();
+        try {
+            final Opt<CommandLine> parsedCommandLine = parseCommandLine(commandLine);
+            if (!parsedCommandLine.isPresent()) {
+                return true;
+            }
+            final CliCommand command = parseCommand(parsedCommandLine.get());
+            final CommandArgs args = command.parse(parsedCommandLine.get().getCommandArgs());
+            if (command.isImmediate() || pendingExecutions.isEmpty()) {
+                // Nothing is waiting to be printed before this command, print it's output directly.
+                return executeNow(command, args);
+            }
+
+            // Queue behind the pending executions to keep the output in order,
+            // and don't hold the lock while the command runs.
+            execution = new CliExecution(this, printer, jobs, command, args, commandLine);
+            pendingExecutions.add(execution);
+            execution.addToJobs();
+        } catch (ParseException e) {
+            handleParseException(e);
+            return false;
+        } catch (Exception e) {
+            printer.printException(e);
+            return false;
+        } finally {
+            endOutput();
+        }
+        execution.run();
+        return execution.isSuccess();
+    }
+
+    /**
+     * Parse the command line once, to be executed any amount of times through {@link #execute(PreparedCommand)}.
+     * Nothing is printed - parse errors are thrown instead.<br>
+     * The command and the arguments that were passed explicitly are resolved relative to the current working directory,
+     * parameters that weren't passed a value are resolved again on every execution.
+     *
+     * @param commandLine Command line to prepare.
+     * @return A {@link PreparedCommand} for the command line.
+     * @throws ParseException If the command line is empty or could not be parsed.
+     */
+    public PreparedCommand prepareCommand(String commandLine) throws ParseException {
+        if (commandLine == null) {
+            throw new java.lang.NullPointerException("commandLine");
+        }
+        final CommandLine parsedCommandLine = CommandLine.forExecute(commandLine);
+        if (parsedCommandLine.isEmpty()) {
+            throw new ParseException(ParseError.INVALID_COMMAND, "Nothing to prepare, command line is empty!");
+        }
+
+        final CliCommand command = hierarchy.parsePathToCommand(parsedCommandLine.getPathToCommand());
+        final PreparedCommandArgs args = command.prepare(parsedCommandLine.getCommandArgs());
+        return new PreparedCommand(command, args, commandLine);
+    }
+
+    /**
+     * Execute a command that was prepared through {@link #prepareCommand(String)}, without parsing it again.
+     * Meant for executing the same command line many times, so the command line isn't printed or saved in the
+     * command history. Output and errors are printed like {@link #execute(String)} would, but always right away -
+     * there is no ordering guarantee relative to the output of {@link #executeAsync(String) asynchronous} executions.
+     *
+     * @param command Prepared command to execute.
+     * @return {@code true} if the command was executed successfully.
+     */
+    public boolean execute(PreparedCommand command) {
+        if (command == null) {
+            throw new java.lang.NullPointerException("command");
+        }
+        beginOutput();
         try {
-            doExecute(commandLine);
-            return true;
+            final CommandArgs args = command.resolveArgs();
+            return executeNow(command.getCommand(), args);
         } catch (ParseException e) {
             handleParseException(e);
         } catch (Exception e) {
             printer.printException(e);
         } finally {
+            endOutput();
+        }
+        return false;
+    }
+
+    /**
+     * Execute the command line asynchronously on the {@link Executor} this shell was built with.
+     * The command line is parsed right away, and any parse errors are printed before this method returns.
+     * Only the command itself is executed on the executor, and it's output is only printed once it finishes.
+     * See {@link CliExecution} for details.
+     *
+     * @param commandLine Command line to execute.
+     * @return A {@link Future} that will contain {@code true} if the command line was executed successfully.
+     *         Completes as soon as the command has finished, even if it's output is still waiting to be printed.
+     */
+    public Future<Boolean> executeAsync(String commandLine) {
+        final CliExecution execution = prepareExecution(commandLine);
+        final FutureTask<Boolean> future = new FutureTask<>(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                execution.run();
+                return execution.isSuccess();
+            }
+        });
+        if (execution.isDone()) {
+            // Nothing left to execute (for example, an immediate command like 'kill' that was already executed),
+            // so don't wait for the executor, which may be busy with the very jobs that were controlled.
+            future.run();
+            return future;
+        }
+        try {
+            executor.execute(future);
+        } catch (RuntimeException e) {
+            // The executor rejected the command, which must still be completed so that the output of
+            // commands after it doesn't wait forever. Running the future after failing only completes it.
+            execution.fail(e);
+            future.run();
+        }
+        return future;
+    }
+
+    /**
+     * Parse the command line and prepare it's command for asynchronous execution, without executing it.
+     * Parse errors are printed right away. The command is executed whenever the returned {@link CliExecution}
+     * is run, which may be on any thread.
+     * Every prepared execution must eventually be run, or the output of executions prepared after it will never be printed.
+     * Until it is done, the execution is listed by the 'jobs' system command, and can be cancelled by the 'kill' system command.
+     * Those job control commands, as well as commands that change the working directory (like 'cd'), are
+     * {@link CliCommand#isImmediate() immediate} - they are executed right away on the calling thread, and their output
+     * is printed without waiting for the output of other executions. This way, command lines prepared after changing the
+     * working directory are always parsed relative to the new working directory.
+     *
+     * @param commandLine Command line to prepare.
+     * @return An execution of the command line. If there is nothing to execute (the command line is empty or
+     *         could not be parsed) or the command was immediate, the returned execution is already done.
+     */
+    public CliExecution prepareExecution(String commandLine) {
+        beginOutput();
+        try {
+            final Opt<CommandLine> parsedCommandLine = parseCommandLine(commandLine);
+            if (!parsedCommandLine.isPresent()) {
+                return CliExecution.completed(true);
+            }
+            final CliCommand command = parseCommand(parsedCommandLine.get());
+            final CommandArgs args = command.parse(parsedCommandLine.get().getCommandArgs());
+            if (command.isImmediate()) {
+                return CliExecution.completed(executeNow(command, args));
+            }
+            final CliExecution execution = new CliExecution(this, printer, jobs, command, args, commandLine);
+            pendingExecutions.add(execution);
+            execution.addToJobs();
+            return execution;
+        } catch (ParseException e) {
+            handleParseException(e);
+        } catch (Exception e) {
+            printer.printException(e);
+        } finally {
+            endOutput();
+        }
+        return CliExecution.completed(false);
+    }
+
+    /**
+     * Print the output of all executions that are done, up to the first one that isn't.
+     * Called by executions when they finish. Never waits for other output to be printed - if another thread
+     * is printing, that thread prints the done executions once it's done.
+     */
+    void printDoneExecutions() {
+        printDoneExecutionsRequested = true;
+        while (printDoneExecutionsRequested && outputLock.tryLock()) {
+            try {
+                printDoneExecutionsRequested = false;
+                while (!pendingExecutions.isEmpty() && pendingExecutions.peek().isDone()) {
+                    final CliExecution execution = pendingExecutions.remove();
+                    printer.begin();
+                    try {
+                        execution.printTo(printer);
+                    } finally {
+                        printer.end();
+                    }
+                }
+            } finally {
+                outputLock.unlock();
+            }
+        }
+    }
+
+    private void beginOutput() {
+        outputLock.lock();
+        printer.begin();
+    }
+
+    private void endOutput() {
+        try {
             printer.end();
+        } finally {
+            outputLock.unlock();
+        }
+        if (printDoneExecutionsRequested) {
+            // Executions finished while this thread was printing.
+            printDoneExecutions();
+        }
+    }
+
+    /**
+     * Execute a script - a sequence of command lines, in order, on the calling thread.
+     * Meant for running many command lines at once (for example, from a configuration file), so it does less
+     * than calling {@link #execute(String)} for each command line: the command lines aren't printed or saved
+     * in the command history, and all output is printed between a single {@link CliOutput#begin()} and
+     * {@link CliOutput#end()}. Errors of failed command lines are printed like {@link #execute(String)} would,
+     * followed by a summary of all failures once the script is done. The output is always printed right away -
+     * there is no ordering guarantee relative to the output of {@link #executeAsync(String) asynchronous} executions.<br>
+     * Empty lines and lines starting with a '#' are skipped.
+     *
+     * @param commandLines Command lines to execute, one per line of the script.
+     * @param stopOnError Whether to stop executing the script after the first command line that fails.
+     * @return The result of executing the script.
+     */
+    public CliScriptResult executeScript(Iterable<String> commandLines, boolean stopOnError) {
+        if (commandLines == null) {
+            throw new java.lang.NullPointerException("commandLines");
+        }
+        final List<CliScriptResult.Failure> failures = new ArrayList<>();
+        int numExecuted = 0;
+        int lineNumber = 0;
+        boolean stopped = false;
+
+        beginOutput();
+        try {
+            for (String rawCommandLine : commandLines) {
+                lineNumber++;
+                if (isComment(rawCommandLine)) {
+                    continue;
+                }
+                final CommandLine commandLine = CommandLine.forExecute(rawCommandLine);
+                if (commandLine.isEmpty()) {
+                    continue;
+                }
+
+                numExecuted++;
+                if (!executeScriptCommandLine(commandLine)) {
+                    failures.add(new CliScriptResult.Failure(lineNumber, rawCommandLine));
+                    if (stopOnError) {
+                        stopped = true;
+                        break;
+                    }
+                }
+            }
+
+            final CliScriptResult result = new CliScriptResult(numExecuted, failures, stopped);
+            printScriptSummary(result);
+            return result;
+        } finally {
+            endOutput();
+        }
+    }
+
+    /**
+     * Execute a script read from the reader, one command line per line.
+     * The whole script is read before anything is executed.
+     *
+     * @param reader Reader to read the script from. Not closed by this method.
+     * @param stopOnError Whether to stop executing the script after the first command line that fails.
+     * @return The result of executing the script.
+     * @throws IOException If an error occurs while reading the script.
+     * @see #executeScript(Iterable, boolean)
+     */
+    public CliScriptResult executeScript(Reader reader, boolean stopOnError) throws IOException {
+        if (reader == null) {
+            throw new java.lang.NullPointerException("reader");
+        }
+        final BufferedReader bufferedReader = new BufferedReader(reader);
+        final List<String> commandLines = new ArrayList<>();
+        String commandLine;
+        while ((commandLine = bufferedReader.readLine()) != null) {
+            commandLines.add(commandLine);
+        }
+        return executeScript(commandLines, stopOnError);
+    }
+
+    /**
+     * Checked before tokenizing the command line, so comments are skipped without allocating anything.
+     */
+    private boolean isComment(String rawCommandLine) {
+        for (int i = 0; i < rawCommandLine.length(); i++) {
+            final char c = rawCommandLine.charAt(i);
+            if (c > ' ') {
+                // First non-whitespace char, same as String.trim().
+                return c == '#';
+            }
         }
         return false;
     }
 
-    private void doExecute(String rawCommandLine) throws Exception {
+    private boolean executeScriptCommandLine(CommandLine commandLine) {
+        try {
+            final CliCommand command = parseCommand(commandLine);
+            return executeNow(command, command.parse(commandLine.getCommandArgs()));
+        } catch (ParseException e) {
+            handleParseException(e);
+        } catch (Exception e) {
+            printer.printException(e);
+        }
+        return false;
+    }
+
+    private void printScriptSummary(CliScriptResult result) {
+        if (result.isSuccess()) {
+            printer.println("Script executed successfully: " + result.getNumExecuted() + " command lines.");
+            return;
+        }
+
+        final List<CliScriptResult.Failure> failures = result.getFailures();
+        final String stoppedMessage = result.isStopped() ? ", script stopped" : "";
+        printer.errorPrintln("Script failed: " + failures.size() + " of " + result.getNumExecuted() + " command lines failed" + stoppedMessage + '.');
+        for (CliScriptResult.Failure failure : failures) {
+            printer.errorPrintln("    " + failure);
+        }
+    }
+
+    private Opt<CommandLine> parseCommandLine(String rawCommandLine) {
         printer.printCommandLine(hierarchy.getWorkingDirectory(), rawCommandLine);
 
         final CommandLine commandLine = CommandLine.forExecute(rawCommandLine);
         if (commandLine.isEmpty()) {
-            return;
+            return Opt.absent();
         }
 
         // Save command in history.
         history.pushCommandLine(rawCommandLine);
+        return Opt.of(commandLine);
+    }
 
-        // Parse command.
+    private CliCommand parseCommand(CommandLine commandLine) throws ParseException {
         final String pathToCommand = commandLine.getPathToCommand();
-        final CliCommand command = hierarchy.parsePathToCommand(pathToCommand);
-
-        // Parse command args.
-        final List<String> rawArgs = commandLine.getCommandArgs();
-        final CommandArgs args = command.parse(rawArgs);
-
-        // Execute the command.
-        final CliCommandOutput commandOutput = new CliCommandOutput(printer);
-        command.execute(commandOutput, args);
+        return hierarchy.parsePathToCommand(pathToCommand);
+    }
 
-        if (commandOutput.isPrintDefaultExecutionMessage()) {
-            final String message = ("Command '"+command.getName()+"' executed successfully.");
-            printer.println(message);
-        }
+    /**
+     * Execute the command right away on the calling thread, printing its output directly instead of buffering it.
+     */
+    private boolean executeNow(CliCommand command, CommandArgs args) throws Exception {
+        final CliCommandOutput commandOutput = new CliCommandOutput(printer, jobs, command.getTimeoutMillis());
+        return command.executeAndPrintResult(commandOutput, args);
     }
 
     private void handleParseException(ParseException e) {
@@ -218,6 +579,11 @@ public class CliShell {
 
         final String errorMessage = ("Parse Error: "+e.getMessage());
         printer.errorPrintln(errorMessage);
+
+        final List<String> similarNames = e.getSimilarNames();
+        if (!similarNames.isEmpty()) {
+            printer.errorPrintln("Did you mean: " + StringUtils.join(similarNames, ", ") + '?');
+        }
     }
 
     /**
@@ -228,6 +594,12 @@ public class CliShell {
         private final CliOutput output;
         private CliSerializer serializer = new DefaultCliSerializer();
         private int maxCommandHistory = 30;
+        private Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        };
 
         public Builder( CliCommandHierarchy hierarchy,  CliOutput output) {
             this.hierarchy = hierarchy;
@@ -256,13 +628,28 @@ public class CliShell {
             return this;
         }
 
+        /**
+         * Set the {@link Executor} that command lines passed to {@link CliShell#executeAsync(String)} are executed on.
+         * By default, they are executed on the calling thread.
+         *
+         * @param executor Executor to execute commands on.
+         * @return {@code this}, for chaining.
+         */
+        public Builder setExecutor( Executor executor) {
+            if (executor == null) {
+                throw new java.lang.NullPointerException("executor");
+            }
+            this.executor = executor;
+            return this;
+        }
+
         /**
          * @return A {@link CliShell} built out of this builder's parameters.
          */
         public CliShell build() {
             final CliPrinter printer = new CliPrinter(output, serializer);
             final CommandLineHistory history = new CommandLineHistory(maxCommandHistory);
-            return new CliShell(hierarchy, printer, history);
+            return new CliShell(hierarchy, printer, history, executor);
         }
     }
 }
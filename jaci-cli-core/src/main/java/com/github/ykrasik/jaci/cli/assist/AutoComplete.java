@@ -19,6 +19,7 @@ package com.github.ykrasik.jaci.cli.assist;
 import com.github.ykrasik.jaci.util.opt.Opt;
 import com.github.ykrasik.jaci.util.string.StringUtils;
 import com.github.ykrasik.jaci.util.trie.Trie;
+import com.github.ykrasik.jaci.util.trie.TrieVisitor;
 
 import java.util.Map.Entry;
 // TODO: Find a way to get rid of CliValueType and replace it with a char?
@@ -32,6 +33,11 @@ import java.util.Map.Entry;
  * @author Yevgeny Krasik
  */
 public class AutoComplete {
+    /**
+     * The maximum amount of suggestions returned by {@link #getSuggestions()}.
+     */
+    public static final int DEFAULT_MAX_SUGGESTIONS = 100;
+
     
     /**
      * The prefix that was auto completed.
@@ -68,23 +74,50 @@ public class AutoComplete {
             // There are no auto-complete possibilities.
             return Opt.absent();
         }
-        if (possibilities.size() > 1) {
+        if (hasMultiplePossibilities()) {
             // Multiple auto complete results are possible.
             // AutoComplete as much as is possible - until the longest common prefix.
             final String longestPrefix = possibilities.getLongestPrefix();
+            if (!startsWithPrefix(longestPrefix)) {
+                // The possibilities weren't matched by their prefix, there is nothing that can be appended.
+                return Opt.absent();
+            }
             return StringUtils.getNonEmptyString(calcAutoCompleteSuffix(longestPrefix));
         }
         // TODO: Only 1 possibility, boundParams should be updated to show it...
         // Only a single auto complete result is possible, append it to the command line.
         // Let's be helpful - depending on the autoCompleteType,
         // add the suffix that each valueType must have.
+        // The entry set is iterated lazily, so this only walks down to the single possibility.
         final Entry<String, CliValueType> entry = possibilities.entrySet().iterator().next();
         final String singlePossibility = entry.getKey();
+        if (!startsWithPrefix(singlePossibility)) {
+            // The possibility wasn't matched by it's prefix, it can only be suggested.
+            return Opt.absent();
+        }
         final CliValueType type = entry.getValue();
         final String suffix = calcAutoCompleteSuffix(singlePossibility);
         return Opt.of(suffix + type.getSuffix());
     }
 
+    private boolean hasMultiplePossibilities() {
+        // Lazy views may not know their size without traversing all possibilities, only visit the first 2.
+        final SuggestionsVisitor visitor = new SuggestionsVisitor(0);
+        possibilities.visitFirstWords(visitor, 2);
+        return visitor.numVisited > 1;
+    }
+
+    /**
+     * Possibilities may also be matched by something other than their prefix (like an infix),
+     * in which case they can't be auto completed by appending a suffix.
+     *
+     * @param possibility Possibility to check.
+     * @return {@code true} if the possibility starts with the prefix that was auto completed. Case insensitive.
+     */
+    private boolean startsWithPrefix(String possibility) {
+        return possibility.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
     private String calcAutoCompleteSuffix(String autoCompletedPrefix) {
         return autoCompletedPrefix.substring(prefix.length());
     }
@@ -92,20 +125,44 @@ public class AutoComplete {
     /**
      * Return suggestions based on this auto-complete object's possibilities.
      * Suggestions are only possible when there are multiple auto-complete possibilities (1 or more).
+     * At most the first {@link #DEFAULT_MAX_SUGGESTIONS} possibilities will be suggested.
      *
      * @return A {@code present} value when suggestions exists for this auto-complete (there are 1 or more possibilities).
      */
     public Opt<Suggestions> getSuggestions() {
-        if (possibilities.size() <= 1) {
-            // No suggestions if there are no possibilities, or if only 1 possibility.
+        return getSuggestions(DEFAULT_MAX_SUGGESTIONS);
+    }
+
+    /**
+     * Return suggestions based on this auto-complete object's possibilities.
+     * Suggestions are only possible when there are multiple auto-complete possibilities (1 or more),
+     * or a single possibility that cannot be auto completed.
+     * Only the first 'maxSuggestions' possibilities (in lexicographic order) will be suggested,
+     * the rest of the possibilities are never traversed. The total amount of possibilities is only
+     * available if the possibilities can count it without being traversed.
+     *
+     * @param maxSuggestions Maximum amount of possibilities to suggest.
+     * @return A {@code present} value when suggestions exists for this auto-complete (there are 1 or more possibilities).
+     */
+    public Opt<Suggestions> getSuggestions(int maxSuggestions) {
+        if (possibilities.isEmpty()) {
+            // No suggestions if there are no possibilities.
             return Opt.absent();
         }
-        // There are at least 2 possibilities, suggestions are available.
-        final Suggestions.Builder builder = new Suggestions.Builder();
-        for (Entry<String, CliValueType> entry : possibilities.entrySet()) {
-            builder.addSuggestion(entry.getValue(), entry.getKey());
+
+        // Visit one more possibility than can be suggested, to know whether there are any more.
+        final SuggestionsVisitor visitor = new SuggestionsVisitor(maxSuggestions);
+        possibilities.visitFirstWords(visitor, maxSuggestions < Integer.MAX_VALUE ? maxSuggestions + 1 : maxSuggestions);
+        if (visitor.numVisited == 1 && startsWithPrefix(possibilities.getLongestPrefix())) {
+            // No suggestions if there is only 1 possibility that will be auto completed.
+            return Opt.absent();
         }
-        return Opt.of(builder.build());
+        // There are at least 2 possibilities or a possibility that can't be auto completed, suggestions are available.
+        if (visitor.numVisited > maxSuggestions) {
+            // Counting all possibilities may require traversing them, which is exactly what is being avoided.
+            visitor.builder.setPartial(possibilities.getKnownSize());
+        }
+        return Opt.of(visitor.builder.build());
     }
 
     /**
@@ -126,10 +183,32 @@ public class AutoComplete {
         if (!this.prefix.equals(other.prefix)) {
             throw new IllegalArgumentException(("Trying to perform union on different prefixes: prefix1=\'"+this.prefix+"\', prefix2=\'"+other.prefix+"\'"));
         }
-        final Trie<CliValueType> unifiedPossibilities = this.possibilities.union(other.possibilities);
+        // The union is lazy - possibilities are only merged if they are enumerated.
+        final Trie<CliValueType> unifiedPossibilities = this.possibilities.lazyUnion(other.possibilities);
         return new AutoComplete(prefix, unifiedPossibilities);
     }
 
+    /**
+     * Adds the first visited possibilities as suggestions, and counts all visited possibilities.
+     */
+    private static class SuggestionsVisitor implements TrieVisitor<CliValueType> {
+        private final Suggestions.Builder builder = new Suggestions.Builder();
+        private final int maxSuggestions;
+        private int numVisited;
+
+        private SuggestionsVisitor(int maxSuggestions) {
+            this.maxSuggestions = maxSuggestions;
+        }
+
+        @Override
+        public void visit(String word, CliValueType value) {
+            if (numVisited < maxSuggestions) {
+                builder.addSuggestion(value, word);
+            }
+            numVisited++;
+        }
+    }
+
     @java.lang.Override
     @java.lang.SuppressWarnings("all")
     @javax.annotation.Generated("lombok")
@@ -16,6 +16,8 @@
  ******************************************************************************/
 package com.github.ykrasik.jaci.cli.assist;
 
+import com.github.ykrasik.jaci.util.opt.Opt;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -32,12 +34,16 @@ public class Suggestions {
     private final List<String> commandSuggestions;
     private final List<String> paramNameSuggestions;
     private final List<String> paramValueSuggestions;
+    private final boolean partial;
+    private final Opt<Integer> totalSuggestions;
 
-    private Suggestions(List<String> directorySuggestions, List<String> commandSuggestions, List<String> paramNameSuggestions, List<String> paramValueSuggestions) {
+    private Suggestions(List<String> directorySuggestions, List<String> commandSuggestions, List<String> paramNameSuggestions, List<String> paramValueSuggestions, boolean partial, Opt<Integer> totalSuggestions) {
         this.directorySuggestions = directorySuggestions;
         this.commandSuggestions = commandSuggestions;
         this.paramNameSuggestions = paramNameSuggestions;
         this.paramValueSuggestions = paramValueSuggestions;
+        this.partial = partial;
+        this.totalSuggestions = totalSuggestions;
     }
 
     /**
@@ -68,6 +74,29 @@ public class Suggestions {
         return paramValueSuggestions;
     }
 
+    /**
+     * @return The amount of suggestions contained in this object, of all types.
+     */
+    public int getNumSuggestions() {
+        return directorySuggestions.size() + commandSuggestions.size() + paramNameSuggestions.size() + paramValueSuggestions.size();
+    }
+
+    /**
+     * @return The total amount of possible suggestions, if known. May be larger than {@link #getNumSuggestions()}
+     *         if only the first suggestions were added. Absent if only the first suggestions were added,
+     *         and counting all possible suggestions would have required enumerating them.
+     */
+    public Opt<Integer> getTotalSuggestions() {
+        return totalSuggestions;
+    }
+
+    /**
+     * @return {@code true} if only the first suggestions out of all possible suggestions are contained in this object.
+     */
+    public boolean isPartial() {
+        return partial;
+    }
+
     /**
      * A builder for {@link Suggestions}.
      */
@@ -77,6 +106,8 @@ public class Suggestions {
         private final List<String> commandSuggestions = new ArrayList<>();
         private final List<String> paramNameSuggestions = new ArrayList<>();
         private final List<String> paramValueSuggestions = new ArrayList<>();
+        private boolean partial;
+        private Opt<Integer> totalSuggestions = Opt.absent();
         /**
          * Add a suggestion to this builder.
          *
@@ -91,6 +122,18 @@ public class Suggestions {
             return this;
         }
 
+        /**
+         * Mark that only the first suggestions were added to this builder, out of more possible suggestions.
+         *
+         * @param totalSuggestions Total amount of possible suggestions, if known.
+         * @return {@code this}, for chaining.
+         */
+        public Builder setPartial(Opt<Integer> totalSuggestions) {
+            this.partial = true;
+            this.totalSuggestions = totalSuggestions;
+            return this;
+        }
+
         private List<String> getSuggestionsByType(CliValueType type) {
             switch (type) {
             case DIRECTORY: 
@@ -119,7 +162,9 @@ public class Suggestions {
             sort(commandSuggestions);
             sort(paramNameSuggestions);
             sort(paramValueSuggestions);
-            return new Suggestions(directorySuggestions, commandSuggestions, paramNameSuggestions, paramValueSuggestions);
+            final int numSuggestions = directorySuggestions.size() + commandSuggestions.size() + paramNameSuggestions.size() + paramValueSuggestions.size();
+            final Opt<Integer> total = partial ? totalSuggestions : Opt.of(numSuggestions);
+            return new Suggestions(directorySuggestions, commandSuggestions, paramNameSuggestions, paramValueSuggestions, partial, total);
         }
 
         private void sort(List<String> suggestions) {
@@ -132,7 +177,7 @@ public class Suggestions {
         @java.lang.SuppressWarnings("all")
         @javax.annotation.Generated("lombok")
         public java.lang.String toString() {
-            return "Suggestions.Builder(directorySuggestions=" + this.directorySuggestions + ", commandSuggestions=" + this.commandSuggestions + ", paramNameSuggestions=" + this.paramNameSuggestions + ", paramValueSuggestions=" + this.paramValueSuggestions + ")";
+            return "Suggestions.Builder(directorySuggestions=" + this.directorySuggestions + ", commandSuggestions=" + this.commandSuggestions + ", paramNameSuggestions=" + this.paramNameSuggestions + ", paramValueSuggestions=" + this.paramValueSuggestions + ", partial=" + this.partial + ", totalSuggestions=" + this.totalSuggestions + ")";
         }
     }
 }
\ No newline at end of file
@@ -23,6 +23,7 @@ import com.github.ykrasik.jaci.cli.param.CliParam;
 import com.github.ykrasik.jaci.cli.param.CliParamManager;
 import com.github.ykrasik.jaci.cli.param.CliParamManagerImpl;
 import com.github.ykrasik.jaci.cli.param.CliParamResolver;
+import com.github.ykrasik.jaci.cli.param.PreparedCommandArgs;
 import com.github.ykrasik.jaci.Identifiable;
 import com.github.ykrasik.jaci.Identifier;
 import com.github.ykrasik.jaci.command.CommandArgs;
@@ -42,6 +43,8 @@ public class CliCommand implements Identifiable, CliParamManager, CommandExecuto
     private final Identifier identifier;
     private final CliParamManager paramManager;
     private final CommandExecutor executor;
+    private final long timeoutMillis;
+    private final boolean immediate;
 
     @Override
     public Identifier getIdentifier() {
@@ -62,6 +65,23 @@ public class CliCommand implements Identifiable, CliParamManager, CommandExecuto
         return identifier.getDescription();
     }
 
+    /**
+     * @return Command timeout, in milliseconds. If 0, the command has no timeout.
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * @return {@code true} if this command is always executed right away on the calling thread, even when command lines
+     *         are executed asynchronously. Used for commands that control the asynchronously executing commands of the CLI
+     *         (like 'jobs' and 'kill'), so they aren't delayed by the jobs they control, and for commands that change
+     *         the working directory (like 'cd'), so that command lines entered after them are parsed relative to the new one.
+     */
+    public boolean isImmediate() {
+        return immediate;
+    }
+
     @Override
     public List<CliParam> getParams() {
         return paramManager.getParams();
@@ -72,6 +92,11 @@ public class CliCommand implements Identifiable, CliParamManager, CommandExecuto
         return paramManager.parse(args);
     }
 
+    @Override
+    public PreparedCommandArgs prepare(List<String> args) throws ParseException {
+        return paramManager.prepare(args);
+    }
+
     @Override
     public ParamAssistInfo assist(List<String> args) throws ParseException {
         return paramManager.assist(args);
@@ -82,6 +107,35 @@ public class CliCommand implements Identifiable, CliParamManager, CommandExecuto
         executor.execute(output, args);
     }
 
+    /**
+     * Execute this command through the given output, and print how the execution ended - an error if the command
+     * timed out or was cancelled, or a default message if the command finished without printing anything.
+     *
+     * @param output Output to execute the command through. Determines whether the command was cancelled or timed out.
+     * @param args Args to execute the command with.
+     * @return {@code true} if the command was executed successfully, {@code false} if it was cancelled or timed out.
+     * @throws Exception If the command throws.
+     */
+    public boolean executeAndPrintResult(CliCommandOutput output, CommandArgs args) throws Exception {
+        executor.execute(output, args);
+
+        if (output.isTimedOut()) {
+            final String message = ("Command '"+getName()+"' timed out after "+timeoutMillis+"ms.");
+            output.error(message);
+            return false;
+        }
+        if (output.isCancelled()) {
+            final String message = ("Command '"+getName()+"' was cancelled.");
+            output.error(message);
+            return false;
+        }
+        if (output.isPrintDefaultExecutionMessage()) {
+            final String message = ("Command '"+getName()+"' executed successfully.");
+            output.message(message);
+        }
+        return true;
+    }
+
     @Override
     public String toString() {
         return identifier.toString();
@@ -100,7 +154,8 @@ public class CliCommand implements Identifiable, CliParamManager, CommandExecuto
         final Identifier identifier = def.getIdentifier();
         final List<CliParam> params = createParams(def.getParamDefs());
         final CommandExecutor executor = def.getExecutor();
-        return from(identifier, params, executor);
+        final CliParamManager paramManager = new CliParamManagerImpl(params);
+        return new CliCommand(identifier, paramManager, executor, def.getTimeoutMillis(), false);
     }
 
     /**
@@ -122,7 +177,30 @@ public class CliCommand implements Identifiable, CliParamManager, CommandExecuto
             throw new java.lang.NullPointerException("executor");
         }
         final CliParamManager paramManager = new CliParamManagerImpl(params);
-        return new CliCommand(identifier, paramManager, executor);
+        return new CliCommand(identifier, paramManager, executor, 0, false);
+    }
+
+    /**
+     * Construct a CLI command that is always executed right away on the calling thread.
+     *
+     * @param identifier Command identifier.
+     * @param params CLI parameters to use.
+     * @param executor Command executor.
+     * @return A CLI command constructed from the given parameters, that is always executed right away.
+     * @see #isImmediate()
+     */
+    public static CliCommand immediate( Identifier identifier,  List<CliParam> params,  CommandExecutor executor) {
+        if (identifier == null) {
+            throw new java.lang.NullPointerException("identifier");
+        }
+        if (params == null) {
+            throw new java.lang.NullPointerException("params");
+        }
+        if (executor == null) {
+            throw new java.lang.NullPointerException("executor");
+        }
+        final CliParamManager paramManager = new CliParamManagerImpl(params);
+        return new CliCommand(identifier, paramManager, executor, 0, true);
     }
     private static final CliParamResolver RESOLVER = new CliParamResolver();
 
@@ -136,9 +214,11 @@ public class CliCommand implements Identifiable, CliParamManager, CommandExecuto
 
     @java.lang.SuppressWarnings("all")
     @javax.annotation.Generated("lombok")
-    private CliCommand(final Identifier identifier, final CliParamManager paramManager, final CommandExecutor executor) {
+    private CliCommand(final Identifier identifier, final CliParamManager paramManager, final CommandExecutor executor, final long timeoutMillis, final boolean immediate) {
         this.identifier = identifier;
         this.paramManager = paramManager;
         this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
+        this.immediate = immediate;
     }
 }
\ No newline at end of file
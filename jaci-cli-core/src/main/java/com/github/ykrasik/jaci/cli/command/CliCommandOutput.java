@@ -21,11 +21,13 @@ import com.github.ykrasik.jaci.cli.directory.CliDirectory;
 import com.github.ykrasik.jaci.cli.output.CliPrinter;
 
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 
 /**
  * A CLI implementation of a {@link CommandOutput}.
- * Extends the API with some CLI-specific calls.
+ * Extends the API with some CLI-specific calls.<br>
+ * Created for each execution of a command, and tracks whether that execution was cancelled or timed out.
  *
  * @author Yevgeny Krasik
  */
@@ -35,10 +37,38 @@ public class CliCommandOutput implements CommandOutput {
      */
     private final CliPrinter printer;
 
+    /**
+     * The jobs of the CLI, for system commands.
+     */
+    private final CliJobs jobs;
+
+    /**
+     * The {@link System#nanoTime()} at which the command started.
+     */
+    private final long startNanos;
+
+    /**
+     * The timeout of the command in nanoseconds, or 0 if it has no timeout.
+     */
+    private final long timeoutNanos;
+
     private boolean printDefaultExecutionMessage = true;
+    private volatile boolean cancelled;
 
     public CliCommandOutput( CliPrinter printer) {
+        this(printer, new CliJobs(), 0);
+    }
+
+    /**
+     * @param printer Printer to print through.
+     * @param jobs The jobs of the CLI.
+     * @param timeoutMillis Timeout of the command, counted from now. If 0, the command has no timeout.
+     */
+    public CliCommandOutput( CliPrinter printer,  CliJobs jobs, long timeoutMillis) {
         this.printer = printer;
+        this.jobs = jobs;
+        this.startNanos = System.nanoTime();
+        this.timeoutNanos = timeoutMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(timeoutMillis) : 0;
     }
 
     @Override
@@ -63,6 +93,33 @@ public class CliCommandOutput implements CommandOutput {
         error(format + Arrays.toString(args));
     }
 
+    @Override
+    public boolean isCancelled() {
+        return cancelled || isTimedOut();
+    }
+
+    /**
+     * @return {@code true} if the command's timeout has expired.
+     */
+    public boolean isTimedOut() {
+        // Compare elapsed time rather than absolute times - nanoTime may overflow, and unlike the wall clock it never jumps.
+        return timeoutNanos != 0 && System.nanoTime() - startNanos >= timeoutNanos;
+    }
+
+    /**
+     * Cancel the command. May be called from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return The jobs of the CLI.
+     */
+    public CliJobs getJobs() {
+        return jobs;
+    }
+
     /**
      * If {@code true}, a default 'command executed successfully' message will be printed after the command is executed.
      *
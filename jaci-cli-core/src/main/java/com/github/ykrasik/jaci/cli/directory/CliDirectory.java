@@ -23,13 +23,20 @@ import com.github.ykrasik.jaci.cli.assist.CliValueType;
 import com.github.ykrasik.jaci.cli.command.CliCommand;
 import com.github.ykrasik.jaci.command.CommandDef;
 import com.github.ykrasik.jaci.directory.CommandDirectoryDef;
+import com.github.ykrasik.jaci.util.function.MoreSuppliers;
+import com.github.ykrasik.jaci.util.function.Spplr;
 import com.github.ykrasik.jaci.util.opt.Opt;
+import com.github.ykrasik.jaci.util.trie.MatchMode;
 import com.github.ykrasik.jaci.util.trie.Trie;
 import com.github.ykrasik.jaci.util.trie.TrieBuilder;
+import com.github.ykrasik.jaci.util.trie.TrieCursor;
+import com.github.ykrasik.jaci.util.trie.TrieVisitor;
 import com.github.ykrasik.jaci.util.trie.Tries;
+import com.github.ykrasik.jaci.util.trie.WordIndex;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.List;
 
 /**
  * The CLI implementation of a directory.
@@ -40,9 +47,20 @@ import java.util.Collections;
  */
 public class CliDirectory implements Identifiable {
     private final Identifier identifier;
-    private final Trie<CliDirectory> childDirectories;
-    private final Trie<CliCommand> childCommands;
+
+    /**
+     * Child directories and commands. Either constant, or created and cached on first access when lazy.
+     */
+    private final Spplr<Trie<CliDirectory>> childDirectories;
+    private final Spplr<Trie<CliCommand>> childCommands;
     
+    /**
+     * Indexes of the child directories and commands, for auto completing with a {@link MatchMode} other than
+     * {@link MatchMode#PREFIX}. Only created when first needed.
+     */
+    private volatile WordIndex<CliDirectory> childDirectoriesIndex;
+    private volatile WordIndex<CliCommand> childCommandsIndex;
+
     /**
      * The parent {@link CliDirectory}.
      */
@@ -80,14 +98,15 @@ public class CliDirectory implements Identifiable {
      * @return A child {@link CliDirectory} with the given name, if one exists.
      */
     public Opt<CliDirectory> getDirectory(String name) {
-        return childDirectories.get(name);
+        return childDirectories.get().get(name);
     }
 
     /**
      * @return All child directories of this directory.
      */
     public Collection<CliDirectory> getChildDirectories() {
-        return Collections.unmodifiableCollection(childDirectories.values());
+        // A read-only view that is iterated lazily, nothing is copied.
+        return childDirectories.get().values();
     }
     // TODO: should this be case insensitive?
 
@@ -96,14 +115,61 @@ public class CliDirectory implements Identifiable {
      * @return A child {@link CliCommand} with the given name, if one exists.
      */
     public Opt<CliCommand> getCommand(String name) {
-        return childCommands.get(name);
+        return childCommands.get().get(name);
     }
 
     /**
      * @return All child commands of this directory.
      */
     public Collection<CliCommand> getChildCommands() {
-        return childCommands.values();
+        return childCommands.get().values();
+    }
+
+    /**
+     * Find child directories with names similar to the given name, for when a directory name was mistyped.
+     *
+     * @param name Child directory name to find similar names to.
+     * @param maxDistance Maximum amount of single character edits between the given name and a returned name.
+     * @return Names of child directories similar to the given name, closest first. Case insensitive.
+     */
+    public List<String> getSimilarDirectoryNames(String name, int maxDistance) {
+        return getSimilarNames(childDirectories.get(), name, maxDistance);
+    }
+
+    /**
+     * Find child commands with names similar to the given name, for when a command name was mistyped.
+     *
+     * @param name Child command name to find similar names to.
+     * @param maxDistance Maximum amount of single character edits between the given name and a returned name.
+     * @return Names of child commands similar to the given name, closest first. Case insensitive.
+     */
+    public List<String> getSimilarCommandNames(String name, int maxDistance) {
+        return getSimilarNames(childCommands.get(), name, maxDistance);
+    }
+
+    /**
+     * Find child commands of this directory and another directory with names similar to the given name,
+     * for when a command name was mistyped and could belong to either directory.
+     *
+     * @param name Child command name to find similar names to.
+     * @param maxDistance Maximum amount of single character edits between the given name and a returned name.
+     * @param other Other directory whose child commands to also consider.
+     * @return Names of child commands of both directories similar to the given name, closest first, without duplicates.
+     *         Case insensitive.
+     */
+    public List<String> getSimilarCommandNames(String name, int maxDistance, CliDirectory other) {
+        return getSimilarNames(childCommands.get().lazyUnion(other.childCommands.get()), name, maxDistance);
+    }
+
+    private <T> List<String> getSimilarNames(Trie<T> trie, String name, int maxDistance) {
+        final List<String> similarNames = new ArrayList<>();
+        trie.visitSimilarWords(name, maxDistance, new TrieVisitor<T>() {
+            @Override
+            public void visit(String word, T value) {
+                similarNames.add(word);
+            }
+        });
+        return similarNames;
     }
 
     /**
@@ -113,7 +179,7 @@ public class CliDirectory implements Identifiable {
      * @return Auto complete for child {@link CliDirectory}s that starts with the given prefix. Case insensitive.
      */
     public AutoComplete autoCompleteDirectory(String prefix) {
-        final Trie<CliValueType> possibilities = childDirectories.subTrie(prefix).mapValues(DIRECTORY_VALUE_MAPPER);
+        final Trie<CliValueType> possibilities = childDirectories.get().subTrie(prefix).lazyMapValues(DIRECTORY_VALUE_MAPPER);
         return new AutoComplete(prefix, possibilities);
     }
 
@@ -124,7 +190,7 @@ public class CliDirectory implements Identifiable {
      * @return Auto complete for the child {@link CliCommand}s that starts with the given prefix. Case insensitive.
      */
     public AutoComplete autoCompleteCommand(String prefix) {
-        final Trie<CliValueType> possibilities = childCommands.subTrie(prefix).mapValues(COMMAND_VALUE_MAPPER);
+        final Trie<CliValueType> possibilities = childCommands.get().subTrie(prefix).lazyMapValues(COMMAND_VALUE_MAPPER);
         return new AutoComplete(prefix, possibilities);
     }
 
@@ -141,6 +207,53 @@ public class CliDirectory implements Identifiable {
         return directoryAutoComplete.union(commandAutoComplete);
     }
 
+    /**
+     * Auto complete the given query with child directory or command possibilities, matched by the given {@link MatchMode}.
+     * Possibilities that weren't matched by their prefix can only be suggested, they cannot be auto completed.
+     *
+     * @param query Query to offer auto complete for.
+     * @param mode How to match child entries against the query.
+     * @return Auto complete for child entries (either {@link CliDirectory} or {@link CliCommand})
+     * that match the given query. Case insensitive.
+     */
+    public AutoComplete autoCompleteEntry(String query, MatchMode mode) {
+        if (mode == MatchMode.PREFIX) {
+            return autoCompleteEntry(query);
+        }
+        final Trie<CliValueType> directories = getChildDirectoriesIndex().match(query, mode).lazyMapValues(DIRECTORY_VALUE_MAPPER);
+        final Trie<CliValueType> commands = getChildCommandsIndex().match(query, mode).lazyMapValues(COMMAND_VALUE_MAPPER);
+        return new AutoComplete(query, directories.lazyUnion(commands));
+    }
+
+    /**
+     * Create a cursor over the child entries (either {@link CliDirectory} or {@link CliCommand}), for auto completing
+     * as the user types. Each typed character narrows the previous possibilities down instead of navigating from scratch.
+     * An {@link AutoComplete} can be created from the cursor's prefix and Trie at any point.
+     *
+     * @return A cursor over the child entries of this directory, with an empty prefix. Case insensitive.
+     */
+    public TrieCursor<CliValueType> createAutoCompleteCursor() {
+        final Trie<CliValueType> directories = childDirectories.get().lazyMapValues(DIRECTORY_VALUE_MAPPER);
+        final Trie<CliValueType> commands = childCommands.get().lazyMapValues(COMMAND_VALUE_MAPPER);
+        return new TrieCursor<>(directories.lazyUnion(commands));
+    }
+
+    private WordIndex<CliDirectory> getChildDirectoriesIndex() {
+        // Racing threads will create equal indexes, so no need to synchronize.
+        if (childDirectoriesIndex == null) {
+            childDirectoriesIndex = WordIndex.from(childDirectories.get());
+        }
+        return childDirectoriesIndex;
+    }
+
+    private WordIndex<CliCommand> getChildCommandsIndex() {
+        // Racing threads will create equal indexes, so no need to synchronize.
+        if (childCommandsIndex == null) {
+            childCommandsIndex = WordIndex.from(childCommands.get());
+        }
+        return childCommandsIndex;
+    }
+
     /**
      * Get the path from root as a string.
      *
@@ -168,23 +281,43 @@ public class CliDirectory implements Identifiable {
         if (def == null) {
             throw new java.lang.NullPointerException("def");
         }
-        final Trie<CliDirectory> childDirectories = createChildDirectories(def);
+        final Trie<CliDirectory> childDirectories = createChildDirectories(def, false);
         final Trie<CliCommand> childCommands = createChildCommands(def);
-        final CliDirectory directory = new CliDirectory(def.getIdentifier(), childDirectories, childCommands);
+        final CliDirectory directory = new CliDirectory(def.getIdentifier(), MoreSuppliers.of(childDirectories), MoreSuppliers.of(childCommands));
         // Link child directories to parent.
-        for (CliDirectory childDirectory : childDirectories.values()) {
-            childDirectory.setParent(directory);
-        }
+        linkParent(childDirectories, directory);
         return directory;
     }
 
-    private static Trie<CliDirectory> createChildDirectories(CommandDirectoryDef def) {
+    /**
+     * Construct a lazy CLI directory from a {@link CommandDirectoryDef}.<br>
+     * Unlike {@link #fromDef(CommandDirectoryDef)}, nothing is created up front - the child directories and commands
+     * of each directory are only created the first time they are accessed, and child directories are lazy as well.
+     * Useful for large hierarchies, where most directories are never visited.
+     *
+     * @param def CommandDirectoryDef to construct a CLI directory from.
+     * @return A lazy CLI directory constructed from the CommandDirectoryDef.
+     */
+    public static CliDirectory lazyFromDef( CommandDirectoryDef def) {
+        if (def == null) {
+            throw new java.lang.NullPointerException("def");
+        }
+        return new CliDirectory(def);
+    }
+
+    private static Trie<CliDirectory> createChildDirectories(CommandDirectoryDef def, boolean lazy) {
         final TrieBuilder<CliDirectory> builder = new TrieBuilder<>();
         for (CommandDirectoryDef childDirectoryDef : def.getDirectoryDefs()) {
-            final CliDirectory childDirectory = fromDef(childDirectoryDef);
+            final CliDirectory childDirectory = lazy ? lazyFromDef(childDirectoryDef) : fromDef(childDirectoryDef);
             builder.add(childDirectoryDef.getIdentifier().getName(), childDirectory);
         }
-        return builder.build();
+        return builder.freeze();
+    }
+
+    private static void linkParent(Trie<CliDirectory> childDirectories, CliDirectory parent) {
+        for (CliDirectory childDirectory : childDirectories.values()) {
+            childDirectory.setParent(parent);
+        }
     }
 
     private static Trie<CliCommand> createChildCommands(CommandDirectoryDef directoryDef) {
@@ -193,7 +326,7 @@ public class CliDirectory implements Identifiable {
             final CliCommand command = CliCommand.fromDef(def);
             builder.add(command.getName(), command);
         }
-        return builder.build();
+        return builder.freeze();
     }
 
     /**
@@ -205,7 +338,7 @@ public class CliDirectory implements Identifiable {
      */
     public static CliDirectory from(Identifier identifier, CliCommand... commands) {
         final Trie<CliCommand> childCommands = createChildCommands(commands);
-        return new CliDirectory(identifier, Tries.<CliDirectory>emptyTrie(), childCommands);
+        return new CliDirectory(identifier, MoreSuppliers.of(Tries.<CliDirectory>emptyTrie()), MoreSuppliers.of(childCommands));
     }
 
     private static Trie<CliCommand> createChildCommands(CliCommand[] commands) {
@@ -213,16 +346,36 @@ public class CliDirectory implements Identifiable {
         for (CliCommand command : commands) {
             builder.add(command.getName(), command);
         }
-        return builder.build();
+        return builder.freeze();
     }
     private static final CliValueType.Mapper<CliDirectory> DIRECTORY_VALUE_MAPPER = new CliValueType.Mapper<>(CliValueType.DIRECTORY);
     private static final CliValueType.Mapper<CliCommand> COMMAND_VALUE_MAPPER = new CliValueType.Mapper<>(CliValueType.COMMAND);
 
     @java.lang.SuppressWarnings("all")
     @javax.annotation.Generated("lombok")
-    private CliDirectory(final Identifier identifier, final Trie<CliDirectory> childDirectories, final Trie<CliCommand> childCommands) {
+    private CliDirectory(final Identifier identifier, final Spplr<Trie<CliDirectory>> childDirectories, final Spplr<Trie<CliCommand>> childCommands) {
         this.identifier = identifier;
         this.childDirectories = childDirectories;
         this.childCommands = childCommands;
     }
+
+    private CliDirectory(final CommandDirectoryDef def) {
+        this.identifier = def.getIdentifier();
+        // Child directories are created (and linked to this directory) under the cache's lock,
+        // so every thread sees the same instances with their parent already set.
+        this.childDirectories = MoreSuppliers.cache(new Spplr<Trie<CliDirectory>>() {
+            @Override
+            public Trie<CliDirectory> get() {
+                final Trie<CliDirectory> childDirectories = createChildDirectories(def, true);
+                linkParent(childDirectories, CliDirectory.this);
+                return childDirectories;
+            }
+        });
+        this.childCommands = MoreSuppliers.cache(new Spplr<Trie<CliCommand>>() {
+            @Override
+            public Trie<CliCommand> get() {
+                return createChildCommands(def);
+            }
+        });
+    }
 }
\ No newline at end of file
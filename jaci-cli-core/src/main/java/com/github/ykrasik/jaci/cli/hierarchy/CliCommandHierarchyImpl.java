@@ -27,6 +27,9 @@ import com.github.ykrasik.jaci.hierarchy.CommandHierarchyDef;
 import com.github.ykrasik.jaci.path.ParsedPath;
 import com.github.ykrasik.jaci.util.opt.Opt;
 
+import java.util.ArrayList;
+import java.util.List;
+
 
 /**
  * An implementation of a {@link CliCommandHierarchy}.<br>
@@ -37,6 +40,16 @@ import com.github.ykrasik.jaci.util.opt.Opt;
  * @author Yevgeny Krasik
  */
 public class CliCommandHierarchyImpl implements CliCommandHierarchy {
+    /**
+     * Maximum amount of similar names offered when a name is invalid.
+     */
+    private static final int MAX_SIMILAR_NAMES = 5;
+
+    /**
+     * Names up to this length are considered short, and allow fewer typos when looking for similar names.
+     */
+    private static final int SHORT_NAME_LENGTH = 4;
+
     
     /**
      * Root directory.
@@ -51,9 +64,9 @@ public class CliCommandHierarchyImpl implements CliCommandHierarchy {
     private final CliDirectory systemCommands;
     
     /**
-     * Current working directory.
+     * Current working directory. Volatile, because commands may be executed on other threads than the one parsing command lines.
      */
-    private CliDirectory workingDirectory;
+    private volatile CliDirectory workingDirectory;
 
     private CliCommandHierarchyImpl( CliDirectory root,  CliDirectory systemCommands) {
         if (root == null) {
@@ -107,7 +120,9 @@ public class CliCommandHierarchyImpl implements CliCommandHierarchy {
         }
         final Opt<CliCommand> command = lastDirectory.getCommand(commandName);
         if (!command.isPresent()) {
-            throw new ParseException(ParseError.INVALID_COMMAND, "Directory \'%s\' doesn\'t contain command: \'%s\'", lastDirectory.getName(), commandName);
+            final List<String> similarNames = lastDirectory.getSimilarCommandNames(commandName, getMaxDistance(commandName));
+            throw new ParseException(ParseError.INVALID_COMMAND, "Directory \'%s\' doesn\'t contain command: \'%s\'", lastDirectory.getName(), commandName)
+                .withSimilarNames(limitSimilarNames(similarNames));
         }
         return command.get();
     }
@@ -123,7 +138,10 @@ public class CliCommandHierarchyImpl implements CliCommandHierarchy {
         if (command.isPresent()) {
             return command.get();
         }
-        throw new ParseException(ParseError.INVALID_COMMAND, "\'%s\' is not a recognized command!", name);
+        // Offer the closest commands from both the current workingDirectory and system commands.
+        final List<String> similarNames = workingDirectory.getSimilarCommandNames(name, getMaxDistance(name), systemCommands);
+        throw new ParseException(ParseError.INVALID_COMMAND, "\'%s\' is not a recognized command!", name)
+            .withSimilarNames(limitSimilarNames(similarNames));
     }
 
     @Override
@@ -193,11 +211,30 @@ public class CliCommandHierarchyImpl implements CliCommandHierarchy {
         }
         final Opt<CliDirectory> childDirectory = currentDirectory.getDirectory(name);
         if (!childDirectory.isPresent()) {
-            throw new ParseException(ParseError.INVALID_DIRECTORY, "Directory \'%s\' doesn\'t contain directory: \'%s\'", currentDirectory.getName(), name);
+            final List<String> similarNames = currentDirectory.getSimilarDirectoryNames(name, getMaxDistance(name));
+            throw new ParseException(ParseError.INVALID_DIRECTORY, "Directory \'%s\' doesn\'t contain directory: \'%s\'", currentDirectory.getName(), name)
+                .withSimilarNames(limitSimilarNames(similarNames));
         }
         return childDirectory.get();
     }
 
+    /**
+     * Short names allow fewer typos, otherwise almost any short name would be similar to the invalid name.
+     *
+     * @param name Invalid name to find similar names to.
+     * @return The maximum amount of single character edits between the invalid name and a similar name.
+     */
+    private int getMaxDistance(String name) {
+        return name.length() <= SHORT_NAME_LENGTH ? 1 : 2;
+    }
+
+    private List<String> limitSimilarNames(List<String> similarNames) {
+        if (similarNames.size() <= MAX_SIMILAR_NAMES) {
+            return similarNames;
+        }
+        return new ArrayList<>(similarNames.subList(0, MAX_SIMILAR_NAMES));
+    }
+
     /**
      * Construct a CLI hierarchy from a {@link CommandHierarchyDef}.
      *
@@ -211,6 +248,27 @@ public class CliCommandHierarchyImpl implements CliCommandHierarchy {
         // Create hierarchy with the parameter as the root.
         final CommandDirectoryDef rootDef = def.getRoot();
         final CliDirectory root = CliDirectory.fromDef(rootDef);
+        return from(root);
+    }
+
+    /**
+     * Construct a lazy CLI hierarchy from a {@link CommandHierarchyDef}.<br>
+     * The directories and commands of the hierarchy are only created when first accessed,
+     * so constructing the hierarchy costs close to nothing, no matter how large it is.
+     *
+     * @param def CommandHierarchyDef to construct a CLI hierarchy from.
+     * @return A lazy CLI hierarchy constructed from the CommandHierarchyDef.
+     * @see CliDirectory#lazyFromDef(CommandDirectoryDef)
+     */
+    public static CliCommandHierarchyImpl lazyFrom( CommandHierarchyDef def) {
+        if (def == null) {
+            throw new java.lang.NullPointerException("def");
+        }
+        final CliDirectory root = CliDirectory.lazyFromDef(def.getRoot());
+        return from(root);
+    }
+
+    private static CliCommandHierarchyImpl from(CliDirectory root) {
         // Create system commands 'virtual' directory.
         // System commands need to operate on an already built hierarchy, but... we are exactly in the process of building one.
         // In order to fully build a hierarchy, we must provide a set of system commands.
@@ -52,6 +52,25 @@ public class CliPrinter {
         output.end();
     }
 
+    /**
+     * Create a printer that prints to the given output, but is otherwise the same as this one.
+     *
+     * @param output Output to print to.
+     * @return A printer that prints to the given output.
+     */
+    public CliPrinter withOutput(CliOutput output) {
+        return new CliPrinter(output, serializer);
+    }
+
+    /**
+     * Print everything that was printed to the buffer, in order.
+     *
+     * @param buffer Buffer to print.
+     */
+    public void print(BufferedCliOutput buffer) {
+        buffer.printTo(output);
+    }
+
     /**
      * Print a single line.
      *
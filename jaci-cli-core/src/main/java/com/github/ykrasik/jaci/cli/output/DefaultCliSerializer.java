@@ -196,7 +196,18 @@ public class DefaultCliSerializer implements CliSerializer {
     public Serialization serializeSuggestions(Suggestions suggestions) {
         final Serialization serialization = createSerialization();
 
-        serialization.append("Suggestions:")
+        serialization.append("Suggestions");
+        if (suggestions.isPartial()) {
+            // Only the first suggestions are available, the rest were never enumerated.
+            serialization.append(" (first ")
+                .append(String.valueOf(suggestions.getNumSuggestions()));
+            final Opt<Integer> totalSuggestions = suggestions.getTotalSuggestions();
+            if (totalSuggestions.isPresent()) {
+                serialization.append(" of ").append(String.valueOf(totalSuggestions.get()));
+            }
+            serialization.append(')');
+        }
+        serialization.append(':')
             .newLine();
 
         serialization.incIndent();
@@ -42,6 +42,15 @@ public interface CliParamManager {
      */
     CommandArgs parse(List<String> args) throws ParseException;
 
+    /**
+     * Parse the given arguments once, to be resolved for any amount of executions.
+     *
+     * @param args Arguments to be parsed.
+     * @return Prepared arguments.
+     * @throws ParseException If any error occurs while parsing the arguments.
+     */
+    PreparedCommandArgs prepare(List<String> args) throws ParseException;
+
     /**
      * Provide assistance for about the parameters for the given arguments.
      * Only the last argument is up for auto-completion, the rest are expected to be valid parameter values.
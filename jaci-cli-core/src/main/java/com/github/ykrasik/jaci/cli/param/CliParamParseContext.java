@@ -51,6 +51,16 @@ public class CliParamParseContext {
      * Parameters that haven't been parsed yet.
      */
     private final Queue<CliParam> unboundParams;
+
+    /**
+     * Parameters that were bound to {@link CliParam#noValue()}.
+     */
+    private final Set<CliParam> noValueParams = new HashSet<>();
+
+    /**
+     * Parameters that were bound to {@link CliParam#unbound()}.
+     */
+    private final Set<CliParam> defaultedParams = new HashSet<>();
     
     /**
      * When this is {@code present}, the previous argument was a call-by-name, so the next argument is expected to be
@@ -99,8 +109,7 @@ public class CliParamParseContext {
             // Arg is not a viable param value, it is a call-by-name.
             if (nextNamedParam.isPresent()) {
                 // Notify the current next named param that it isn't going to receive a value.
-                final CliParam param = nextNamedParam.get();
-                addArg(param, param.noValue());
+                addNoValueArg(nextNamedParam.get());
                 nextNamedParam = Opt.absent();
             }
             setNextNamedParam(arg);
@@ -124,7 +133,7 @@ public class CliParamParseContext {
             // Try recovering with a fallback by notifying the previous named  param it isn't going to receive a value.
             // This can only succeed with very specific parameters and very specific cases.
             try {
-                addArg(param, param.noValue());
+                addNoValueArg(param);
                 // Parse operation completed with a fallback.
                 return false;
             } catch (ParseException ignored) {
@@ -168,9 +177,7 @@ public class CliParamParseContext {
         // Can only succeed in certain cases with certain parameters.
         if (nextNamedParam.isPresent()) {
             // The last parsed arg did indeed end with '-{paramName}' without assigning that parameter a value.
-            final CliParam param = nextNamedParam.get();
-            final Object arg = param.noValue();
-            addArg(param, arg);
+            addNoValueArg(nextNamedParam.get());
         }
         // Assign default values to any optional params not bound.
         resolveUnboundParams();
@@ -192,11 +199,37 @@ public class CliParamParseContext {
             final CliParam param = iterator.next();
             final Object arg = param.unbound();
             doAddArg(param, arg);
+            defaultedParams.add(param);
             // Param is no longer unbound.
             iterator.remove();
         }
     }
 
+    /**
+     * Create {@link PreparedCommandArgs} out of this context's already parsed values, according to the same rules
+     * as {@link #createCommandArgs()}. Parameters that weren't bound to a value or were bound to an empty value
+     * are resolved again whenever the prepared args are resolved.
+     *
+     * @return {@link PreparedCommandArgs} if the context managed to construct them.
+     * @throws ParseException If an error occurred, according to the rules of {@link #createCommandArgs()}.
+     */
+    public PreparedCommandArgs createPreparedArgs() throws ParseException {
+        // Resolve all args once, to make sure they can be resolved.
+        final List<Object> args = createCommandArgs().getArgs();
+        final List<PreparedCommandArgs.Binding> bindings = new ArrayList<>(params.size());
+        for (int i = 0; i < params.size(); i++) {
+            final CliParam param = params.get(i);
+            if (noValueParams.contains(param)) {
+                bindings.add(PreparedCommandArgs.noValue(param));
+            } else if (defaultedParams.contains(param)) {
+                bindings.add(PreparedCommandArgs.unbound(param));
+            } else {
+                bindings.add(PreparedCommandArgs.value(args.get(i)));
+            }
+        }
+        return new PreparedCommandArgs(bindings);
+    }
+
     /**
      * Create {@link ParamAssistInfo} out of this context's state (already parsed values, and parameters still needing
      * to be parsed).
@@ -239,7 +272,7 @@ public class CliParamParseContext {
 
     private AutoComplete autoCompleteParamName(String prefix) {
         final Trie<CliParam> prefixParams = paramsTrie.subTrie(prefix);
-        final Trie<CliParam> unboundPrefixParams = prefixParams.filter(new Pred<CliParam>(){
+        final Trie<CliParam> unboundPrefixParams = prefixParams.lazyFilter(new Pred<CliParam>(){
 
 
             @Override
@@ -248,10 +281,15 @@ public class CliParamParseContext {
                 return !parsedValues.containsKey(value);
             }
         });
-        final Trie<CliValueType> paramNamePossibilities = unboundPrefixParams.mapValues(PARAM_NAME_MAPPER);
+        final Trie<CliValueType> paramNamePossibilities = unboundPrefixParams.lazyMapValues(PARAM_NAME_MAPPER);
         return new AutoComplete(prefix, paramNamePossibilities);
     }
 
+    private void addNoValueArg(CliParam param) throws ParseException {
+        addArg(param, param.noValue());
+        noValueParams.add(param);
+    }
+
     private void addArg(CliParam param, Object parsedValue) throws ParseException {
         doAddArg(param, parsedValue);
         if (!unboundParams.remove(param)) {
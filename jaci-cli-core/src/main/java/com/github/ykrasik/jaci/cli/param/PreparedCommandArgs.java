@@ -0,0 +1,154 @@
+/******************************************************************************
+ * Copyright (C) 2015 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.cli.param;
+
+import com.github.ykrasik.jaci.cli.exception.ParseException;
+import com.github.ykrasik.jaci.command.CommandArgs;
+import com.github.ykrasik.jaci.command.CommandArgsImpl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Arguments that were parsed once, and can be resolved into {@link CommandArgs} any amount of times.<br>
+ * Explicitly passed arguments are only parsed once. Parameters that weren't bound to a value (or were bound to
+ * an empty value) are resolved again every time, so default values that are calculated dynamically (like a directory
+ * parameter that defaults to the current working directory) are always up to date.
+ * If there are no such parameters, resolving doesn't even copy the arguments.<br>
+ * Immutable.
+ *
+ * @author Yevgeny Krasik
+ */
+public class PreparedCommandArgs {
+    private final List<Binding> bindings;
+
+    /**
+     * The resolved arguments, if none of them need to be resolved again, or {@code null} otherwise.
+     */
+    private final List<Object> staticArgs;
+
+    PreparedCommandArgs(List<Binding> bindings) {
+        this.bindings = bindings;
+        this.staticArgs = createStaticArgs(bindings);
+    }
+
+    private static List<Object> createStaticArgs(List<Binding> bindings) {
+        final List<Object> args = new ArrayList<>(bindings.size());
+        for (Binding binding : bindings) {
+            if (!(binding instanceof ValueBinding)) {
+                return null;
+            }
+            args.add(((ValueBinding) binding).value);
+        }
+        return Collections.unmodifiableList(args);
+    }
+
+    /**
+     * @return Arguments for a single execution of the command. Must not be shared between executions.
+     * @throws ParseException If a parameter that wasn't bound to a value can no longer be resolved.
+     */
+    public CommandArgs resolve() throws ParseException {
+        if (staticArgs != null) {
+            return new CommandArgsImpl(staticArgs);
+        }
+
+        final List<Object> args = new ArrayList<>(bindings.size());
+        for (Binding binding : bindings) {
+            args.add(binding.resolve());
+        }
+        return new CommandArgsImpl(args);
+    }
+
+    @Override
+    public String toString() {
+        return "PreparedCommandArgs(bindings=" + bindings + ")";
+    }
+
+    /**
+     * @param value Value the parameter was bound to.
+     * @return A binding that always resolves to the value.
+     */
+    static Binding value(Object value) {
+        return new ValueBinding(value);
+    }
+
+    /**
+     * @param param Parameter that wasn't bound to a value.
+     * @return A binding that resolves through {@link CliParam#unbound()}.
+     */
+    static Binding unbound(final CliParam param) {
+        return new Binding() {
+            @Override
+            public Object resolve() throws ParseException {
+                return param.unbound();
+            }
+
+            @Override
+            public String toString() {
+                return param.getIdentifier().getName() + "=<unbound>";
+            }
+        };
+    }
+
+    /**
+     * @param param Parameter that was bound to an empty value.
+     * @return A binding that resolves through {@link CliParam#noValue()}.
+     */
+    static Binding noValue(final CliParam param) {
+        return new Binding() {
+            @Override
+            public Object resolve() throws ParseException {
+                return param.noValue();
+            }
+
+            @Override
+            public String toString() {
+                return param.getIdentifier().getName() + "=<noValue>";
+            }
+        };
+    }
+
+    /**
+     * The value of a single parameter.
+     */
+    interface Binding {
+        /**
+         * @return The value of the parameter.
+         * @throws ParseException If the value can't be resolved.
+         */
+        Object resolve() throws ParseException;
+    }
+
+    private static class ValueBinding implements Binding {
+        private final Object value;
+
+        private ValueBinding(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public Object resolve() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(value);
+        }
+    }
+}
@@ -21,15 +21,12 @@ import com.github.ykrasik.jaci.cli.assist.AutoComplete;
 import com.github.ykrasik.jaci.cli.assist.CliValueType;
 import com.github.ykrasik.jaci.cli.exception.ParseException;
 import com.github.ykrasik.jaci.param.StringParamDef;
-import com.github.ykrasik.jaci.util.function.Func;
 import com.github.ykrasik.jaci.util.function.Spplr;
-import com.github.ykrasik.jaci.util.function.MoreSuppliers;
 import com.github.ykrasik.jaci.util.opt.Opt;
+import com.github.ykrasik.jaci.util.trie.MatchMode;
 import com.github.ykrasik.jaci.util.trie.Trie;
-import com.github.ykrasik.jaci.util.trie.TrieBuilder;
-
-
-import java.util.List;
+import com.github.ykrasik.jaci.util.trie.TrieCursor;
+import com.github.ykrasik.jaci.util.trie.WordIndex;
 
 /**
  * A {@link CliParam} that parses string values.
@@ -37,29 +34,24 @@ import java.util.List;
  * @author Yevgeny Krasik
  */
 public class StringCliParam extends AbstractCliParam<String> {
-    private final Spplr<Trie<CliValueType>> valuesSupplier;
+    private static final CliValueType.Mapper<String> VALUE_MAPPER = new CliValueType.Mapper<>(CliValueType.COMMAND_PARAM_VALUE);
+
+    private final Spplr<Trie<String>> valuesSupplier;
+
+    /**
+     * An index of the last supplied values, for auto completing with a {@link MatchMode} other than {@link MatchMode#PREFIX}.
+     * Only created when first needed.
+     */
+    private volatile WordIndex<String> valuesIndex;
 
     public StringCliParam(Identifier identifier,
                           Opt<Spplr<String>> defaultValueSupplier,
-                           Spplr<List<String>> valuesSupplier) {
+                           Spplr<Trie<String>> valuesSupplier) {
         super(identifier, defaultValueSupplier);
-
-        // If the supplier is a const supplier type (supplies a constant or cached value), the returned supplier
-        // will also cache the result and not re-calculate it on every call.
-        this.valuesSupplier = MoreSuppliers.map(valuesSupplier, new Func<List<String>, Trie<CliValueType>>() {
-            @Override
-            public Trie<CliValueType> apply(List<String> values) {
-                return createValuesTrie(values);
-            }
-        });
-    }
-
-    private Trie<CliValueType> createValuesTrie(List<String> values) {
-        final TrieBuilder<CliValueType> builder = new TrieBuilder<>();
-        for (String value : values) {
-            builder.add(value, CliValueType.COMMAND_PARAM_VALUE);
+        if (valuesSupplier == null) {
+            throw new java.lang.NullPointerException("valuesSupplier");
         }
-        return builder.build();
+        this.valuesSupplier = valuesSupplier;
     }
 
     @Override
@@ -69,7 +61,7 @@ public class StringCliParam extends AbstractCliParam<String> {
 
     @Override
     public String parse( String arg) throws ParseException {
-        final Trie<CliValueType> values = getValues();
+        final Trie<String> values = getValues();
 
         // If the values trie is empty, all values are accepted.
         // If it isn't, arg must be contained in the possible values trie.
@@ -86,14 +78,56 @@ public class StringCliParam extends AbstractCliParam<String> {
     @Override
     public AutoComplete autoComplete( String prefix) throws ParseException {
         // FIXME: Add proper support for auto completing quoted strings.
-        final Trie<CliValueType> possibilities = getValues().subTrie(prefix);
+        // The values are only mapped lazily, so they are never copied.
+        final Trie<CliValueType> possibilities = getValues().subTrie(prefix).lazyMapValues(VALUE_MAPPER);
         return new AutoComplete(prefix, possibilities);
     }
 
-    private Trie<CliValueType> getValues() {
+    /**
+     * Auto complete the given query with possible values, matched by the given {@link MatchMode}.
+     * Possibilities that weren't matched by their prefix can only be suggested, they cannot be auto completed.
+     *
+     * @param query Query to offer auto complete for.
+     * @param mode How to match possible values against the query.
+     * @return Auto complete for the possible values that match the given query. Case insensitive.
+     * @throws ParseException If an error occurred while auto completing.
+     */
+    public AutoComplete autoComplete(String query, MatchMode mode) throws ParseException {
+        if (mode == MatchMode.PREFIX) {
+            return autoComplete(query);
+        }
+        final Trie<CliValueType> possibilities = getValuesIndex().match(query, mode).lazyMapValues(VALUE_MAPPER);
+        return new AutoComplete(query, possibilities);
+    }
+
+    /**
+     * Create a cursor over the possible values, for auto completing as the user types.
+     * Each typed character narrows the previous possibilities down instead of navigating from scratch.
+     * An {@link AutoComplete} can be created from the cursor's prefix and Trie at any point.
+     * Dynamic values are supplied once, when the cursor is created.
+     *
+     * @return A cursor over the possible values of this parameter, with an empty prefix. Case insensitive.
+     */
+    public TrieCursor<CliValueType> createAutoCompleteCursor() {
+        return new TrieCursor<>(getValues().lazyMapValues(VALUE_MAPPER));
+    }
+
+    private Trie<String> getValues() {
         return valuesSupplier.get();
     }
 
+    private WordIndex<String> getValuesIndex() {
+        // Constant values are the same Trie every time, so their index is only created once.
+        // Racing threads will create equal indexes, so no need to synchronize.
+        final Trie<String> values = getValues();
+        WordIndex<String> index = valuesIndex;
+        if (index == null || index.getTrie() != values) {
+            index = WordIndex.from(values);
+            valuesIndex = index;
+        }
+        return index;
+    }
+
     /**
      * Construct a CLI string parameter from a {@link StringParamDef}.
      *
@@ -101,6 +135,6 @@ public class StringCliParam extends AbstractCliParam<String> {
      * @return A CLI string parameter constructed from the StringParamDef.
      */
     public static StringCliParam fromDef( StringParamDef def) {
-        return new StringCliParam(def.getIdentifier(), def.getDefaultValueSupplier(), def.getValuesSupplier());
+        return new StringCliParam(def.getIdentifier(), def.getDefaultValueSupplier(), def.getValuesTrieSupplier());
     }
 }
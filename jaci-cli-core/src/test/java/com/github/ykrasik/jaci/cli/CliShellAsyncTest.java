@@ -0,0 +1,579 @@
+/******************************************************************************
+ * Copyright (C) 2015 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.cli;
+
+import com.github.ykrasik.jaci.api.CommandOutput;
+import com.github.ykrasik.jaci.cli.command.CliJobs;
+import com.github.ykrasik.jaci.cli.hierarchy.CliCommandHierarchyImpl;
+import com.github.ykrasik.jaci.cli.output.CliOutput;
+import com.github.ykrasik.jaci.command.CommandArgs;
+import com.github.ykrasik.jaci.command.CommandDef;
+import com.github.ykrasik.jaci.command.CommandExecutor;
+import com.github.ykrasik.jaci.hierarchy.CommandHierarchyDef;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Yevgeny Krasik
+ */
+public class CliShellAsyncTest {
+    private final CountDownLatch slowLatch = new CountDownLatch(1);
+    private final CountDownLatch gateStarted = new CountDownLatch(1);
+    private final CountDownLatch gateLatch = new CountDownLatch(1);
+    private final CountDownLatch loopStarted = new CountDownLatch(1);
+    private final RecordingOutput output = new RecordingOutput();
+    private ExecutorService executor;
+    private CommandHierarchyDef def;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        final CommandHierarchyDef.Builder builder = new CommandHierarchyDef.Builder();
+        builder.getRootDirectory().addCommandDefs(
+            new CommandDef.Builder("slow", new CommandExecutor() {
+                @Override
+                public void execute(CommandOutput output, CommandArgs args) throws Exception {
+                    assertTrue(slowLatch.await(10, TimeUnit.SECONDS));
+                    output.message("slow done");
+                }
+            }).build(),
+            new CommandDef.Builder("fast", new CommandExecutor() {
+                @Override
+                public void execute(CommandOutput output, CommandArgs args) {
+                    output.message("fast done");
+                }
+            }).build(),
+            new CommandDef.Builder("gate", new CommandExecutor() {
+                @Override
+                public void execute(CommandOutput output, CommandArgs args) throws Exception {
+                    gateStarted.countDown();
+                    assertTrue(gateLatch.await(10, TimeUnit.SECONDS));
+                    output.message("gate done");
+                }
+            }).build(),
+            new CommandDef.Builder("loop", new LoopUntilCancelled()).build(),
+            new CommandDef.Builder("timed", new LoopUntilCancelled()).setTimeoutMillis(50).build(),
+            new CommandDef.Builder("fail", new CommandExecutor() {
+                @Override
+                public void execute(CommandOutput output, CommandArgs args) {
+                    throw new IllegalStateException("failed");
+                }
+            }).build()
+        );
+        builder.getRootDirectory().getOrCreateDirectory("dir").addCommandDefs(
+            new CommandDef.Builder("inDir", new CommandExecutor() {
+                @Override
+                public void execute(CommandOutput output, CommandArgs args) {
+                    output.message("inDir done");
+                }
+            }).build()
+        );
+        def = builder.build();
+    }
+
+    @After
+    public void tearDown() {
+        slowLatch.countDown();
+        gateLatch.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testExecutesOnExecutor() throws Exception {
+        final CliShell shell = createShell(executor);
+        final Thread caller = Thread.currentThread();
+        final Future<Boolean> future = shell.executeAsync("fast");
+        assertTrue(future.get(10, TimeUnit.SECONDS));
+        assertTrue(output.contains("fast done"));
+        assertNotSame(caller, output.getThread("fast done"));
+    }
+
+    @Test
+    public void testOutputInSubmissionOrder() throws Exception {
+        final CliShell shell = createShell(executor);
+        final Future<Boolean> slow = shell.executeAsync("slow");
+        final Future<Boolean> fast = shell.executeAsync("fast");
+
+        // The fast command finished, but it's output waits for the slow command.
+        assertTrue(fast.get(10, TimeUnit.SECONDS));
+        assertFalse(output.contains("fast done"));
+
+        slowLatch.countDown();
+        assertTrue(slow.get(10, TimeUnit.SECONDS));
+        awaitOutput("fast done");
+        assertTrue(output.indexOf("slow done") < output.indexOf("fast done"));
+    }
+
+    @Test
+    public void testUiThreadOutputOrder() throws Exception {
+        // An output that marshals all calls to a UI thread, like the JavaFx and LibGdx outputs do
+        // when commands are executed asynchronously. The shell is called from the UI thread.
+        final ExecutorService uiThread = Executors.newSingleThreadExecutor();
+        try {
+            final UiThreadOutput uiOutput = new UiThreadOutput(uiThread);
+            final CliShell shell = new CliShell.Builder(CliCommandHierarchyImpl.from(def), uiOutput).setExecutor(executor).build();
+            for (int i = 0; i < 20; i++) {
+                final Future<Boolean> fast = uiThread.submit(new Callable<Future<Boolean>>() {
+                    @Override
+                    public Future<Boolean> call() {
+                        return shell.executeAsync("fast");
+                    }
+                }).get(10, TimeUnit.SECONDS);
+                assertTrue(fast.get(10, TimeUnit.SECONDS));
+            }
+            uiOutput.awaitPosted();
+
+            // Every command finished (and printed it's output) before the next one was submitted,
+            // so it's output must be displayed before the next command line.
+            final List<String> lines = uiOutput.getLines();
+            int numCommands = 0;
+            for (int i = 0; i < lines.size(); i++) {
+                if (lines.get(i).endsWith("fast")) {
+                    numCommands++;
+                    assertEquals("fast done", lines.get(i + 1));
+                }
+            }
+            assertEquals(20, numCommands);
+
+            // Commands that finish while the UI thread is printing must wait for it to finish.
+            final List<Future<Boolean>> futures = uiThread.submit(new Callable<List<Future<Boolean>>>() {
+                @Override
+                public List<Future<Boolean>> call() {
+                    final List<Future<Boolean>> futures = new ArrayList<>();
+                    for (int i = 0; i < 200; i++) {
+                        futures.add(shell.executeAsync("fast"));
+                    }
+                    return futures;
+                }
+            }).get(10, TimeUnit.SECONDS);
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get(10, TimeUnit.SECONDS));
+            }
+            assertFalse("begin() was called again before end()", uiOutput.overlapped);
+        } finally {
+            uiThread.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testParseErrorPrintedImmediately() throws Exception {
+        final CliShell shell = createShell(executor);
+        final Future<Boolean> future = shell.executeAsync("noSuchCommand");
+        assertTrue(output.containsPrefix("Parse Error"));
+        assertFalse(future.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCommandException() throws Exception {
+        final CliShell shell = createShell(executor);
+        assertFalse(shell.executeAsync("fail").get(10, TimeUnit.SECONDS));
+        assertTrue(shell.executeAsync("fast").get(10, TimeUnit.SECONDS));
+        awaitOutput("fast done");
+        assertTrue(output.getErrorCount() > 0);
+    }
+
+    @Test
+    public void testRejectedDoesNotBlockLaterOutput() throws Exception {
+        final RejectingExecutor rejectingExecutor = new RejectingExecutor();
+        final CliShell shell = createShell(rejectingExecutor);
+        final Future<Boolean> rejected = shell.executeAsync("fast");
+        assertTrue(rejected.isDone());
+        assertFalse(rejected.get());
+        assertFalse(output.contains("fast done"));
+
+        rejectingExecutor.reject = false;
+        assertTrue(shell.executeAsync("fast").get());
+        assertTrue(output.contains("fast done"));
+    }
+
+    @Test
+    public void testPreparedExecution() {
+        final CliShell shell = createShell(executor);
+        final CliExecution execution = shell.prepareExecution("fast");
+        assertFalse(execution.isDone());
+        execution.run();
+        assertTrue(execution.isDone());
+        assertTrue(execution.isSuccess());
+        assertTrue(output.contains("fast done"));
+
+        // Running again has no effect.
+        execution.run();
+        assertEquals(output.indexOf("fast done"), output.lastIndexOf("fast done"));
+
+        final CliExecution empty = shell.prepareExecution("");
+        assertTrue(empty.isDone());
+        assertTrue(empty.isSuccess());
+    }
+
+    @Test
+    public void testSyncExecuteUnaffected() {
+        final CliShell shell = createShell(executor);
+        assertTrue(shell.execute("fast"));
+        assertTrue(output.contains("fast done"));
+        assertSame(Thread.currentThread(), output.getThread("fast done"));
+    }
+
+    @Test
+    public void testSyncExecuteAfterPendingExecution() throws Exception {
+        final CliShell shell = createShell(executor);
+        final Future<Boolean> slow = shell.executeAsync("slow");
+
+        // Executed right away, but it's output waits for the slow command.
+        assertTrue(shell.execute("fast"));
+        assertFalse(output.contains("fast done"));
+
+        slowLatch.countDown();
+        assertTrue(slow.get(10, TimeUnit.SECONDS));
+        awaitOutput("fast done");
+        assertTrue(output.indexOf("slow done") < output.indexOf("fast done"));
+    }
+
+    @Test
+    public void testFinishDoesNotWaitForOutput() throws Exception {
+        final CliShell shell = createShell(executor);
+        final PreparedCommand gate = shell.prepareCommand("gate");
+        final Future<Boolean> slow = shell.executeAsync("slow");
+
+        // Prepared commands print directly, holding the output while they run.
+        final Thread gateThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                shell.execute(gate);
+            }
+        });
+        gateThread.start();
+        assertTrue(gateStarted.await(10, TimeUnit.SECONDS));
+
+        // The slow command finishes without waiting for the gate command, and is printed once the gate command is done.
+        slowLatch.countDown();
+        assertTrue(slow.get(10, TimeUnit.SECONDS));
+        assertFalse(output.contains("slow done"));
+
+        gateLatch.countDown();
+        gateThread.join(10000);
+        awaitOutput("slow done");
+        assertTrue(output.indexOf("gate done") < output.indexOf("slow done"));
+    }
+
+    @Test
+    public void testKillRunningJob() throws Exception {
+        final CliShell shell = createShell(executor);
+        final Future<Boolean> future = shell.executeAsync("loop");
+        assertTrue(loopStarted.await(10, TimeUnit.SECONDS));
+
+        assertTrue(shell.execute("jobs"));
+        assertTrue(output.contains("[1] Running: loop"));
+
+        assertTrue(shell.execute("kill 1"));
+        assertTrue(output.contains("Job [1] cancelled."));
+        assertFalse(future.get(10, TimeUnit.SECONDS));
+        awaitOutput("Command 'loop' was cancelled.");
+
+        assertTrue(shell.execute("jobs"));
+        assertTrue(output.contains("No jobs."));
+    }
+
+    @Test
+    public void testKillRunningJobAsync() throws Exception {
+        // The only thread of the executor is busy with the job, so job control commands must not wait for it.
+        final ExecutorService singleThreadExecutor = Executors.newSingleThreadExecutor();
+        try {
+            final CliShell shell = createShell(singleThreadExecutor);
+            final Future<Boolean> future = shell.executeAsync("loop");
+            assertTrue(loopStarted.await(10, TimeUnit.SECONDS));
+
+            final Future<Boolean> jobs = shell.executeAsync("jobs");
+            assertTrue(jobs.isDone());
+            assertTrue(jobs.get());
+            assertTrue(output.contains("[1] Running: loop"));
+
+            final Future<Boolean> kill = shell.executeAsync("kill 1");
+            assertTrue(kill.isDone());
+            assertTrue(kill.get());
+            assertTrue(output.contains("Job [1] cancelled."));
+            assertSame(Thread.currentThread(), output.getThread("Job [1] cancelled."));
+
+            assertFalse(future.get(10, TimeUnit.SECONDS));
+            awaitOutput("Command 'loop' was cancelled.");
+        } finally {
+            singleThreadExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testKillWaitingJob() throws Exception {
+        final QueueingExecutor queueingExecutor = new QueueingExecutor();
+        final CliShell shell = createShell(queueingExecutor);
+        final Future<Boolean> future = shell.executeAsync("fast");
+
+        assertTrue(shell.execute("jobs"));
+        assertTrue(output.contains("[1] Waiting: fast"));
+        assertTrue(shell.execute("kill 1"));
+
+        queueingExecutor.runAll();
+        assertFalse(future.get());
+        assertFalse(output.contains("fast done"));
+        assertTrue(output.contains("Command 'fast' was cancelled."));
+    }
+
+    @Test
+    public void testChangeDirectoryExecutedImmediately() throws Exception {
+        // Command lines entered after 'cd' must be parsed relative to the new working directory,
+        // even if the executor didn't get to run anything yet.
+        final QueueingExecutor queueingExecutor = new QueueingExecutor();
+        final CliShell shell = createShell(queueingExecutor);
+        final Future<Boolean> cd = shell.executeAsync("cd dir");
+        assertTrue(cd.isDone());
+        assertTrue(cd.get());
+
+        final Future<Boolean> future = shell.executeAsync("inDir");
+        assertFalse(output.containsPrefix("Parse Error"));
+        queueingExecutor.runAll();
+        assertTrue(future.get());
+        assertTrue(output.contains("inDir done"));
+    }
+
+    @Test
+    public void testDoneJobsRemoved() throws Exception {
+        final CliShell shell = createShell(executor);
+        final Future<Boolean> slow = shell.executeAsync("slow");
+        final Future<Boolean> fast = shell.executeAsync("fast");
+        assertTrue(fast.get(10, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList("slow"), getJobCommandLines(shell));
+
+        slowLatch.countDown();
+        assertTrue(slow.get(10, TimeUnit.SECONDS));
+        assertTrue(getJobCommandLines(shell).isEmpty());
+
+        // Also when the executor rejects the command.
+        final CliShell rejectingShell = createShell(new RejectingExecutor());
+        assertFalse(rejectingShell.executeAsync("fast").get());
+        assertTrue(getJobCommandLines(rejectingShell).isEmpty());
+    }
+
+    @Test
+    public void testKillNoSuchJob() {
+        final CliShell shell = createShell(executor);
+        shell.execute("kill 5");
+        assertTrue(output.contains("No such job: 5"));
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        final CliShell shell = createShell(executor);
+        assertFalse(shell.executeAsync("timed").get(10, TimeUnit.SECONDS));
+        awaitOutput("Command 'timed' timed out after 50ms.");
+
+        // Timeouts also apply to commands executed on the calling thread.
+        assertFalse(shell.execute("timed"));
+        assertNotEquals(output.indexOf("Command 'timed' timed out after 50ms."), output.lastIndexOf("Command 'timed' timed out after 50ms."));
+    }
+
+    private CliShell createShell(Executor executor) {
+        return new CliShell.Builder(CliCommandHierarchyImpl.from(def), output).setExecutor(executor).build();
+    }
+
+    private List<String> getJobCommandLines(CliShell shell) {
+        final List<String> commandLines = new ArrayList<>();
+        for (CliJobs.Job job : shell.getJobs().getJobs().values()) {
+            commandLines.add(job.getCommandLine());
+        }
+        return commandLines;
+    }
+
+    private void awaitOutput(String line) throws InterruptedException {
+        // Output is printed by the thread that finishes the last command it waits for,
+        // which may be after the future of the command itself has completed.
+        for (int i = 0; i < 1000 && !output.contains(line); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(output.contains(line));
+    }
+
+    private class LoopUntilCancelled implements CommandExecutor {
+        @Override
+        public void execute(CommandOutput output, CommandArgs args) throws Exception {
+            loopStarted.countDown();
+            while (!output.isCancelled()) {
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    private static class QueueingExecutor implements Executor {
+        private final List<Runnable> commands = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            commands.add(command);
+        }
+
+        private void runAll() {
+            for (Runnable command : commands) {
+                command.run();
+            }
+            commands.clear();
+        }
+    }
+
+    private static class RejectingExecutor implements Executor {
+        private boolean reject = true;
+
+        @Override
+        public void execute(Runnable command) {
+            if (reject) {
+                throw new RejectedExecutionException("rejected");
+            }
+            command.run();
+        }
+    }
+
+    /**
+     * A {@link CliOutput} that posts all calls to a UI thread and records the lines in the order the UI thread displays them.
+     */
+    private static class UiThreadOutput implements CliOutput {
+        private final ExecutorService uiThread;
+        private final List<String> lines = new ArrayList<>();
+        private final AtomicBoolean printing = new AtomicBoolean();
+        private volatile boolean overlapped;
+
+        private UiThreadOutput(ExecutorService uiThread) {
+            this.uiThread = uiThread;
+        }
+
+        @Override
+        public void begin() {
+            if (!printing.compareAndSet(false, true)) {
+                overlapped = true;
+            }
+        }
+
+        @Override
+        public void end() {
+            printing.set(false);
+        }
+
+        @Override
+        public void println(final String text) {
+            uiThread.execute(new Runnable() {
+                @Override
+                public void run() {
+                    lines.add(text);
+                }
+            });
+        }
+
+        @Override
+        public void errorPrintln(String text) {
+            println(text);
+        }
+
+        @Override
+        public void setWorkingDirectory(String workingDirectory) { }
+
+        private void awaitPosted() throws Exception {
+            uiThread.submit(new Runnable() {
+                @Override
+                public void run() { }
+            }).get(10, TimeUnit.SECONDS);
+        }
+
+        private List<String> getLines() throws Exception {
+            return uiThread.submit(new Callable<List<String>>() {
+                @Override
+                public List<String> call() {
+                    return new ArrayList<>(lines);
+                }
+            }).get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * A {@link CliOutput} that records printed lines and the threads they were printed from.
+     */
+    private static class RecordingOutput implements CliOutput {
+        private final List<String> lines = new ArrayList<>();
+        private final List<Thread> threads = new ArrayList<>();
+        private int errorCount;
+
+        @Override
+        public void begin() { }
+
+        @Override
+        public void end() { }
+
+        @Override
+        public synchronized void println(String text) {
+            lines.add(text);
+            threads.add(Thread.currentThread());
+        }
+
+        @Override
+        public synchronized void errorPrintln(String text) {
+            println(text);
+            errorCount++;
+        }
+
+        @Override
+        public void setWorkingDirectory(String workingDirectory) { }
+
+        private synchronized boolean contains(String line) {
+            return lines.contains(line);
+        }
+
+        private synchronized boolean containsPrefix(String prefix) {
+            for (String line : lines) {
+                if (line.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private synchronized int indexOf(String line) {
+            return lines.indexOf(line);
+        }
+
+        private synchronized int lastIndexOf(String line) {
+            return lines.lastIndexOf(line);
+        }
+
+        private synchronized Thread getThread(String line) {
+            return threads.get(lines.indexOf(line));
+        }
+
+        private synchronized int getErrorCount() {
+            return errorCount;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/******************************************************************************
+ * Copyright (C) 2015 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.cli;
+
+import com.github.ykrasik.jaci.api.CommandOutput;
+import com.github.ykrasik.jaci.cli.hierarchy.CliCommandHierarchyImpl;
+import com.github.ykrasik.jaci.cli.output.CliOutput;
+import com.github.ykrasik.jaci.command.CommandArgs;
+import com.github.ykrasik.jaci.command.CommandDef;
+import com.github.ykrasik.jaci.command.CommandExecutor;
+import com.github.ykrasik.jaci.hierarchy.CommandHierarchyDef;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Yevgeny Krasik
+ */
+public class CliShellScriptTest {
+    private final RecordingOutput output = new RecordingOutput();
+    private final List<String> executed = new ArrayList<>();
+    private CliShell shell;
+
+    @Before
+    public void setUp() {
+        final CommandHierarchyDef.Builder builder = new CommandHierarchyDef.Builder();
+        builder.getRootDirectory().addCommandDefs(
+            new CommandDef.Builder("ok", new CommandExecutor() {
+                @Override
+                public void execute(CommandOutput output, CommandArgs args) {
+                    executed.add("ok");
+                    output.message("ok done");
+                }
+            }).build(),
+            new CommandDef.Builder("fail", new CommandExecutor() {
+                @Override
+                public void execute(CommandOutput output, CommandArgs args) {
+                    executed.add("fail");
+                    throw new IllegalStateException("failed");
+                }
+            }).build()
+        );
+        shell = new CliShell.Builder(CliCommandHierarchyImpl.from(builder.build()), output).build();
+
+        // Ignore the welcome message.
+        output.reset();
+    }
+
+    @Test
+    public void testScript() {
+        final CliScriptResult result = shell.executeScript(Arrays.asList("ok", "", "# A comment", "\t  #Indented comment", "  ok  "), false);
+        assertTrue(result.isSuccess());
+        assertFalse(result.isStopped());
+        assertEquals(2, result.getNumExecuted());
+        assertEquals(Arrays.asList("ok", "ok"), executed);
+
+        // Output is printed in one go, without the command lines.
+        assertEquals(1, output.numBegins);
+        assertEquals(1, output.numEnds);
+        assertEquals(Arrays.asList("ok done", "ok done", "Script executed successfully: 2 command lines."), output.lines);
+    }
+
+    @Test
+    public void testScriptNotSavedInHistory() {
+        shell.executeScript(Arrays.asList("ok", "ok"), false);
+        assertFalse(shell.getPrevCommandLineFromHistory().isPresent());
+    }
+
+    @Test
+    public void testContinueOnError() {
+        final CliScriptResult result = shell.executeScript(Arrays.asList("ok", "noSuchCommand", "fail", "ok"), false);
+        assertFalse(result.isSuccess());
+        assertFalse(result.isStopped());
+        assertEquals(4, result.getNumExecuted());
+        assertEquals(Arrays.asList("ok", "fail", "ok"), executed);
+
+        final List<CliScriptResult.Failure> failures = result.getFailures();
+        assertEquals(2, failures.size());
+        assertEquals(2, failures.get(0).getLineNumber());
+        assertEquals("noSuchCommand", failures.get(0).getCommandLine());
+        assertEquals(3, failures.get(1).getLineNumber());
+        assertEquals("fail", failures.get(1).getCommandLine());
+
+        assertTrue(output.errors.contains("Script failed: 2 of 4 command lines failed."));
+        assertTrue(output.errors.contains("    line 2: noSuchCommand"));
+        assertTrue(output.errors.contains("    line 3: fail"));
+    }
+
+    @Test
+    public void testStopOnError() {
+        final CliScriptResult result = shell.executeScript(Arrays.asList("ok", "fail", "ok"), true);
+        assertFalse(result.isSuccess());
+        assertTrue(result.isStopped());
+        assertEquals(2, result.getNumExecuted());
+        assertEquals(Arrays.asList("ok", "fail"), executed);
+        assertEquals(1, result.getFailures().size());
+        assertTrue(output.errors.contains("Script failed: 1 of 2 command lines failed, script stopped."));
+    }
+
+    @Test
+    public void testReader() throws Exception {
+        final CliScriptResult result = shell.executeScript(new StringReader("ok\n\nfail\r\nok\n"), false);
+        assertEquals(3, result.getNumExecuted());
+        assertEquals(3, result.getFailures().get(0).getLineNumber());
+        assertEquals(Arrays.asList("ok", "fail", "ok"), executed);
+    }
+
+    private static class RecordingOutput implements CliOutput {
+        private final List<String> lines = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private int numBegins;
+        private int numEnds;
+
+        @Override
+        public void begin() {
+            numBegins++;
+        }
+
+        @Override
+        public void end() {
+            numEnds++;
+        }
+
+        @Override
+        public void println(String text) {
+            lines.add(text);
+        }
+
+        @Override
+        public void errorPrintln(String text) {
+            errors.add(text);
+        }
+
+        @Override
+        public void setWorkingDirectory(String workingDirectory) { }
+
+        private void reset() {
+            lines.clear();
+            errors.clear();
+            numBegins = 0;
+            numEnds = 0;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/******************************************************************************
+ * Copyright (C) 2015 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.cli;
+
+import com.github.ykrasik.jaci.api.CommandOutput;
+import com.github.ykrasik.jaci.cli.exception.ParseError;
+import com.github.ykrasik.jaci.cli.exception.ParseException;
+import com.github.ykrasik.jaci.cli.hierarchy.CliCommandHierarchyImpl;
+import com.github.ykrasik.jaci.cli.output.CliOutput;
+import com.github.ykrasik.jaci.command.CommandArgs;
+import com.github.ykrasik.jaci.command.CommandDef;
+import com.github.ykrasik.jaci.command.CommandExecutor;
+import com.github.ykrasik.jaci.hierarchy.CommandHierarchyDef;
+import com.github.ykrasik.jaci.param.BooleanParamDef;
+import com.github.ykrasik.jaci.param.IntParamDef;
+import com.github.ykrasik.jaci.util.function.Spplr;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Yevgeny Krasik
+ */
+public class PreparedCommandTest {
+    private final RecordingOutput output = new RecordingOutput();
+    private final List<String> executed = new ArrayList<>();
+    private int nextDefault;
+    private boolean flagDefault;
+    private CliShell shell;
+
+    @Before
+    public void setUp() {
+        final CommandHierarchyDef.Builder builder = new CommandHierarchyDef.Builder();
+        builder.getRootDirectory().addCommandDefs(
+            new CommandDef.Builder("cmd", new CommandExecutor() {
+                @Override
+                public void execute(CommandOutput output, CommandArgs args) {
+                    final int fixed = args.popArg();
+                    final int dynamic = args.popArg();
+                    final boolean flag = args.popArg();
+                    executed.add(fixed + " " + dynamic + " " + flag);
+                }
+            })
+                .addParam(new IntParamDef.Builder("fixed").setOptional(0).build())
+                .addParam(new IntParamDef.Builder("dynamic").setOptional(new Spplr<Integer>() {
+                    @Override
+                    public Integer get() {
+                        return nextDefault++;
+                    }
+                }).build())
+                .addParam(new BooleanParamDef.Builder("flag").setOptional(new Spplr<Boolean>() {
+                    @Override
+                    public Boolean get() {
+                        return flagDefault;
+                    }
+                }).build())
+                .build(),
+            new CommandDef.Builder("fail", new CommandExecutor() {
+                @Override
+                public void execute(CommandOutput output, CommandArgs args) {
+                    throw new IllegalStateException("failed");
+                }
+            }).build()
+        );
+        shell = new CliShell.Builder(CliCommandHierarchyImpl.from(builder.build()), output).build();
+
+        // Ignore the welcome message.
+        output.reset();
+    }
+
+    @Test
+    public void testExecuteRepeatedly() throws Exception {
+        final PreparedCommand command = shell.prepareCommand("cmd 5");
+        assertEquals("cmd", command.getCommand().getName());
+        assertEquals("cmd 5", command.getCommandLine());
+
+        assertTrue(shell.execute(command));
+        assertTrue(shell.execute(command));
+        assertTrue(shell.execute(command));
+
+        // The default value was calculated once while preparing, and again on every execution.
+        assertEquals(Arrays.asList("5 1 false", "5 2 false", "5 3 false"), executed);
+
+        // Prepared command lines aren't printed or saved in history, only the output of the command is.
+        final String message = "Command 'cmd' executed successfully.";
+        assertEquals(Arrays.asList(message, message, message), output.lines);
+        assertFalse(shell.getPrevCommandLineFromHistory().isPresent());
+    }
+
+    @Test
+    public void testExplicitValuesAreNotResolvedAgain() throws Exception {
+        final PreparedCommand command = shell.prepareCommand("cmd -dynamic 7 -flag false");
+        flagDefault = true;
+        assertTrue(shell.execute(command));
+        assertTrue(shell.execute(command));
+        assertEquals(Arrays.asList("0 7 false", "0 7 false"), executed);
+        assertEquals(0, nextDefault);
+    }
+
+    @Test
+    public void testNoValueIsResolvedAgain() throws Exception {
+        // A flag without a value is the opposite of it's default value.
+        final PreparedCommand command = shell.prepareCommand("cmd -flag");
+        assertTrue(shell.execute(command));
+        flagDefault = true;
+        assertTrue(shell.execute(command));
+        assertEquals(Arrays.asList("0 1 true", "0 2 false"), executed);
+    }
+
+    @Test
+    public void testPrepareInvalidCommandLine() {
+        assertParseError(ParseError.INVALID_COMMAND, "");
+        assertParseError(ParseError.INVALID_COMMAND, "noSuchCommand");
+        assertParseError(ParseError.INVALID_PARAM_VALUE, "cmd notAnInt");
+        assertTrue(executed.isEmpty());
+    }
+
+    @Test
+    public void testExecuteFailure() throws Exception {
+        final PreparedCommand command = shell.prepareCommand("fail");
+        assertFalse(shell.execute(command));
+        assertFalse(output.errors.isEmpty());
+        assertEquals(output.numBegins, output.numEnds);
+    }
+
+    private void assertParseError(ParseError expectedError, String commandLine) {
+        try {
+            shell.prepareCommand(commandLine);
+            fail("Expected a parse error for: '" + commandLine + '\'');
+        } catch (ParseException e) {
+            assertEquals(expectedError, e.getError());
+        }
+    }
+
+    private static class RecordingOutput implements CliOutput {
+        private final List<String> lines = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private int numBegins;
+        private int numEnds;
+
+        @Override
+        public void begin() {
+            numBegins++;
+        }
+
+        @Override
+        public void end() {
+            numEnds++;
+        }
+
+        @Override
+        public void println(String text) {
+            lines.add(text);
+        }
+
+        @Override
+        public void errorPrintln(String text) {
+            errors.add(text);
+        }
+
+        @Override
+        public void setWorkingDirectory(String workingDirectory) { }
+
+        private void reset() {
+            lines.clear();
+            errors.clear();
+            numBegins = 0;
+            numEnds = 0;
+        }
+    }
+}
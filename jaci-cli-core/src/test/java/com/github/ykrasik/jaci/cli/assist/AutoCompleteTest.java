@@ -0,0 +1,81 @@
+/******************************************************************************
+ * Copyright (C) 2015 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.cli.assist;
+
+import com.github.ykrasik.jaci.util.function.Func;
+import com.github.ykrasik.jaci.util.function.Pred;
+import com.github.ykrasik.jaci.util.opt.Opt;
+import com.github.ykrasik.jaci.util.trie.Trie;
+import com.github.ykrasik.jaci.util.trie.Tries;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Yevgeny Krasik
+ */
+public class AutoCompleteTest {
+    private final Trie<CliValueType> possibilities = toPossibilities("a1", "a2", "a3", "a4");
+
+    @Test
+    public void testAllSuggestions() {
+        final Suggestions suggestions = new AutoComplete("a", possibilities).getSuggestions(4).get();
+        assertEquals(Arrays.asList("a1", "a2", "a3", "a4"), suggestions.getParamValueSuggestions());
+        assertFalse(suggestions.isPartial());
+        assertEquals(Opt.of(4), suggestions.getTotalSuggestions());
+    }
+
+    @Test
+    public void testFirstSuggestions() {
+        final Suggestions suggestions = new AutoComplete("a", possibilities).getSuggestions(2).get();
+        assertEquals(Arrays.asList("a1", "a2"), suggestions.getParamValueSuggestions());
+        assertTrue(suggestions.isPartial());
+        assertEquals(Opt.of(4), suggestions.getTotalSuggestions());
+    }
+
+    @Test
+    public void testFirstSuggestionsUnknownTotal() {
+        // Counting the words of a filtered view would mean traversing all of them.
+        final Trie<CliValueType> filtered = possibilities.lazyFilter(new Pred<CliValueType>() {
+            @Override
+            public boolean test(CliValueType value) {
+                return true;
+            }
+        });
+        final Suggestions suggestions = new AutoComplete("a", filtered).getSuggestions(2).get();
+        assertEquals(Arrays.asList("a1", "a2"), suggestions.getParamValueSuggestions());
+        assertTrue(suggestions.isPartial());
+        assertFalse(suggestions.getTotalSuggestions().isPresent());
+    }
+
+    @Test
+    public void testSinglePossibility() {
+        assertFalse(new AutoComplete("a", toPossibilities("a1")).getSuggestions(2).isPresent());
+        assertEquals(Opt.of("1 "), new AutoComplete("a", toPossibilities("a1")).getAutoCompleteSuffix());
+    }
+
+    private Trie<CliValueType> toPossibilities(String... words) {
+        return Tries.toStringTrie(words).lazyMapValues(new Func<String, CliValueType>() {
+            @Override
+            public CliValueType apply(String value) {
+                return CliValueType.COMMAND_PARAM_VALUE;
+            }
+        });
+    }
+}
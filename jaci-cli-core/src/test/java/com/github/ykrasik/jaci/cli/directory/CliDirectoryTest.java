@@ -0,0 +1,140 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+
+package com.github.ykrasik.jaci.cli.directory;
+
+import com.github.ykrasik.jaci.Identifier;
+import com.github.ykrasik.jaci.api.CommandOutput;
+import com.github.ykrasik.jaci.cli.command.CliCommand;
+import com.github.ykrasik.jaci.cli.hierarchy.SyntheticHierarchy;
+import com.github.ykrasik.jaci.command.CommandArgs;
+import com.github.ykrasik.jaci.command.CommandDef;
+import com.github.ykrasik.jaci.command.CommandExecutor;
+import com.github.ykrasik.jaci.directory.CommandDirectoryDef;
+import com.github.ykrasik.jaci.param.IntParamDef;
+import com.github.ykrasik.jaci.param.ParamDef;
+import com.github.ykrasik.jaci.param.ParamDefResolver;
+import com.github.ykrasik.jaci.util.function.Spplr;
+import com.github.ykrasik.jaci.util.opt.Opt;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Yevgeny Krasik
+ */
+public class CliDirectoryTest {
+    private CountingParamDef paramDef;
+    private CommandDirectoryDef def;
+
+    @Before
+    public void setUp() {
+        paramDef = new CountingParamDef();
+        final CommandDirectoryDef.Builder builder = new CommandDirectoryDef.Builder("root");
+        builder.getOrCreateDirectory("dir").addCommandDefs(new CommandDef.Builder("cmd", NO_OP).addParam(paramDef).build());
+        def = builder.build();
+    }
+
+    @Test
+    public void testEagerCreatesEverything() {
+        CliDirectory.fromDef(def);
+        assertEquals(1, paramDef.numResolves);
+    }
+
+    @Test
+    public void testLazyCreatesOnFirstAccess() {
+        final CliDirectory root = CliDirectory.lazyFromDef(def);
+        assertEquals(0, paramDef.numResolves);
+
+        // Only the directory's own commands are created when they are accessed.
+        final CliDirectory dir = root.getDirectory("dir").get();
+        assertEquals(0, paramDef.numResolves);
+        final CliCommand command = dir.getCommand("cmd").get();
+        assertEquals(1, paramDef.numResolves);
+
+        // Created once and reused.
+        assertSame(dir, root.getDirectory("dir").get());
+        assertSame(command, dir.getCommand("cmd").get());
+        assertEquals(1, paramDef.numResolves);
+    }
+
+    @Test
+    public void testLazyParent() {
+        final CliDirectory root = CliDirectory.lazyFromDef(def);
+        final CliDirectory dir = root.getDirectory("dir").get();
+        assertSame(root, dir.getParent().get());
+        assertFalse(root.getParent().isPresent());
+        assertEquals("/dir/", dir.toPath());
+    }
+
+    @Test
+    public void testLazySameAsEager() {
+        final SyntheticHierarchy synthetic = new SyntheticHierarchy.Builder().setDepth(3).setFanOut(3).setCommandsPerDirectory(3).build();
+        final CommandDirectoryDef rootDef = synthetic.getDef().getRoot();
+        assertEquals(describe(CliDirectory.fromDef(rootDef)), describe(CliDirectory.lazyFromDef(rootDef)));
+    }
+
+    /**
+     * @return A string describing the directory, with children sorted by name so it doesn't depend on creation order.
+     */
+    private String describe(CliDirectory directory) {
+        final List<String> children = new ArrayList<>();
+        for (CliDirectory child : directory.getChildDirectories()) {
+            assertSame(directory, child.getParent().get());
+            children.add(describe(child));
+        }
+        for (CliCommand command : directory.getChildCommands()) {
+            children.add(command.getName() + command.getParams().size());
+        }
+        Collections.sort(children);
+        return directory.toPath() + children;
+    }
+
+    private static final CommandExecutor NO_OP = new CommandExecutor() {
+        @Override
+        public void execute(CommandOutput output, CommandArgs args) { }
+    };
+
+    /**
+     * A {@link ParamDef} that counts how many times it was resolved into a CLI param.
+     */
+    private static class CountingParamDef implements ParamDef<Integer> {
+        private final ParamDef<Integer> delegate = new IntParamDef.Builder("param").build();
+        private int numResolves;
+
+        @Override
+        public Identifier getIdentifier() {
+            return delegate.getIdentifier();
+        }
+
+        @Override
+        public Opt<Spplr<Integer>> getDefaultValueSupplier() {
+            return delegate.getDefaultValueSupplier();
+        }
+
+        @Override
+        public <E> E resolve(ParamDefResolver<E> resolver) {
+            numResolves++;
+            return delegate.resolve(resolver);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+
+package com.github.ykrasik.jaci.cli.hierarchy;
+
+import com.github.ykrasik.jaci.cli.TimingSensitive;
+import com.github.ykrasik.jaci.cli.command.CliCommand;
+import com.github.ykrasik.jaci.cli.exception.ParseException;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that parsing and assisting command lines doesn't slow down linearly with the size of the hierarchy,
+ * by timing the same amount of operations on {@link SyntheticHierarchy synthetic hierarchies}
+ * of 1k, 10k and 100k commands. Each operation is timed over a few rounds and the fastest round is taken,
+ * to keep JIT compilation and GC pauses out of the comparison.
+ * Being {@link TimingSensitive}, only run by the 'timingTest' task.
+ *
+ * @author Yevgeny Krasik
+ */
+@Category(TimingSensitive.class)
+public class CliCommandHierarchyScalingTest {
+    private static final int[] COMMANDS_PER_DIRECTORY = { 10, 100, 1000 };
+    private static final int NUM_SAMPLE_PATHS = 100;
+    private static final int ITERATIONS_PER_ROUND = 20;
+    private static final int NUM_ROUNDS = 10;
+
+    /**
+     * The hierarchy grows 100x, linear growth would slow operations down by as much.
+     * The bound is kept loose enough to not be affected by noise.
+     */
+    private static final double MAX_SLOWDOWN = 10;
+
+    @Test
+    public void testParseScaling() throws ParseException {
+        assertSubLinear(new Operation() {
+            @Override
+            public void run(CliCommandHierarchy hierarchy, String path, SyntheticHierarchy synthetic) throws ParseException {
+                hierarchy.parsePathToCommand(path).parse(synthetic.getArgs());
+            }
+        });
+    }
+
+    @Test
+    public void testAssistPathScaling() throws ParseException {
+        assertSubLinear(new Operation() {
+            @Override
+            public void run(CliCommandHierarchy hierarchy, String path, SyntheticHierarchy synthetic) throws ParseException {
+                // Auto complete the last command name, without it's last character.
+                hierarchy.autoCompletePath(path.substring(0, path.length() - 1));
+            }
+        });
+    }
+
+    @Test
+    public void testAssistParamScaling() throws ParseException {
+        assertSubLinear(new Operation() {
+            @Override
+            public void run(CliCommandHierarchy hierarchy, String path, SyntheticHierarchy synthetic) throws ParseException {
+                // Auto complete the last arg, without it's last character.
+                final List<String> args = new ArrayList<>(synthetic.getArgs());
+                final String lastArg = args.get(args.size() - 1);
+                args.set(args.size() - 1, lastArg.substring(0, lastArg.length() - 1));
+                final CliCommand command = hierarchy.parsePathToCommand(path);
+                command.assist(args);
+            }
+        });
+    }
+
+    private void assertSubLinear(Operation operation) throws ParseException {
+        final long[] nanosPerOperation = new long[COMMANDS_PER_DIRECTORY.length];
+        final int[] numCommands = new int[COMMANDS_PER_DIRECTORY.length];
+        for (int i = 0; i < COMMANDS_PER_DIRECTORY.length; i++) {
+            final SyntheticHierarchy synthetic = new SyntheticHierarchy.Builder()
+                .setDepth(2)
+                .setFanOut(10)
+                .setCommandsPerDirectory(COMMANDS_PER_DIRECTORY[i])
+                .build();
+            numCommands[i] = synthetic.getNumCommands();
+            nanosPerOperation[i] = time(operation, synthetic);
+        }
+        assertEquals(111000, numCommands[numCommands.length - 1]);
+
+        final double slowdown = (double) nanosPerOperation[nanosPerOperation.length - 1] / Math.max(nanosPerOperation[0], 1);
+        assertTrue(String.format("Operation slowed down %.1fx from %d to %d commands (%dns -> %dns per operation)",
+                slowdown, numCommands[0], numCommands[numCommands.length - 1], nanosPerOperation[0], nanosPerOperation[nanosPerOperation.length - 1]),
+            slowdown < MAX_SLOWDOWN);
+    }
+
+    private long time(Operation operation, SyntheticHierarchy synthetic) throws ParseException {
+        final CliCommandHierarchy hierarchy = CliCommandHierarchyImpl.from(synthetic.getDef());
+
+        // Sample paths from all over the hierarchy.
+        final List<String> commandPaths = synthetic.getCommandPaths();
+        final List<String> paths = new ArrayList<>(NUM_SAMPLE_PATHS);
+        for (int i = 0; i < NUM_SAMPLE_PATHS; i++) {
+            paths.add(commandPaths.get((int) ((long) i * commandPaths.size() / NUM_SAMPLE_PATHS)));
+        }
+
+        long bestRound = Long.MAX_VALUE;
+        for (int round = 0; round < NUM_ROUNDS; round++) {
+            final long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS_PER_ROUND; i++) {
+                for (String path : paths) {
+                    operation.run(hierarchy, path, synthetic);
+                }
+            }
+            bestRound = Math.min(bestRound, System.nanoTime() - start);
+        }
+        return bestRound / (ITERATIONS_PER_ROUND * NUM_SAMPLE_PATHS);
+    }
+
+    private interface Operation {
+        void run(CliCommandHierarchy hierarchy, String path, SyntheticHierarchy synthetic) throws ParseException;
+    }
+}
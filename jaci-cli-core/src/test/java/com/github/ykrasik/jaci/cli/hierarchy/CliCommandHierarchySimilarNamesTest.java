@@ -0,0 +1,110 @@
+/******************************************************************************
+ * Copyright (C) 2015 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.cli.hierarchy;
+
+import com.github.ykrasik.jaci.api.CommandOutput;
+import com.github.ykrasik.jaci.cli.CliShell;
+import com.github.ykrasik.jaci.cli.exception.ParseException;
+import com.github.ykrasik.jaci.cli.output.CliOutput;
+import com.github.ykrasik.jaci.command.CommandArgs;
+import com.github.ykrasik.jaci.command.CommandDef;
+import com.github.ykrasik.jaci.command.CommandExecutor;
+import com.github.ykrasik.jaci.hierarchy.CommandHierarchyDef;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Yevgeny Krasik
+ */
+public class CliCommandHierarchySimilarNamesTest {
+    private static final CommandExecutor NO_OP = new CommandExecutor() {
+        @Override
+        public void execute(CommandOutput output, CommandArgs args) { }
+    };
+
+    @Test
+    public void testSystemCommandCloserThanWorkingDirectoryCommands() {
+        // 'jobsss' is 2 edits away from every command in the working directory, but only 1 edit away from 'jobs'.
+        final CliCommandHierarchy hierarchy = createHierarchy("jobsaa", "jobsab", "jobsac", "jobsad", "jobsae", "jobsaf");
+        assertEquals(Arrays.asList("jobs", "jobsaa", "jobsab", "jobsac", "jobsad"), getSimilarNames(hierarchy, "jobss"));
+    }
+
+    @Test
+    public void testSameDistanceInLexicographicOrder() {
+        // 'lss' is 1 edit away from both the system command 'ls' and the working directory command 'lsa'.
+        final CliCommandHierarchy hierarchy = createHierarchy("lsa", "cdx");
+        assertEquals(Arrays.asList("ls", "lsa"), getSimilarNames(hierarchy, "lss"));
+    }
+
+    @Test
+    public void testDidYouMean() {
+        final List<String> errors = new ArrayList<>();
+        final CliShell shell = new CliShell.Builder(createHierarchy("jobsaa", "jobsab", "jobsac", "jobsad", "jobsae", "jobsaf"), new CliOutput() {
+            @Override
+            public void begin() { }
+
+            @Override
+            public void end() { }
+
+            @Override
+            public void println(String text) { }
+
+            @Override
+            public void errorPrintln(String text) {
+                errors.add(text);
+            }
+
+            @Override
+            public void setWorkingDirectory(String workingDirectory) { }
+        }).build();
+
+        assertFalse(shell.execute("jobss"));
+        assertEquals("Did you mean: jobs, jobsaa, jobsab, jobsac, jobsad?", errors.get(errors.size() - 1));
+    }
+
+    @Test
+    public void testNoDuplicates() {
+        // A working directory command with the same name as a system command is only offered once.
+        final CliCommandHierarchy hierarchy = createHierarchy("man");
+        assertEquals(Arrays.asList("man"), getSimilarNames(hierarchy, "mab"));
+    }
+
+    private CliCommandHierarchy createHierarchy(String... commandNames) {
+        final CommandHierarchyDef.Builder builder = new CommandHierarchyDef.Builder();
+        for (String commandName : commandNames) {
+            builder.getRootDirectory().addCommandDefs(new CommandDef.Builder(commandName, NO_OP).build());
+        }
+        return CliCommandHierarchyImpl.from(builder.build());
+    }
+
+    private List<String> getSimilarNames(CliCommandHierarchy hierarchy, String commandName) {
+        try {
+            hierarchy.parsePathToCommand(commandName);
+            fail("Expected '" + commandName + "' to not be a command.");
+            return null;
+        } catch (ParseException e) {
+            return e.getSimilarNames();
+        }
+    }
+}
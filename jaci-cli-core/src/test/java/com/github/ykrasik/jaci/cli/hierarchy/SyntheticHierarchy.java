@@ -0,0 +1,231 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+
+package com.github.ykrasik.jaci.cli.hierarchy;
+
+import com.github.ykrasik.jaci.api.CommandOutput;
+import com.github.ykrasik.jaci.command.CommandArgs;
+import com.github.ykrasik.jaci.command.CommandDef;
+import com.github.ykrasik.jaci.command.CommandExecutor;
+import com.github.ykrasik.jaci.directory.CommandDirectoryDef;
+import com.github.ykrasik.jaci.hierarchy.CommandHierarchyDef;
+import com.github.ykrasik.jaci.param.BooleanParamDef;
+import com.github.ykrasik.jaci.param.IntParamDef;
+import com.github.ykrasik.jaci.param.ParamDef;
+import com.github.ykrasik.jaci.param.StringParamDef;
+import com.github.ykrasik.jaci.util.trie.Trie;
+import com.github.ykrasik.jaci.util.trie.Tries;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A synthetic {@link CommandHierarchyDef} of a configurable shape, for load and scaling tests.<br>
+ * Every directory has 'fanOut' child directories named 'dir0', 'dir1'... down to the configured depth,
+ * and 'commandsPerDirectory' commands named 'cmd0', 'cmd1'... - including the root.
+ * Every command has 'paramsPerCommand' params named 'param0', 'param1'... which cycle between a string param that
+ * accepts 'numValues' values named 'value0', 'value1'..., a mandatory int param and an optional boolean param.
+ * Commands do nothing when executed.<br>
+ * Built through the {@link SyntheticHierarchy.Builder} builder.
+ *
+ * @author Yevgeny Krasik
+ */
+public class SyntheticHierarchy {
+    private static final CommandExecutor NO_OP_EXECUTOR = new CommandExecutor() {
+        @Override
+        public void execute(CommandOutput output, CommandArgs args) {
+            // Nothing to do.
+        }
+    };
+
+    private final CommandHierarchyDef def;
+    private final List<String> commandPaths;
+    private final List<String> values;
+    private final List<String> args;
+
+    private SyntheticHierarchy(CommandHierarchyDef def, List<String> commandPaths, List<String> values, List<String> args) {
+        this.def = def;
+        this.commandPaths = commandPaths;
+        this.values = values;
+        this.args = args;
+    }
+
+    /**
+     * @return The generated {@link CommandHierarchyDef}.
+     */
+    public CommandHierarchyDef getDef() {
+        return def;
+    }
+
+    /**
+     * @return Paths to all the commands of this hierarchy, relative to the root, in the order they were generated.
+     */
+    public List<String> getCommandPaths() {
+        return commandPaths;
+    }
+
+    /**
+     * @return The values accepted by every string param.
+     */
+    public List<String> getValues() {
+        return values;
+    }
+
+    /**
+     * @return Positional args that are accepted by every command - the last value for every string param,
+     *         a number for every int param and 'true' for every boolean param.
+     */
+    public List<String> getArgs() {
+        return args;
+    }
+
+    /**
+     * @return The amount of commands in this hierarchy.
+     */
+    public int getNumCommands() {
+        return commandPaths.size();
+    }
+
+    /**
+     * A builder for a {@link SyntheticHierarchy}.
+     */
+    public static class Builder {
+        private int depth = 1;
+        private int fanOut = 10;
+        private int commandsPerDirectory = 10;
+        private int paramsPerCommand = 3;
+        private int numValues = 10;
+
+        /**
+         * @param depth Amount of directory levels under the root.
+         * @return {@code this}, for chaining.
+         */
+        public Builder setDepth(int depth) {
+            this.depth = depth;
+            return this;
+        }
+
+        /**
+         * @param fanOut Amount of child directories of every directory above the last level.
+         * @return {@code this}, for chaining.
+         */
+        public Builder setFanOut(int fanOut) {
+            this.fanOut = fanOut;
+            return this;
+        }
+
+        /**
+         * @param commandsPerDirectory Amount of commands in every directory.
+         * @return {@code this}, for chaining.
+         */
+        public Builder setCommandsPerDirectory(int commandsPerDirectory) {
+            this.commandsPerDirectory = commandsPerDirectory;
+            return this;
+        }
+
+        /**
+         * @param paramsPerCommand Amount of params of every command.
+         * @return {@code this}, for chaining.
+         */
+        public Builder setParamsPerCommand(int paramsPerCommand) {
+            this.paramsPerCommand = paramsPerCommand;
+            return this;
+        }
+
+        /**
+         * @param numValues Amount of values accepted by every string param.
+         * @return {@code this}, for chaining.
+         */
+        public Builder setNumValues(int numValues) {
+            this.numValues = numValues;
+            return this;
+        }
+
+        /**
+         * @return A {@link SyntheticHierarchy} built out of this builder's parameters.
+         */
+        public SyntheticHierarchy build() {
+            final List<String> values = createNames("value", numValues);
+
+            // All commands share the same params, which share the same values Trie.
+            final Trie<String> valuesTrie = Tries.toStringTrie(values);
+            final List<ParamDef<?>> paramDefs = new ArrayList<>(paramsPerCommand);
+            final List<String> args = new ArrayList<>(paramsPerCommand);
+            for (int i = 0; i < paramsPerCommand; i++) {
+                final String name = "param" + i;
+                switch (i % 3) {
+                    case 0:
+                        paramDefs.add(new StringParamDef.Builder(name).setStaticValues(valuesTrie).build());
+                        args.add(values.isEmpty() ? name : values.get(values.size() - 1));
+                        break;
+                    case 1:
+                        paramDefs.add(new IntParamDef.Builder(name).build());
+                        args.add(String.valueOf(i));
+                        break;
+                    default:
+                        paramDefs.add(new BooleanParamDef.Builder(name).setOptional(false).build());
+                        args.add("true");
+                }
+            }
+
+            final CommandHierarchyDef.Builder builder = new CommandHierarchyDef.Builder();
+            final List<String> commandPaths = new ArrayList<>();
+            populate(builder.getRootDirectory(), "", depth, paramDefs, commandPaths);
+            return new SyntheticHierarchy(
+                builder.build(),
+                Collections.unmodifiableList(commandPaths),
+                Collections.unmodifiableList(values),
+                Collections.unmodifiableList(args)
+            );
+        }
+
+        private void populate(CommandDirectoryDef.Builder dir,
+                              String path,
+                              int depthLeft,
+                              List<ParamDef<?>> paramDefs,
+                              List<String> commandPaths) {
+            final List<CommandDef> commandDefs = new ArrayList<>(commandsPerDirectory);
+            for (int i = 0; i < commandsPerDirectory; i++) {
+                final String name = "cmd" + i;
+                final CommandDef.Builder commandBuilder = new CommandDef.Builder(name, NO_OP_EXECUTOR).setDescription(name);
+                for (ParamDef<?> paramDef : paramDefs) {
+                    commandBuilder.addParam(paramDef);
+                }
+                commandDefs.add(commandBuilder.build());
+                commandPaths.add(path + name);
+            }
+            dir.addCommandDefs(commandDefs);
+
+            if (depthLeft == 0) {
+                return;
+            }
+            for (int i = 0; i < fanOut; i++) {
+                final String name = "dir" + i;
+                populate(dir.getOrCreateDirectory(name), path + name + '/', depthLeft - 1, paramDefs, commandPaths);
+            }
+        }
+
+        private static List<String> createNames(String prefix, int amount) {
+            final List<String> names = new ArrayList<>(amount);
+            for (int i = 0; i < amount; i++) {
+                names.add(prefix + i);
+            }
+            return names;
+        }
+    }
+}
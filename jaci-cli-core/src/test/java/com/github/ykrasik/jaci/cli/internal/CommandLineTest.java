@@ -0,0 +1,100 @@
+/******************************************************************************
+ * Copyright (C) 2015 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.cli.internal;
+
+import com.github.ykrasik.jaci.cli.commandline.CommandLine;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Yevgeny Krasik
+ */
+public class CommandLineTest {
+    @Test
+    public void testEmpty() {
+        assertExecute("");
+        assertExecute("   ");
+        assertAssist("", "");
+    }
+
+    @Test
+    public void testPathOnly() {
+        assertExecute("cmd", "cmd");
+        assertExecute("dir/cmd", "dir/cmd");
+        assertAssist("dir/cm", "dir/cm");
+    }
+
+    @Test
+    public void testArgs() {
+        assertExecute("dir/cmd arg1 arg2 arg3", "dir/cmd", "arg1", "arg2", "arg3");
+        assertExecute("cmd -name value", "cmd", "-name", "value");
+    }
+
+    @Test
+    public void testRepeatedSpaces() {
+        assertExecute("  cmd   arg1  arg2 ", "cmd", "arg1", "arg2");
+    }
+
+    @Test
+    public void testAssistNextArg() {
+        assertAssist("cmd ", "cmd", "");
+        assertAssist("cmd arg1   ", "cmd", "arg1", "");
+        assertAssist("cmd arg1", "cmd", "arg1");
+    }
+
+    @Test
+    public void testQuotes() {
+        assertExecute("cmd \"long string\" 'another long string'", "cmd", "long string", "another long string");
+        assertExecute("cmd \"it's\" '\"quoted\"'", "cmd", "it's", "\"quoted\"");
+        assertExecute("cmd \"\"", "cmd", "");
+    }
+
+    @Test
+    public void testQuotesEndWords() {
+        assertExecute("cmd a\"b c\"d", "cmd", "a", "b c", "d");
+    }
+
+    @Test
+    public void testUnterminatedQuote() {
+        assertExecute("cmd \"unterminated string", "cmd", "unterminated", "string");
+    }
+
+    private void assertExecute(String rawCommandLine, String... expected) {
+        assertElements(expected, CommandLine.forExecute(rawCommandLine));
+    }
+
+    private void assertAssist(String rawCommandLine, String... expected) {
+        assertElements(expected, CommandLine.forAssist(rawCommandLine));
+    }
+
+    private void assertElements(String[] expected, CommandLine commandLine) {
+        final List<String> expectedElements = Arrays.asList(expected);
+        assertEquals(expectedElements.isEmpty(), commandLine.isEmpty());
+        if (expectedElements.isEmpty()) {
+            return;
+        }
+        assertEquals(expectedElements.get(0), commandLine.getPathToCommand());
+        final List<String> expectedArgs = expectedElements.subList(1, expectedElements.size());
+        assertEquals(!expectedArgs.isEmpty(), commandLine.hasCommandArgs());
+        assertEquals(expectedArgs, commandLine.hasCommandArgs() ? commandLine.getCommandArgs() : Collections.<String>emptyList());
+    }
+}
@@ -48,4 +48,12 @@ public @interface Command {
      * @return Command description. If empty, a default description will be generated.
      */
     String description() default "";
+
+    /**
+     * A command that is still running after it's timeout expires is {@link CommandOutput#isCancelled() cancelled},
+     * and is considered to have failed.
+     *
+     * @return Command timeout, in milliseconds. If 0, the command has no timeout.
+     */
+    long timeoutMillis() default 0;
 }
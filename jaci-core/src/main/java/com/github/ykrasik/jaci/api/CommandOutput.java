@@ -54,4 +54,13 @@ public interface CommandOutput {
      * @param args Args for the format.
      */
     void error(String format, Object... args);
+
+    /**
+     * Cancellation is cooperative - nothing stops a running command from the outside.
+     * Commands that may run for a long time should check this periodically, and return as soon as it is {@code true}.
+     * A command is cancelled when it is explicitly killed, or when it's {@link Command#timeoutMillis() timeout} expires.
+     *
+     * @return {@code true} if the command currently being executed was cancelled.
+     */
+    boolean isCancelled();
 }
@@ -21,39 +21,64 @@ import com.github.ykrasik.jaci.api.CommandOutput;
 /**
  * A {@link CommandOutput} that promises to eventually contain a concrete implementation.
  * Delegates all calls to that concrete implementation.
- * This will be injected into objects expecting a {@link CommandOutput}, for the Annotation API.
+ * This will be injected into objects expecting a {@link CommandOutput}, for the Annotation API.<br>
+ * The concrete implementation is bound to the thread executing the command, so commands of the same object
+ * may be executed concurrently from different threads, each printing to it's own output.
+ * This also means that the output may only be used by the thread executing the command.
  *
  * @author Yevgeny Krasik
  */
 public class CommandOutputPromise implements CommandOutput {
-    private CommandOutput output;
+    private final ThreadLocal<CommandOutput> output = new ThreadLocal<>();
 
     /**
-     * Set the concrete {@link CommandOutput} implementation to delegate to.
+     * Set the concrete {@link CommandOutput} implementation to delegate to from the current thread.
+     * Callers are expected to restore the previous implementation once the command returns,
+     * in case commands are nested.
      *
-     * @param output Concrete implementation to delegate to.
+     * @param output Concrete implementation to delegate to, or {@code null} to unset.
+     * @return The previous implementation set for the current thread, or {@code null} if there was none.
      */
-    public void setOutput(CommandOutput output) {
-        this.output = output;
+    public CommandOutput setOutput(CommandOutput output) {
+        final CommandOutput previousOutput = this.output.get();
+        if (output != null) {
+            this.output.set(output);
+        } else {
+            this.output.remove();
+        }
+        return previousOutput;
+    }
+
+    private CommandOutput getOutput() {
+        final CommandOutput output = this.output.get();
+        if (output == null) {
+            throw new IllegalStateException("A CommandOutput may only be used by the thread executing the command!");
+        }
+        return output;
     }
 
     @Override
     public void message(String text) {
-        output.message(text);
+        getOutput().message(text);
     }
 
     @Override
     public void message(String format, Object... args) {
-        output.message(format, args);
+        getOutput().message(format, args);
     }
 
     @Override
     public void error(String text) {
-        output.error(text);
+        getOutput().error(text);
     }
 
     @Override
     public void error(String format, Object... args) {
-        output.error(format, args);
+        getOutput().error(format, args);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return getOutput().isCancelled();
     }
 }
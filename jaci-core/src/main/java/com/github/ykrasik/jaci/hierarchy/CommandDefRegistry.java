@@ -0,0 +1,44 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+
+package com.github.ykrasik.jaci.hierarchy;
+
+import com.github.ykrasik.jaci.command.CommandDef;
+import com.github.ykrasik.jaci.path.ParsedPath;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link CommandDef}s that a single class defines through annotations, already resolved at compile time.<br>
+ * Implementations are generated by the {@code jaci-processor} annotation processor: For every class that declares
+ * annotated commands, a class named after it with a {@code _CommandDefs} suffix is generated in the same package.
+ * The generated class takes an instance of the processed class, and creates the exact same {@link CommandDef}s
+ * that reflection would - without any reflection.<br>
+ * Added to a hierarchy through {@link CommandHierarchyDef.Builder#processRegistries(CommandDefRegistry...)}.
+ *
+ * @author Yevgeny Krasik
+ */
+public interface CommandDefRegistry {
+    /**
+     * Create the {@link CommandDef}s of the instance this registry was created with.
+     * Any {@link com.github.ykrasik.jaci.api.CommandOutput} fields of the instance will be injected as a side effect.
+     *
+     * @return The created {@link CommandDef}s, mapped by the path they were defined for.
+     */
+    Map<ParsedPath, List<CommandDef>> createCommandDefs();
+}
@@ -17,10 +17,14 @@
 package com.github.ykrasik.jaci.param;
 
 import com.github.ykrasik.jaci.Identifier;
+import com.github.ykrasik.jaci.util.function.Func;
 import com.github.ykrasik.jaci.util.function.Spplr;
 import com.github.ykrasik.jaci.util.function.MoreSuppliers;
 import com.github.ykrasik.jaci.util.opt.Opt;
+import com.github.ykrasik.jaci.util.trie.Trie;
+import com.github.ykrasik.jaci.util.trie.Tries;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -32,22 +36,30 @@ import java.util.List;
  * String parameters can be constrained to only accept certain values. There are 3 types of constraints:
  * <ol>
  * <li>None - All values are accepted. This is the default, applies if the accepted values list is empty.</li>
- * <li>Static - Only pre-defined values are accepted. Can be set through {@link StringParamDef.Builder#setStaticValues(List)}.</li>
+ * <li>Static - Only pre-defined values are accepted. Can be set through {@link StringParamDef.Builder#setStaticValues(List)},
+ * or {@link StringParamDef.Builder#setStaticValues(Trie)} for large value sets that were already loaded into a {@link Trie}.</li>
  * <li>Dynamic - The acceptable values are calculated at runtime, by invoking a {@link Spplr}.
  * Can be set through {@link StringParamDef.Builder#setDynamicValues(Spplr)}.</li>
  * </ol>
+ * All constraints end up as a {@link Trie} of the accepted values, only it's words matter.
  *
  * @author Yevgeny Krasik
  */
 public class StringParamDef extends AbstractParamDef<String> {
-    private final Spplr<List<String>> valuesSupplier;
+    private final Spplr<Trie<String>> valuesSupplier;
 
-    private StringParamDef(Identifier identifier, Opt<Spplr<String>> defaultValueSupplier,  Spplr<List<String>> valuesSupplier) {
+    /**
+     * Supplies the values as they were originally given, if they were given as a {@link List}.
+     */
+    private final Opt<Spplr<List<String>>> valuesListSupplier;
+
+    private StringParamDef(Identifier identifier, Opt<Spplr<String>> defaultValueSupplier,  Spplr<Trie<String>> valuesSupplier, Opt<Spplr<List<String>>> valuesListSupplier) {
         super(identifier, defaultValueSupplier);
         if (valuesSupplier == null) {
             throw new java.lang.NullPointerException("valuesSupplier");
         }
         this.valuesSupplier = valuesSupplier;
+        this.valuesListSupplier = valuesListSupplier;
     }
 
     @Override
@@ -57,9 +69,28 @@ public class StringParamDef extends AbstractParamDef<String> {
 
     /**
      * @return The accepted values {@link Spplr}. If the {@link List} returned by the supplier is empty, all values
-     * are accepted.
+     * are accepted.<br>
+     * If the values were given as a {@link List}, the supplier returns them as they were given.
+     * If they were given as a {@link Trie}, every call to the supplier copies the words of the Trie into a new list,
+     * in no particular order - prefer {@link #getValuesTrieSupplier()}, which copies nothing.
      */
     public Spplr<List<String>> getValuesSupplier() {
+        if (valuesListSupplier.isPresent()) {
+            return valuesListSupplier.get();
+        }
+        return new Spplr<List<String>>() {
+            @Override
+            public List<String> get() {
+                return new ArrayList<>(valuesSupplier.get().words());
+            }
+        };
+    }
+
+    /**
+     * @return The accepted values {@link Spplr}. If the {@link Trie} returned by the supplier is empty, all values
+     * are accepted. Only the words of the Trie matter.
+     */
+    public Spplr<Trie<String>> getValuesTrieSupplier() {
         return valuesSupplier;
     }
 
@@ -67,11 +98,19 @@ public class StringParamDef extends AbstractParamDef<String> {
      * A builder for a {@link StringParamDef}.
      */
     public static class Builder {
-        private static final Spplr<List<String>> NO_VALUES_SUPPLIER = MoreSuppliers.of(Collections.<String>emptyList());
+        private static final Spplr<Trie<String>> NO_VALUES_SUPPLIER = MoreSuppliers.of(Tries.<String>emptyTrie());
+        private static final Spplr<List<String>> NO_VALUES_LIST_SUPPLIER = MoreSuppliers.of(Collections.<String>emptyList());
+        private static final Func<List<String>, Trie<String>> TO_VALUES_TRIE = new Func<List<String>, Trie<String>>() {
+            @Override
+            public Trie<String> apply(List<String> values) {
+                return Tries.toStringTrie(values);
+            }
+        };
         private final String name;
         private String description = "string";
         private Opt<Spplr<String>> defaultValueSupplier = Opt.absent();
-        private Spplr<List<String>> valuesSupplier = NO_VALUES_SUPPLIER;
+        private Spplr<Trie<String>> valuesSupplier = NO_VALUES_SUPPLIER;
+        private Opt<Spplr<List<String>>> valuesListSupplier = Opt.of(NO_VALUES_LIST_SUPPLIER);
         /**
          * @param name Parameter name.
          */
@@ -137,17 +176,38 @@ public class StringParamDef extends AbstractParamDef<String> {
         }
         /**
          * Set this parameter to only accept a pre-defined {@link List} of values.
-         * If the values list is empty, all values will be accepted.
+         * If the values list is empty, all values will be accepted.<br>
+         * The {@link Trie} of the values is only built the first time it is needed, and then cached.
          *
          * @param values Values this parameter can accept. If empty, all values will be accepted.
          * @return {@code this}, for chaining.
          */
 
         public Builder setStaticValues( List<String> values) {
+            if (values == null) {
+                throw new java.lang.NullPointerException("values");
+            }
+            final Spplr<List<String>> valuesListSupplier = MoreSuppliers.of(values);
+            this.valuesSupplier = MoreSuppliers.cache(MoreSuppliers.map(valuesListSupplier, TO_VALUES_TRIE));
+            this.valuesListSupplier = Opt.of(valuesListSupplier);
+            return this;
+        }
+        /**
+         * Set this parameter to only accept the words of a pre-defined {@link Trie}. The Trie's values are ignored.
+         * If the Trie is empty, all values will be accepted.<br>
+         * The Trie is used as is, so a Trie that was loaded from a binary file (like a
+         * {@code com.github.ykrasik.jaci.util.trie.BinaryTrie}) stays off-heap and needs no rebuilding.
+         *
+         * @param values Trie of values this parameter can accept. If empty, all values will be accepted.
+         * @return {@code this}, for chaining.
+         */
+
+        public Builder setStaticValues( Trie<String> values) {
             if (values == null) {
                 throw new java.lang.NullPointerException("values");
             }
             this.valuesSupplier = MoreSuppliers.of(values);
+            this.valuesListSupplier = Opt.absent();
             return this;
         }
         /**
@@ -163,7 +223,8 @@ public class StringParamDef extends AbstractParamDef<String> {
             if (valuesSupplier == null) {
                 throw new java.lang.NullPointerException("valuesSupplier");
             }
-            this.valuesSupplier = valuesSupplier;
+            this.valuesSupplier = MoreSuppliers.map(valuesSupplier, TO_VALUES_TRIE);
+            this.valuesListSupplier = Opt.of(valuesSupplier);
             return this;
         }
         /**
@@ -172,7 +233,7 @@ public class StringParamDef extends AbstractParamDef<String> {
 
         public StringParamDef build() {
             final Identifier identifier = new Identifier(name, description);
-            return new StringParamDef(identifier, defaultValueSupplier, valuesSupplier);
+            return new StringParamDef(identifier, defaultValueSupplier, valuesSupplier, valuesListSupplier);
         }
 
         @java.lang.Override
@@ -192,8 +253,8 @@ public class StringParamDef extends AbstractParamDef<String> {
         final StringParamDef other = (StringParamDef)o;
         if (!other.canEqual((java.lang.Object)this)) return false;
         if (!super.equals(o)) return false;
-        final java.lang.Object this$valuesSupplier = this.getValuesSupplier();
-        final java.lang.Object other$valuesSupplier = other.getValuesSupplier();
+        final java.lang.Object this$valuesSupplier = this.getValuesTrieSupplier();
+        final java.lang.Object other$valuesSupplier = other.getValuesTrieSupplier();
         if (this$valuesSupplier == null ? other$valuesSupplier != null : !this$valuesSupplier.equals(other$valuesSupplier)) return false;
         return true;
     }
@@ -211,7 +272,7 @@ public class StringParamDef extends AbstractParamDef<String> {
         final int PRIME = 59;
         int result = 1;
         result = result * PRIME + super.hashCode();
-        final java.lang.Object $valuesSupplier = this.getValuesSupplier();
+        final java.lang.Object $valuesSupplier = this.getValuesTrieSupplier();
         result = result * PRIME + ($valuesSupplier == null ? 43 : $valuesSupplier.hashCode());
         return result;
     }
@@ -0,0 +1,149 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+
+package com.github.ykrasik.jaci.reflection.method;
+
+import com.badlogic.gdx.utils.reflect.Method;
+import com.github.ykrasik.jaci.api.CommandOutput;
+import com.github.ykrasik.jaci.command.CommandArgs;
+import com.github.ykrasik.jaci.command.CommandExecutor;
+import com.github.ykrasik.jaci.command.CommandOutputPromise;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * A {@link CommandExecutor} that calls the underlying {@link Method} through a {@link MethodHandle}.
+ * The handle is bound to the instance and adapted to the amount of the method's params once, on construction.
+ * Executing is then a direct call with the args popped straight from the {@link CommandArgs}, which are only unboxed
+ * to the method's exact param types - there are no reflective access checks, and the args aren't copied into an array
+ * (unless the method has a lot of params).
+ * Keeps an instance of a {@link CommandOutputPromise}, which the method may call in it's implementation.<br>
+ * Not available under GWT, where commands are always executed by a {@link ReflectionCommandExecutor}.
+ *
+ * @author Yevgeny Krasik
+ */
+public class MethodHandleCommandExecutor implements CommandExecutor {
+    /**
+     * Methods with up to this amount of params are invoked with the exact amount of args.
+     */
+    private static final int MAX_EXACT_ARITY = 6;
+
+    private final CommandOutputPromise outputPromise;
+    private final Method method;
+    private final MethodHandle handle;
+    private final int arity;
+
+    private MethodHandleCommandExecutor(CommandOutputPromise outputPromise, Method method, MethodHandle handle, int arity) {
+        this.outputPromise = outputPromise;
+        this.method = method;
+        this.handle = handle;
+        this.arity = arity;
+    }
+
+    @Override
+    public void execute(CommandOutput output, CommandArgs args) throws Exception {
+        // The underlying method may access a CommandOutput field which is expected to be injected.
+        // This is implemented by injecting a CommandOutputPromise into the field, and setting it's value
+        // before calling the method, and restoring it after.
+        final CommandOutput previousOutput = outputPromise.setOutput(output);
+        try {
+            invoke(args);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
+        } finally {
+            outputPromise.setOutput(previousOutput);
+        }
+    }
+
+    private void invoke(CommandArgs args) throws Throwable {
+        // The handle takes 'arity' Objects and returns void, so every call must have exactly that signature.
+        // Java guarantees the args are evaluated (and popped) from left to right.
+        switch (arity) {
+            case 0: handle.invokeExact(); break;
+            case 1: handle.invokeExact(next(args)); break;
+            case 2: handle.invokeExact(next(args), next(args)); break;
+            case 3: handle.invokeExact(next(args), next(args), next(args)); break;
+            case 4: handle.invokeExact(next(args), next(args), next(args), next(args)); break;
+            case 5: handle.invokeExact(next(args), next(args), next(args), next(args), next(args)); break;
+            case 6: handle.invokeExact(next(args), next(args), next(args), next(args), next(args), next(args)); break;
+            default: handle.invokeExact(args.getArgs().toArray());
+        }
+    }
+
+    private static Object next(CommandArgs args) {
+        return args.popArg();
+    }
+
+    @Override
+    public String toString() {
+        return "MethodHandleCommandExecutor(outputPromise=" + this.outputPromise + ", method=" + this.method + ")";
+    }
+
+    /**
+     * Create a {@link CommandExecutor} that calls the {@link Method} on the instance.
+     * The method is bound to a {@link MethodHandleCommandExecutor} if possible. If the method can't be looked up
+     * for a {@link MethodHandle} (for example, when denied by a security manager or by the module system),
+     * a {@link ReflectionCommandExecutor} is returned instead.
+     *
+     * @param outputPromise Output promise to set the output of every execution to.
+     * @param instance Instance to call the method on.
+     * @param method Method to call.
+     * @return A {@link CommandExecutor} that calls the method on the instance.
+     */
+    public static CommandExecutor from(CommandOutputPromise outputPromise, Object instance, Method method) {
+        if (outputPromise == null) {
+            throw new java.lang.NullPointerException("outputPromise");
+        }
+        if (instance == null) {
+            throw new java.lang.NullPointerException("instance");
+        }
+        if (method == null) {
+            throw new java.lang.NullPointerException("method");
+        }
+        final MethodHandle methodHandle;
+        try {
+            methodHandle = unreflect(method);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // RuntimeExceptions include SecurityException and, on Java 9+, InaccessibleObjectException.
+            return new ReflectionCommandExecutor(outputPromise, instance, method);
+        }
+
+        final MethodHandle boundHandle = method.isStatic() ? methodHandle : methodHandle.bindTo(instance);
+        final int arity = boundHandle.type().parameterCount();
+        final MethodHandle handle;
+        if (arity <= MAX_EXACT_ARITY) {
+            handle = boundHandle.asType(MethodType.genericMethodType(arity).changeReturnType(void.class));
+        } else {
+            handle = boundHandle.asSpreader(Object[].class, arity).asType(MethodType.methodType(void.class, Object[].class));
+        }
+        return new MethodHandleCommandExecutor(outputPromise, method, handle, arity);
+    }
+
+    private static MethodHandle unreflect(Method method) throws ReflectiveOperationException {
+        // Gdx's Method returns a raw Class.
+        final Class<?> declaringClass = method.getDeclaringClass();
+        final java.lang.reflect.Method javaMethod = declaringClass.getDeclaredMethod(method.getName(), method.getParameterTypes());
+        javaMethod.setAccessible(true);
+
+        // Varargs methods take their last param as an array, like any other method.
+        return MethodHandles.lookup().unreflect(javaMethod).asFixedArity();
+    }
+}
@@ -19,8 +19,10 @@ package com.github.ykrasik.jaci.reflection.method.factory;
 import com.badlogic.gdx.utils.reflect.Method;
 import com.github.ykrasik.jaci.api.Command;
 import com.github.ykrasik.jaci.command.CommandDef;
+import com.github.ykrasik.jaci.command.CommandExecutor;
 import com.github.ykrasik.jaci.command.CommandOutputPromise;
 import com.github.ykrasik.jaci.param.ParamDef;
+import com.github.ykrasik.jaci.reflection.method.MethodHandleCommandExecutor;
 import com.github.ykrasik.jaci.reflection.method.ReflectionCommandExecutor;
 import com.github.ykrasik.jaci.reflection.param.ReflectionParamProcessor;
 import com.github.ykrasik.jaci.util.opt.Opt;
@@ -44,7 +46,7 @@ public class DefaultAnnotationMethodCommandFactory extends AbstractAnnotationMet
 
     /**
      * @param outputPromise An {@link CommandOutputPromise} that will be injected into the instance containing the methods.
-     *                      Used by the {@link ReflectionCommandExecutor}s constructed by this factory.
+     *                      Used by the {@link CommandExecutor}s constructed by this factory.
      */
     public DefaultAnnotationMethodCommandFactory(CommandOutputPromise outputPromise) {
         this(outputPromise, new ReflectionParamProcessor());
@@ -66,12 +68,13 @@ public class DefaultAnnotationMethodCommandFactory extends AbstractAnnotationMet
         final List<ReflectionParameter> params = ReflectionUtils.reflectMethodParameters(method);
 
         final String name = getNonEmptyString(annotation.value()).getOrElse(method.getName());
-        final CommandDef.Builder builder = new CommandDef.Builder(name, new ReflectionCommandExecutor(outputPromise, instance, method));
+        final CommandDef.Builder builder = new CommandDef.Builder(name, createExecutor(instance, method));
 
         final Opt<String> description = getNonEmptyString(annotation.description());
         if (description.isPresent()) {
             builder.setDescription(description.get());
         }
+        builder.setTimeoutMillis(annotation.timeoutMillis());
 
         for (ReflectionParameter param : params) {
             final ParamDef<?> paramDef = paramProcessor.createParam(instance, param);
@@ -80,4 +83,13 @@ public class DefaultAnnotationMethodCommandFactory extends AbstractAnnotationMet
 
         return builder.build();
     }
+
+    private CommandExecutor createExecutor(Object instance, Method method) {
+        try {
+            return MethodHandleCommandExecutor.from(outputPromise, instance, method);
+        } catch (LinkageError e) {
+            // java.lang.invoke isn't available on every platform (Android before API 26, RoboVM).
+            return new ReflectionCommandExecutor(outputPromise, instance, method);
+        }
+    }
 }
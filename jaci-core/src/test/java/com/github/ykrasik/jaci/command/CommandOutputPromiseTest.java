@@ -0,0 +1,199 @@
+/******************************************************************************
+ * Copyright (C) 2015 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.command;
+
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import com.badlogic.gdx.utils.reflect.Method;
+import com.github.ykrasik.jaci.api.CommandOutput;
+import com.github.ykrasik.jaci.reflection.method.MethodHandleCommandExecutor;
+import com.github.ykrasik.jaci.reflection.method.ReflectionCommandExecutor;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Yevgeny Krasik
+ */
+public class CommandOutputPromiseTest {
+    private static final int NUM_THREADS = 8;
+    private static final int NUM_EXECUTIONS = 50;
+    private static final int NUM_MESSAGES = 100;
+
+    private CommandOutputPromise outputPromise;
+    private Commands instance;
+
+    @Before
+    public void setUp() {
+        outputPromise = new CommandOutputPromise();
+        instance = new Commands(outputPromise);
+    }
+
+    @Test
+    public void testConcurrentMethodHandleExecutions() throws Exception {
+        assertOutputsNeverMix(MethodHandleCommandExecutor.from(outputPromise, instance, getMethod("echo")));
+    }
+
+    @Test
+    public void testConcurrentReflectionExecutions() throws Exception {
+        assertOutputsNeverMix(new ReflectionCommandExecutor(outputPromise, instance, getMethod("echo")));
+    }
+
+    @Test
+    public void testNestedExecutionRestoresOutput() throws Exception {
+        final RecordingOutput innerOutput = new RecordingOutput();
+        final RecordingOutput outerOutput = new RecordingOutput();
+        final CommandExecutor echo = MethodHandleCommandExecutor.from(outputPromise, instance, getMethod("echo"));
+        final NestingCommands nestingInstance = new NestingCommands(outputPromise, echo, innerOutput);
+        final CommandExecutor outer = MethodHandleCommandExecutor.from(outputPromise, nestingInstance, getMethod(NestingCommands.class, "outer"));
+
+        outer.execute(outerOutput, new CommandArgsImpl(new ArrayList<>()));
+        assertEquals(NUM_MESSAGES, innerOutput.messages.size());
+        assertEquals(Arrays.asList("outer"), outerOutput.messages);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnboundThread() {
+        outputPromise.message("text");
+    }
+
+    @Test
+    public void testUnboundAfterExecution() throws Exception {
+        MethodHandleCommandExecutor.from(outputPromise, instance, getMethod("echo"))
+            .execute(new RecordingOutput(), new CommandArgsImpl(Arrays.<Object>asList("id")));
+        try {
+            outputPromise.message("text");
+            fail();
+        } catch (IllegalStateException ignored) { }
+    }
+
+    private void assertOutputsNeverMix(final CommandExecutor executor) throws Exception {
+        final CyclicBarrier barrier = new CyclicBarrier(NUM_THREADS);
+        final ExecutorService threads = Executors.newFixedThreadPool(NUM_THREADS);
+        try {
+            final List<Future<RecordingOutput>> results = new ArrayList<>(NUM_THREADS);
+            for (int i = 0; i < NUM_THREADS; i++) {
+                final String id = "thread" + i;
+                results.add(threads.submit(new Callable<RecordingOutput>() {
+                    @Override
+                    public RecordingOutput call() throws Exception {
+                        final RecordingOutput output = new RecordingOutput();
+                        barrier.await(10, TimeUnit.SECONDS);
+                        for (int j = 0; j < NUM_EXECUTIONS; j++) {
+                            executor.execute(output, new CommandArgsImpl(Arrays.<Object>asList(id)));
+                        }
+                        return output;
+                    }
+                }));
+            }
+
+            for (int i = 0; i < NUM_THREADS; i++) {
+                final RecordingOutput output = results.get(i).get(30, TimeUnit.SECONDS);
+                assertEquals(NUM_EXECUTIONS * NUM_MESSAGES, output.messages.size());
+                for (String message : output.messages) {
+                    assertEquals("thread" + i, message);
+                }
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    private Method getMethod(String name) {
+        return getMethod(Commands.class, name);
+    }
+
+    private Method getMethod(Class<?> clazz, String name) {
+        for (Method method : ClassReflection.getDeclaredMethods(clazz)) {
+            if (method.getName().equals(name)) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    public static class Commands {
+        private final CommandOutput output;
+
+        Commands(CommandOutput output) {
+            this.output = output;
+        }
+
+        public void echo(String id) {
+            for (int i = 0; i < NUM_MESSAGES; i++) {
+                output.message(id);
+                Thread.yield();
+            }
+        }
+    }
+
+    public static class NestingCommands {
+        private final CommandOutput output;
+        private final CommandExecutor inner;
+        private final CommandOutput innerOutput;
+
+        NestingCommands(CommandOutput output, CommandExecutor inner, CommandOutput innerOutput) {
+            this.output = output;
+            this.inner = inner;
+            this.innerOutput = innerOutput;
+        }
+
+        public void outer() throws Exception {
+            inner.execute(innerOutput, new CommandArgsImpl(Arrays.<Object>asList("inner")));
+            output.message("outer");
+        }
+    }
+
+    private static class RecordingOutput implements CommandOutput {
+        private final List<String> messages = new ArrayList<>();
+
+        @Override
+        public void message(String text) {
+            messages.add(text);
+        }
+
+        @Override
+        public void message(String format, Object... args) {
+            messages.add(String.format(format, args));
+        }
+
+        @Override
+        public void error(String text) {
+            messages.add(text);
+        }
+
+        @Override
+        public void error(String format, Object... args) {
+            messages.add(String.format(format, args));
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    }
+}
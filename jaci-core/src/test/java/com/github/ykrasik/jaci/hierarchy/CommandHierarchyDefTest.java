@@ -0,0 +1,140 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+
+package com.github.ykrasik.jaci.hierarchy;
+
+import com.github.ykrasik.jaci.api.Command;
+import com.github.ykrasik.jaci.api.CommandPath;
+import com.github.ykrasik.jaci.command.CommandDef;
+import com.github.ykrasik.jaci.directory.CommandDirectoryDef;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Yevgeny Krasik
+ */
+public class CommandHierarchyDefTest {
+    @Test
+    public void testParallelSameAsSerial() {
+        final Class<?>[] classes = { RootCommands.class, DirCommands.class, MoreDirCommands.class, NestedCommands.class, OtherCommands.class };
+        final String serial = describe(new CommandHierarchyDef.Builder().processClasses(classes).build());
+        final String parallel = describe(new CommandHierarchyDef.Builder().setParallel(true).processClasses(classes).build());
+        assertEquals(serial, parallel);
+        assertEquals("root[dir[a, b, c, d, nested[e]], other[f], root1, root2]", parallel);
+    }
+
+    @Test
+    public void testParallelObjectsSameAsSerial() {
+        final String serial = describe(new CommandHierarchyDef.Builder()
+            .process(new RootCommands(), new DirCommands(), new NestedCommands()).build());
+        final String parallel = describe(new CommandHierarchyDef.Builder().setParallel(true)
+            .process(new RootCommands(), new DirCommands(), new NestedCommands()).build());
+        assertEquals(serial, parallel);
+    }
+
+    @Test
+    public void testParallelNameConflict() {
+        final Class<?>[] classes = { DirCommands.class, ConflictingCommands.class, OtherCommands.class };
+        final IllegalArgumentException serial = assertProcessFails(IllegalArgumentException.class, new CommandHierarchyDef.Builder(), classes);
+        final IllegalArgumentException parallel = assertProcessFails(IllegalArgumentException.class, new CommandHierarchyDef.Builder().setParallel(true), classes);
+        assertEquals(serial.getMessage(), parallel.getMessage());
+    }
+
+    @Test
+    public void testParallelFailureStopsAtFailedClass() {
+        final Class<?>[] classes = { RootCommands.class, NoDefaultConstructor.class, OtherCommands.class };
+        final CommandHierarchyDef.Builder serialBuilder = new CommandHierarchyDef.Builder();
+        final CommandHierarchyDef.Builder parallelBuilder = new CommandHierarchyDef.Builder().setParallel(true);
+        assertProcessFails(RuntimeException.class, serialBuilder, classes);
+        assertProcessFails(RuntimeException.class, parallelBuilder, classes);
+
+        // Only the classes before the failed class were added.
+        assertEquals("root[root1, root2]", describe(serialBuilder.build()));
+        assertEquals(describe(serialBuilder.build()), describe(parallelBuilder.build()));
+    }
+
+    private <T extends RuntimeException> T assertProcessFails(Class<T> expected, CommandHierarchyDef.Builder builder, Class<?>... classes) {
+        try {
+            builder.processClasses(classes);
+        } catch (RuntimeException e) {
+            assertEquals(expected, e.getClass());
+            return expected.cast(e);
+        }
+        fail("Processing should have failed!");
+        return null;
+    }
+
+    /**
+     * @return A string describing the directory, with children sorted by name so it doesn't depend on build order.
+     */
+    private String describe(CommandHierarchyDef hierarchy) {
+        return describe(hierarchy.getRoot());
+    }
+
+    private String describe(CommandDirectoryDef directory) {
+        final List<String> children = new ArrayList<>();
+        for (CommandDirectoryDef child : directory.getDirectoryDefs()) {
+            children.add(describe(child));
+        }
+        for (CommandDef command : directory.getCommandDefs()) {
+            children.add(command.getIdentifier().getName());
+        }
+        Collections.sort(children);
+        return directory.getIdentifier().getName() + children;
+    }
+
+    public static class RootCommands {
+        @Command public void root1() { }
+        @Command public void root2() { }
+    }
+
+    @CommandPath("dir")
+    public static class DirCommands {
+        @Command public void a() { }
+        @Command public void b() { }
+    }
+
+    @CommandPath("dir")
+    public static class MoreDirCommands {
+        @Command public void c() { }
+        @Command public void d() { }
+    }
+
+    public static class NestedCommands {
+        @Command @CommandPath("dir/nested") public void e() { }
+    }
+
+    @CommandPath("other")
+    public static class OtherCommands {
+        @Command public void f() { }
+    }
+
+    public static class ConflictingCommands {
+        @Command @CommandPath("dir") public void a() { }
+    }
+
+    public static class NoDefaultConstructor {
+        public NoDefaultConstructor(int i) { }
+
+        @Command public void g() { }
+    }
+}
@@ -0,0 +1,72 @@
+/******************************************************************************
+ * Copyright (C) 2015 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.param;
+
+import com.github.ykrasik.jaci.util.function.Spplr;
+import com.github.ykrasik.jaci.util.trie.Tries;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Yevgeny Krasik
+ */
+public class StringParamDefTest {
+    @Test
+    public void testStaticValuesListKeepsOrder() {
+        final List<String> values = Arrays.asList("c", "a", "b");
+        final StringParamDef def = new StringParamDef.Builder("param").setStaticValues(values).build();
+        assertSame(values, def.getValuesSupplier().get());
+        assertEquals(new HashSet<>(values), new HashSet<>(def.getValuesTrieSupplier().get().words()));
+    }
+
+    @Test
+    public void testStaticValuesTrieBuiltOnce() {
+        final StringParamDef def = new StringParamDef.Builder("param").setStaticValues("a", "b").build();
+        assertSame(def.getValuesTrieSupplier().get(), def.getValuesTrieSupplier().get());
+    }
+
+    @Test
+    public void testDynamicValuesListKeepsOrder() {
+        final List<String> values = Arrays.asList("c", "a", "b");
+        final StringParamDef def = new StringParamDef.Builder("param").setDynamicValues(new Spplr<List<String>>() {
+            @Override
+            public List<String> get() {
+                return values;
+            }
+        }).build();
+        assertSame(values, def.getValuesSupplier().get());
+    }
+
+    @Test
+    public void testTrieValuesList() {
+        final StringParamDef def = new StringParamDef.Builder("param").setStaticValues(Tries.toStringTrie("c", "a", "b")).build();
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), new HashSet<>(def.getValuesSupplier().get()));
+    }
+
+    @Test
+    public void testNoValues() {
+        final StringParamDef def = new StringParamDef.Builder("param").build();
+        assertEquals(Collections.<String>emptyList(), def.getValuesSupplier().get());
+        assertTrue(def.getValuesTrieSupplier().get().isEmpty());
+    }
+}
@@ -0,0 +1,211 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+
+package com.github.ykrasik.jaci.reflection.method;
+
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import com.badlogic.gdx.utils.reflect.Method;
+import com.github.ykrasik.jaci.api.CommandOutput;
+import com.github.ykrasik.jaci.command.CommandArgsImpl;
+import com.github.ykrasik.jaci.command.CommandExecutor;
+import com.github.ykrasik.jaci.command.CommandOutputPromise;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Yevgeny Krasik
+ */
+public class MethodHandleCommandExecutorTest {
+    private CommandOutputPromise outputPromise;
+    private RecordingOutput output;
+    private Commands instance;
+
+    @Before
+    public void setUp() {
+        outputPromise = new CommandOutputPromise();
+        output = new RecordingOutput();
+        instance = new Commands(outputPromise);
+    }
+
+    @Test
+    public void testNoParams() throws Exception {
+        execute("noParams");
+        assertEquals(Arrays.<Object>asList("noParams"), instance.calls);
+    }
+
+    @Test
+    public void testPrimitiveParams() throws Exception {
+        execute("primitiveParams", 3, 2.5, true, "str");
+        assertEquals(Arrays.<Object>asList("primitiveParams", 3, 2.5, true, "str"), instance.calls);
+    }
+
+    @Test
+    public void testBoxedParams() throws Exception {
+        execute("boxedParams", 3, 2.5, false);
+        assertEquals(Arrays.<Object>asList("boxedParams", 3, 2.5, false), instance.calls);
+    }
+
+    @Test
+    public void testManyParams() throws Exception {
+        execute("manyParams", 1, 2, 3, 4, 5, 6, 7);
+        assertEquals(Arrays.<Object>asList("manyParams", 1, 2, 3, 4, 5, 6, 7), instance.calls);
+    }
+
+    @Test
+    public void testReturnValueIgnored() throws Exception {
+        execute("returnsValue", "str");
+        assertEquals(Arrays.<Object>asList("returnsValue", "str"), instance.calls);
+    }
+
+    @Test
+    public void testPrivateMethod() throws Exception {
+        execute("privateMethod");
+        assertEquals(Arrays.<Object>asList("privateMethod"), instance.calls);
+    }
+
+    @Test
+    public void testOutput() throws Exception {
+        execute("printMessage", "text");
+        assertEquals(Arrays.asList("text"), output.messages);
+    }
+
+    @Test
+    public void testExceptionNotWrapped() throws Exception {
+        try {
+            execute("throwsException");
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("failed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testWrongArgType() throws Exception {
+        try {
+            execute("primitiveParams", "3", 2.5, true, "str");
+            fail();
+        } catch (ClassCastException ignored) { }
+        assertTrue(instance.calls.isEmpty());
+    }
+
+    @Test
+    public void testInaccessibleMethod() throws Exception {
+        // On Java 9+, methods of classes in modules that aren't opened can't be made accessible.
+        // This must not fail creating an executor.
+        Method privateMethod = null;
+        for (Method method : ClassReflection.getDeclaredMethods(ArrayList.class)) {
+            if (method.isPrivate() && !method.isStatic()) {
+                privateMethod = method;
+                break;
+            }
+        }
+        assertNotNull(privateMethod);
+        assertNotNull(MethodHandleCommandExecutor.from(outputPromise, new ArrayList<>(), privateMethod));
+    }
+
+    private void execute(String methodName, Object... args) throws Exception {
+        final CommandExecutor executor = MethodHandleCommandExecutor.from(outputPromise, instance, getMethod(methodName));
+        assertTrue(executor instanceof MethodHandleCommandExecutor);
+        executor.execute(output, new CommandArgsImpl(Arrays.asList(args)));
+    }
+
+    private Method getMethod(String name) {
+        for (Method method : ClassReflection.getDeclaredMethods(Commands.class)) {
+            if (method.getName().equals(name)) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    private static class Commands {
+        private final CommandOutput output;
+        private final List<Object> calls = new ArrayList<>();
+
+        Commands(CommandOutput output) {
+            this.output = output;
+        }
+
+        public void noParams() {
+            calls.add("noParams");
+        }
+
+        public void primitiveParams(int i, double d, boolean b, String str) {
+            calls.addAll(Arrays.<Object>asList("primitiveParams", i, d, b, str));
+        }
+
+        public void boxedParams(Integer i, Double d, Boolean b) {
+            calls.addAll(Arrays.<Object>asList("boxedParams", i, d, b));
+        }
+
+        public void manyParams(int a, int b, int c, int d, int e, int f, int g) {
+            calls.addAll(Arrays.<Object>asList("manyParams", a, b, c, d, e, f, g));
+        }
+
+        public String returnsValue(String str) {
+            calls.addAll(Arrays.<Object>asList("returnsValue", str));
+            return str;
+        }
+
+        private void privateMethod() {
+            calls.add("privateMethod");
+        }
+
+        public void printMessage(String text) {
+            output.message(text);
+        }
+
+        public void throwsException() {
+            throw new IllegalStateException("failed");
+        }
+    }
+
+    private static class RecordingOutput implements CommandOutput {
+        private final List<String> messages = new ArrayList<>();
+
+        @Override
+        public void message(String text) {
+            messages.add(text);
+        }
+
+        @Override
+        public void message(String format, Object... args) {
+            messages.add(String.format(format, args));
+        }
+
+        @Override
+        public void error(String text) {
+            messages.add(text);
+        }
+
+        @Override
+        public void error(String format, Object... args) {
+            messages.add(String.format(format, args));
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    }
+}
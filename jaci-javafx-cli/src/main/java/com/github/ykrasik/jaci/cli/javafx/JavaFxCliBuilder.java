@@ -33,6 +33,7 @@ import javafx.scene.control.TextField;
 import javafx.scene.input.KeyEvent;
 
 import java.net.URL;
+import java.util.concurrent.Executor;
 
 /**
  * A CLI builder for JavaFx.<br>
@@ -60,6 +61,8 @@ public class JavaFxCliBuilder {
     // TODO: Add Max textArea size.
     private URL fxmlUrl;
     private int maxCommandHistory = 30;
+    private boolean lazyHierarchy;
+    private Executor executor;
 
     /**
      * Process the classes and add any commands defined through annotations to this builder.
@@ -84,6 +87,34 @@ public class JavaFxCliBuilder {
         return this;
     }
 
+    /**
+     * Set whether the CLI's directories and commands are only created when first accessed, instead of when the CLI is built.
+     * Speeds up building a CLI with a large amount of commands, most of which aren't used.
+     *
+     * @param lazyHierarchy Whether to create directories and commands lazily.
+     * @return {@code this}, for chaining.
+     */
+    public JavaFxCliBuilder setLazyHierarchy(boolean lazyHierarchy) {
+        this.lazyHierarchy = lazyHierarchy;
+        return this;
+    }
+
+    /**
+     * Set an {@link Executor} to execute commands on, instead of the JavaFx application thread.
+     * Commands that take a long time to execute will not freeze the UI, and the output of each command is printed
+     * once it finishes, in the order the commands were entered.
+     *
+     * @param executor Executor to execute commands on.
+     * @return {@code this}, for chaining.
+     */
+    public JavaFxCliBuilder setExecutor( Executor executor) {
+        if (executor == null) {
+            throw new java.lang.NullPointerException("executor");
+        }
+        this.executor = executor;
+        return this;
+    }
+
     /**
      * Set the maximum amount of command history entries to keep.
      *
@@ -140,7 +171,8 @@ public class JavaFxCliBuilder {
      */
     public Parent build() {
         try {
-            final CliCommandHierarchy hierarchy = CliCommandHierarchyImpl.from(hierarchyBuilder.build());
+            final CommandHierarchyDef hierarchyDef = hierarchyBuilder.build();
+            final CliCommandHierarchy hierarchy = lazyHierarchy ? CliCommandHierarchyImpl.lazyFrom(hierarchyDef) : CliCommandHierarchyImpl.from(hierarchyDef);
             final URL fxmlUrl = getFxmlUrl();
             final FXMLLoader loader = new FXMLLoader(fxmlUrl);
             final Parent cliNode = (Parent)loader.load();
@@ -150,16 +182,20 @@ public class JavaFxCliBuilder {
             // Label for 'working directory'.
             final Label workingDirectory = (Label)cliNode.lookup("#workingDirectory");
             // The above combine into a CliOutput.
-            final CliOutput output = new JavaFxCliOutput(textArea, workingDirectory);
+            final CliOutput output = new JavaFxCliOutput(textArea, workingDirectory, executor != null);
             // TextField as command line.
             final TextField commandLine = (TextField)cliNode.lookup("#commandLine");
             final CommandLineManager commandLineManager = new JavaFxCommandLineManager(commandLine);
             // Create the shell and the actual CLI.
-            final CliShell shell = new CliShell.Builder(hierarchy, output).setMaxCommandHistory(maxCommandHistory).build();
+            final CliShell.Builder shellBuilder = new CliShell.Builder(hierarchy, output).setMaxCommandHistory(maxCommandHistory);
+            if (executor != null) {
+                shellBuilder.setExecutor(executor);
+            }
+            final CliShell shell = shellBuilder.build();
             final Cli cli = new Cli(shell, commandLineManager);
             // Hook input events to CLI events.
             commandLine.requestFocus();
-            commandLine.addEventFilter(KeyEvent.KEY_PRESSED, new JavaFxCliEventHandler(cli));
+            commandLine.addEventFilter(KeyEvent.KEY_PRESSED, new JavaFxCliEventHandler(cli, executor != null));
             return cliNode;
         } catch (final java.lang.Throwable $ex) {
             throw lombok.Lombok.sneakyThrow($ex);
@@ -30,16 +30,30 @@ import java.io.Console;
  */
 public class JavaFxCliEventHandler implements EventHandler<KeyEvent> {
     private final Cli cli;
+    private final boolean async;
 
     public JavaFxCliEventHandler( Cli cli) {
+        this(cli, false);
+    }
+
+    /**
+     * @param cli CLI to link events to.
+     * @param async Whether to execute commands asynchronously, on the CLI shell's {@link java.util.concurrent.Executor}.
+     */
+    public JavaFxCliEventHandler( Cli cli, boolean async) {
         this.cli = cli;
+        this.async = async;
     }
 
     @Override
     public void handle(KeyEvent keyEvent) {
         switch (keyEvent.getCode()) {
             case ENTER:
-                cli.execute();
+                if (async) {
+                    cli.executeAsync();
+                } else {
+                    cli.execute();
+                }
                 keyEvent.consume();
                 break;
 
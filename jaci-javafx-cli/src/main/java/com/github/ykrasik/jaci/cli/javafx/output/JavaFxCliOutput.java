@@ -17,22 +17,37 @@
 package com.github.ykrasik.jaci.cli.javafx.output;
 
 import com.github.ykrasik.jaci.cli.output.CliOutput;
+import javafx.application.Platform;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextArea;
 
 
 /**
- * A {@link CliOutput} implemented as as a JavaFx {@link TextArea}.
+ * A {@link CliOutput} implemented as as a JavaFx {@link TextArea}.<br>
+ * May be called from any thread - calls from outside the JavaFx application thread are posted to it,
+ * in the order they were made. When commands are executed asynchronously, calls from the JavaFx application thread
+ * are posted as well, so they are displayed after any calls that were posted before them.
  *
  * @author Yevgeny Krasik
  */
 public class JavaFxCliOutput implements CliOutput {
     private final TextArea textArea;
     private final Label workingDirectory;
+    private final boolean postToFxThread;
 
     public JavaFxCliOutput( TextArea textArea,  Label workingDirectory) {
+        this(textArea, workingDirectory, false);
+    }
+
+    /**
+     * @param textArea Text area to print lines to.
+     * @param workingDirectory Label to display the working directory in.
+     * @param postToFxThread Whether to post all calls to the JavaFx application thread, even calls made from it.
+     */
+    public JavaFxCliOutput( TextArea textArea,  Label workingDirectory, boolean postToFxThread) {
         this.textArea = textArea;
         this.workingDirectory = workingDirectory;
+        this.postToFxThread = postToFxThread;
     }
 
     @Override
@@ -46,9 +61,14 @@ public class JavaFxCliOutput implements CliOutput {
     }
 
     @Override
-    public void println(String text) {
-        textArea.appendText(text);
-        textArea.appendText("\n");
+    public void println(final String text) {
+        runOnFxThread(new Runnable() {
+            @Override
+            public void run() {
+                textArea.appendText(text);
+                textArea.appendText("\n");
+            }
+        });
     }
 
     @Override
@@ -58,7 +78,20 @@ public class JavaFxCliOutput implements CliOutput {
     }
 
     @Override
-    public void setWorkingDirectory(String workingDirectory) {
-        this.workingDirectory.setText(workingDirectory);
+    public void setWorkingDirectory(final String workingDirectory) {
+        runOnFxThread(new Runnable() {
+            @Override
+            public void run() {
+                JavaFxCliOutput.this.workingDirectory.setText(workingDirectory);
+            }
+        });
+    }
+
+    private void runOnFxThread(Runnable runnable) {
+        if (!postToFxThread && Platform.isFxApplicationThread()) {
+            runnable.run();
+        } else {
+            Platform.runLater(runnable);
+        }
     }
 }
@@ -25,6 +25,7 @@ import com.badlogic.gdx.scenes.scene2d.ui.TextButton.TextButtonStyle;
 import com.badlogic.gdx.scenes.scene2d.ui.TextField.TextFieldStyle;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
 import com.github.ykrasik.jaci.cli.Cli;
 import com.github.ykrasik.jaci.cli.CliShell;
 import com.github.ykrasik.jaci.cli.commandline.CommandLineManager;
@@ -86,11 +87,13 @@ public class LibGdxCli extends Table {
      * @param hierarchy Command hierarchy.
      * @param maxBufferEntries Maximum amount of line entries in the buffer to keep.
      * @param maxCommandHistory Maximum amount of command history entries to keep.
+     * @param asyncExecutor Executor to execute commands on, or {@code null} to execute them on the rendering thread.
      */
     private LibGdxCli( Skin skin,
                        CliCommandHierarchy hierarchy,
                       int maxBufferEntries,
-                      int maxCommandHistory) {
+                      int maxCommandHistory,
+                      AsyncExecutor asyncExecutor) {
         super(skin);
 
         // Buffer for cli output.
@@ -103,7 +106,8 @@ public class LibGdxCli extends Table {
         workingDirectory.setName("workingDirectory");
 
         // The above combine into a CliOutput.
-        final CliOutput output = new LibGdxCliOutput(buffer, workingDirectory);
+        // When commands are executed asynchronously, output must be posted to the rendering thread.
+        final CliOutput output = new LibGdxCliOutput(buffer, workingDirectory, asyncExecutor != null);
 
         // TextField as command line.
         final TextField commandLine = new TextField("", skin, "commandLine");
@@ -121,7 +125,7 @@ public class LibGdxCli extends Table {
         final Cli cli = new Cli(shell, commandLineManager);
 
         // Hook input events to CLI events.
-        this.addListener(new LibGdxCliInputListener(cli));
+        this.addListener(new LibGdxCliInputListener(cli, asyncExecutor));
 
         // A close button.
         // TODO: Make this a graphical button, not an ugly text button.
@@ -237,6 +241,8 @@ public class LibGdxCli extends Table {
         private Skin skin;
         private int maxBufferEntries = 100;
         private int maxCommandHistory = 30;
+        private boolean lazyHierarchy;
+        private AsyncExecutor asyncExecutor;
 
         /**
          * Process the classes and add any commands defined through annotations to this builder.
@@ -272,6 +278,34 @@ public class LibGdxCli extends Table {
             return this;
         }
 
+        /**
+         * Set whether the CLI's directories and commands are only created when first accessed, instead of when the CLI is built.
+         * Speeds up building a CLI with a large amount of commands, most of which aren't used.
+         *
+         * @param lazyHierarchy Whether to create directories and commands lazily.
+         * @return {@code this}, for chaining.
+         */
+        public Builder setLazyHierarchy(boolean lazyHierarchy) {
+            this.lazyHierarchy = lazyHierarchy;
+            return this;
+        }
+
+        /**
+         * Set an {@link AsyncExecutor} to execute commands on, instead of the rendering thread.
+         * Commands that take a long time to execute will not freeze the game, and the output of each command is printed
+         * once it finishes, in the order the commands were entered.
+         *
+         * @param asyncExecutor Executor to execute commands on.
+         * @return {@code this}, for chaining.
+         */
+        public Builder setAsyncExecutor( AsyncExecutor asyncExecutor) {
+            if (asyncExecutor == null) {
+                throw new java.lang.NullPointerException("asyncExecutor");
+            }
+            this.asyncExecutor = asyncExecutor;
+            return this;
+        }
+
         /**
          * Set the maximum amount of command history entries to keep.
          *
@@ -326,8 +360,9 @@ public class LibGdxCli extends Table {
          */
         public LibGdxCli build() {
             final Skin skin = getSkin();
-            final CliCommandHierarchy hierarchy = CliCommandHierarchyImpl.from(hierarchyBuilder.build());
-            return new LibGdxCli(skin, hierarchy, maxBufferEntries, maxCommandHistory);
+            final CommandHierarchyDef hierarchyDef = hierarchyBuilder.build();
+            final CliCommandHierarchy hierarchy = lazyHierarchy ? CliCommandHierarchyImpl.lazyFrom(hierarchyDef) : CliCommandHierarchyImpl.from(hierarchyDef);
+            return new LibGdxCli(skin, hierarchy, maxBufferEntries, maxCommandHistory, asyncExecutor);
         }
 
         private Skin getSkin() {
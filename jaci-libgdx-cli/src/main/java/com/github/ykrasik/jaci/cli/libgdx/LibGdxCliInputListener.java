@@ -20,7 +20,10 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input.Keys;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.InputListener;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncTask;
 import com.github.ykrasik.jaci.cli.Cli;
+import com.github.ykrasik.jaci.cli.CliExecution;
 
 
 /**
@@ -30,16 +33,30 @@ import com.github.ykrasik.jaci.cli.Cli;
  */
 public class LibGdxCliInputListener extends InputListener {
     private final Cli cli;
+    private final AsyncExecutor asyncExecutor;
 
     public LibGdxCliInputListener( Cli cli) {
+        this(cli, null);
+    }
+
+    /**
+     * @param cli CLI to link events to.
+     * @param asyncExecutor Executor to execute commands on, or {@code null} to execute them on the rendering thread.
+     */
+    public LibGdxCliInputListener( Cli cli, AsyncExecutor asyncExecutor) {
         this.cli = cli;
+        this.asyncExecutor = asyncExecutor;
     }
 
     @Override
     public boolean keyDown(InputEvent event, int keycode) {
         switch (keycode) {
             case Keys.ENTER:
-                cli.execute();
+                if (asyncExecutor != null) {
+                    executeAsync();
+                } else {
+                    cli.execute();
+                }
                 return true;
 
             case Keys.TAB:
@@ -63,4 +80,19 @@ public class LibGdxCliInputListener extends InputListener {
 
         return false;
     }
+
+    private void executeAsync() {
+        final CliExecution execution = cli.prepareExecution();
+        if (execution.isDone()) {
+            // Nothing to execute.
+            return;
+        }
+        asyncExecutor.submit(new AsyncTask<Void>() {
+            @Override
+            public Void call() {
+                execution.run();
+                return null;
+            }
+        });
+    }
 }
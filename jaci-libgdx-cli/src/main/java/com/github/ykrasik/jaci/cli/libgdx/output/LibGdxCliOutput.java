@@ -16,6 +16,7 @@
 
 package com.github.ykrasik.jaci.cli.libgdx.output;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.github.ykrasik.jaci.cli.output.CliOutput;
@@ -24,17 +25,29 @@ import com.github.ykrasik.jaci.cli.output.CliOutput;
 /**
  * A LibGdx implementation of a {@link CliOutput}.
  * Redirects {@link #println(String)} and {@link #errorPrintln(String)} to a {@link LibGdxCliOutputBuffer},
- * and {@link #setWorkingDirectory(String)} to a {@link Label}.
+ * and {@link #setWorkingDirectory(String)} to a {@link Label}.<br>
+ * When commands are executed asynchronously, all calls are posted to the rendering thread, in the order they were made.
  *
  * @author Yevgeny Krasik
  */
 public class LibGdxCliOutput implements CliOutput {
     private final LibGdxCliOutputBuffer buffer;
     private final Label workingDirectory;
+    private final boolean postToRenderingThread;
 
     public LibGdxCliOutput( LibGdxCliOutputBuffer buffer,  Label workingDirectory) {
+        this(buffer, workingDirectory, false);
+    }
+
+    /**
+     * @param buffer Buffer to print lines to.
+     * @param workingDirectory Label to display the working directory in.
+     * @param postToRenderingThread Whether to post all calls to the rendering thread instead of running them on the calling thread.
+     */
+    public LibGdxCliOutput( LibGdxCliOutputBuffer buffer,  Label workingDirectory, boolean postToRenderingThread) {
         this.buffer = buffer;
         this.workingDirectory = workingDirectory;
+        this.postToRenderingThread = postToRenderingThread;
     }
 
     @Override
@@ -49,16 +62,38 @@ public class LibGdxCliOutput implements CliOutput {
 
     @Override
     public void println(String text) {
-        buffer.println(text, Color.WHITE);
+        println(text, Color.WHITE);
     }
 
     @Override
     public void errorPrintln(String text) {
-        buffer.println(text, Color.SALMON);
+        println(text, Color.SALMON);
+    }
+
+    private void println(final String text, final Color color) {
+        run(new Runnable() {
+            @Override
+            public void run() {
+                buffer.println(text, color);
+            }
+        });
     }
 
     @Override
-    public void setWorkingDirectory(String workingDirectory) {
-        this.workingDirectory.setText(workingDirectory);
+    public void setWorkingDirectory(final String workingDirectory) {
+        run(new Runnable() {
+            @Override
+            public void run() {
+                LibGdxCliOutput.this.workingDirectory.setText(workingDirectory);
+            }
+        });
+    }
+
+    private void run(Runnable runnable) {
+        if (postToRenderingThread) {
+            Gdx.app.postRunnable(runnable);
+        } else {
+            runnable.run();
+        }
     }
 }
@@ -69,6 +69,18 @@ public class Cli {
         return shell.execute(commandLine);
     }
 
+    /**
+     * Prepare the command line for asynchronous execution, without executing it.
+     *
+     * @return An execution of the command line, that will execute the command when run.
+     * @see CliShell#prepareExecution(String)
+     */
+    public CliExecution prepareExecution() {
+        final String commandLine = commandLineManager.getCommandLine();
+        clearCommandLine();
+        return shell.prepareExecution(commandLine);
+    }
+
     /**
      * Clear the command line.
      */
@@ -22,19 +22,25 @@ import com.github.ykrasik.jaci.cli.assist.ParamAssistInfo;
 import com.github.ykrasik.jaci.cli.assist.Suggestions;
 import com.github.ykrasik.jaci.cli.command.CliCommand;
 import com.github.ykrasik.jaci.cli.command.CliCommandOutput;
+import com.github.ykrasik.jaci.cli.command.CliJobs;
 import com.github.ykrasik.jaci.cli.commandline.CommandLine;
 import com.github.ykrasik.jaci.cli.commandline.CommandLineHistory;
+import com.github.ykrasik.jaci.cli.exception.ParseError;
 import com.github.ykrasik.jaci.cli.exception.ParseException;
 import com.github.ykrasik.jaci.cli.hierarchy.CliCommandHierarchy;
 import com.github.ykrasik.jaci.cli.output.CliOutput;
 import com.github.ykrasik.jaci.cli.output.CliPrinter;
 import com.github.ykrasik.jaci.cli.output.CliSerializer;
 import com.github.ykrasik.jaci.cli.output.DefaultCliSerializer;
+import com.github.ykrasik.jaci.cli.param.PreparedCommandArgs;
 import com.github.ykrasik.jaci.command.CommandArgs;
 import com.github.ykrasik.jaci.util.opt.Opt;
+import com.github.ykrasik.jaci.util.string.StringUtils;
 
-
+import java.util.ArrayList;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Queue;
 
 /**
  * A shell usually refers to the program logic running within a CLI.
@@ -50,6 +56,11 @@ import java.util.List;
  * The shell's API methods that print values ({@link #assist(String)}, {@link #execute(String)}) do so
  * as a side effect, by calling the {@link CliOutput} the shell was built with.
  *
+ * Scripts of many command lines can be executed in one pass through {@link #executeScript(Iterable, boolean)}.
+ *
+ * Command lines can also be prepared for asynchronous execution through {@link #prepareExecution(String)}.
+ * See {@link CliExecution} for how the output of asynchronous commands is printed.
+ *
  * Built through the {@link CliShell.Builder} builder.
  *
  * @author Yevgeny Krasik
@@ -59,6 +70,16 @@ public class CliShell {
     private final CliPrinter printer;
     private final CommandLineHistory history;
 
+    /**
+     * Asynchronous executions whose output wasn't printed yet, in the order they were prepared.
+     */
+    private final Queue<CliExecution> pendingExecutions = new LinkedList<>();
+
+    /**
+     * Asynchronous executions that aren't done yet, available to system commands.
+     */
+    private final CliJobs jobs = new CliJobs();
+
     /**
      * Package-protected for testing.
      */
@@ -161,16 +182,89 @@ public class CliShell {
      * The command line will be parsed, verified for correctness and executed if it passes all correctness checks.
      * Any output is printed as a side effect to the {@link CliOutput} this shell was constructed with.
      * If any error occurs while parsing the command line or executing the parsed command line, it will also be printed
-     * to the {@link CliOutput} this shell was constructed with.
+     * to the {@link CliOutput} this shell was constructed with.<br>
+     * The command is always executed on the calling thread. If the output of {@link #prepareExecution(String) asynchronous}
+     * executions is still waiting to be printed, the output of this command is buffered and printed after it,
+     * like an asynchronous execution's would be - so it may only be printed after this method returns.
      *
      * @param commandLine Command line to execute.
      * @return {@code true} if the command line was executed successfully.
      */
     public boolean execute(String commandLine) {
+        final CliExecution execution;
         printer.begin();
         try {
-            doExecute(commandLine);
-            return true;
+            final Opt<CommandLine> parsedCommandLine = parseCommandLine(commandLine);
+            if (!parsedCommandLine.isPresent()) {
+                return true;
+            }
+            final CliCommand command = parseCommand(parsedCommandLine.get());
+            final CommandArgs args = command.parse(parsedCommandLine.get().getCommandArgs());
+            synchronized (pendingExecutions) {
+                if (command.isImmediate() || pendingExecutions.isEmpty()) {
+                    // Nothing is waiting to be printed before this command, print it's output directly.
+                    return executeNow(command, args);
+                }
+
+                // Queue behind the pending executions to keep the output in order.
+                execution = new CliExecution(this, printer, jobs, command, args, commandLine);
+                pendingExecutions.add(execution);
+            }
+            execution.addToJobs();
+        } catch (ParseException e) {
+            handleParseException(e);
+            return false;
+        } catch (Exception e) {
+            printer.printException(e);
+            return false;
+        } finally {
+            printer.end();
+        }
+        execution.run();
+        return execution.isSuccess();
+    }
+
+    /**
+     * Parse the command line once, to be executed any amount of times through {@link #execute(PreparedCommand)}.
+     * Nothing is printed - parse errors are thrown instead.<br>
+     * The command and the arguments that were passed explicitly are resolved relative to the current working directory,
+     * parameters that weren't passed a value are resolved again on every execution.
+     *
+     * @param commandLine Command line to prepare.
+     * @return A {@link PreparedCommand} for the command line.
+     * @throws ParseException If the command line is empty or could not be parsed.
+     */
+    public PreparedCommand prepareCommand(String commandLine) throws ParseException {
+        if (commandLine == null) {
+            throw new java.lang.NullPointerException("commandLine");
+        }
+        final CommandLine parsedCommandLine = CommandLine.forExecute(commandLine);
+        if (parsedCommandLine.isEmpty()) {
+            throw new ParseException(ParseError.INVALID_COMMAND, "Nothing to prepare, command line is empty!");
+        }
+
+        final CliCommand command = hierarchy.parsePathToCommand(parsedCommandLine.getPathToCommand());
+        final PreparedCommandArgs args = command.prepare(parsedCommandLine.getCommandArgs());
+        return new PreparedCommand(command, args, commandLine);
+    }
+
+    /**
+     * Execute a command that was prepared through {@link #prepareCommand(String)}, without parsing it again.
+     * Meant for executing the same command line many times, so the command line isn't printed or saved in the
+     * command history. Output and errors are printed like {@link #execute(String)} would, but always right away -
+     * there is no ordering guarantee relative to the output of {@link #prepareExecution(String) asynchronous} executions.
+     *
+     * @param command Prepared command to execute.
+     * @return {@code true} if the command was executed successfully.
+     */
+    public boolean execute(PreparedCommand command) {
+        if (command == null) {
+            throw new java.lang.NullPointerException("command");
+        }
+        printer.begin();
+        try {
+            final CommandArgs args = command.resolveArgs();
+            return executeNow(command.getCommand(), args);
         } catch (ParseException e) {
             handleParseException(e);
         } catch (Exception e) {
@@ -181,33 +275,184 @@ public class CliShell {
         return false;
     }
 
-    private void doExecute(String rawCommandLine) throws Exception {
+    /**
+     * Parse the command line and prepare it's command for asynchronous execution, without executing it.
+     * Parse errors are printed right away. The command is executed whenever the returned {@link CliExecution}
+     * is run, which may be on any thread.
+     * Every prepared execution must eventually be run, or the output of executions prepared after it will never be printed.
+     * Until it is done, the execution is listed by the 'jobs' system command, and can be cancelled by the 'kill' system command.
+     * Those job control commands, as well as commands that change the working directory (like 'cd'), are
+     * {@link CliCommand#isImmediate() immediate} - they are executed right away on the calling thread, and their output
+     * is printed without waiting for the output of other executions. This way, command lines prepared after changing the
+     * working directory are always parsed relative to the new working directory.
+     *
+     * @param commandLine Command line to prepare.
+     * @return An execution of the command line. If there is nothing to execute (the command line is empty or
+     *         could not be parsed) or the command was immediate, the returned execution is already done.
+     */
+    public CliExecution prepareExecution(String commandLine) {
+        printer.begin();
+        try {
+            final Opt<CommandLine> parsedCommandLine = parseCommandLine(commandLine);
+            if (!parsedCommandLine.isPresent()) {
+                return CliExecution.completed(true);
+            }
+            final CliCommand command = parseCommand(parsedCommandLine.get());
+            final CommandArgs args = command.parse(parsedCommandLine.get().getCommandArgs());
+            if (command.isImmediate()) {
+                return CliExecution.completed(executeNow(command, args));
+            }
+            final CliExecution execution = new CliExecution(this, printer, jobs, command, args, commandLine);
+            synchronized (pendingExecutions) {
+                pendingExecutions.add(execution);
+            }
+            execution.addToJobs();
+            return execution;
+        } catch (ParseException e) {
+            handleParseException(e);
+        } catch (Exception e) {
+            printer.printException(e);
+        } finally {
+            printer.end();
+        }
+        return CliExecution.completed(false);
+    }
+
+    /**
+     * Print the output of all executions that are done, up to the first one that isn't.
+     * Called by executions when they finish.
+     */
+    void printDoneExecutions() {
+        synchronized (pendingExecutions) {
+            while (!pendingExecutions.isEmpty() && pendingExecutions.peek().isDone()) {
+                final CliExecution execution = pendingExecutions.remove();
+                printer.begin();
+                try {
+                    execution.printTo(printer);
+                } finally {
+                    printer.end();
+                }
+            }
+        }
+    }
+
+    /**
+     * Execute a script - a sequence of command lines, in order, on the calling thread.
+     * Meant for running many command lines at once (for example, from a configuration file), so it does less
+     * than calling {@link #execute(String)} for each command line: the command lines aren't printed or saved
+     * in the command history, and all output is printed between a single {@link CliOutput#begin()} and
+     * {@link CliOutput#end()}. Errors of failed command lines are printed like {@link #execute(String)} would,
+     * followed by a summary of all failures once the script is done. The output is always printed right away -
+     * there is no ordering guarantee relative to the output of {@link #prepareExecution(String) asynchronous} executions.<br>
+     * Empty lines and lines starting with a '#' are skipped.
+     *
+     * @param commandLines Command lines to execute, one per line of the script.
+     * @param stopOnError Whether to stop executing the script after the first command line that fails.
+     * @return The result of executing the script.
+     */
+    public CliScriptResult executeScript(Iterable<String> commandLines, boolean stopOnError) {
+        if (commandLines == null) {
+            throw new java.lang.NullPointerException("commandLines");
+        }
+        final List<CliScriptResult.Failure> failures = new ArrayList<>();
+        int numExecuted = 0;
+        int lineNumber = 0;
+        boolean stopped = false;
+
+        printer.begin();
+        try {
+            for (String rawCommandLine : commandLines) {
+                lineNumber++;
+                if (isComment(rawCommandLine)) {
+                    continue;
+                }
+                final CommandLine commandLine = CommandLine.forExecute(rawCommandLine);
+                if (commandLine.isEmpty()) {
+                    continue;
+                }
+
+                numExecuted++;
+                if (!executeScriptCommandLine(commandLine)) {
+                    failures.add(new CliScriptResult.Failure(lineNumber, rawCommandLine));
+                    if (stopOnError) {
+                        stopped = true;
+                        break;
+                    }
+                }
+            }
+
+            final CliScriptResult result = new CliScriptResult(numExecuted, failures, stopped);
+            printScriptSummary(result);
+            return result;
+        } finally {
+            printer.end();
+        }
+    }
+
+    /**
+     * Checked before tokenizing the command line, so comments are skipped without allocating anything.
+     */
+    private boolean isComment(String rawCommandLine) {
+        for (int i = 0; i < rawCommandLine.length(); i++) {
+            final char c = rawCommandLine.charAt(i);
+            if (c > ' ') {
+                // First non-whitespace char, same as String.trim().
+                return c == '#';
+            }
+        }
+        return false;
+    }
+
+    private boolean executeScriptCommandLine(CommandLine commandLine) {
+        try {
+            final CliCommand command = parseCommand(commandLine);
+            return executeNow(command, command.parse(commandLine.getCommandArgs()));
+        } catch (ParseException e) {
+            handleParseException(e);
+        } catch (Exception e) {
+            printer.printException(e);
+        }
+        return false;
+    }
+
+    private void printScriptSummary(CliScriptResult result) {
+        if (result.isSuccess()) {
+            printer.println("Script executed successfully: " + result.getNumExecuted() + " command lines.");
+            return;
+        }
+
+        final List<CliScriptResult.Failure> failures = result.getFailures();
+        final String stoppedMessage = result.isStopped() ? ", script stopped" : "";
+        printer.errorPrintln("Script failed: " + failures.size() + " of " + result.getNumExecuted() + " command lines failed" + stoppedMessage + '.');
+        for (CliScriptResult.Failure failure : failures) {
+            printer.errorPrintln("    " + failure);
+        }
+    }
+
+    private Opt<CommandLine> parseCommandLine(String rawCommandLine) {
         printer.printCommandLine(hierarchy.getWorkingDirectory(), rawCommandLine);
 
         final CommandLine commandLine = CommandLine.forExecute(rawCommandLine);
         if (commandLine.isEmpty()) {
-            return;
+            return Opt.absent();
         }
 
         // Save command in history.
         history.pushCommandLine(rawCommandLine);
+        return Opt.of(commandLine);
+    }
 
-        // Parse command.
+    private CliCommand parseCommand(CommandLine commandLine) throws ParseException {
         final String pathToCommand = commandLine.getPathToCommand();
-        final CliCommand command = hierarchy.parsePathToCommand(pathToCommand);
-
-        // Parse command args.
-        final List<String> rawArgs = commandLine.getCommandArgs();
-        final CommandArgs args = command.parse(rawArgs);
-
-        // Execute the command.
-        final CliCommandOutput commandOutput = new CliCommandOutput(printer);
-        command.execute(commandOutput, args);
+        return hierarchy.parsePathToCommand(pathToCommand);
+    }
 
-        if (commandOutput.isPrintDefaultExecutionMessage()) {
-            final String message = ("Command '"+command.getName()+"' executed successfully.");
-            printer.println(message);
-        }
+    /**
+     * Execute the command right away on the calling thread, printing its output directly instead of buffering it.
+     */
+    private boolean executeNow(CliCommand command, CommandArgs args) throws Exception {
+        final CliCommandOutput commandOutput = new CliCommandOutput(printer, jobs, command.getTimeoutMillis());
+        return command.executeAndPrintResult(commandOutput, args);
     }
 
     private void handleParseException(ParseException e) {
@@ -218,6 +463,11 @@ public class CliShell {
 
         final String errorMessage = ("Parse Error: "+e.getMessage());
         printer.errorPrintln(errorMessage);
+
+        final List<String> similarNames = e.getSimilarNames();
+        if (!similarNames.isEmpty()) {
+            printer.errorPrintln("Did you mean: " + StringUtils.join(similarNames, ", ") + '?');
+        }
     }
 
     /**
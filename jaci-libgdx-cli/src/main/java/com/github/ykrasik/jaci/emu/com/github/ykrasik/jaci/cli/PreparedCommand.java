@@ -0,0 +1,71 @@
+/******************************************************************************
+ * Copyright (C) 2015 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.cli;
+
+import com.github.ykrasik.jaci.cli.command.CliCommand;
+import com.github.ykrasik.jaci.cli.exception.ParseException;
+import com.github.ykrasik.jaci.cli.param.PreparedCommandArgs;
+import com.github.ykrasik.jaci.command.CommandArgs;
+
+/**
+ * A command line that was parsed once through {@link CliShell#prepareCommand(String)}, and can be executed
+ * any amount of times through {@link CliShell#execute(PreparedCommand)} without being parsed again.<br>
+ * The command and the arguments that were passed explicitly are resolved when the command line is prepared,
+ * relative to the working directory at that time. Parameters that weren't passed a value are resolved again on every
+ * execution, so their default values are always up to date.<br>
+ * Immutable, can be executed from any thread.
+ *
+ * @author Yevgeny Krasik
+ */
+public class PreparedCommand {
+    private final CliCommand command;
+    private final PreparedCommandArgs args;
+    private final String commandLine;
+
+    PreparedCommand(CliCommand command, PreparedCommandArgs args, String commandLine) {
+        this.command = command;
+        this.args = args;
+        this.commandLine = commandLine;
+    }
+
+    /**
+     * @return The command this command line resolved to.
+     */
+    public CliCommand getCommand() {
+        return command;
+    }
+
+    /**
+     * @return The command line this command was prepared from.
+     */
+    public String getCommandLine() {
+        return commandLine;
+    }
+
+    /**
+     * @return Arguments for a single execution of the command.
+     * @throws ParseException If a parameter that wasn't passed a value can no longer be resolved.
+     */
+    CommandArgs resolveArgs() throws ParseException {
+        return args.resolve();
+    }
+
+    @Override
+    public String toString() {
+        return "PreparedCommand(" + commandLine + ")";
+    }
+}
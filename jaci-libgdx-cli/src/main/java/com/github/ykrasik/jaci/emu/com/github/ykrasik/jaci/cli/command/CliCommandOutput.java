@@ -25,7 +25,8 @@ import java.util.Arrays;
 
 /**
  * A CLI implementation of a {@link CommandOutput}.
- * Extends the API with some CLI-specific calls.
+ * Extends the API with some CLI-specific calls.<br>
+ * Created for each execution of a command, and tracks whether that execution was cancelled or timed out.
  *
  * @author Yevgeny Krasik
  */
@@ -35,10 +36,33 @@ public class CliCommandOutput implements CommandOutput {
      */
     private final CliPrinter printer;
 
+    /**
+     * The jobs of the CLI, for system commands.
+     */
+    private final CliJobs jobs;
+
+    /**
+     * The time after which the command times out, or 0 if it has no timeout.
+     * Uses the wall clock, because the GWT version libGdx is built with doesn't emulate {@link System#nanoTime()}.
+     */
+    private final long deadline;
+
     private boolean printDefaultExecutionMessage = true;
+    private volatile boolean cancelled;
 
     public CliCommandOutput( CliPrinter printer) {
+        this(printer, new CliJobs(), 0);
+    }
+
+    /**
+     * @param printer Printer to print through.
+     * @param jobs The jobs of the CLI.
+     * @param timeoutMillis Timeout of the command, counted from now. If 0, the command has no timeout.
+     */
+    public CliCommandOutput( CliPrinter printer,  CliJobs jobs, long timeoutMillis) {
         this.printer = printer;
+        this.jobs = jobs;
+        this.deadline = timeoutMillis > 0 ? System.currentTimeMillis() + timeoutMillis : 0;
     }
 
     @Override
@@ -63,6 +87,32 @@ public class CliCommandOutput implements CommandOutput {
         error(format + Arrays.toString(args));
     }
 
+    @Override
+    public boolean isCancelled() {
+        return cancelled || isTimedOut();
+    }
+
+    /**
+     * @return {@code true} if the command's timeout has expired.
+     */
+    public boolean isTimedOut() {
+        return deadline != 0 && System.currentTimeMillis() >= deadline;
+    }
+
+    /**
+     * Cancel the command. May be called from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return The jobs of the CLI.
+     */
+    public CliJobs getJobs() {
+        return jobs;
+    }
+
     /**
      * If {@code true}, a default 'command executed successfully' message will be printed after the command is executed.
      *
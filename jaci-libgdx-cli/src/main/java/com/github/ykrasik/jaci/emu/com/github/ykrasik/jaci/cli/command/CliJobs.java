@@ -0,0 +1,105 @@
+/******************************************************************************
+ * Copyright (C) 2015 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.cli.command;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The commands of a CLI that are executing asynchronously - either running, or waiting to run.<br>
+ * Each job is identified by an id that is unique for the lifetime of the CLI, and may be cancelled through it.
+ * Jobs are {@link #remove(int) removed} as soon as they are done, so finished jobs are never kept around. Thread-safe.
+ *
+ * @author Yevgeny Krasik
+ */
+public class CliJobs {
+    private final Map<Integer, Job> jobs = new LinkedHashMap<>();
+    private int lastId;
+
+    /**
+     * Add a job.
+     *
+     * @param job Job to add.
+     * @return The id of the added job.
+     */
+    public synchronized int add(Job job) {
+        lastId++;
+        jobs.put(lastId, job);
+        return lastId;
+    }
+
+    /**
+     * Remove a job. Called by the job itself when it is done.
+     *
+     * @param id Id of the job to remove, as returned by {@link #add(Job)}.
+     */
+    public synchronized void remove(int id) {
+        jobs.remove(id);
+    }
+
+    /**
+     * @return The jobs that aren't done yet, by id, in the order they were added.
+     */
+    public synchronized Map<Integer, Job> getJobs() {
+        return new LinkedHashMap<>(jobs);
+    }
+
+    /**
+     * Cancel a job, if it isn't done yet.
+     *
+     * @param id Id of the job to cancel.
+     * @return {@code true} if a job with the given id was cancelled, {@code false} if there is no such job or it is already done.
+     */
+    public boolean cancel(int id) {
+        final Job job;
+        synchronized (this) {
+            job = jobs.get(id);
+        }
+        if (job == null) {
+            return false;
+        }
+        // Cancelling may call back into this class, so do it outside the lock.
+        job.cancel();
+        return true;
+    }
+
+    /**
+     * A command that is executing asynchronously.
+     */
+    public interface Job {
+        /**
+         * @return The command line the job is executing.
+         */
+        String getCommandLine();
+
+        /**
+         * @return {@code true} if the job's command has started running, {@code false} if it is still waiting to run.
+         */
+        boolean isRunning();
+
+        /**
+         * @return {@code true} if the job's command has finished (successfully or not).
+         */
+        boolean isDone();
+
+        /**
+         * Cancel the job. A job that is waiting to run will never run, and a job that is running
+         * will be {@link com.github.ykrasik.jaci.api.CommandOutput#isCancelled() notified} that it should stop.
+         */
+        void cancel();
+    }
+}
@@ -134,28 +134,37 @@ public class CommandLine {
         //        matchList.add(matcher.group());
         //    }
         //}
-        if (commandLine.length()==0)
-            return matchList;
-
-
-        char c = commandLine.charAt(0);
-        char terminatingCharacter= (c=='\''||c=='\"')?c:' ';
-        int start=0;
-        for (int i = 1; i < commandLine.length(); i++) {
-            c = commandLine.charAt(i);
-            if (terminatingCharacter == '\0' && (c == '\'' || c == '\"' || c == ' ')) {
-                terminatingCharacter = c;
-                start = i + 1;
-            } else if (c == terminatingCharacter) {
-                terminatingCharacter = '\0';
-                matchList.add(commandLine.substring(start, i));
+        // Same semantics as the pattern above: Unquoted words end at a space or a quote,
+        // quoted strings are added without their quotes and an unterminated quote is skipped.
+        int i = 0;
+        while (i < commandLine.length()) {
+            final char c = commandLine.charAt(i);
+            if (c == ' ') {
+                i++;
+            } else if (c == '\'' || c == '\"') {
+                final int closingQuote = commandLine.indexOf(c, i + 1);
+                if (closingQuote == -1) {
+                    i++;
+                } else {
+                    matchList.add(commandLine.substring(i + 1, closingQuote));
+                    i = closingQuote + 1;
+                }
+            } else {
+                int end = i + 1;
+                while (end < commandLine.length() && !isDelimiter(commandLine.charAt(end))) {
+                    end++;
+                }
+                matchList.add(commandLine.substring(i, end));
+                i = end;
             }
         }
-        if (terminatingCharacter==' ')
-            matchList.add(commandLine.substring(start, commandLine.length()));
         return matchList;
     }
 
+    private static boolean isDelimiter(char c) {
+        return c == ' ' || c == '\'' || c == '\"';
+    }
+
     @java.lang.SuppressWarnings("all")
     @javax.annotation.Generated("lombok")
     private CommandLine(final List<String> elements) {
@@ -20,6 +20,8 @@ import com.github.ykrasik.jaci.cli.assist.CommandInfo;
 import com.github.ykrasik.jaci.util.opt.Opt;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 // TODO: Split this into 2 exceptions: CommandParseException, ParamParseException? will save the optional<commandInfo>.
 
@@ -31,16 +33,17 @@ import java.util.Arrays;
 public class ParseException extends Exception {
     private final ParseError error;
     private final Opt<CommandInfo> commandInfo;
+    private final List<String> similarNames;
 
     public ParseException(ParseError error, String message) {
-        this(message, error, Opt.<CommandInfo>absent());
+        this(message, error, Opt.<CommandInfo>absent(), Collections.<String>emptyList());
     }
 
     public ParseException(ParseError error, String format, Object... args) {
-        this(format + Arrays.toString(args), error, Opt.<CommandInfo>absent());
+        this(format + Arrays.toString(args), error, Opt.<CommandInfo>absent(), Collections.<String>emptyList());
     }
 
-    private ParseException( String message,  ParseError error,  Opt<CommandInfo> commandInfo) {
+    private ParseException( String message,  ParseError error,  Opt<CommandInfo> commandInfo,  List<String> similarNames) {
         super(message);
         if (message == null) {
             throw new java.lang.NullPointerException("message");
@@ -51,8 +54,12 @@ public class ParseException extends Exception {
         if (commandInfo == null) {
             throw new java.lang.NullPointerException("commandInfo");
         }
+        if (similarNames == null) {
+            throw new java.lang.NullPointerException("similarNames");
+        }
         this.error = error;
         this.commandInfo = commandInfo;
+        this.similarNames = similarNames;
     }
     // TODO: This is never called.
 
@@ -63,7 +70,17 @@ public class ParseException extends Exception {
      * @return A copy of this exception with command info added.
      */
     public ParseException withCommandInfo(CommandInfo commandInfo) {
-        return new ParseException(getMessage(), error, Opt.of(commandInfo));
+        return new ParseException(getMessage(), error, Opt.of(commandInfo), similarNames);
+    }
+
+    /**
+     * Add names that are similar to an invalid name that caused this exception.
+     *
+     * @param similarNames Similar names to add, closest first.
+     * @return A copy of this exception with similar names added.
+     */
+    public ParseException withSimilarNames(List<String> similarNames) {
+        return new ParseException(getMessage(), error, commandInfo, similarNames);
     }
 
     /**
@@ -80,10 +97,18 @@ public class ParseException extends Exception {
         return commandInfo;
     }
 
+    /**
+     * @return Names that are similar to the invalid name that caused this exception, closest first.
+     *         Can be offered as a 'did you mean' to the user. May be empty.
+     */
+    public List<String> getSimilarNames() {
+        return similarNames;
+    }
+
     @java.lang.Override
     @java.lang.SuppressWarnings("all")
     @javax.annotation.Generated("lombok")
     public java.lang.String toString() {
-        return "ParseException(error=" + this.getError() + ", commandInfo=" + this.getCommandInfo() + ")";
+        return "ParseException(error=" + this.getError() + ", commandInfo=" + this.getCommandInfo() + ", similarNames=" + this.getSimilarNames() + ")";
     }
 }
\ No newline at end of file
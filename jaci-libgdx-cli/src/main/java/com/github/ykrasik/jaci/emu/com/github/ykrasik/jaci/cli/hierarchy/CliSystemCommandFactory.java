@@ -20,18 +20,23 @@ import com.github.ykrasik.jaci.Identifier;
 import com.github.ykrasik.jaci.api.CommandOutput;
 import com.github.ykrasik.jaci.cli.command.CliCommand;
 import com.github.ykrasik.jaci.cli.command.CliCommandOutput;
+import com.github.ykrasik.jaci.cli.command.CliJobs;
 import com.github.ykrasik.jaci.cli.directory.CliDirectory;
 import com.github.ykrasik.jaci.cli.param.BooleanCliParam;
 import com.github.ykrasik.jaci.cli.param.CliParam;
 import com.github.ykrasik.jaci.cli.param.CommandCliParam;
 import com.github.ykrasik.jaci.cli.param.DirectoryCliParam;
+import com.github.ykrasik.jaci.cli.param.IntCliParam;
 import com.github.ykrasik.jaci.command.CommandArgs;
 import com.github.ykrasik.jaci.command.CommandExecutor;
 import com.github.ykrasik.jaci.util.function.Spplr;
+import com.github.ykrasik.jaci.util.opt.Opt;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 
 /**
  * Creates the system commands of a CLI.
@@ -51,7 +56,8 @@ public class CliSystemCommandFactory {
     CliCommand createChangeDirectoryCommand() {
         final Identifier identifier = new Identifier("cd", "Change working directory");
         final List<CliParam> params = Collections.<CliParam>singletonList(new DirectoryCliParam.Builder("dir", hierarchy).setDescription("Directory to change to").build());
-        return CliCommand.from(identifier, params, new CommandExecutor(){
+        // Executed right away, so that command lines entered after it are parsed relative to the new working directory.
+        return CliCommand.immediate(identifier, params, new CommandExecutor(){
 
 
             @Override
@@ -105,6 +111,50 @@ public class CliSystemCommandFactory {
         });
     }
 
+    /**
+     * @return Create the list jobs command.
+     */
+    CliCommand createListJobsCommand() {
+        final Identifier identifier = new Identifier("jobs", "List commands that are executing asynchronously");
+        return CliCommand.immediate(identifier, Collections.<CliParam>emptyList(), new CommandExecutor(){
+
+
+            @Override
+            public void execute(CommandOutput output, CommandArgs args) throws Exception {
+                final Map<Integer, CliJobs.Job> jobs = ((CliCommandOutput)output).getJobs().getJobs();
+                if (jobs.isEmpty()) {
+                    output.message("No jobs.");
+                    return;
+                }
+                for (Entry<Integer, CliJobs.Job> entry : jobs.entrySet()) {
+                    final CliJobs.Job job = entry.getValue();
+                    output.message("[" + entry.getKey() + "] " + (job.isRunning() ? "Running" : "Waiting") + ": " + job.getCommandLine());
+                }
+            }
+        });
+    }
+
+    /**
+     * @return Create the kill job command.
+     */
+    CliCommand createKillJobCommand() {
+        final Identifier identifier = new Identifier("kill", "Cancel a command that is executing asynchronously");
+        final List<CliParam> params = Collections.<CliParam>singletonList(new IntCliParam(new Identifier("job", "Id of the job to cancel, as listed by 'jobs'"), Opt.<Spplr<Integer>>absent()));
+        return CliCommand.immediate(identifier, params, new CommandExecutor(){
+
+
+            @Override
+            public void execute(CommandOutput output, CommandArgs args) throws Exception {
+                final int id = args.popArg();
+                if (((CliCommandOutput)output).getJobs().cancel(id)) {
+                    output.message("Job [" + id + "] cancelled.");
+                } else {
+                    output.error("No such job: " + id);
+                }
+            }
+        });
+    }
+
     /**
      * Create a directory containing all system commands. It is convenient to store all system commands in a directory.
      * Most system commands require an already built {@link CliCommandHierarchy}, but system commands are also a part
@@ -120,7 +170,7 @@ public class CliSystemCommandFactory {
         }
         final Identifier identifier = new Identifier("system", "System commands");
         final CliSystemCommandFactory factory = new CliSystemCommandFactory(hierarchy);
-        return CliDirectory.from(identifier, factory.createChangeDirectoryCommand(), factory.createListDirectoryCommand(), factory.createDescribeCommandCommand());
+        return CliDirectory.from(identifier, factory.createChangeDirectoryCommand(), factory.createListDirectoryCommand(), factory.createDescribeCommandCommand(), factory.createListJobsCommand(), factory.createKillJobCommand());
     }
 
     @java.lang.SuppressWarnings("all")
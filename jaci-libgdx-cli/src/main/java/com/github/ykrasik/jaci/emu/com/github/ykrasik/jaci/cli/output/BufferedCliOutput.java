@@ -0,0 +1,89 @@
+/******************************************************************************
+ * Copyright (C) 2015 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.cli.output;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link CliOutput} that doesn't print anything by itself, but records everything printed to it so it can later
+ * be printed to another {@link CliOutput} in the same order.<br>
+ * Used by commands that are executed asynchronously, so that their output isn't interleaved with the output of
+ * other commands.
+ *
+ * @author Yevgeny Krasik
+ */
+public class BufferedCliOutput implements CliOutput {
+    private final List<Entry> entries = new ArrayList<>();
+
+    @Override
+    public void begin() {
+        // Begin & end are called by whoever prints this buffer.
+    }
+
+    @Override
+    public void end() {
+        // Begin & end are called by whoever prints this buffer.
+    }
+
+    @Override
+    public void println(String text) {
+        entries.add(new Entry(EntryType.PRINTLN, text));
+    }
+
+    @Override
+    public void errorPrintln(String text) {
+        entries.add(new Entry(EntryType.ERROR_PRINTLN, text));
+    }
+
+    @Override
+    public void setWorkingDirectory(String workingDirectory) {
+        entries.add(new Entry(EntryType.WORKING_DIRECTORY, workingDirectory));
+    }
+
+    /**
+     * Print everything that was printed to this buffer to the given output, in order.
+     * Does not call {@link CliOutput#begin()} or {@link CliOutput#end()} on the output.
+     *
+     * @param output Output to print to.
+     */
+    public void printTo(CliOutput output) {
+        for (Entry entry : entries) {
+            switch (entry.type) {
+                case PRINTLN: output.println(entry.text); break;
+                case ERROR_PRINTLN: output.errorPrintln(entry.text); break;
+                default: output.setWorkingDirectory(entry.text); break;
+            }
+        }
+    }
+
+    private enum EntryType {
+        PRINTLN,
+        ERROR_PRINTLN,
+        WORKING_DIRECTORY
+    }
+
+    private static class Entry {
+        private final EntryType type;
+        private final String text;
+
+        private Entry(EntryType type, String text) {
+            this.type = type;
+            this.text = text;
+        }
+    }
+}
@@ -48,7 +48,7 @@ public class CliParamManagerImpl implements CliParamManager {
         for (CliParam param : params) {
             builder.add(param.getIdentifier().getName(), param);
         }
-        return builder.build();
+        return builder.freeze();
     }
 
     @Override
@@ -62,6 +62,13 @@ public class CliParamManagerImpl implements CliParamManager {
         final CliParamParseContext context = doParse(args);
         return context.createCommandArgs();
     }
+
+    @Override
+    public PreparedCommandArgs prepare(List<String> args) throws ParseException {
+        final CliParamParseContext context = doParse(args);
+        return context.createPreparedArgs();
+    }
+
     // TODO: Consider changing this to the following: a params context object that is passed instead of a list.
     // TODO: It will live through the whole process and collect information from each call.
     // TODO: Essentially, an object much larger then CliParamParseContext, but possibly more convenient to use.
@@ -36,6 +36,7 @@ public class CommandDef implements Identifiable {
     private final Identifier identifier;
     private final List<ParamDef<?>> paramDefs;
     private final CommandExecutor executor;
+    private final long timeoutMillis;
 
     @Override
     public Identifier getIdentifier() {
@@ -56,6 +57,13 @@ public class CommandDef implements Identifiable {
         return executor;
     }
 
+    /**
+     * @return The command's timeout, in milliseconds. If 0, the command has no timeout.
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
     @Override
     public String toString() {
         return identifier.toString();
@@ -69,6 +77,7 @@ public class CommandDef implements Identifiable {
         private final CommandExecutor executor;
         private String description = "command";
         private final List<ParamDef<?>> paramDefs = new ArrayList<>(4);
+        private long timeoutMillis;
         /**
          * @param name Command name.
          * @param executor Command executor.
@@ -98,6 +107,21 @@ public class CommandDef implements Identifiable {
             this.description = description;
             return this;
         }
+        /**
+         * Set the command's timeout. A command that is still running after it's timeout expires is cancelled.
+         *
+         * @param timeoutMillis Timeout in milliseconds. If 0, the command has no timeout.
+         * @return {@code this}, for chaining.
+         * @throws IllegalArgumentException If the timeout is negative.
+         */
+
+        public Builder setTimeoutMillis(long timeoutMillis) {
+            if (timeoutMillis < 0) {
+                throw new IllegalArgumentException("Invalid timeout: " + timeoutMillis);
+            }
+            this.timeoutMillis = timeoutMillis;
+            return this;
+        }
         /**
          * Add a parameter definition to this command.
          *
@@ -117,22 +141,23 @@ public class CommandDef implements Identifiable {
          */
 
         public CommandDef build() {
-            return new CommandDef(new Identifier(name, description), Collections.unmodifiableList(new ArrayList<>(paramDefs)), executor);
+            return new CommandDef(new Identifier(name, description), Collections.unmodifiableList(new ArrayList<>(paramDefs)), executor, timeoutMillis);
         }
 
         @java.lang.Override
         @java.lang.SuppressWarnings("all")
         @javax.annotation.Generated("lombok")
         public java.lang.String toString() {
-            return "CommandDef.Builder(name=" + this.name + ", executor=" + this.executor + ", description=" + this.description + ", paramDefs=" + this.paramDefs + ")";
+            return "CommandDef.Builder(name=" + this.name + ", executor=" + this.executor + ", description=" + this.description + ", paramDefs=" + this.paramDefs + ", timeoutMillis=" + this.timeoutMillis + ")";
         }
     }
 
     @java.lang.SuppressWarnings("all")
     @javax.annotation.Generated("lombok")
-    private CommandDef(final Identifier identifier, final List<ParamDef<?>> paramDefs, final CommandExecutor executor) {
+    private CommandDef(final Identifier identifier, final List<ParamDef<?>> paramDefs, final CommandExecutor executor, final long timeoutMillis) {
         this.identifier = identifier;
         this.paramDefs = paramDefs;
         this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
     }
 }
\ No newline at end of file
@@ -21,7 +21,8 @@ import com.github.ykrasik.jaci.api.CommandOutput;
 /**
  * A {@link CommandOutput} that promises to eventually contain a concrete implementation.
  * Delegates all calls to that concrete implementation.
- * This will be injected into objects expecting a {@link CommandOutput}, for the Annotation API.
+ * This will be injected into objects expecting a {@link CommandOutput}, for the Annotation API.<br>
+ * GWT is single-threaded, so unlike the JVM version, the concrete implementation isn't bound to a thread.
  *
  * @author Yevgeny Krasik
  */
@@ -30,30 +31,47 @@ public class CommandOutputPromise implements CommandOutput {
 
     /**
      * Set the concrete {@link CommandOutput} implementation to delegate to.
+     * Callers are expected to restore the previous implementation once the command returns,
+     * in case commands are nested.
      *
-     * @param output Concrete implementation to delegate to.
+     * @param output Concrete implementation to delegate to, or {@code null} to unset.
+     * @return The previous implementation, or {@code null} if there was none.
      */
-    public void setOutput(CommandOutput output) {
+    public CommandOutput setOutput(CommandOutput output) {
+        final CommandOutput previousOutput = this.output;
         this.output = output;
+        return previousOutput;
+    }
+
+    private CommandOutput getOutput() {
+        if (output == null) {
+            throw new IllegalStateException("A CommandOutput may only be used while executing the command!");
+        }
+        return output;
     }
 
     @Override
     public void message(String text) {
-        output.message(text);
+        getOutput().message(text);
     }
 
     @Override
     public void message(String format, Object... args) {
-        output.message(format, args);
+        getOutput().message(format, args);
     }
 
     @Override
     public void error(String text) {
-        output.error(text);
+        getOutput().error(text);
     }
 
     @Override
     public void error(String format, Object... args) {
-        output.error(format, args);
+        getOutput().error(format, args);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return getOutput().isCancelled();
     }
 }
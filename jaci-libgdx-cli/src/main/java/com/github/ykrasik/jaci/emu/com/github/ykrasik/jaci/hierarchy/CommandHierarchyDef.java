@@ -50,6 +50,16 @@ public class CommandHierarchyDef {
 
         private final ReflectionClassProcessor processor = new ReflectionClassProcessor();
         private final CommandDirectoryDef.Builder root = new CommandDirectoryDef.Builder("root").setDescription("root");
+        /**
+         * GWT is single threaded, so classes and objects are always processed serially and this has no effect.
+         *
+         * @param parallel Ignored.
+         * @return {@code this}, for chaining.
+         */
+
+        public Builder setParallel(boolean parallel) {
+            return this;
+        }
         /**
          * Process the classes and add any commands defined through annotations to this builder.
          * Each class must have a no-args constructor.
@@ -91,6 +101,27 @@ public class CommandHierarchyDef {
 
         private void doProcess(Object instance) {
             final Map<ParsedPath, List<CommandDef>> pathToCommandDefsMap = processor.processObject(instance);
+            addCommandDefs(pathToCommandDefsMap);
+        }
+        /**
+         * Add the commands of registries that were generated at compile time to this builder.
+         * Unlike {@link #process(Object...)}, no reflection is involved.
+         *
+         * @param registries Generated registries to add the commands of.
+         * @return {@code this}, for chaining.
+         */
+
+        public Builder processRegistries( CommandDefRegistry... registries) {
+            if (registries == null) {
+                throw new java.lang.NullPointerException("registries");
+            }
+            for (CommandDefRegistry registry : registries) {
+                addCommandDefs(registry.createCommandDefs());
+            }
+            return this;
+        }
+
+        private void addCommandDefs(Map<ParsedPath, List<CommandDef>> pathToCommandDefsMap) {
             // Add the returned commands to the hierarchy.
             for (Entry<ParsedPath, List<CommandDef>> entry : pathToCommandDefsMap.entrySet()) {
                 addCommandDefs(entry.getKey(), entry.getValue());
@@ -105,6 +136,16 @@ public class CommandHierarchyDef {
             }
             dir.addCommandDefs(commandDefs);
         }
+        /**
+         * Directories and {@link CommandDef}s that aren't defined through annotations can be added directly
+         * to the returned builder, and will be part of the built hierarchy.
+         *
+         * @return The builder of the root directory.
+         */
+
+        public CommandDirectoryDef.Builder getRootDirectory() {
+            return root;
+        }
         /**
          * @return A {@link CommandHierarchyDef} built out of this builder's parameters.
          */
@@ -53,10 +53,14 @@ public class ReflectionCommandExecutor implements CommandExecutor {
     public void execute(CommandOutput output, CommandArgs args) throws Exception {
         // The underlying method may access a CommandOutput field which is expected to be injected.
         // This is implemented by injecting a CommandOutputPromise into the field, and setting it's value
-        // before calling the method.
-        outputPromise.setOutput(output);
-        // Invoke
-        method.invoke(instance, args.getArgs().toArray());
+        // before calling the method, and restoring it after.
+        final CommandOutput previousOutput = outputPromise.setOutput(output);
+        try {
+            // Invoke
+            method.invoke(instance, args.getArgs().toArray());
+        } finally {
+            outputPromise.setOutput(previousOutput);
+        }
     }
 
     @java.lang.Override
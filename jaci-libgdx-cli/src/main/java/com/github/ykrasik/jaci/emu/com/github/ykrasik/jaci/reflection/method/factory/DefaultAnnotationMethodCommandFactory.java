@@ -72,6 +72,7 @@ public class DefaultAnnotationMethodCommandFactory extends AbstractAnnotationMet
         if (description.isPresent()) {
             builder.setDescription(description.get());
         }
+        builder.setTimeoutMillis(annotation.timeoutMillis());
 
         for (ReflectionParameter param : params) {
             final ParamDef<?> paramDef = paramProcessor.createParam(instance, param);
@@ -0,0 +1,529 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+import com.github.ykrasik.jaci.util.function.Func;
+import com.github.ykrasik.jaci.util.opt.Opt;
+
+import java.util.*;
+import java.util.Map.Entry;
+
+/**
+ * An implementation of a {@link Trie} that keys every edge by a case folded character, instead of the actual character
+ * of the word it came from. The actual word is only kept at the node it ends at.<br>
+ * This makes case insensitive lookups a single primitive comparison per character,
+ * and makes words that only differ in case the same word - a Trie never contains both 'Foo' and 'foo'.
+ * When case sensitive, characters are not folded at all.<br>
+ * Like a {@link CompactTrie}, all nodes are stored in a few flat arrays, with the children of every node laid out
+ * consecutively and sorted by their folded character.
+ * A subTrie shares the arrays of the Trie it was created from, and only remembers the node it starts at and
+ * the folded characters leading up to that node.
+ *
+ * @author Yevgeny Krasik
+ */
+public class FoldedTrie<T> extends AbstractTrie<T> {
+    /**
+     * The folded character of the edge leading to each node.
+     */
+    private final char[] keys;
+
+    /**
+     * The index of the first child of each node. The children of node 'i' are the nodes
+     * in the range [firstChild[i], firstChild[i + 1]). Contains an extra last element as a sentinel.
+     */
+    private final int[] firstChild;
+
+    /**
+     * The actual word that ends at each node, {@code null} if the node isn't a word.
+     */
+    private final String[] words;
+
+    /**
+     * The value of each node, {@code null} if the node isn't a word.
+     */
+    private final Object[] values;
+
+    /**
+     * The amount of words reachable from each node, including the node itself.
+     */
+    private final int[] numWords;
+
+    private final boolean caseSensitive;
+
+    /**
+     * The node this Trie starts at. Only different from 0 for a subTrie.
+     */
+    private final int root;
+
+    /**
+     * The folded characters leading up to the root node. Only non-empty for a subTrie.
+     */
+    private final String foldedPrefix;
+
+    private FoldedTrie(char[] keys, int[] firstChild, String[] words, Object[] values, int[] numWords, boolean caseSensitive, int root, String foldedPrefix) {
+        this.keys = keys;
+        this.firstChild = firstChild;
+        this.words = words;
+        this.values = values;
+        this.numWords = numWords;
+        this.caseSensitive = caseSensitive;
+        this.root = root;
+        this.foldedPrefix = foldedPrefix;
+    }
+
+    /**
+     * @return {@code true} if this Trie distinguishes between words that only differ in case.
+     */
+    public boolean isCaseSensitive() {
+        return caseSensitive;
+    }
+
+    @Override
+    public int size() {
+        return numWords[root];
+    }
+
+    @Override
+    public boolean contains(String word) {
+        final int node = getNode(word);
+        return node != -1 && words[node] != null;
+    }
+
+    @Override
+    public Opt<T> get(String word) {
+        final int node = getNode(word);
+        if (node == -1) {
+            return Opt.absent();
+        }
+        return Opt.ofNullable(getValue(node));
+    }
+
+    @Override
+    public String getLongestPrefix() {
+        if (isEmpty()) {
+            return "";
+        }
+
+        // Keep going down the tree, until a node has more than 1 children or is a word.
+        int currentNode = root;
+        int length = foldedPrefix.length();
+        while (getNumChildren(currentNode) == 1 && words[currentNode] == null) {
+            currentNode = firstChild[currentNode];
+            length++;
+        }
+
+        // Only words keep their actual characters, so take the prefix from the first word under the node.
+        while (words[currentNode] == null) {
+            currentNode = firstChild[currentNode];
+        }
+        return words[currentNode].substring(0, length);
+    }
+
+    @Override
+    public Trie<T> subTrie(String prefix) {
+        if (prefix.isEmpty() || this.isEmpty()) {
+            return this;
+        }
+
+        // The given prefix is relative to the original Trie, so it must first match this Trie's prefix.
+        final int prefixLength = Math.min(prefix.length(), foldedPrefix.length());
+        for (int i = 0; i < prefixLength; i++) {
+            if (foldedPrefix.charAt(i) != fold(prefix.charAt(i))) {
+                return emptyTrie(caseSensitive);
+            }
+        }
+        if (prefix.length() <= foldedPrefix.length()) {
+            // All words in this Trie start with the given prefix.
+            return this;
+        }
+
+        // Navigate the rest of the prefix.
+        final StringBuilder prefixBuilder = new StringBuilder(foldedPrefix);
+        int currentNode = root;
+        for (int i = prefixLength; i < prefix.length(); i++) {
+            currentNode = findChild(currentNode, fold(prefix.charAt(i)));
+            if (currentNode == -1) {
+                return emptyTrie(caseSensitive);
+            }
+            prefixBuilder.append(keys[currentNode]);
+        }
+        return new FoldedTrie<>(keys, firstChild, words, values, numWords, caseSensitive, currentNode, prefixBuilder.toString());
+    }
+
+    @Override
+    Iterator<Entry<String, T>> entryIterator() {
+        return new IndexedNodeIterator<T>(root, foldedPrefix) {
+            @Override
+            protected int getNumChildren(int node) {
+                return firstChild[node + 1] - firstChild[node];
+            }
+
+            @Override
+            protected int getChild(int node, int index) {
+                return firstChild[node] + index;
+            }
+
+            @Override
+            protected char getChar(int node) {
+                return keys[node];
+            }
+
+            @Override
+            protected boolean isWord(int node) {
+                return words[node] != null;
+            }
+
+            @Override
+            protected T getValue(int node, String word) {
+                return FoldedTrie.this.getValue(node);
+            }
+
+            @Override
+            protected String getWord(int node, StringBuilder wordBuilder) {
+                // Only words keep their actual characters.
+                return words[node];
+            }
+        };
+    }
+
+    @Override
+    Trie<T> childTrie(char c, String prefix) {
+        if (isEmpty()) {
+            return this;
+        }
+        final int child = findChild(root, fold(c));
+        if (child == -1) {
+            return emptyTrie(caseSensitive);
+        }
+        return new FoldedTrie<>(keys, firstChild, words, values, numWords, caseSensitive, child, foldedPrefix + keys[child]);
+    }
+
+    @Override
+    public <A> Trie<A> mapValues(final Func<T, A> function) {
+        final Map<String, A> newValues = new HashMap<>(size());
+        visitWords(new TrieVisitor<T>() {
+            @Override
+            public void visit(String word, T value) {
+                final A newValue = function.apply(value);
+                if (newValue != null) {
+                    newValues.put(word, newValue);
+                }
+            }
+        });
+        return fromMap(newValues, caseSensitive);
+    }
+
+    @Override
+    public Trie<T> union(Trie<T> other) {
+        if (this == other || this.isEmpty()) {
+            return other;
+        }
+        if (other.isEmpty()) {
+            return this;
+        }
+
+        // Values from the other Trie take precedence, just like they would in a TrieBuilder.
+        // This also applies to words that only differ in case - the other Trie's word is kept.
+        final SortedMap<String, String> foldedWords = new TreeMap<>();
+        final Map<String, T> unionValues = new HashMap<>(size() + other.size());
+        final TrieVisitor<T> visitor = new TrieVisitor<T>() {
+            @Override
+            public void visit(String word, T value) {
+                final String prevWord = foldedWords.put(fold(word, caseSensitive), word);
+                if (prevWord != null) {
+                    unionValues.remove(prevWord);
+                }
+                unionValues.put(word, value);
+            }
+        };
+        this.visitWords(visitor);
+        other.visitWords(visitor);
+        return fromFoldedWords(foldedWords, unionValues, caseSensitive);
+    }
+
+    @Override
+    public void visitWords(TrieVisitor<T> visitor) {
+        if (!isEmpty()) {
+            doVisit(visitor, root);
+        }
+    }
+
+    private void doVisit(TrieVisitor<T> visitor, int node) {
+        // Words are kept at their nodes, so there is no need to build them character by character.
+        if (words[node] != null) {
+            visitor.visit(words[node], getValue(node));
+        }
+
+        final int end = firstChild[node + 1];
+        for (int child = firstChild[node]; child < end; child++) {
+            doVisit(visitor, child);
+        }
+    }
+
+    @Override
+    boolean visitWordsInOrder(InOrderVisitor<T> visitor) {
+        // Children are sorted by their folded character, so words are visited in the lexicographic order of their folded form.
+        return isEmpty() || doVisitInOrder(visitor, root);
+    }
+
+    private boolean doVisitInOrder(InOrderVisitor<T> visitor, int node) {
+        if (words[node] != null && !visitor.visit(words[node], getValue(node))) {
+            return false;
+        }
+
+        final int end = firstChild[node + 1];
+        for (int child = firstChild[node]; child < end; child++) {
+            if (!doVisitInOrder(visitor, child)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    void collectSimilarWords(SimilarWordsCollector<T> collector) {
+        if (!isEmpty()) {
+            final int[] row = collector.nextRow(collector.initialRow(), foldedPrefix);
+            doCollectSimilarWords(collector, root, row);
+        }
+    }
+
+    private void doCollectSimilarWords(SimilarWordsCollector<T> collector, int node, int[] row) {
+        if (words[node] != null) {
+            collector.offer(row, words[node], getValue(node));
+        }
+        if (!collector.canContinue(row)) {
+            // No word under this node can be similar enough.
+            return;
+        }
+
+        final int end = firstChild[node + 1];
+        for (int child = firstChild[node]; child < end; child++) {
+            doCollectSimilarWords(collector, child, collector.nextRow(row, keys[child]));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T getValue(int node) {
+        return (T) values[node];
+    }
+
+    private int getNumChildren(int node) {
+        return firstChild[node + 1] - firstChild[node];
+    }
+
+    private int getNode(String word) {
+        // The word must start with this Trie's prefix.
+        if (word.length() < foldedPrefix.length()) {
+            return -1;
+        }
+        for (int i = 0; i < foldedPrefix.length(); i++) {
+            if (foldedPrefix.charAt(i) != fold(word.charAt(i))) {
+                return -1;
+            }
+        }
+
+        // Navigate the tree by the rest of the folded letters of the word, starting from the root.
+        int currentNode = root;
+        for (int i = foldedPrefix.length(); i < word.length() && currentNode != -1; i++) {
+            currentNode = findChild(currentNode, fold(word.charAt(i)));
+        }
+        return currentNode;
+    }
+
+    private int findChild(int node, char key) {
+        // Children are sorted by their folded character, binary search for 'key'.
+        int low = firstChild[node];
+        int high = firstChild[node + 1] - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final char midKey = keys[mid];
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private char fold(char c) {
+        return fold(c, caseSensitive);
+    }
+
+    static char fold(char c, boolean caseSensitive) {
+        // Folding through upper case first also folds characters with more than one lower case form.
+        return caseSensitive ? c : Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    static String fold(String word, boolean caseSensitive) {
+        if (caseSensitive) {
+            return word;
+        }
+        final char[] folded = new char[word.length()];
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = fold(word.charAt(i), false);
+        }
+        return new String(folded);
+    }
+
+    /**
+     * Create a Trie from the given word-value mapping. Words mapped to {@code null} are ignored.
+     * If the Trie is case insensitive and a few words only differ in case,
+     * the last of them in lexicographic order is kept.
+     *
+     * @param map Word-value mapping to create a Trie from.
+     * @param caseSensitive Whether the Trie should distinguish between words that only differ in case.
+     * @param <T> Trie type.
+     * @return A Trie containing the words and values of the given map.
+     */
+    static <T> FoldedTrie<T> fromMap(Map<String, T> map, boolean caseSensitive) {
+        final List<String> sortedWords = new ArrayList<>(map.size());
+        for (Entry<String, T> entry : map.entrySet()) {
+            if (entry.getValue() != null) {
+                sortedWords.add(entry.getKey());
+            }
+        }
+        Collections.sort(sortedWords);
+
+        final SortedMap<String, String> foldedWords = new TreeMap<>();
+        for (String word : sortedWords) {
+            foldedWords.put(fold(word, caseSensitive), word);
+        }
+        return fromFoldedWords(foldedWords, map, caseSensitive);
+    }
+
+    /**
+     * @param foldedWords Maps the folded form of every word to the actual word.
+     * @param values Maps every actual word to it's value.
+     */
+    private static <T> FoldedTrie<T> fromFoldedWords(SortedMap<String, String> foldedWords, Map<String, T> values, boolean caseSensitive) {
+        // The folded words are sorted, so that all words passing through a node are adjacent and
+        // the children of each node are discovered in sorted order.
+        final List<String> sortedFoldedWords = new ArrayList<>(foldedWords.keySet());
+        int maxNodes = 1;
+        for (String foldedWord : sortedFoldedWords) {
+            maxNodes += foldedWord.length();
+        }
+
+        final char[] keys = new char[maxNodes];
+        final int[] firstChild = new int[maxNodes + 1];
+        final String[] nodeWords = new String[maxNodes];
+        final Object[] nodeValues = new Object[maxNodes];
+        final int[] numWords = new int[maxNodes];
+
+        // The range of (sorted) folded words passing through each node, and the depth of each node.
+        final int[] wordsFrom = new int[maxNodes];
+        final int[] depths = new int[maxNodes];
+        numWords[0] = sortedFoldedWords.size();
+
+        // Lay out the nodes breadth first, which keeps the children of every node consecutive.
+        // Nodes are processed in the order they are created, so the arrays themselves act as the queue.
+        int numNodes = 1;
+        for (int node = 0; node < numNodes; node++) {
+            int from = wordsFrom[node];
+            final int to = from + numWords[node];
+            final int depth = depths[node];
+
+            // Folded words are sorted, so if a word ends at this node it is the first in the range.
+            if (from < to && sortedFoldedWords.get(from).length() == depth) {
+                final String word = foldedWords.get(sortedFoldedWords.get(from));
+                nodeWords[node] = word;
+                nodeValues[node] = values.get(word);
+                from++;
+            }
+
+            // The rest of the words are grouped by their next folded character, each group becomes a child.
+            firstChild[node] = numNodes;
+            while (from < to) {
+                final char key = sortedFoldedWords.get(from).charAt(depth);
+                int groupEnd = from + 1;
+                while (groupEnd < to && sortedFoldedWords.get(groupEnd).charAt(depth) == key) {
+                    groupEnd++;
+                }
+
+                keys[numNodes] = key;
+                wordsFrom[numNodes] = from;
+                numWords[numNodes] = groupEnd - from;
+                depths[numNodes] = depth + 1;
+                numNodes++;
+
+                from = groupEnd;
+            }
+        }
+        firstChild[numNodes] = numNodes;
+
+        // Words that share prefixes share nodes, so there are usually less nodes than the upper bound.
+        return new FoldedTrie<>(
+            copyOf(keys, numNodes),
+            copyOf(firstChild, numNodes + 1),
+            copyOf(nodeWords, numNodes),
+            copyOf(nodeValues, numNodes),
+            copyOf(numWords, numNodes),
+            caseSensitive,
+            0,
+            ""
+        );
+    }
+
+    private static char[] copyOf(char[] array, int length) {
+        if (array.length == length) {
+            return array;
+        }
+        final char[] copy = new char[length];
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+
+    private static int[] copyOf(int[] array, int length) {
+        if (array.length == length) {
+            return array;
+        }
+        final int[] copy = new int[length];
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+
+    private static String[] copyOf(String[] array, int length) {
+        if (array.length == length) {
+            return array;
+        }
+        final String[] copy = new String[length];
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+
+    private static Object[] copyOf(Object[] array, int length) {
+        if (array.length == length) {
+            return array;
+        }
+        final Object[] copy = new Object[length];
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+
+    /**
+     * @param caseSensitive Whether the Trie should distinguish between words that only differ in case.
+     * @param <T> Trie type.
+     * @return An empty Trie.
+     */
+    static <T> FoldedTrie<T> emptyTrie(boolean caseSensitive) {
+        return fromMap(Collections.<String, T>emptyMap(), caseSensitive);
+    }
+}
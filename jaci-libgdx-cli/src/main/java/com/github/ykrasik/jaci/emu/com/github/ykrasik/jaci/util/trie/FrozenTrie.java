@@ -0,0 +1,546 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+import com.github.ykrasik.jaci.util.function.Func;
+import com.github.ykrasik.jaci.util.opt.Opt;
+
+import java.util.*;
+import java.util.Map.Entry;
+
+/**
+ * An immutable implementation of a {@link Trie} that precomputes everything it can when it is built,
+ * so queries never need to synchronize or recompute anything.<br>
+ * All nodes are stored in a few flat arrays, laid out in pre-order (depth first, children sorted by character).
+ * The subtree of every node occupies a consecutive range of the arrays, and a chain of nodes that have a single
+ * child directly follows the node it starts from.<br>
+ * When built, the following is calculated for every node:
+ * <ul>
+ *     <li>The amount of words reachable from it.</li>
+ *     <li>The length of the chain of single-child, non-word nodes under it - which is all that is needed
+ *     for the longest common prefix of it's words.</li>
+ *     <li>It's children, sorted by character, so looking up a child is a binary search.</li>
+ * </ul>
+ * The longest common prefix of each Trie (and subTrie) is calculated once, when it is created.
+ * A subTrie shares the arrays of the Trie it was created from.
+ *
+ * @author Yevgeny Krasik
+ */
+public class FrozenTrie<T> extends AbstractTrie<T> {
+    /**
+     * The character of each node.
+     */
+    private final char[] chars;
+
+    /**
+     * The value of each node, {@code null} if the node isn't a word.
+     */
+    private final Object[] values;
+
+    /**
+     * The amount of words reachable from each node, including the node itself.
+     */
+    private final int[] numWords;
+
+    /**
+     * The amount of nodes in the chain of single-child, non-word nodes that starts at each node.
+     * The chain of node 'i' is the nodes in the range [i + 1, i + 1 + chainLength[i]).
+     */
+    private final int[] chainLength;
+
+    /**
+     * The children of node 'i' are the nodes in childNodes, in the range [firstChildSlot[i], firstChildSlot[i + 1]),
+     * sorted by character. Contains an extra last element as a sentinel.
+     */
+    private final int[] firstChildSlot;
+    private final int[] childNodes;
+
+    /**
+     * The node this Trie starts at. Only different from 0 for a subTrie.
+     */
+    private final int root;
+
+    /**
+     * The characters leading up to the root node. Only non-empty for a subTrie.
+     */
+    private final String prefix;
+
+    private final String longestPrefix;
+
+    private FrozenTrie(char[] chars,
+                       Object[] values,
+                       int[] numWords,
+                       int[] chainLength,
+                       int[] firstChildSlot,
+                       int[] childNodes,
+                       int root,
+                       String prefix) {
+        this.chars = chars;
+        this.values = values;
+        this.numWords = numWords;
+        this.chainLength = chainLength;
+        this.firstChildSlot = firstChildSlot;
+        this.childNodes = childNodes;
+        this.root = root;
+        this.prefix = prefix;
+        this.longestPrefix = numWords[root] == 0 ? "" : prefix + new String(chars, root + 1, chainLength[root]);
+    }
+
+    @Override
+    public int size() {
+        return numWords[root];
+    }
+
+    @Override
+    public boolean contains(String word) {
+        final int node = getNode(word);
+        return node != -1 && values[node] != null;
+    }
+
+    @Override
+    public Opt<T> get(String word) {
+        final int node = getNode(word);
+        if (node == -1) {
+            return Opt.absent();
+        }
+        return Opt.ofNullable(getValue(node));
+    }
+
+    @Override
+    public String getLongestPrefix() {
+        return longestPrefix;
+    }
+
+    @Override
+    public Trie<T> subTrie(String prefix) {
+        if (prefix.isEmpty() || this.isEmpty()) {
+            return this;
+        }
+
+        // The given prefix is relative to the original Trie, so it must first match this Trie's prefix.
+        final int prefixLength = Math.min(prefix.length(), this.prefix.length());
+        for (int i = 0; i < prefixLength; i++) {
+            if (!isSameCharacter(this.prefix.charAt(i), prefix.charAt(i))) {
+                return emptyTrie();
+            }
+        }
+        if (prefix.length() <= this.prefix.length()) {
+            // All words in this Trie start with the given prefix.
+            return this;
+        }
+
+        // Navigate the rest of the prefix.
+        final StringBuilder prefixBuilder = new StringBuilder(this.prefix);
+        int currentNode = root;
+        for (int i = prefixLength; i < prefix.length(); i++) {
+            currentNode = getChild(currentNode, prefix.charAt(i));
+            if (currentNode == -1) {
+                return emptyTrie();
+            }
+            prefixBuilder.append(chars[currentNode]);
+        }
+        return new FrozenTrie<>(chars, values, numWords, chainLength, firstChildSlot, childNodes, currentNode, prefixBuilder.toString());
+    }
+
+    @Override
+    Iterator<Entry<String, T>> entryIterator() {
+        return new IndexedNodeIterator<T>(root, prefix) {
+            @Override
+            protected int getNumChildren(int node) {
+                return firstChildSlot[node + 1] - firstChildSlot[node];
+            }
+
+            @Override
+            protected int getChild(int node, int index) {
+                return childNodes[firstChildSlot[node] + index];
+            }
+
+            @Override
+            protected char getChar(int node) {
+                return chars[node];
+            }
+
+            @Override
+            protected boolean isWord(int node) {
+                return values[node] != null;
+            }
+
+            @Override
+            protected T getValue(int node, String word) {
+                return FrozenTrie.this.getValue(node);
+            }
+        };
+    }
+
+    @Override
+    Trie<T> childTrie(char c, String prefix) {
+        if (isEmpty()) {
+            return this;
+        }
+        final int child = getChild(root, c);
+        if (child == -1) {
+            return emptyTrie();
+        }
+        return new FrozenTrie<>(chars, values, numWords, chainLength, firstChildSlot, childNodes, child, this.prefix + chars[child]);
+    }
+
+    @Override
+    public <A> FrozenTrie<A> mapValues(final Func<T, A> function) {
+        if (isEmpty()) {
+            return emptyTrie();
+        }
+
+        // The structure of the Trie may change (words may be dropped), so build a new one.
+        final Map<String, A> newValues = new HashMap<>(size());
+        visitWords(new TrieVisitor<T>() {
+            @Override
+            public void visit(String word, T value) {
+                final A newValue = function.apply(value);
+                if (newValue != null) {
+                    newValues.put(word, newValue);
+                }
+            }
+        });
+        return fromMap(newValues);
+    }
+
+    @Override
+    public Trie<T> union(Trie<T> other) {
+        if (this == other || this.isEmpty()) {
+            return other;
+        }
+        if (other.isEmpty()) {
+            return this;
+        }
+
+        // Values from the other Trie take precedence, just like they would in a TrieBuilder.
+        final Map<String, T> unionValues = new HashMap<>(size() + other.size());
+        unionValues.putAll(this.toMap());
+        unionValues.putAll(other.toMap());
+        return fromMap(unionValues);
+    }
+
+    @Override
+    public void visitWords(TrieVisitor<T> visitor) {
+        // Children are sorted, so visiting in order costs nothing extra.
+        visitWordsInOrder(new AllWordsVisitor<>(visitor));
+    }
+
+    @Override
+    boolean visitWordsInOrder(InOrderVisitor<T> visitor) {
+        return isEmpty() || doVisitInOrder(visitor, root, new StringBuilder(prefix));
+    }
+
+    private boolean doVisitInOrder(InOrderVisitor<T> visitor, int node, StringBuilder wordBuilder) {
+        // A node's word comes before the words of it's children, which are already sorted.
+        final T value = getValue(node);
+        if (value != null && !visitor.visit(wordBuilder.toString(), value)) {
+            return false;
+        }
+
+        final int end = firstChildSlot[node + 1];
+        for (int slot = firstChildSlot[node]; slot < end; slot++) {
+            final int child = childNodes[slot];
+            wordBuilder.append(chars[child]);
+            final boolean proceed = doVisitInOrder(visitor, child, wordBuilder);
+            wordBuilder.deleteCharAt(wordBuilder.length() - 1);
+            if (!proceed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    void collectSimilarWords(SimilarWordsCollector<T> collector) {
+        if (!isEmpty()) {
+            final int[] row = collector.nextRow(collector.initialRow(), prefix);
+            doCollectSimilarWords(collector, root, row, new StringBuilder(prefix));
+        }
+    }
+
+    private void doCollectSimilarWords(SimilarWordsCollector<T> collector, int node, int[] row, StringBuilder wordBuilder) {
+        final T value = getValue(node);
+        if (value != null) {
+            collector.offer(row, wordBuilder.toString(), value);
+        }
+        if (!collector.canContinue(row)) {
+            // No word under this node can be similar enough.
+            return;
+        }
+
+        final int end = firstChildSlot[node + 1];
+        for (int slot = firstChildSlot[node]; slot < end; slot++) {
+            final int child = childNodes[slot];
+            wordBuilder.append(chars[child]);
+            doCollectSimilarWords(collector, child, collector.nextRow(row, chars[child]), wordBuilder);
+            wordBuilder.deleteCharAt(wordBuilder.length() - 1);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T getValue(int node) {
+        return (T) values[node];
+    }
+
+    private int getNode(String word) {
+        // The word must start with this Trie's prefix.
+        if (word.length() < prefix.length()) {
+            return -1;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (!isSameCharacter(prefix.charAt(i), word.charAt(i))) {
+                return -1;
+            }
+        }
+
+        // Navigate the tree by the rest of the letters of the word, starting from the root.
+        int currentNode = root;
+        for (int i = prefix.length(); i < word.length() && currentNode != -1; i++) {
+            currentNode = getChild(currentNode, word.charAt(i));
+        }
+        return currentNode;
+    }
+
+    /**
+     * @return Index of the child node for character 'c', or -1 if there is no such child. <b>Case insensitive</b>
+     */
+    private int getChild(int node, char c) {
+        final char lowerCase = Character.toLowerCase(c);
+        final int child = findChild(node, lowerCase);
+        if (child != -1) {
+            return child;
+        }
+        final char upperCase = Character.toUpperCase(c);
+        return upperCase != lowerCase ? findChild(node, upperCase) : -1;
+    }
+
+    private int findChild(int node, char c) {
+        // Children are sorted by character, binary search for 'c'.
+        int low = firstChildSlot[node];
+        int high = firstChildSlot[node + 1] - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int midNode = childNodes[mid];
+            final char midChar = chars[midNode];
+            if (midChar < c) {
+                low = mid + 1;
+            } else if (midChar > c) {
+                high = mid - 1;
+            } else {
+                return midNode;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isSameCharacter(char nodeCharacter, char c) {
+        return nodeCharacter == Character.toLowerCase(c) || nodeCharacter == Character.toUpperCase(c);
+    }
+
+    // The raw layout of the whole Trie, for writing it in a binary format. Only meaningful for a Trie that isn't a subTrie.
+
+    char[] getChars() {
+        return chars;
+    }
+
+    Object[] getValues() {
+        return values;
+    }
+
+    int[] getNumWords() {
+        return numWords;
+    }
+
+    int[] getChainLength() {
+        return chainLength;
+    }
+
+    int[] getFirstChildSlot() {
+        return firstChildSlot;
+    }
+
+    int[] getChildNodes() {
+        return childNodes;
+    }
+
+    /**
+     * An {@link InOrderVisitor} that passes all words on to a {@link TrieVisitor}.
+     */
+    private static class AllWordsVisitor<T> implements InOrderVisitor<T> {
+        private final TrieVisitor<T> visitor;
+
+        private AllWordsVisitor(TrieVisitor<T> visitor) {
+            this.visitor = visitor;
+        }
+
+        @Override
+        public boolean visit(String word, T value) {
+            visitor.visit(word, value);
+            return true;
+        }
+    }
+
+    /**
+     * Create a Trie from the given word-value mapping. Words mapped to {@code null} are ignored.
+     *
+     * @param map Word-value mapping to create a Trie from.
+     * @param <T> Trie type.
+     * @return A Trie containing the words and values of the given map.
+     */
+    static <T> FrozenTrie<T> fromMap(Map<String, T> map) {
+        // Sort the words, so that all words passing through a node are adjacent and
+        // the children of each node are discovered in sorted order.
+        final List<String> words = new ArrayList<>(map.size());
+        int maxNodes = 1;
+        for (Entry<String, T> entry : map.entrySet()) {
+            if (entry.getValue() != null) {
+                words.add(entry.getKey());
+                maxNodes += entry.getKey().length();
+            }
+        }
+        Collections.sort(words);
+
+        final Layout<T> layout = new Layout<>(words, map, maxNodes);
+        layout.addNode('\0', 0, words.size(), 0);
+        return layout.createTrie();
+    }
+
+    /**
+     * Lays out the nodes of a Trie in pre-order and precomputes everything about them.
+     */
+    private static class Layout<T> {
+        private final List<String> words;
+        private final Map<String, T> map;
+
+        private final char[] chars;
+        private final Object[] values;
+        private final int[] numWords;
+        private final int[] subtreeEnd;
+        private int numNodes;
+
+        private Layout(List<String> words, Map<String, T> map, int maxNodes) {
+            this.words = words;
+            this.map = map;
+            this.chars = new char[maxNodes];
+            this.values = new Object[maxNodes];
+            this.numWords = new int[maxNodes];
+            this.subtreeEnd = new int[maxNodes];
+        }
+
+        /**
+         * Add a node for the (sorted) words in the range [from, to), which all share their first 'depth' characters,
+         * followed by the nodes of it's subtree.
+         */
+        private void addNode(char c, int from, int to, int depth) {
+            final int node = numNodes++;
+            chars[node] = c;
+            numWords[node] = to - from;
+
+            // Words are sorted, so if a word ends at this node it is the first in the range.
+            if (from < to && words.get(from).length() == depth) {
+                values[node] = map.get(words.get(from));
+                from++;
+            }
+
+            // The rest of the words are grouped by their next character, each group becomes a child.
+            while (from < to) {
+                final char childChar = words.get(from).charAt(depth);
+                int groupEnd = from + 1;
+                while (groupEnd < to && words.get(groupEnd).charAt(depth) == childChar) {
+                    groupEnd++;
+                }
+                addNode(childChar, from, groupEnd, depth + 1);
+                from = groupEnd;
+            }
+            subtreeEnd[node] = numNodes;
+        }
+
+        private FrozenTrie<T> createTrie() {
+            // The children of a node are the nodes that start right after it and after each of it's children's subtree.
+            final int[] firstChildSlot = new int[numNodes + 1];
+            final int[] childNodes = new int[Math.max(numNodes - 1, 0)];
+            int numSlots = 0;
+            for (int node = 0; node < numNodes; node++) {
+                firstChildSlot[node] = numSlots;
+                for (int child = node + 1; child < subtreeEnd[node]; child = subtreeEnd[child]) {
+                    childNodes[numSlots++] = child;
+                }
+            }
+            firstChildSlot[numNodes] = numSlots;
+
+            // A single child directly follows it's parent, so chains are calculated from the last node backwards.
+            final int[] chainLength = new int[numNodes];
+            for (int node = numNodes - 1; node >= 0; node--) {
+                final boolean singleChild = firstChildSlot[node + 1] - firstChildSlot[node] == 1;
+                if (singleChild && values[node] == null) {
+                    chainLength[node] = 1 + chainLength[node + 1];
+                }
+            }
+
+            // Words that share prefixes share nodes, so there are usually less nodes than the upper bound.
+            return new FrozenTrie<>(
+                copyOf(chars, numNodes),
+                copyOf(values, numNodes),
+                copyOf(numWords, numNodes),
+                chainLength,
+                firstChildSlot,
+                childNodes,
+                0,
+                ""
+            );
+        }
+    }
+
+    private static char[] copyOf(char[] array, int length) {
+        if (array.length == length) {
+            return array;
+        }
+        final char[] copy = new char[length];
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+
+    private static int[] copyOf(int[] array, int length) {
+        if (array.length == length) {
+            return array;
+        }
+        final int[] copy = new int[length];
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+
+    private static Object[] copyOf(Object[] array, int length) {
+        if (array.length == length) {
+            return array;
+        }
+        final Object[] copy = new Object[length];
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+
+    private static final FrozenTrie<?> EMPTY_TRIE = fromMap(Collections.<String, Object>emptyMap());
+
+    /**
+     * @param <T> Trie type.
+     * @return An empty Trie.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> FrozenTrie<T> emptyTrie() {
+        return (FrozenTrie<T>) EMPTY_TRIE;
+    }
+}
@@ -0,0 +1,153 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+
+/**
+ * A lazy, depth first iterator over the word-value pairs under a node of a {@link Trie} whose nodes
+ * are identified by their index in a few flat arrays.<br>
+ * Walks the nodes with an explicit stack of primitive indices instead of recursion, and only builds the words
+ * it returns, so reading the first few entries only costs as much as getting to them.
+ * Implementations only need to describe the nodes. Children are visited in the order they are given.
+ *
+ * @param <T> Trie type.
+ * @author Yevgeny Krasik
+ */
+abstract class IndexedNodeIterator<T> implements Iterator<Entry<String, T>> {
+    /**
+     * Nodes that are yet to be visited, and the length of the word leading up to each of them (excluding it's own character).
+     */
+    private int[] nodes = new int[16];
+    private int[] lengths = new int[16];
+    private int stackSize;
+
+    private final StringBuilder wordBuilder;
+    private Entry<String, T> next;
+
+    /**
+     * @param root Node to iterate the words under, including it's own word.
+     * @param prefix The characters leading up to (and including) the root node.
+     */
+    IndexedNodeIterator(int root, String prefix) {
+        this.wordBuilder = new StringBuilder(prefix);
+        next = visit(root);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null && stackSize > 0) {
+            stackSize--;
+            final int node = nodes[stackSize];
+            wordBuilder.setLength(lengths[stackSize]);
+            wordBuilder.append(getChar(node));
+            next = visit(node);
+        }
+        return next != null;
+    }
+
+    @Override
+    public Entry<String, T> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final Entry<String, T> entry = next;
+        next = null;
+        return entry;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("A Trie cannot be modified!");
+    }
+
+    /**
+     * Push the node's children to be visited next, and return it's entry if it is a word.
+     */
+    private Entry<String, T> visit(int node) {
+        // Push the children in reverse, so they are popped in order.
+        final int numChildren = getNumChildren(node);
+        for (int i = numChildren - 1; i >= 0; i--) {
+            push(getChild(node, i));
+        }
+        if (!isWord(node)) {
+            return null;
+        }
+        final String word = getWord(node, wordBuilder);
+        return new SimpleImmutableEntry<>(word, getValue(node, word));
+    }
+
+    private void push(int child) {
+        if (stackSize == nodes.length) {
+            nodes = grow(nodes);
+            lengths = grow(lengths);
+        }
+        nodes[stackSize] = child;
+        lengths[stackSize] = wordBuilder.length();
+        stackSize++;
+    }
+
+    private static int[] grow(int[] array) {
+        final int[] newArray = new int[array.length * 2];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        return newArray;
+    }
+
+    /**
+     * @param node Node to get the amount of children of.
+     * @return Amount of children the node has.
+     */
+    protected abstract int getNumChildren(int node);
+
+    /**
+     * @param node Node to get a child of.
+     * @param index Index of the child, between 0 and the amount of children of the node.
+     * @return The child node.
+     */
+    protected abstract int getChild(int node, int index);
+
+    /**
+     * @param node Node to get the character of.
+     * @return The character of the edge leading to the node.
+     */
+    protected abstract char getChar(int node);
+
+    /**
+     * @param node Node to check.
+     * @return {@code true} if the node is a word.
+     */
+    protected abstract boolean isWord(int node);
+
+    /**
+     * @param node Node to get the value of. Is a word.
+     * @param word The word of the node.
+     * @return The value of the node.
+     */
+    protected abstract T getValue(int node, String word);
+
+    /**
+     * @param node Node to get the word of. Is a word.
+     * @param wordBuilder Contains the characters leading up to (and including) the node.
+     * @return The word of the node.
+     */
+    protected String getWord(int node, StringBuilder wordBuilder) {
+        return wordBuilder.toString();
+    }
+}
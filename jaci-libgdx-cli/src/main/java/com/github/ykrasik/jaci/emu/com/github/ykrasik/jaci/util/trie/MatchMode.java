@@ -0,0 +1,42 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+/**
+ * The ways in which a {@link WordIndex} can match words against a query. All match modes are case insensitive.
+ *
+ * @author Yevgeny Krasik
+ */
+public enum MatchMode {
+    /**
+     * Words that start with the query, same as {@link Trie#subTrie(String)}.
+     */
+    PREFIX,
+
+    /**
+     * Words that contain the query anywhere, for example "Map" matches "setShadowMapSize".
+     */
+    INFIX,
+
+    /**
+     * Words whose humps start with the humps of the query, in order. A new hump starts with every upper case character,
+     * and with a letter or digit that follows a character that isn't one.
+     * The first hump of the query must match the first hump of the word, the rest may skip humps of the word -
+     * for example "sMS" matches "setShadowMapSize".
+     */
+    CAMEL_HUMPS
+}
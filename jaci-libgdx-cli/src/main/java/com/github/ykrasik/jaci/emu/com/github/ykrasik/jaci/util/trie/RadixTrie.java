@@ -0,0 +1,445 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+import com.github.ykrasik.jaci.util.function.Func;
+import com.github.ykrasik.jaci.util.opt.Opt;
+
+import java.util.*;
+import java.util.Map.Entry;
+
+/**
+ * A path-compressed implementation of a {@link Trie} (also known as a radix tree).<br>
+ * Instead of a node per character, every chain of nodes that have a single child and aren't words is collapsed
+ * into a single node, which is reached through an edge labeled with all the characters of the chain.
+ * Words that share long prefixes require far less nodes, and navigating them takes a step per edge
+ * instead of a step per character.<br>
+ * <br>
+ * A subTrie shares the nodes of the Trie it was created from, and only remembers the node it starts at and
+ * the characters leading up to (and including) that node.
+ *
+ * @author Yevgeny Krasik
+ */
+public class RadixTrie<T> extends AbstractTrie<T> {
+    private final Node<T> root;
+
+    /**
+     * All the characters leading up to the end of the root node's edge. Only non-empty for a subTrie.
+     */
+    private final String prefix;
+
+    private RadixTrie(Node<T> root, String prefix) {
+        this.root = root;
+        this.prefix = prefix;
+    }
+
+    @Override
+    public int size() {
+        return root.numWords;
+    }
+
+    @Override
+    public boolean contains(String word) {
+        final Node<T> node = getNode(word);
+        return node != null && node.value != null;
+    }
+
+    @Override
+    public Opt<T> get(String word) {
+        final Node<T> node = getNode(word);
+        if (node == null) {
+            return Opt.absent();
+        }
+        return Opt.ofNullable(node.value);
+    }
+
+    @Override
+    public String getLongestPrefix() {
+        if (isEmpty()) {
+            return "";
+        }
+
+        // Keep going down the tree, until a node has more than 1 children or is a word.
+        // Thanks to path compression, this takes at most a single step.
+        final StringBuilder prefixBuilder = new StringBuilder(prefix);
+        Node<T> currentNode = root;
+        while (currentNode.children.length == 1 && currentNode.value == null) {
+            currentNode = currentNode.children[0];
+            prefixBuilder.append(currentNode.label);
+        }
+        return prefixBuilder.toString();
+    }
+
+    @Override
+    public Trie<T> subTrie(String prefix) {
+        if (prefix.isEmpty() || this.isEmpty()) {
+            return this;
+        }
+
+        // The given prefix is relative to the original Trie, so it must first match this Trie's prefix.
+        final int prefixLength = Math.min(prefix.length(), this.prefix.length());
+        if (!regionMatches(this.prefix, 0, prefix, 0, prefixLength)) {
+            return emptyTrie();
+        }
+        if (prefix.length() <= this.prefix.length()) {
+            // All words in this Trie start with the given prefix.
+            return this;
+        }
+
+        // Navigate the rest of the prefix edge by edge, recording the actual characters of the edges along the way.
+        // The prefix may end in the middle of an edge - all words under that edge still start with the prefix.
+        final StringBuilder prefixBuilder = new StringBuilder(this.prefix);
+        Node<T> currentNode = root;
+        int i = prefixLength;
+        while (i < prefix.length()) {
+            currentNode = currentNode.getChild(prefix.charAt(i));
+            if (currentNode == null) {
+                return emptyTrie();
+            }
+
+            final String label = currentNode.label;
+            final int length = Math.min(label.length(), prefix.length() - i);
+            if (!regionMatches(label, 0, prefix, i, length)) {
+                return emptyTrie();
+            }
+            prefixBuilder.append(label);
+            i += label.length();
+        }
+        return new RadixTrie<>(currentNode, prefixBuilder.toString());
+    }
+
+    @Override
+    public <A> RadixTrie<A> mapValues(final Func<T, A> function) {
+        if (isEmpty()) {
+            return emptyTrie();
+        }
+
+        // Words may be dropped, which may change how the paths are compressed, so build a new Trie.
+        final Map<String, A> newValues = new HashMap<>(size());
+        visitWords(new TrieVisitor<T>() {
+            @Override
+            public void visit(String word, T value) {
+                final A newValue = function.apply(value);
+                if (newValue != null) {
+                    newValues.put(word, newValue);
+                }
+            }
+        });
+        return fromMap(newValues);
+    }
+
+    @Override
+    public Trie<T> union(Trie<T> other) {
+        if (this == other || this.isEmpty()) {
+            return other;
+        }
+        if (other.isEmpty()) {
+            return this;
+        }
+
+        // Values from the other Trie take precedence, just like they would in a TrieBuilder.
+        final Map<String, T> unionValues = new HashMap<>(size() + other.size());
+        unionValues.putAll(this.toMap());
+        unionValues.putAll(other.toMap());
+        return fromMap(unionValues);
+    }
+
+    @Override
+    Iterator<Entry<String, T>> entryIterator() {
+        // The prefix already contains the root's label.
+        return new NodeIterator<Node<T>, T>(root, prefix) {
+            @Override
+            protected void pushChildren(Node<T> node) {
+                // Push the children in reverse, so they are popped in order.
+                for (int i = node.children.length - 1; i >= 0; i--) {
+                    push(node.children[i]);
+                }
+            }
+
+            @Override
+            protected void appendLabel(Node<T> node, StringBuilder wordBuilder) {
+                wordBuilder.append(node.label);
+            }
+
+            @Override
+            protected T getValue(Node<T> node) {
+                return node.value;
+            }
+        };
+    }
+
+    @Override
+    public void visitWords(TrieVisitor<T> visitor) {
+        if (isEmpty()) {
+            return;
+        }
+
+        doVisit(visitor, root, new StringBuilder(prefix));
+    }
+
+    private void doVisit(TrieVisitor<T> visitor, Node<T> node, StringBuilder wordBuilder) {
+        // Visit the node if it has a value.
+        if (node.value != null) {
+            visitor.visit(wordBuilder.toString(), node.value);
+        }
+
+        // Visit all the node's children, pushing and popping their edge label from the prefix.
+        for (Node<T> child : node.children) {
+            wordBuilder.append(child.label);
+            doVisit(visitor, child, wordBuilder);
+            wordBuilder.setLength(wordBuilder.length() - child.label.length());
+        }
+    }
+
+    @Override
+    boolean visitWordsInOrder(InOrderVisitor<T> visitor) {
+        return isEmpty() || doVisitInOrder(visitor, root, new StringBuilder(prefix));
+    }
+
+    private boolean doVisitInOrder(InOrderVisitor<T> visitor, Node<T> node, StringBuilder wordBuilder) {
+        // A node's word comes before the words of it's children, which are already sorted.
+        if (node.value != null && !visitor.visit(wordBuilder.toString(), node.value)) {
+            return false;
+        }
+
+        for (Node<T> child : node.children) {
+            wordBuilder.append(child.label);
+            final boolean proceed = doVisitInOrder(visitor, child, wordBuilder);
+            wordBuilder.setLength(wordBuilder.length() - child.label.length());
+            if (!proceed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    void collectSimilarWords(SimilarWordsCollector<T> collector) {
+        if (!isEmpty()) {
+            final int[] row = collector.nextRow(collector.initialRow(), prefix);
+            doCollectSimilarWords(collector, root, row, new StringBuilder(prefix));
+        }
+    }
+
+    private void doCollectSimilarWords(SimilarWordsCollector<T> collector, Node<T> node, int[] row, StringBuilder wordBuilder) {
+        if (node.value != null) {
+            collector.offer(row, wordBuilder.toString(), node.value);
+        }
+        if (!collector.canContinue(row)) {
+            // No word under this node can be similar enough.
+            return;
+        }
+
+        for (Node<T> child : node.children) {
+            // Advance a row per character of the edge, stopping as soon as no word under it can be similar enough.
+            int[] childRow = row;
+            int i = 0;
+            while (i < child.label.length() && collector.canContinue(childRow)) {
+                childRow = collector.nextRow(childRow, child.label.charAt(i));
+                i++;
+            }
+            if (i == child.label.length()) {
+                wordBuilder.append(child.label);
+                doCollectSimilarWords(collector, child, childRow, wordBuilder);
+                wordBuilder.setLength(wordBuilder.length() - child.label.length());
+            }
+        }
+    }
+
+    private Node<T> getNode(String word) {
+        // The word must start with this Trie's prefix.
+        if (word.length() < prefix.length() || !regionMatches(prefix, 0, word, 0, prefix.length())) {
+            return null;
+        }
+
+        // Navigate the tree by the rest of the word edge by edge, starting from the root.
+        // The word must end exactly at the end of an edge.
+        Node<T> currentNode = root;
+        int i = prefix.length();
+        while (i < word.length()) {
+            currentNode = currentNode.getChild(word.charAt(i));
+            if (currentNode == null) {
+                return null;
+            }
+
+            final String label = currentNode.label;
+            if (word.length() - i < label.length() || !regionMatches(label, 0, word, i, label.length())) {
+                return null;
+            }
+            i += label.length();
+        }
+        return currentNode;
+    }
+
+    /**
+     * @return {@code true} if 'length' characters of 'label' starting at 'labelOffset' match the characters of
+     *         'str' starting at 'offset'. <b>Case insensitive</b>
+     */
+    private static boolean regionMatches(String label, int labelOffset, String str, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            final char labelCharacter = label.charAt(labelOffset + i);
+            final char c = str.charAt(offset + i);
+            if (labelCharacter != Character.toLowerCase(c) && labelCharacter != Character.toUpperCase(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A node in a {@link RadixTrie}. Immutable.
+     */
+    private static class Node<T> {
+        /**
+         * The characters of the edge leading to this node. Never empty, except for the root.
+         */
+        private final String label;
+
+        /**
+         * Child nodes, sorted by the first character of their label.
+         */
+        private final Node<T>[] children;
+
+        /**
+         * The value of this node, {@code null} if the node isn't a word.
+         */
+        private final T value;
+
+        /**
+         * The amount of words reachable from this node, including the node itself.
+         */
+        private final int numWords;
+
+        private Node(String label, Node<T>[] children, T value, int numWords) {
+            this.label = label;
+            this.children = children;
+            this.value = value;
+            this.numWords = numWords;
+        }
+
+        /**
+         * @return Child node whose label starts with 'c', or {@code null} if there is no such child. <b>Case insensitive</b>
+         */
+        private Node<T> getChild(char c) {
+            final Node<T> child = findChild(Character.toLowerCase(c));
+            if (child != null) {
+                return child;
+            }
+            return findChild(Character.toUpperCase(c));
+        }
+
+        private Node<T> findChild(char c) {
+            // Children are sorted by the first character of their label, binary search for 'c'.
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                final int mid = (low + high) >>> 1;
+                final char midChar = children[mid].label.charAt(0);
+                if (midChar < c) {
+                    low = mid + 1;
+                } else if (midChar > c) {
+                    high = mid - 1;
+                } else {
+                    return children[mid];
+                }
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Node<T>[] newArray(int length) {
+            return (Node<T>[]) new Node<?>[length];
+        }
+    }
+
+    /**
+     * Create a Trie from the given word-value mapping. Words mapped to {@code null} are ignored.
+     *
+     * @param map Word-value mapping to create a Trie from.
+     * @param <T> Trie type.
+     * @return A Trie containing the words and values of the given map.
+     */
+    static <T> RadixTrie<T> fromMap(Map<String, T> map) {
+        // Sort the words, so that all words sharing a prefix are adjacent and
+        // the children of each node are created in sorted order.
+        final List<String> words = new ArrayList<>(map.size());
+        for (Entry<String, T> entry : map.entrySet()) {
+            if (entry.getValue() != null) {
+                words.add(entry.getKey());
+            }
+        }
+        Collections.sort(words);
+
+        final Node<T> root = createNode(map, words, 0, words.size(), "", 0);
+        return new RadixTrie<>(root, "");
+    }
+
+    /**
+     * Create a node for the range of (sorted) words [from, to), all of which share their first 'depth' characters.
+     */
+    private static <T> Node<T> createNode(Map<String, T> map, List<String> words, int from, int to, String label, int depth) {
+        // Words are sorted, so if a word ends at this node it is the first in the range.
+        T value = null;
+        int childrenFrom = from;
+        if (from < to && words.get(from).length() == depth) {
+            value = map.get(words.get(from));
+            childrenFrom++;
+        }
+
+        // The rest of the words are grouped by their next character, each group becomes a child.
+        final List<Node<T>> children = new ArrayList<>();
+        while (childrenFrom < to) {
+            final String firstWord = words.get(childrenFrom);
+            final char c = firstWord.charAt(depth);
+            int groupEnd = childrenFrom + 1;
+            while (groupEnd < to && words.get(groupEnd).charAt(depth) == c) {
+                groupEnd++;
+            }
+
+            // The words of a group are sorted, so the prefix they all share is the prefix shared by the first and last.
+            // This is the label of the edge leading to the child.
+            final int childDepth = getCommonPrefixLength(firstWord, words.get(groupEnd - 1));
+            final String childLabel = firstWord.substring(depth, childDepth);
+            children.add(createNode(map, words, childrenFrom, groupEnd, childLabel, childDepth));
+
+            childrenFrom = groupEnd;
+        }
+
+        final Node<T>[] childArray = children.toArray(Node.<T>newArray(children.size()));
+        return new Node<>(label, childArray, value, to - from);
+    }
+
+    private static int getCommonPrefixLength(String word1, String word2) {
+        final int length = Math.min(word1.length(), word2.length());
+        int i = 0;
+        while (i < length && word1.charAt(i) == word2.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final RadixTrie<?> EMPTY_TRIE = fromMap(Collections.<String, Object>emptyMap());
+
+    /**
+     * @param <T> Trie type.
+     * @return An empty Trie.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RadixTrie<T> emptyTrie() {
+        return (RadixTrie<T>) EMPTY_TRIE;
+    }
+}
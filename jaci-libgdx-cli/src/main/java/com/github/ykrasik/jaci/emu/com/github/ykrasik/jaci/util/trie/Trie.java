@@ -38,6 +38,12 @@ public interface Trie<T> {
      */
     int size();
 
+    /**
+     * @return The amount of words in this Trie, if it is known without traversing the Trie.
+     *         Lazy views that may drop or merge words only know it once it was calculated by {@link #size()}.
+     */
+    Opt<Integer> getKnownSize();
+
     /**
      * @return {@code true} if this Trie does not contain any words.
      */
@@ -80,8 +86,6 @@ public interface Trie<T> {
     // TODO: I don't like that the function can return null.
     <R> Trie<R> mapValues(Func<T, R> function);
 
-    // TODO: Add a lazy map that saves the function and only applies it when traversed.
-
     /**
      * @param filter Predicate that determines which values to keep in the Trie.
      * @return A Trie which only contains values for which {@link Pred#test} returned {@code true}.<br>
@@ -89,6 +93,31 @@ public interface Trie<T> {
      */
     Trie<T> filter(Pred<T> filter);
 
+    /**
+     * A lazy version of {@link #mapValues}.
+     * Unlike {@link #mapValues}, the function must not return {@code null} - the returned Trie contains every word
+     * of this Trie, so it's size and longest prefix are answered by this Trie without applying the function.
+     * Use {@link #lazyFilter} to drop words.
+     *
+     * @param function Function to apply to each value in this Trie. Must not return {@code null}.
+     * @param <R> Type to transform values to.
+     * @return A view of this Trie in which the value of each word is transformed by calling {@link Func#apply}
+     *         only when that word is accessed or traversed.<br>
+     *         Does not alter or copy this Trie.
+     */
+    <R> Trie<R> lazyMapValues(Func<T, R> function);
+
+    /**
+     * A lazy version of {@link #filter}.
+     *
+     * @param filter Predicate that determines which values to keep in the Trie.
+     * @return A view of this Trie which only contains values for which {@link Pred#test} returns {@code true}.
+     *         The predicate is only tested when a word is accessed or traversed, so calculating the size or
+     *         longest prefix of the view tests the predicate on all words.<br>
+     *         Does not alter or copy this Trie.
+     */
+    Trie<T> lazyFilter(Pred<T> filter);
+
     /**
      * @param other The other Trie of the union.
      * @return A Trie which contains words and values from this Trie and the other Trie.<br>
@@ -98,6 +127,18 @@ public interface Trie<T> {
      */
     Trie<T> union(Trie<T> other);
 
+    /**
+     * A lazy version of {@link #union}.
+     *
+     * @param other The other Trie of the union.
+     * @return A view of the union of this Trie and the other Trie, which queries both Tries on every operation.<br>
+     *         If a word was contained in both Tries, the returned Trie will map that word to either one
+     *         of the possible values, without any guarantees. Words that only differ in case are kept as
+     *         different words, even if both Tries are case insensitive {@link TrieType#FOLDED} Tries.<br>
+     *         Does not alter or copy either Trie.
+     */
+    Trie<T> lazyUnion(Trie<T> other);
+
     /**
      * Calls {@link TrieVisitor#visit} for each word-value pair in this Trie.
      *
@@ -106,22 +147,47 @@ public interface Trie<T> {
     void visitWords(TrieVisitor<T> visitor);
 
     /**
-     * @return All the words in this Trie.
+     * Calls {@link TrieVisitor#visit} for the first 'maxWords' word-value pairs in this Trie,
+     * in lexicographic order of the words.<br>
+     * The traversal stops as soon as 'maxWords' words were visited - the rest of the Trie is never traversed.
+     * Together with {@link #size()}, this can be used to present the first K words out of N.
+     *
+     * @param visitor The visitor that will visit each word-value pair.
+     * @param maxWords Maximum amount of word-value pairs to visit.
+     */
+    void visitFirstWords(TrieVisitor<T> visitor, int maxWords);
+
+    /**
+     * Calls {@link TrieVisitor#visit} for each word-value pair in this Trie whose word is within 'maxDistance'
+     * edits (insertions, deletions or substitutions of a single character) from the given word.
+     * Words are visited closest first, words with the same distance are visited in lexicographic order.<br>
+     * Only the parts of the Trie that may still contain such words are traversed. <b>Case insensitive</b>
+     *
+     * @param word Word to look for similar words to.
+     * @param maxDistance Maximum edit distance of a visited word from the given word.
+     * @param visitor The visitor that will visit each similar word-value pair.
+     */
+    void visitSimilarWords(String word, int maxDistance, TrieVisitor<T> visitor);
+
+    /**
+     * @return A read-only view of all the words in this Trie. Iterated lazily - iterating only part of the words
+     *         only walks the part of the Trie that leads to them.
      */
     Collection<String> words();
 
     /**
-     * @return All the values in this Trie.
+     * @return A read-only view of all the values in this Trie. Iterated lazily, like {@link #words()}.
      */
     Collection<T> values();
 
     /**
-     * @return A {@link Set} containing all word-value pairs as {@link Entry entries} from this Trie.
+     * @return A read-only {@link Set} view of all word-value pairs as {@link Entry entries} from this Trie.
+     *         Iterated lazily, like {@link #words()}.
      */
     Set<Entry<String, T>> entrySet();
 
     /**
-     * @return A {@link Map} containing all word-value pairs from this Trie.
+     * @return A {@link Map} containing all word-value pairs from this Trie. Copies all of them.
      */
     Map<String, T> toMap();
 }
@@ -0,0 +1,157 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A stateful cursor over a {@link Trie}, that narrows it down one character at a time.<br>
+ * Intended for completing as the user types - every typed character advances the cursor and every deleted
+ * character retreats it. Advancing navigates a single character from where the cursor already is
+ * (for the Trie implementations that support it) instead of navigating the whole prefix from the root,
+ * and retreating costs nothing, as every narrowed down Trie along the way is kept.<br>
+ * The cursor starts with an empty prefix, so it should be created over a whole Trie (not a subTrie).
+ * Navigation is <b>Case insensitive</b>.<br>
+ * Not thread safe - a cursor is meant to be owned by the UI that drives it.
+ *
+ * @author Yevgeny Krasik
+ */
+public class TrieCursor<T> {
+    /**
+     * The Trie narrowed down by each prefix of the current prefix, starting with the whole Trie.
+     */
+    private final List<Trie<T>> tries = new ArrayList<>();
+    private final StringBuilder prefix = new StringBuilder();
+
+    /**
+     * @param trie Trie to narrow down.
+     */
+    public TrieCursor(Trie<T> trie) {
+        if (trie == null) {
+            throw new java.lang.NullPointerException("trie");
+        }
+        tries.add(trie);
+    }
+
+    /**
+     * Narrow the cursor down to the words that continue the current prefix with the given character.
+     * If no such words exist, the cursor becomes empty, but can still be advanced and retreated.
+     *
+     * @param c Character to advance by.
+     * @return {@code this}, for chaining.
+     */
+    public TrieCursor<T> advance(char c) {
+        prefix.append(c);
+        final Trie<T> trie = getTrie();
+        final Trie<T> childTrie = trie.isEmpty() ? trie : AbstractTrie.childTrie(trie, c, prefix.toString());
+        tries.add(childTrie);
+        return this;
+    }
+
+    /**
+     * Advance the cursor by each of the given characters.
+     *
+     * @param chars Characters to advance by.
+     * @return {@code this}, for chaining.
+     */
+    public TrieCursor<T> advance(String chars) {
+        for (int i = 0; i < chars.length(); i++) {
+            advance(chars.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * Undo the last advance, removing the last character of the current prefix.
+     *
+     * @return {@code false} if the current prefix was already empty.
+     */
+    public boolean retreat() {
+        if (prefix.length() == 0) {
+            return false;
+        }
+        prefix.deleteCharAt(prefix.length() - 1);
+        tries.remove(tries.size() - 1);
+        return true;
+    }
+
+    /**
+     * Retreat the cursor all the way back to an empty prefix.
+     */
+    public void reset() {
+        prefix.setLength(0);
+        tries.subList(1, tries.size()).clear();
+    }
+
+    /**
+     * @return The characters the cursor was advanced by, as they were given.
+     */
+    public String getPrefix() {
+        return prefix.toString();
+    }
+
+    /**
+     * @return A Trie containing only the words that start with the current prefix.
+     */
+    public Trie<T> getTrie() {
+        return tries.get(tries.size() - 1);
+    }
+
+    /**
+     * @return Amount of words that start with the current prefix.
+     */
+    public int size() {
+        return getTrie().size();
+    }
+
+    /**
+     * @return {@code true} if no words start with the current prefix.
+     */
+    public boolean isEmpty() {
+        return getTrie().isEmpty();
+    }
+
+    /**
+     * @return The longest prefix common to all words that start with the current prefix,
+     *         with the actual characters of the words. Empty if there are no such words.
+     */
+    public String getLongestPrefix() {
+        return getTrie().getLongestPrefix();
+    }
+
+    /**
+     * @param maxWords Maximum amount of words to return.
+     * @return The first 'maxWords' words that start with the current prefix, in lexicographic order.
+     * @see Trie#visitFirstWords(TrieVisitor, int)
+     */
+    public List<String> getFirstWords(int maxWords) {
+        final List<String> words = new ArrayList<>(Math.max(Math.min(maxWords, size()), 0));
+        getTrie().visitFirstWords(new TrieVisitor<T>() {
+            @Override
+            public void visit(String word, T value) {
+                words.add(word);
+            }
+        }, maxWords);
+        return words;
+    }
+
+    @Override
+    public String toString() {
+        return "TrieCursor(prefix=" + prefix + ", size=" + size() + ")";
+    }
+}
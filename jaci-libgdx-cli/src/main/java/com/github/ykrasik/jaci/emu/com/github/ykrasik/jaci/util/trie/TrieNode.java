@@ -30,7 +30,7 @@ import java.util.Map.Entry;
  * @author Yevgeny Krasik
  */
 // FIXME: Test this class thoroughly!
-public class TrieNode<T> implements Trie<T> {
+public class TrieNode<T> extends AbstractTrie<T> {
     private final char c;
     private final Map<Character, TrieNode<T>> children;
 
@@ -91,19 +91,32 @@ public class TrieNode<T> implements Trie<T> {
     }
 
     @Override
-    public boolean isEmpty() {
-        return size() == 0;
+    public boolean contains(String word) {
+        return contains(word, 0);
     }
 
-    @Override
-    public boolean contains(String word) {
-        final Opt<TrieNode<T>> node = getNode(word);
+    /**
+     * @param word The word to check.
+     * @param from Index of the first character of the word that is under this node.
+     * @return {@code true} if the characters of the word starting at 'from' are a word under this node.
+     */
+    boolean contains(String word, int from) {
+        final Opt<TrieNode<T>> node = getNode(word, from);
         return node.exists(IS_WORD_PREDICATE);
     }
 
     @Override
     public Opt<T> get(String word) {
-        final Opt<TrieNode<T>> node = getNode(word);
+        return get(word, 0);
+    }
+
+    /**
+     * @param word The word to retrieve the value for.
+     * @param from Index of the first character of the word that is under this node.
+     * @return The value associated with the characters of the word starting at 'from'. Case insensitive.
+     */
+    Opt<T> get(String word, int from) {
+        final Opt<TrieNode<T>> node = getNode(word, from);
         if (!node.isPresent()) {
             return Opt.absent();
         }
@@ -136,34 +149,58 @@ public class TrieNode<T> implements Trie<T> {
             return this;
         }
 
-        // currentNavigationNode is used to navigate down the existing trie.
-        // currentCreationNode is used to create a new trie according to the prefix.
-        final TrieNode<T> prefixTrie = createRoot();
-        TrieNode<T> currentNavigationNode = this;
-        TrieNode<T> currentCreationNode = prefixTrie;
-
-        // TODO: Consider a more elegant solution.
+        // Navigate down the trie according to the prefix, recording the actual characters of the nodes along the way.
+        // Nothing is copied - the returned Trie is a view of the node the prefix leads to.
+        final StringBuilder prefixBuilder = new StringBuilder(prefix.length());
+        TrieNode<T> currentNode = this;
         for (int i = 0; i < prefix.length(); i++) {
-            final char c = prefix.charAt(i);
-            final Opt<TrieNode<T>> child = currentNavigationNode.getChild(c);
+            final Opt<TrieNode<T>> child = currentNode.getChild(prefix.charAt(i));
             if (!child.isPresent()) {
                 return emptyTrie();
             }
-            currentNavigationNode = child.get();
+            currentNode = child.get();
+            prefixBuilder.append(currentNode.c);
+        }
+        return new TrieNodeView<>(prefixBuilder.toString(), currentNode);
+    }
 
-            final TrieNode<T> newChild;
-            if (i == prefix.length() - 1) {
-                // Use the real node for the last character in the word.
-                newChild = currentNavigationNode;
-            } else {
-                // Create a new node for every character except the last, containing only 'c' as a child.
-                newChild = new TrieNode<>(c);
+    @Override
+    Iterator<Entry<String, T>> entryIterator() {
+        return entryIterator("");
+    }
+
+    /**
+     * @param prefix The characters leading up to (and including) this node.
+     * @return A lazy iterator over the word-value pairs under this node.
+     */
+    Iterator<Entry<String, T>> entryIterator(String prefix) {
+        return new NodeIterator<TrieNode<T>, T>(this, prefix) {
+            @Override
+            protected void pushChildren(TrieNode<T> node) {
+                for (TrieNode<T> child : node.children.values()) {
+                    push(child);
+                }
             }
-            currentCreationNode.children.put(c, newChild);
-            currentCreationNode = newChild;
-        }
 
-        return prefixTrie;
+            @Override
+            protected void appendLabel(TrieNode<T> node, StringBuilder wordBuilder) {
+                wordBuilder.append(node.c);
+            }
+
+            @Override
+            protected T getValue(TrieNode<T> node) {
+                return node.value.getOrElseNull();
+            }
+        };
+    }
+
+    @Override
+    Trie<T> childTrie(char c, String prefix) {
+        final Opt<TrieNode<T>> child = getChild(c);
+        if (!child.isPresent()) {
+            return emptyTrie();
+        }
+        return new TrieNodeView<>(String.valueOf(child.get().c), child.get());
     }
 
     @Override
@@ -207,16 +244,6 @@ public class TrieNode<T> implements Trie<T> {
         return newChildren;
     }
 
-    @Override
-    public Trie<T> filter(final Pred<T> filter) {
-        return mapValues(new Func<T, T>() {
-            @Override
-            public T apply(T input) {
-                return filter.test(input) ? input : null;
-            }
-        });
-    }
-
     @Override
     public Trie<T> union(Trie<T> other) {
         if (this == other || this.isEmpty()) {
@@ -230,6 +257,10 @@ public class TrieNode<T> implements Trie<T> {
             // Other Trie is of the same implementation, we can have an efficient union.
             return trieNodeUnion((TrieNode<T>) other);
         }
+        if (other instanceof TrieNodeView) {
+            // Other Trie is a view of a node of the same implementation.
+            return trieNodeUnion(((TrieNodeView<T>) other).toRootNode());
+        }
 
         // Other Trie is of a different implementation, create a naive union trie.
         final TrieBuilder<T> builder = new TrieBuilder<>();
@@ -300,7 +331,13 @@ public class TrieNode<T> implements Trie<T> {
         wordBuilder.deleteCharAt(wordBuilder.length() - 1);
     }
 
-    private void doVisit(TrieVisitor<T> visitor, StringBuilder wordBuilder) {
+    /**
+     * Visit this node and all it's children, without appending this node's character to the word.
+     *
+     * @param visitor The visitor that will visit each word-value pair.
+     * @param wordBuilder Contains the characters leading up to (and including) this node.
+     */
+    void doVisit(TrieVisitor<T> visitor, StringBuilder wordBuilder) {
         // Visit the node if it has a value.
         if (value.isPresent()) {
             final String word = wordBuilder.toString();
@@ -314,39 +351,84 @@ public class TrieNode<T> implements Trie<T> {
     }
 
     @Override
-    public Collection<String> words() {
-        return toMap().keySet();
+    boolean visitWordsInOrder(InOrderVisitor<T> visitor) {
+        return isEmpty() || doVisitInOrder(visitor, new StringBuilder());
     }
 
-    @Override
-    public Collection<T> values() {
-        return toMap().values();
+    /**
+     * Visit this node and all it's children in lexicographic order, without appending this node's character to the word.
+     *
+     * @param visitor The visitor that will visit each word-value pair.
+     * @param wordBuilder Contains the characters leading up to (and including) this node.
+     * @return {@code false} if the visitor asked to stop.
+     */
+    boolean doVisitInOrder(InOrderVisitor<T> visitor, StringBuilder wordBuilder) {
+        // A node's word comes before the words of it's children.
+        if (value.isPresent() && !visitor.visit(wordBuilder.toString(), value.get())) {
+            return false;
+        }
+        if (children.isEmpty()) {
+            return true;
+        }
+
+        // Children aren't kept in any particular order, sort them by their character.
+        final char[] childCharacters = new char[children.size()];
+        int i = 0;
+        for (Character childCharacter : children.keySet()) {
+            childCharacters[i++] = childCharacter;
+        }
+        Arrays.sort(childCharacters);
+
+        for (char childCharacter : childCharacters) {
+            wordBuilder.append(childCharacter);
+            final boolean proceed = children.get(childCharacter).doVisitInOrder(visitor, wordBuilder);
+            wordBuilder.deleteCharAt(wordBuilder.length() - 1);
+            if (!proceed) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
-    public Set<Entry<String, T>> entrySet() {
-        return toMap().entrySet();
+    void collectSimilarWords(SimilarWordsCollector<T> collector) {
+        if (!isEmpty()) {
+            doCollectSimilarWords(collector, collector.initialRow(), new StringBuilder());
+        }
     }
 
-    @Override
-    public Map<String, T> toMap() {
-        if (isEmpty()) {
-            return Collections.emptyMap();
+    /**
+     * Offer this node and all it's children that may be similar to the collector's target word to the collector,
+     * without appending this node's character to the word.
+     *
+     * @param collector Collector to offer words to.
+     * @param row The edit distance row of the characters leading up to (and including) this node.
+     * @param wordBuilder Contains the characters leading up to (and including) this node.
+     */
+    void doCollectSimilarWords(SimilarWordsCollector<T> collector, int[] row, StringBuilder wordBuilder) {
+        if (value.isPresent()) {
+            collector.offer(row, wordBuilder.toString(), value.get());
+        }
+        if (!collector.canContinue(row)) {
+            // No word under this node can be similar enough.
+            return;
         }
 
-        final MapTrieVisitor<T> visitor = new MapTrieVisitor<>();
-        visitWords(visitor);
-        return visitor.getMap();
+        for (TrieNode<T> child : children.values()) {
+            wordBuilder.append(child.c);
+            child.doCollectSimilarWords(collector, collector.nextRow(row, child.c), wordBuilder);
+            wordBuilder.deleteCharAt(wordBuilder.length() - 1);
+        }
     }
 
     private boolean isWord() {
         return value.isPresent();
     }
 
-    private Opt<TrieNode<T>> getNode(String prefix) {
-        // Navigate the tree by the letters of the prefix, starting from the root.
+    private Opt<TrieNode<T>> getNode(String prefix, int from) {
+        // Navigate the tree by the letters of the prefix, starting from this node.
         TrieNode<T> currentNode = this;
-        for (int i = 0; i < prefix.length(); i++) {
+        for (int i = from; i < prefix.length(); i++) {
             final char c = prefix.charAt(i);
             final Opt<TrieNode<T>> child = currentNode.getChild(c);
             if (!child.isPresent()) {
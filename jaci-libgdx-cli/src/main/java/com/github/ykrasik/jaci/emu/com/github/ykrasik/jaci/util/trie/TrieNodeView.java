@@ -0,0 +1,199 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+import com.github.ykrasik.jaci.util.function.Func;
+import com.github.ykrasik.jaci.util.opt.Opt;
+
+import java.util.Iterator;
+import java.util.Map.Entry;
+
+/**
+ * A subTrie of a {@link TrieNode}.<br>
+ * Does not copy anything - only holds the node the prefix leads to and the characters of the prefix.
+ * All words of this Trie are the words under that node, starting with the prefix.
+ *
+ * @author Yevgeny Krasik
+ */
+class TrieNodeView<T> extends AbstractTrie<T> {
+    /**
+     * The actual characters of the nodes leading up to (and including) the node. Never empty.
+     */
+    private final String prefix;
+
+    /**
+     * The node the prefix leads to.
+     */
+    private final TrieNode<T> node;
+
+    TrieNodeView(String prefix, TrieNode<T> node) {
+        this.prefix = prefix;
+        this.node = node;
+    }
+
+    @Override
+    public int size() {
+        return node.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return node.isEmpty();
+    }
+
+    @Override
+    public boolean contains(String word) {
+        return startsWithPrefix(word) && node.contains(word, prefix.length());
+    }
+
+    @Override
+    public Opt<T> get(String word) {
+        if (!startsWithPrefix(word)) {
+            return Opt.absent();
+        }
+        return node.get(word, prefix.length());
+    }
+
+    @Override
+    public String getLongestPrefix() {
+        if (isEmpty()) {
+            return "";
+        }
+        return prefix + node.getLongestPrefix();
+    }
+
+    @Override
+    public Trie<T> subTrie(String prefix) {
+        if (prefix.isEmpty() || this.isEmpty()) {
+            return this;
+        }
+
+        // The given prefix is relative to the original Trie, so it must first match this view's prefix.
+        final int prefixLength = Math.min(prefix.length(), this.prefix.length());
+        if (!regionMatches(prefix, prefixLength)) {
+            return TrieNode.emptyTrie();
+        }
+        if (prefix.length() <= this.prefix.length()) {
+            // All words in this Trie start with the given prefix.
+            return this;
+        }
+
+        // Have the node navigate the rest of the prefix, the result is either empty or a view of a node under it.
+        final Trie<T> nodeSubTrie = node.subTrie(prefix.substring(prefixLength));
+        if (nodeSubTrie.isEmpty()) {
+            return nodeSubTrie;
+        }
+        final TrieNodeView<T> nodeView = (TrieNodeView<T>) nodeSubTrie;
+        return new TrieNodeView<>(this.prefix + nodeView.prefix, nodeView.node);
+    }
+
+    @Override
+    Iterator<Entry<String, T>> entryIterator() {
+        return node.entryIterator(prefix);
+    }
+
+    @Override
+    Trie<T> childTrie(char c, String prefix) {
+        // Have the node navigate the character, the result is either empty or a view of one of it's children.
+        final Trie<T> childTrie = node.childTrie(c, prefix);
+        if (childTrie.isEmpty()) {
+            return childTrie;
+        }
+        final TrieNodeView<T> childView = (TrieNodeView<T>) childTrie;
+        return new TrieNodeView<>(this.prefix + childView.prefix, childView.node);
+    }
+
+    @Override
+    public <A> Trie<A> mapValues(Func<T, A> function) {
+        final TrieNode<A> newNode = node.mapValues(function);
+        if (newNode.isEmpty()) {
+            return TrieNode.emptyTrie();
+        }
+        return new TrieNodeView<>(prefix, newNode);
+    }
+
+    @Override
+    public Trie<T> union(Trie<T> other) {
+        if (this == other || this.isEmpty()) {
+            return other;
+        }
+        if (other.isEmpty()) {
+            return this;
+        }
+
+        // A union needs a Trie that starts from the root.
+        return toRootNode().union(other);
+    }
+
+    @Override
+    public void visitWords(TrieVisitor<T> visitor) {
+        if (isEmpty()) {
+            return;
+        }
+
+        node.doVisit(visitor, new StringBuilder(prefix));
+    }
+
+    @Override
+    boolean visitWordsInOrder(InOrderVisitor<T> visitor) {
+        return isEmpty() || node.doVisitInOrder(visitor, new StringBuilder(prefix));
+    }
+
+    @Override
+    void collectSimilarWords(SimilarWordsCollector<T> collector) {
+        if (!isEmpty()) {
+            final int[] row = collector.nextRow(collector.initialRow(), prefix);
+            node.doCollectSimilarWords(collector, row, new StringBuilder(prefix));
+        }
+    }
+
+    /**
+     * Create a root node that leads to the viewed node through the characters of the prefix.
+     * A new node is created for every character of the prefix except the last, which is the viewed node itself.
+     *
+     * @return A root {@link TrieNode} containing the same words as this view.
+     */
+    TrieNode<T> toRootNode() {
+        final TrieNode<T> root = TrieNode.createRoot();
+        TrieNode<T> currentNode = root;
+        for (int i = 0; i < prefix.length() - 1; i++) {
+            final TrieNode<T> newChild = new TrieNode<>(prefix.charAt(i));
+            currentNode.setChild(newChild);
+            currentNode = newChild;
+        }
+        currentNode.setChild(node);
+        return root;
+    }
+
+    private boolean startsWithPrefix(String word) {
+        return word.length() >= prefix.length() && regionMatches(word, prefix.length());
+    }
+
+    /**
+     * @return {@code true} if the first 'length' characters of 'str' match the prefix. <b>Case insensitive</b>
+     */
+    private boolean regionMatches(String str, int length) {
+        for (int i = 0; i < length; i++) {
+            final char prefixCharacter = prefix.charAt(i);
+            final char c = str.charAt(i);
+            if (prefixCharacter != Character.toLowerCase(c) && prefixCharacter != Character.toUpperCase(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
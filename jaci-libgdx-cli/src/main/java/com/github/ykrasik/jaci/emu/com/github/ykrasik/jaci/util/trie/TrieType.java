@@ -0,0 +1,54 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+/**
+ * The possible {@link Trie} implementations a {@link TrieBuilder} can build.
+ *
+ * @author Yevgeny Krasik
+ */
+public enum TrieType {
+    /**
+     * A linked structure of {@link TrieNode}s, one node per character.
+     */
+    NODE,
+
+    /**
+     * A {@link CompactTrie} - all nodes are stored in a few flat primitive arrays.
+     * Uses far less memory per word, intended for large Tries that are built once and queried often.
+     */
+    COMPACT,
+
+    /**
+     * A {@link RadixTrie} - chains of single-child nodes are collapsed into a single edge.
+     * Intended for words that share long prefixes.
+     */
+    RADIX,
+
+    /**
+     * A {@link FrozenTrie} - immutable, with everything queries need precomputed when it is built.
+     * Intended for Tries that never change after they are built. Also built by {@link TrieBuilder#freeze()}.
+     */
+    FROZEN,
+
+    /**
+     * A {@link FoldedTrie} - every edge is keyed by a case folded character, and only words keep their actual characters.
+     * Lookups need a single comparison per character, and words that only differ in case are always the same word.
+     * The only type that can be built case sensitive.
+     */
+    FOLDED
+}
@@ -0,0 +1,356 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+
+package com.github.ykrasik.jaci.processor;
+
+import com.github.ykrasik.jaci.api.*;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.util.*;
+
+/**
+ * An annotation processor that generates a {@code com.github.ykrasik.jaci.hierarchy.CommandDefRegistry} for every
+ * class that declares methods annotated with {@link Command} or {@link ToggleCommand}.<br>
+ * The generated registry is named after the class with a {@code _CommandDefs} suffix (nested classes are joined
+ * with '_'), lives in the same package and creates the same {@code CommandDef}s that reflection would.
+ * Everything reflection would only discover at runtime is checked at compile time instead - unsupported param types,
+ * mismatching param annotations, toggle commands with params and missing value suppliers are all compile errors.<br>
+ * The generated code calls the class's members directly, so it has a few requirements of it's own:
+ * <ul>
+ *     <li>The class must not be private, and if nested, must be static.</li>
+ *     <li>{@link CommandOutput} fields of the class must not be private or final.</li>
+ *     <li>Methods named by a {@code defaultValueSupplier} or {@code acceptsSupplier} must not be private.</li>
+ * </ul>
+ * Like reflection, only public methods are commands - non-public annotated methods are skipped with a warning -
+ * and params that aren't explicitly named get the same default names.
+ *
+ * @author Yevgeny Krasik
+ */
+public class CommandDefProcessor extends AbstractProcessor {
+    /**
+     * Suffix of the name of generated registries.
+     */
+    public static final String REGISTRY_SUFFIX = "_CommandDefs";
+
+    private static final List<Class<? extends Annotation>> PARAM_ANNOTATIONS = Arrays.asList(
+        StringParam.class, IntParam.class, DoubleParam.class, BoolParam.class
+    );
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        final Set<String> types = new HashSet<>();
+        types.add(Command.class.getCanonicalName());
+        types.add(ToggleCommand.class.getCanonicalName());
+        types.add(CommandPath.class.getCanonicalName());
+        for (Class<? extends Annotation> annotation : PARAM_ANNOTATIONS) {
+            types.add(annotation.getCanonicalName());
+        }
+        return types;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        // Only classes that declare commands get a registry.
+        final Set<TypeElement> types = new LinkedHashSet<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(Command.class)) {
+            types.add((TypeElement) element.getEnclosingElement());
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(ToggleCommand.class)) {
+            types.add((TypeElement) element.getEnclosingElement());
+        }
+
+        for (TypeElement type : types) {
+            try {
+                processType(type);
+            } catch (InvalidElementException e) {
+                error(e.element, e.getMessage());
+            } catch (IOException e) {
+                error(type, "Error writing command registry: " + e);
+            }
+        }
+        return false;
+    }
+
+    private void processType(TypeElement type) throws IOException {
+        assertAccessible(type);
+
+        final RegistryWriter writer = new RegistryWriter(processingEnv.getElementUtils(), type);
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (isType(field.asType(), CommandOutput.class)) {
+                processOutputField(writer, field);
+            }
+        }
+        for (ExecutableElement method : getMethods(type)) {
+            processMethod(writer, type, method);
+        }
+
+        final String name = writer.getQualifiedName();
+        final JavaFileObject file = processingEnv.getFiler().createSourceFile(name, type);
+        try (Writer out = file.openWriter()) {
+            out.write(writer.toSource());
+        }
+    }
+
+    private void assertAccessible(TypeElement type) {
+        Element element = type;
+        while (element.getKind().isClass() || element.getKind().isInterface()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                throw new InvalidElementException(element, "Classes with commands must not be private.");
+            }
+            final Element enclosing = element.getEnclosingElement();
+            if (enclosing.getKind() != ElementKind.PACKAGE && !element.getModifiers().contains(Modifier.STATIC)) {
+                throw new InvalidElementException(element, "Nested classes with commands must be static.");
+            }
+            element = enclosing;
+        }
+    }
+
+    private void processOutputField(RegistryWriter writer, VariableElement field) {
+        if (field.getModifiers().contains(Modifier.PRIVATE) || field.getModifiers().contains(Modifier.FINAL)) {
+            throw new InvalidElementException(field, "CommandOutput fields must not be private or final in order to be injected.");
+        }
+        writer.addOutputField(field);
+    }
+
+    /**
+     * @return All the public methods of the type, including inherited ones. Overridden methods only appear once.
+     */
+    private List<ExecutableElement> getMethods(TypeElement type) {
+        final List<ExecutableElement> methods = new ArrayList<>();
+        final Set<String> signatures = new HashSet<>();
+        TypeElement currentType = type;
+        while (currentType != null) {
+            for (ExecutableElement method : ElementFilter.methodsIn(currentType.getEnclosedElements())) {
+                if (signatures.add(getSignature(method))) {
+                    methods.add(method);
+                }
+            }
+            final TypeMirror superclass = currentType.getSuperclass();
+            currentType = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+        return methods;
+    }
+
+    private String getSignature(ExecutableElement method) {
+        final StringBuilder sb = new StringBuilder(method.getSimpleName());
+        for (VariableElement param : method.getParameters()) {
+            sb.append(',').append(processingEnv.getTypeUtils().erasure(param.asType()));
+        }
+        return sb.toString();
+    }
+
+    private void processMethod(RegistryWriter writer, TypeElement type, ExecutableElement method) {
+        final Command command = method.getAnnotation(Command.class);
+        final ToggleCommand toggleCommand = method.getAnnotation(ToggleCommand.class);
+        if (command == null && toggleCommand == null) {
+            return;
+        }
+        if (command != null && toggleCommand != null) {
+            throw new InvalidElementException(method, "A method can't be both a @Command and a @ToggleCommand.");
+        }
+        if (!method.getModifiers().contains(Modifier.PUBLIC)) {
+            warning(method, "Only public methods can be commands, skipping.");
+            return;
+        }
+
+        if (command != null) {
+            if (command.timeoutMillis() < 0) {
+                throw new InvalidElementException(method, "@Command timeouts must not be negative.");
+            }
+            writer.addCommand(method, command, createParams(type, method));
+        } else {
+            if (!method.getParameters().isEmpty()) {
+                throw new InvalidElementException(method, "@ToggleCommand methods must not take any params.");
+            }
+            if (!isType(method.getReturnType(), ToggleCommandStateAccessor.class)) {
+                throw new InvalidElementException(method, "@ToggleCommand methods must return a ToggleCommandStateAccessor.");
+            }
+            writer.addToggleCommand(method, toggleCommand);
+        }
+    }
+
+    private List<RegistryWriter.Param> createParams(TypeElement type, ExecutableElement method) {
+        final List<RegistryWriter.Param> params = new ArrayList<>(method.getParameters().size());
+        for (int i = 0; i < method.getParameters().size(); i++) {
+            params.add(createParam(type, method.getParameters().get(i), i));
+        }
+        return params;
+    }
+
+    private RegistryWriter.Param createParam(TypeElement type, VariableElement param, int index) {
+        final ParamType paramType = ParamType.of(param.asType());
+        if (paramType == null) {
+            throw new InvalidElementException(param, "Unsupported param type: " + param.asType() +
+                ". Command params must be String, int, double or boolean (or their boxed versions).");
+        }
+
+        // Only the annotation that matches the type is allowed.
+        for (Class<? extends Annotation> annotationClass : PARAM_ANNOTATIONS) {
+            if (annotationClass != paramType.annotationClass && param.getAnnotation(annotationClass) != null) {
+                throw new InvalidElementException(param, "@" + annotationClass.getSimpleName() +
+                    " can't annotate a param of type " + param.asType() + '.');
+            }
+        }
+
+        // Same as the default name reflection gives params: "${type}Param${index}".
+        final String typeName = param.asType().toString();
+        final String defaultName = typeName.substring(typeName.lastIndexOf('.') + 1).toLowerCase() + "Param" + index;
+        final RegistryWriter.Param result = new RegistryWriter.Param(paramType, defaultName);
+        switch (paramType) {
+            case STRING: {
+                final StringParam annotation = param.getAnnotation(StringParam.class);
+                if (annotation != null) {
+                    result.setAnnotated(annotation.value(), annotation.description());
+                    if (annotation.optional()) {
+                        result.setDefaultValue(constant(annotation.defaultValue()),
+                            getSupplier(type, param, annotation.defaultValueSupplier(), false));
+                    }
+                    result.setValues(constants(annotation.accepts()),
+                        getSupplier(type, param, annotation.acceptsSupplier(), true));
+                }
+                break;
+            }
+            case INT: {
+                final IntParam annotation = param.getAnnotation(IntParam.class);
+                if (annotation != null) {
+                    result.setAnnotated(annotation.value(), annotation.description());
+                    if (annotation.optional()) {
+                        result.setDefaultValue(constant(annotation.defaultValue()),
+                            getSupplier(type, param, annotation.defaultValueSupplier(), false));
+                    }
+                }
+                break;
+            }
+            case DOUBLE: {
+                final DoubleParam annotation = param.getAnnotation(DoubleParam.class);
+                if (annotation != null) {
+                    result.setAnnotated(annotation.value(), annotation.description());
+                    if (annotation.optional()) {
+                        result.setDefaultValue(constant(annotation.defaultValue()),
+                            getSupplier(type, param, annotation.defaultValueSupplier(), false));
+                    }
+                }
+                break;
+            }
+            default: {
+                final BoolParam annotation = param.getAnnotation(BoolParam.class);
+                if (annotation != null) {
+                    result.setAnnotated(annotation.value(), annotation.description());
+                    if (annotation.optional()) {
+                        result.setDefaultValue(constant(annotation.defaultValue()),
+                            getSupplier(type, param, annotation.defaultValueSupplier(), false));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find the supplier method with the given name in the type.
+     *
+     * @param type Type the supplier must be a member of.
+     * @param param Param the supplier is for.
+     * @param name Name of the supplier method. May be empty, if no supplier was set.
+     * @param array Whether the supplier is expected to return an array of the param's type.
+     * @return The supplier method, or {@code null} if no supplier was set.
+     */
+    private ExecutableElement getSupplier(TypeElement type, VariableElement param, String name, boolean array) {
+        if (name.trim().isEmpty()) {
+            return null;
+        }
+        final ParamType paramType = ParamType.of(param.asType());
+        for (ExecutableElement method : getMethods(type)) {
+            if (!method.getSimpleName().contentEquals(name) || !method.getParameters().isEmpty()) {
+                continue;
+            }
+            final TypeMirror returnType = method.getReturnType();
+            final boolean matches = array ?
+                returnType.getKind() == TypeKind.ARRAY && ParamType.of(((ArrayType) returnType).getComponentType()) == paramType :
+                ParamType.of(returnType) == paramType;
+            if (!matches) {
+                continue;
+            }
+            if (method.getModifiers().contains(Modifier.PRIVATE)) {
+                throw new InvalidElementException(method, "Supplier methods must not be private in order to be called by generated code.");
+            }
+            return method;
+        }
+        throw new InvalidElementException(param, "No supplier method named '" + name + "' that takes no params and returns " +
+            (array ? paramType.name + "[]" : paramType.name) + " in " + type.getQualifiedName() + '.');
+    }
+
+    private String constant(Object value) {
+        return processingEnv.getElementUtils().getConstantExpression(value);
+    }
+
+    private List<String> constants(String[] values) {
+        final List<String> constants = new ArrayList<>(values.length);
+        for (String value : values) {
+            constants.add(constant(value));
+        }
+        return constants;
+    }
+
+    private boolean isType(TypeMirror type, Class<?> clazz) {
+        // Exactly the class, like reflection checks - subtypes don't count.
+        final TypeElement element = processingEnv.getElementUtils().getTypeElement(clazz.getCanonicalName());
+        final Types types = processingEnv.getTypeUtils();
+        return element != null && types.isSameType(types.erasure(type), types.erasure(element.asType()));
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Kind.ERROR, message, element);
+    }
+
+    private void warning(Element element, String message) {
+        processingEnv.getMessager().printMessage(Kind.WARNING, message, element);
+    }
+
+    /**
+     * Thrown when an element can't be processed, reported as a compile error on that element.
+     */
+    private static class InvalidElementException extends RuntimeException {
+        private static final long serialVersionUID = 0;
+
+        private final transient Element element;
+
+        private InvalidElementException(Element element, String message) {
+            super(message);
+            this.element = element;
+        }
+    }
+}
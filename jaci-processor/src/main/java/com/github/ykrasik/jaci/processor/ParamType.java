@@ -0,0 +1,87 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+
+package com.github.ykrasik.jaci.processor;
+
+import com.github.ykrasik.jaci.api.BoolParam;
+import com.github.ykrasik.jaci.api.DoubleParam;
+import com.github.ykrasik.jaci.api.IntParam;
+import com.github.ykrasik.jaci.api.StringParam;
+
+import javax.lang.model.type.TypeMirror;
+import java.lang.annotation.Annotation;
+
+/**
+ * The types a command param can have, along with the generated code that is specific to each type.
+ *
+ * @author Yevgeny Krasik
+ */
+enum ParamType {
+    STRING("String", "java.lang.String", "com.github.ykrasik.jaci.param.StringParamDef", StringParam.class),
+    INT("int", "java.lang.Integer", "com.github.ykrasik.jaci.param.IntParamDef", IntParam.class),
+    DOUBLE("double", "java.lang.Double", "com.github.ykrasik.jaci.param.DoubleParamDef", DoubleParam.class),
+    BOOLEAN("boolean", "java.lang.Boolean", "com.github.ykrasik.jaci.param.BooleanParamDef", BoolParam.class);
+
+    /**
+     * Name of the type, as it appears in error messages.
+     */
+    final String name;
+
+    /**
+     * Fully qualified name of the boxed type, used as a type argument in generated code.
+     */
+    final String boxedName;
+
+    /**
+     * Fully qualified name of the ParamDef class that is generated for this type.
+     */
+    final String paramDefName;
+
+    /**
+     * The annotation that can be used to customize params of this type.
+     */
+    final Class<? extends Annotation> annotationClass;
+
+    ParamType(String name, String boxedName, String paramDefName, Class<? extends Annotation> annotationClass) {
+        this.name = name;
+        this.boxedName = boxedName;
+        this.paramDefName = paramDefName;
+        this.annotationClass = annotationClass;
+    }
+
+    /**
+     * @param type Type to check.
+     * @return The {@link ParamType} of the type, or {@code null} if the type can't be a command param.
+     */
+    static ParamType of(TypeMirror type) {
+        switch (type.getKind()) {
+            case INT: return INT;
+            case DOUBLE: return DOUBLE;
+            case BOOLEAN: return BOOLEAN;
+            case DECLARED: break;
+            default: return null;
+        }
+
+        final String name = type.toString();
+        for (ParamType paramType : values()) {
+            if (paramType.boxedName.equals(name)) {
+                return paramType;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,328 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+
+package com.github.ykrasik.jaci.processor;
+
+import com.github.ykrasik.jaci.api.Command;
+import com.github.ykrasik.jaci.api.CommandPath;
+import com.github.ykrasik.jaci.api.ToggleCommand;
+
+import javax.lang.model.element.*;
+import javax.lang.model.util.Elements;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the source of a {@code com.github.ykrasik.jaci.hierarchy.CommandDefRegistry} for a single class.<br>
+ * The generated code creates the same {@code CommandDef}s reflection would create out of the class, by calling the
+ * class's members directly. All names in generated code are fully qualified, so they can't clash with the class's own.
+ *
+ * @author Yevgeny Krasik
+ */
+class RegistryWriter {
+    private static final String PACKAGE = "com.github.ykrasik.jaci.";
+    private static final String PARSED_PATH = PACKAGE + "path.ParsedPath";
+    private static final String COMMAND_DEF = PACKAGE + "command.CommandDef";
+    private static final String COMMAND_DEF_MAP = "java.util.Map<" + PARSED_PATH + ", java.util.List<" + COMMAND_DEF + ">>";
+    private static final String OUTPUT_PROMISE = PACKAGE + "command.CommandOutputPromise";
+    private static final String SPPLR = PACKAGE + "util.function.Spplr";
+
+    private final Elements elements;
+    private final TypeElement type;
+    private final String typeName;
+    private final String packageName;
+    private final String simpleName;
+
+    private final StringBuilder outputFields = new StringBuilder();
+    private final StringBuilder commandDefs = new StringBuilder();
+    private final StringBuilder commandMethods = new StringBuilder();
+    private int numCommands;
+
+    RegistryWriter(Elements elements, TypeElement type) {
+        this.elements = elements;
+        this.type = type;
+        this.typeName = type.getQualifiedName().toString();
+        this.packageName = elements.getPackageOf(type).getQualifiedName().toString();
+
+        // Nested classes are joined with '_'.
+        final String binaryName = typeName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1);
+        this.simpleName = binaryName.replace('.', '_') + CommandDefProcessor.REGISTRY_SUFFIX;
+    }
+
+    /**
+     * @return Fully qualified name of the generated registry.
+     */
+    String getQualifiedName() {
+        return packageName.isEmpty() ? simpleName : packageName + '.' + simpleName;
+    }
+
+    /**
+     * Inject the {@code CommandOutputPromise} into the field.
+     *
+     * @param field Field to inject.
+     */
+    void addOutputField(VariableElement field) {
+        outputFields.append("        ").append(getReceiver(field)).append('.').append(field.getSimpleName()).append(" = outputPromise;\n");
+    }
+
+    /**
+     * Add a command that invokes the method.
+     *
+     * @param method Method to invoke.
+     * @param annotation The method's {@link Command} annotation.
+     * @param params The method's params.
+     */
+    void addCommand(ExecutableElement method, Command annotation, List<Param> params) {
+        final String name = getNonEmptyString(annotation.value(), method.getSimpleName().toString());
+        final StringBuilder sb = beginCommandMethod(method);
+        sb.append("        final ").append(COMMAND_DEF).append(".Builder builder = new ").append(COMMAND_DEF).append(".Builder(").append(constant(name)).append(", new ").append(PACKAGE).append("command.CommandExecutor() {\n");
+        sb.append("            @java.lang.Override\n");
+        sb.append("            public void execute(").append(PACKAGE).append("api.CommandOutput output, ").append(PACKAGE).append("command.CommandArgs args) throws java.lang.Exception {\n");
+        sb.append("                final ").append(PACKAGE).append("api.CommandOutput previousOutput = outputPromise.setOutput(output);\n");
+        sb.append("                try {\n");
+        sb.append("                    ").append(getReceiver(method)).append('.').append(method.getSimpleName()).append('(');
+        for (int i = 0; i < params.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append("args.<").append(params.get(i).type.boxedName).append(">popArg()");
+        }
+        sb.append(");\n");
+        sb.append("                } finally {\n");
+        sb.append("                    outputPromise.setOutput(previousOutput);\n");
+        sb.append("                }\n");
+        sb.append("            }\n");
+        sb.append("        });\n");
+        appendDescription(sb, annotation.description());
+        if (annotation.timeoutMillis() != 0) {
+            sb.append("        builder.setTimeoutMillis(").append(annotation.timeoutMillis()).append("L);\n");
+        }
+        for (int i = 0; i < params.size(); i++) {
+            appendParam(sb, params.get(i), i);
+        }
+        sb.append("        return builder.build();\n");
+        sb.append("    }\n");
+    }
+
+    /**
+     * Add a toggle command whose state accessor is returned by the method.
+     *
+     * @param method Method that returns the state accessor.
+     * @param annotation The method's {@link ToggleCommand} annotation.
+     */
+    void addToggleCommand(ExecutableElement method, ToggleCommand annotation) {
+        final String name = getNonEmptyString(annotation.value(), method.getSimpleName().toString());
+        final StringBuilder sb = beginCommandMethod(method);
+        sb.append("        final ").append(PACKAGE).append("command.toggle.ToggleCommandDefBuilder builder = new ").append(PACKAGE).append("command.toggle.ToggleCommandDefBuilder(")
+            .append(constant(name)).append(", ").append(getReceiver(method)).append('.').append(method.getSimpleName()).append("());\n");
+        appendDescription(sb, annotation.description());
+        appendSetter(sb, "setParamName", annotation.paramName());
+        appendSetter(sb, "setParamDescription", annotation.paramDescription());
+        sb.append("        return builder.build();\n");
+        sb.append("    }\n");
+    }
+
+    private StringBuilder beginCommandMethod(ExecutableElement method) {
+        final String methodName = "createCommand" + numCommands++;
+
+        // Compose the top level path of the class with the command path.
+        final CommandPath path = method.getAnnotation(CommandPath.class);
+        commandDefs.append("        addCommandDef(commandDefs, topLevelPath.append(").append(toPath(path)).append("), ")
+            .append(methodName).append("(outputPromise));\n");
+
+        final StringBuilder sb = commandMethods;
+        sb.append('\n');
+        sb.append("    private ").append(COMMAND_DEF).append(' ').append(methodName).append("(final ").append(OUTPUT_PROMISE).append(" outputPromise) {\n");
+        return sb;
+    }
+
+    private void appendDescription(StringBuilder sb, String description) {
+        appendSetter(sb, "setDescription", description);
+    }
+
+    private void appendSetter(StringBuilder sb, String setter, String value) {
+        final String nonEmptyValue = getNonEmptyString(value, null);
+        if (nonEmptyValue != null) {
+            sb.append("        builder.").append(setter).append('(').append(constant(nonEmptyValue)).append(");\n");
+        }
+    }
+
+    /**
+     * @return The source of the generated registry.
+     */
+    String toSource() {
+        final StringBuilder sb = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+        sb.append("/**\n");
+        sb.append(" * The commands of {@link ").append(typeName).append("}.<br>\n");
+        sb.append(" * Generated by {@code ").append(CommandDefProcessor.class.getName()).append("}, do not edit.\n");
+        sb.append(" */\n");
+        sb.append("public final class ").append(simpleName).append(" implements ").append(PACKAGE).append("hierarchy.CommandDefRegistry {\n");
+        sb.append("    private final ").append(typeName).append(" instance;\n\n");
+        sb.append("    public ").append(simpleName).append('(').append(typeName).append(" instance) {\n");
+        sb.append("        if (instance == null) {\n");
+        sb.append("            throw new java.lang.NullPointerException(\"instance\");\n");
+        sb.append("        }\n");
+        sb.append("        this.instance = instance;\n");
+        sb.append("    }\n\n");
+        sb.append("    @java.lang.Override\n");
+        sb.append("    public ").append(COMMAND_DEF_MAP).append(" createCommandDefs() {\n");
+        sb.append("        final ").append(OUTPUT_PROMISE).append(" outputPromise = new ").append(OUTPUT_PROMISE).append("();\n");
+        sb.append(outputFields);
+        sb.append("        final ").append(PARSED_PATH).append(" topLevelPath = ").append(toPath(type.getAnnotation(CommandPath.class))).append(";\n");
+        sb.append("        final ").append(COMMAND_DEF_MAP).append(" commandDefs = new java.util.LinkedHashMap<").append(PARSED_PATH).append(", java.util.List<").append(COMMAND_DEF).append(">>();\n");
+        sb.append(commandDefs);
+        sb.append("        return commandDefs;\n");
+        sb.append("    }\n");
+        sb.append(commandMethods);
+        sb.append('\n');
+        sb.append("    private static void addCommandDef(").append(COMMAND_DEF_MAP).append(" commandDefs, ").append(PARSED_PATH).append(" path, ").append(COMMAND_DEF).append(" commandDef) {\n");
+        sb.append("        java.util.List<").append(COMMAND_DEF).append("> commands = commandDefs.get(path);\n");
+        sb.append("        if (commands == null) {\n");
+        sb.append("            commands = new java.util.ArrayList<").append(COMMAND_DEF).append(">();\n");
+        sb.append("            commandDefs.put(path, commands);\n");
+        sb.append("        }\n");
+        sb.append("        commands.add(commandDef);\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private String toPath(CommandPath path) {
+        // Composing any path with 'root' has no effect.
+        return path != null ? PARSED_PATH + ".toDirectory(" + constant(path.value()) + ')' : PARSED_PATH + ".root()";
+    }
+
+    /**
+     * @return The expression that static members of the class are accessed through, or 'instance' for instance members.
+     */
+    private String getReceiver(Element member) {
+        return member.getModifiers().contains(Modifier.STATIC) ? typeName : "instance";
+    }
+
+    private String constant(Object value) {
+        return elements.getConstantExpression(value);
+    }
+
+    private static String getNonEmptyString(String str, String defaultValue) {
+        final String trimmed = str.trim();
+        return !trimmed.isEmpty() ? trimmed : defaultValue;
+    }
+
+    private void appendParam(StringBuilder sb, Param param, int index) {
+        final String builder = "param" + index;
+        final String paramName = param.name != null ? param.name : param.defaultName;
+        sb.append("        final ").append(param.type.paramDefName).append(".Builder ").append(builder).append(" = new ").append(param.type.paramDefName).append(".Builder(").append(constant(paramName)).append(");\n");
+        if (param.description != null) {
+            sb.append("        ").append(builder).append(".setDescription(").append(constant(param.description)).append(");\n");
+        }
+        if (param.defaultValueSupplier != null) {
+            sb.append("        ").append(builder).append(".setOptional(").append(supplier(param.type.boxedName, getCall(param.defaultValueSupplier))).append(");\n");
+        } else if (param.defaultValue != null) {
+            sb.append("        ").append(builder).append(".setOptional(").append(param.defaultValue).append(");\n");
+        }
+        if (param.valuesSupplier != null) {
+            final String listType = "java.util.List<" + param.type.boxedName + '>';
+            final String call = "java.util.Arrays.asList(" + getCall(param.valuesSupplier) + ')';
+            sb.append("        ").append(builder).append(".setDynamicValues(").append(supplier(listType, call)).append(");\n");
+        } else if (!param.values.isEmpty()) {
+            sb.append("        ").append(builder).append(".setStaticValues(");
+            for (int i = 0; i < param.values.size(); i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(param.values.get(i));
+            }
+            sb.append(");\n");
+        }
+        sb.append("        builder.addParam(").append(builder).append(".build());\n");
+    }
+
+    private String getCall(ExecutableElement method) {
+        return getReceiver(method) + '.' + method.getSimpleName() + "()";
+    }
+
+    private String supplier(String suppliedType, String expression) {
+        return "new " + SPPLR + '<' + suppliedType + ">() {\n" +
+            "            @java.lang.Override\n" +
+            "            public " + suppliedType + " get() {\n" +
+            "                return " + expression + ";\n" +
+            "            }\n" +
+            "        }";
+    }
+
+    /**
+     * A single param of a command method.
+     */
+    static class Param {
+        private final ParamType type;
+        private final String defaultName;
+
+        private String name;
+        private String description;
+
+        private String defaultValue;
+        private ExecutableElement defaultValueSupplier;
+
+        private List<String> values = new ArrayList<>();
+        private ExecutableElement valuesSupplier;
+
+        /**
+         * @param type Type of the param.
+         * @param defaultName Name of the param, if the annotation doesn't set one.
+         */
+        Param(ParamType type, String defaultName) {
+            this.type = type;
+            this.defaultName = defaultName;
+        }
+
+        /**
+         * Set the values that were set through the param's annotation.
+         *
+         * @param name Name of the param, may be empty.
+         * @param description Description of the param, may be empty.
+         */
+        void setAnnotated(String name, String description) {
+            this.name = getNonEmptyString(name, null);
+            this.description = getNonEmptyString(description, null);
+        }
+
+        /**
+         * Make the param optional.
+         *
+         * @param defaultValue Default value constant expression, used if there is no supplier.
+         * @param defaultValueSupplier Method that supplies the default value, may be {@code null}.
+         */
+        void setDefaultValue(String defaultValue, ExecutableElement defaultValueSupplier) {
+            this.defaultValue = defaultValue;
+            this.defaultValueSupplier = defaultValueSupplier;
+        }
+
+        /**
+         * Set the values the param accepts. Only applicable to string params.
+         *
+         * @param values Value constant expressions, used if there is no supplier.
+         * @param valuesSupplier Method that supplies the values, may be {@code null}.
+         */
+        void setValues(List<String> values, ExecutableElement valuesSupplier) {
+            this.values = values;
+            this.valuesSupplier = valuesSupplier;
+        }
+    }
+}
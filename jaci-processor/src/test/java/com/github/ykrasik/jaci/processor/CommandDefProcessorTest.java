@@ -0,0 +1,334 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+
+package com.github.ykrasik.jaci.processor;
+
+import com.github.ykrasik.jaci.api.CommandOutput;
+import com.github.ykrasik.jaci.command.CommandArgsImpl;
+import com.github.ykrasik.jaci.command.CommandDef;
+import com.github.ykrasik.jaci.hierarchy.CommandDefRegistry;
+import com.github.ykrasik.jaci.param.ParamDef;
+import com.github.ykrasik.jaci.param.StringParamDef;
+import com.github.ykrasik.jaci.path.ParsedPath;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.*;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Yevgeny Krasik
+ */
+public class CommandDefProcessorTest {
+    private static final String COMMANDS =
+        "package sample;\n" +
+        "import com.github.ykrasik.jaci.api.*;\n" +
+        "import java.util.*;\n" +
+        "@CommandPath(\"top\")\n" +
+        "public class Commands {\n" +
+        "    CommandOutput output;\n" +
+        "    public final List<Object> calls = new ArrayList<>();\n" +
+        "    private boolean state;\n" +
+        "    @Command(description = \"Does things\")\n" +
+        "    public void doThings(@StringParam(value = \"name\", description = \"The name\", accepts = {\"a\", \"b\"}) String name,\n" +
+        "                         @IntParam(optional = true, defaultValue = 3) int count,\n" +
+        "                         double ratio,\n" +
+        "                         @BoolParam(optional = true, defaultValueSupplier = \"flag\") Boolean flag) {\n" +
+        "        output.message(name);\n" +
+        "        calls.addAll(Arrays.<Object>asList(name, count, ratio, flag));\n" +
+        "    }\n" +
+        "    @Command(\"renamed\")\n" +
+        "    @CommandPath(\"nested/dir\")\n" +
+        "    public static void other(@StringParam(acceptsSupplier = \"names\") String str) { }\n" +
+        "    @ToggleCommand(description = \"Toggles\", paramName = \"on\")\n" +
+        "    public ToggleCommandStateAccessor toggle() {\n" +
+        "        return new ToggleCommandStateAccessor() {\n" +
+        "            public void set(boolean value) { state = value; }\n" +
+        "            public boolean get() { return state; }\n" +
+        "        };\n" +
+        "    }\n" +
+        "    @Command\n" +
+        "    void notPublic() { }\n" +
+        "    boolean flag() { return true; }\n" +
+        "    String[] names() { return new String[]{\"x\", \"y\"}; }\n" +
+        "}\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File outputDir;
+    private DiagnosticCollector<JavaFileObject> diagnostics;
+
+    @Before
+    public void setUp() throws IOException {
+        outputDir = folder.newFolder();
+        diagnostics = new DiagnosticCollector<>();
+    }
+
+    @Test
+    public void testCommandDefs() throws Exception {
+        final Map<ParsedPath, List<CommandDef>> commandDefs = createCommandDefs("sample.Commands", COMMANDS);
+        assertEquals(2, commandDefs.size());
+
+        final List<CommandDef> topCommands = commandDefs.get(ParsedPath.toDirectory("top"));
+        assertEquals(2, topCommands.size());
+
+        final CommandDef doThings = topCommands.get(0);
+        assertEquals("doThings", doThings.getIdentifier().getName());
+        assertEquals("Does things", doThings.getIdentifier().getDescription());
+        final List<ParamDef<?>> params = doThings.getParamDefs();
+        assertEquals(4, params.size());
+
+        final StringParamDef name = (StringParamDef) params.get(0);
+        assertEquals("name", name.getIdentifier().getName());
+        assertEquals("The name", name.getIdentifier().getDescription());
+        assertFalse(name.getDefaultValueSupplier().isPresent());
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), new HashSet<>(name.getValuesTrieSupplier().get().words()));
+        // The values list keeps the declared order.
+        assertEquals(Arrays.asList("a", "b"), name.getValuesSupplier().get());
+
+        // Params that aren't named get the same names reflection would give them.
+        assertEquals("intParam1", params.get(1).getIdentifier().getName());
+        assertEquals(3, params.get(1).getDefaultValueSupplier().get().get());
+        assertEquals("doubleParam2", params.get(2).getIdentifier().getName());
+        assertFalse(params.get(2).getDefaultValueSupplier().isPresent());
+        assertEquals("booleanParam3", params.get(3).getIdentifier().getName());
+        assertEquals(true, params.get(3).getDefaultValueSupplier().get().get());
+
+        final CommandDef toggle = topCommands.get(1);
+        assertEquals("toggle", toggle.getIdentifier().getName());
+        assertEquals("Toggles", toggle.getIdentifier().getDescription());
+        assertEquals("on", toggle.getParamDefs().get(0).getIdentifier().getName());
+
+        // Non-public methods aren't commands.
+        final List<CommandDef> nestedCommands = commandDefs.get(ParsedPath.toDirectory("top/nested/dir"));
+        assertEquals(1, nestedCommands.size());
+        final CommandDef renamed = nestedCommands.get(0);
+        assertEquals("renamed", renamed.getIdentifier().getName());
+        final StringParamDef str = (StringParamDef) renamed.getParamDefs().get(0);
+        assertEquals("stringParam0", str.getIdentifier().getName());
+        assertEquals(new HashSet<>(Arrays.asList("x", "y")), new HashSet<>(str.getValuesTrieSupplier().get().words()));
+    }
+
+    @Test
+    public void testExecute() throws Exception {
+        final Object instance = newInstance("sample.Commands", COMMANDS);
+        final List<CommandDef> topCommands = createCommandDefs(instance).get(ParsedPath.toDirectory("top"));
+
+        final RecordingOutput output = new RecordingOutput();
+        final CommandDef doThings = topCommands.get(0);
+        doThings.getExecutor().execute(output, new CommandArgsImpl(Arrays.<Object>asList("a", 5, 2.5, false)));
+
+        assertEquals(Arrays.<Object>asList("a", 5, 2.5, false), instance.getClass().getField("calls").get(instance));
+        assertEquals(Arrays.asList("a"), output.messages);
+    }
+
+    @Test
+    public void testNestedClass() throws Exception {
+        final String source =
+            "package sample;\n" +
+            "import com.github.ykrasik.jaci.api.*;\n" +
+            "public class Outer {\n" +
+            "    public static class Inner {\n" +
+            "        @Command public void cmd() { }\n" +
+            "    }\n" +
+            "}\n";
+        final Map<ParsedPath, List<CommandDef>> commandDefs = createCommandDefs("sample.Outer$Inner", source);
+        assertEquals("cmd", commandDefs.get(ParsedPath.root()).get(0).getIdentifier().getName());
+    }
+
+    @Test
+    public void testOutputSubtypeFieldNotInjected() throws Exception {
+        // Like reflection, only fields of exactly the CommandOutput type are injected.
+        final String source =
+            "package sample;\n" +
+            "import com.github.ykrasik.jaci.api.*;\n" +
+            "public class SubtypeOutput {\n" +
+            "    public interface CustomOutput extends CommandOutput { }\n" +
+            "    public CustomOutput output;\n" +
+            "    @Command public void cmd() { }\n" +
+            "}\n";
+        final Object instance = newInstance("sample.SubtypeOutput", source);
+        final CommandDef cmd = createCommandDefs(instance).get(ParsedPath.root()).get(0);
+        cmd.getExecutor().execute(new RecordingOutput(), new CommandArgsImpl(Collections.<Object>emptyList()));
+        assertNull(instance.getClass().getField("output").get(instance));
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        final String source =
+            "package sample;\n" +
+            "import com.github.ykrasik.jaci.api.*;\n" +
+            "public class Timed {\n" +
+            "    @Command(timeoutMillis = 5000) public void timed() { }\n" +
+            "    @Command public void untimed() { }\n" +
+            "}\n";
+        final List<CommandDef> commandDefs = createCommandDefs("sample.Timed", source).get(ParsedPath.root());
+        assertEquals(5000, commandDefs.get(0).getTimeoutMillis());
+        assertEquals(0, commandDefs.get(1).getTimeoutMillis());
+    }
+
+    @Test
+    public void testNegativeTimeout() throws Exception {
+        assertError("@Command timeouts must not be negative",
+            "@Command(timeoutMillis = -1) public void cmd() { }");
+    }
+
+    @Test
+    public void testMismatchingParamAnnotation() throws Exception {
+        assertError("@IntParam can't annotate a param of type java.lang.String",
+            "@Command public void cmd(@IntParam String str) { }");
+    }
+
+    @Test
+    public void testUnsupportedParamType() throws Exception {
+        assertError("Unsupported param type: long",
+            "@Command public void cmd(long l) { }");
+    }
+
+    @Test
+    public void testToggleCommandWithParams() throws Exception {
+        assertError("@ToggleCommand methods must not take any params",
+            "@ToggleCommand public ToggleCommandStateAccessor cmd(int i) { return null; }");
+    }
+
+    @Test
+    public void testToggleCommandReturnType() throws Exception {
+        assertError("@ToggleCommand methods must return a ToggleCommandStateAccessor",
+            "@ToggleCommand public Object cmd() { return null; }");
+    }
+
+    @Test
+    public void testMissingSupplier() throws Exception {
+        assertError("No supplier method named 'values'",
+            "@Command public void cmd(@StringParam(acceptsSupplier = \"values\") String str) { }");
+    }
+
+    @Test
+    public void testPrivateSupplier() throws Exception {
+        assertError("Supplier methods must not be private",
+            "@Command public void cmd(@IntParam(optional = true, defaultValueSupplier = \"value\") int i) { }\n" +
+            "private int value() { return 0; }");
+    }
+
+    @Test
+    public void testPrivateOutputField() throws Exception {
+        assertError("CommandOutput fields must not be private or final",
+            "private CommandOutput output;\n" +
+            "@Command public void cmd() { }");
+    }
+
+    private void assertError(String expectedMessage, String body) throws IOException {
+        final String source =
+            "package sample;\n" +
+            "import com.github.ykrasik.jaci.api.*;\n" +
+            "public class Invalid {\n" +
+            body + '\n' +
+            "}\n";
+        assertFalse(compile("sample.Invalid", source));
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR && diagnostic.getMessage(Locale.ENGLISH).contains(expectedMessage)) {
+                return;
+            }
+        }
+        fail("No error containing '" + expectedMessage + "': " + diagnostics.getDiagnostics());
+    }
+
+    private Map<ParsedPath, List<CommandDef>> createCommandDefs(String className, String source) throws Exception {
+        return createCommandDefs(newInstance(className, source));
+    }
+
+    private Map<ParsedPath, List<CommandDef>> createCommandDefs(Object instance) throws Exception {
+        final Class<?> clazz = instance.getClass();
+        final String registryName = clazz.getName().replace('$', '_') + CommandDefProcessor.REGISTRY_SUFFIX;
+        final Class<?> registryClass = clazz.getClassLoader().loadClass(registryName);
+        final CommandDefRegistry registry = (CommandDefRegistry) registryClass.getConstructor(clazz).newInstance(instance);
+        return registry.createCommandDefs();
+    }
+
+    private Object newInstance(String className, String source) throws Exception {
+        assertTrue(diagnostics.getDiagnostics().toString(), compile(className, source));
+        final ClassLoader classLoader = new URLClassLoader(new URL[]{ outputDir.toURI().toURL() }, getClass().getClassLoader());
+        return classLoader.loadClass(className).newInstance();
+    }
+
+    private boolean compile(String className, String source) throws IOException {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final String topLevelName = className.contains("$") ? className.substring(0, className.indexOf('$')) : className;
+        final JavaFileObject file = new SourceFile(topLevelName, source);
+        final List<String> options = Arrays.asList(
+            "-classpath", System.getProperty("java.class.path"),
+            "-d", outputDir.getPath(),
+            "-s", outputDir.getPath()
+        );
+        final JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, Collections.singletonList(file));
+        task.setProcessors(Collections.singletonList(new CommandDefProcessor()));
+        return task.call();
+    }
+
+    private static class SourceFile extends SimpleJavaFileObject {
+        private final String source;
+
+        private SourceFile(String className, String source) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+
+    private static class RecordingOutput implements CommandOutput {
+        private final List<String> messages = new ArrayList<>();
+
+        @Override
+        public void message(String text) {
+            messages.add(text);
+        }
+
+        @Override
+        public void message(String format, Object... args) {
+            message(String.format(format, args));
+        }
+
+        @Override
+        public void error(String text) {
+            messages.add(text);
+        }
+
+        @Override
+        public void error(String format, Object... args) {
+            error(String.format(format, args));
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    }
+}
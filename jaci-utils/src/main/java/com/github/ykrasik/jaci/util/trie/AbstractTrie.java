@@ -0,0 +1,371 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+import com.github.ykrasik.jaci.util.function.Func;
+import com.github.ykrasik.jaci.util.function.Pred;
+import com.github.ykrasik.jaci.util.opt.Opt;
+
+import java.util.*;
+import java.util.Map.Entry;
+
+/**
+ * An abstract implementation of a {@link Trie}.
+ * Implements the operations that can be expressed through the other operations of the Trie.
+ *
+ * @author Yevgeny Krasik
+ */
+public abstract class AbstractTrie<T> implements Trie<T> {
+    @Override
+    public Opt<Integer> getKnownSize() {
+        // Tries count their words when they are built, or once per node.
+        return Opt.of(size());
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public Trie<T> filter(Pred<T> filter) {
+        return mapValues(new FilterFunction<>(filter));
+    }
+
+    @Override
+    public <R> Trie<R> lazyMapValues(Func<T, R> function) {
+        return MappedTrie.of(this, function, false);
+    }
+
+    @Override
+    public Trie<T> lazyFilter(Pred<T> filter) {
+        return MappedTrie.of(this, new FilterFunction<>(filter), true);
+    }
+
+    @Override
+    public Trie<T> lazyUnion(Trie<T> other) {
+        return UnionTrie.of(Arrays.<Trie<T>>asList(this, other));
+    }
+
+    @Override
+    public void visitFirstWords(TrieVisitor<T> visitor, int maxWords) {
+        if (maxWords <= 0 || isEmpty()) {
+            return;
+        }
+        visitWordsInOrder(new FirstWordsVisitor<>(visitor, maxWords));
+    }
+
+    /**
+     * Visit the words of this Trie in lexicographic order, until the visitor asks to stop.
+     *
+     * @param visitor The visitor that will visit each word-value pair.
+     * @return {@code false} if the visitor asked to stop.
+     */
+    abstract boolean visitWordsInOrder(InOrderVisitor<T> visitor);
+
+    @Override
+    public void visitSimilarWords(String word, int maxDistance, TrieVisitor<T> visitor) {
+        if (maxDistance < 0 || isEmpty()) {
+            return;
+        }
+        final SimilarWordsCollector<T> collector = new SimilarWordsCollector<>(word, maxDistance);
+        collectSimilarWords(collector);
+        collector.visitSimilarWords(visitor);
+    }
+
+    /**
+     * Offer all words of this Trie that may be similar to the collector's target word to the collector.
+     *
+     * @param collector Collector to offer words to.
+     */
+    abstract void collectSimilarWords(SimilarWordsCollector<T> collector);
+
+    /**
+     * Narrow this Trie down to the words that continue it's prefix with the given character.
+     * Tries that can navigate a single character from where they are override this,
+     * otherwise the whole prefix is navigated through {@link #subTrie(String)}.
+     *
+     * @param c Character to narrow this Trie down by.
+     * @param prefix This Trie's prefix followed by 'c', relative to the original Trie.
+     * @return A Trie containing only the words of this Trie that start with the given prefix. <b>Case insensitive</b>
+     */
+    Trie<T> childTrie(char c, String prefix) {
+        return subTrie(prefix);
+    }
+
+    @Override
+    public Collection<String> words() {
+        return new WordsView();
+    }
+
+    @Override
+    public Collection<T> values() {
+        return new ValuesView();
+    }
+
+    @Override
+    public Set<Entry<String, T>> entrySet() {
+        return new EntrySetView();
+    }
+
+    /**
+     * Iterate over the word-value pairs of this Trie. The iterator should be lazy - only walk as much of the Trie
+     * as is needed for the entries that were actually read. The order of the entries is up to the implementation.
+     * The default implementation copies the whole Trie into a map.
+     *
+     * @return An iterator over the word-value pairs of this Trie.
+     */
+    Iterator<Entry<String, T>> entryIterator() {
+        return toMap().entrySet().iterator();
+    }
+
+    @Override
+    public Map<String, T> toMap() {
+        if (isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final MapTrieVisitor<T> visitor = new MapTrieVisitor<>();
+        visitWords(visitor);
+        return visitor.getMap();
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    /**
+     * Visit the words of the given Trie in lexicographic order, until the visitor asks to stop.
+     * Tries that aren't an {@link AbstractTrie} are sorted as a whole.
+     *
+     * @param trie Trie to visit.
+     * @param visitor The visitor that will visit each word-value pair.
+     * @param <T> Trie type.
+     * @return {@code false} if the visitor asked to stop.
+     */
+    static <T> boolean visitInOrder(Trie<T> trie, InOrderVisitor<T> visitor) {
+        if (trie instanceof AbstractTrie) {
+            return ((AbstractTrie<T>) trie).visitWordsInOrder(visitor);
+        }
+
+        for (Entry<String, T> entry : new TreeMap<>(trie.toMap()).entrySet()) {
+            if (!visitor.visit(entry.getKey(), entry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Offer all words of the given Trie that may be similar to the collector's target word to the collector.
+     * Tries that aren't an {@link AbstractTrie} have all their words offered.
+     *
+     * @param trie Trie to collect similar words from.
+     * @param collector Collector to offer words to.
+     * @param <T> Trie type.
+     */
+    static <T> void collectSimilarWords(Trie<T> trie, final SimilarWordsCollector<T> collector) {
+        if (trie instanceof AbstractTrie) {
+            ((AbstractTrie<T>) trie).collectSimilarWords(collector);
+            return;
+        }
+
+        final int[] initialRow = collector.initialRow();
+        trie.visitWords(new TrieVisitor<T>() {
+            @Override
+            public void visit(String word, T value) {
+                collector.offer(collector.nextRow(initialRow, word), word, value);
+            }
+        });
+    }
+
+    /**
+     * Iterate over the word-value pairs of the given Trie.
+     * Tries that aren't an {@link AbstractTrie} iterate over their entry set.
+     *
+     * @param trie Trie to iterate over.
+     * @param <T> Trie type.
+     * @return An iterator over the word-value pairs of the given Trie.
+     */
+    static <T> Iterator<Entry<String, T>> entryIterator(Trie<T> trie) {
+        if (trie instanceof AbstractTrie) {
+            return ((AbstractTrie<T>) trie).entryIterator();
+        }
+        return trie.entrySet().iterator();
+    }
+
+    /**
+     * Narrow the given Trie down to the words that continue it's prefix with the given character.
+     * Tries that aren't an {@link AbstractTrie} navigate the whole prefix.
+     *
+     * @param trie Trie to narrow down.
+     * @param c Character to narrow the Trie down by.
+     * @param prefix The Trie's prefix followed by 'c', relative to the original Trie.
+     * @param <T> Trie type.
+     * @return A Trie containing only the words of the given Trie that start with the given prefix.
+     */
+    static <T> Trie<T> childTrie(Trie<T> trie, char c, String prefix) {
+        if (trie instanceof AbstractTrie) {
+            return ((AbstractTrie<T>) trie).childTrie(c, prefix);
+        }
+        return trie.subTrie(prefix);
+    }
+
+    /**
+     * Visits words in lexicographic order, and may stop the traversal at any word.
+     */
+    interface InOrderVisitor<T> {
+        /**
+         * Called for each word-value mapping in a Trie, in lexicographic order.
+         *
+         * @param word The word in a word-value mapping.
+         * @param value The value in a word-value mapping.
+         * @return {@code true} to continue visiting words, {@code false} to stop.
+         */
+        boolean visit(String word, T value);
+    }
+
+    /**
+     * An {@link InOrderVisitor} that passes words on to a {@link TrieVisitor} until enough words were visited.
+     */
+    private static class FirstWordsVisitor<T> implements InOrderVisitor<T> {
+        private final TrieVisitor<T> visitor;
+        private int wordsLeft;
+
+        private FirstWordsVisitor(TrieVisitor<T> visitor, int maxWords) {
+            this.visitor = visitor;
+            this.wordsLeft = maxWords;
+        }
+
+        @Override
+        public boolean visit(String word, T value) {
+            visitor.visit(word, value);
+            wordsLeft--;
+            return wordsLeft > 0;
+        }
+    }
+
+    /**
+     * A read-only view of the word-value pairs of this Trie, iterated lazily.
+     */
+    private class EntrySetView extends AbstractSet<Entry<String, T>> {
+        @Override
+        public Iterator<Entry<String, T>> iterator() {
+            return entryIterator();
+        }
+
+        @Override
+        public int size() {
+            return AbstractTrie.this.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return AbstractTrie.this.isEmpty();
+        }
+    }
+
+    /**
+     * A read-only view of the words of this Trie, iterated lazily.
+     */
+    private class WordsView extends AbstractCollection<String> {
+        @Override
+        public Iterator<String> iterator() {
+            final Iterator<Entry<String, T>> iterator = entryIterator();
+            return new Iterator<String>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public String next() {
+                    return iterator.next().getKey();
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException("A Trie cannot be modified!");
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return AbstractTrie.this.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return AbstractTrie.this.isEmpty();
+        }
+    }
+
+    /**
+     * A read-only view of the values of this Trie, iterated lazily.
+     */
+    private class ValuesView extends AbstractCollection<T> {
+        @Override
+        public Iterator<T> iterator() {
+            final Iterator<Entry<String, T>> iterator = entryIterator();
+            return new Iterator<T>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    return iterator.next().getValue();
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException("A Trie cannot be modified!");
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return AbstractTrie.this.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return AbstractTrie.this.isEmpty();
+        }
+    }
+
+    /**
+     * A {@link Func} that returns it's input if it passes a {@link Pred} and {@code null} otherwise,
+     * which causes the mapped word to be dropped.
+     */
+    static class FilterFunction<T> implements Func<T, T> {
+        private final Pred<T> filter;
+
+        FilterFunction(Pred<T> filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public T apply(T input) {
+            return filter.test(input) ? input : null;
+        }
+    }
+}
@@ -0,0 +1,513 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+import com.github.ykrasik.jaci.util.function.Func;
+import com.github.ykrasik.jaci.util.opt.Opt;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * A {@link Trie} of words that is read straight from a binary buffer, usually a file mapped into memory.
+ * The value of every word is the word itself.<br>
+ * Nothing is deserialized - every query reads only the parts of the buffer it needs, so a Trie of millions of words
+ * is available as soon as it's file is mapped, and stays off-heap. Reads use absolute positions only,
+ * so the Trie is safe to query from any amount of threads.<br>
+ * The binary format is the layout of a {@link FrozenTrie}, written column by column (all numbers are big-endian):
+ * <pre>
+ * int                  magic ('JACI')
+ * int                  format version
+ * int                  number of nodes (n)
+ * int                  number of child slots (s)
+ * int[n]               amount of words under each node
+ * int[n]               length of the single-child chain under each node
+ * int[n + 1]           first child slot of each node
+ * int[s]               child slots - the children of each node, sorted by character
+ * char[n]              character of each node
+ * byte[n]              1 if the node is a word, 0 otherwise
+ * </pre>
+ * Created with {@link #write(Collection, OutputStream)} and read with {@link #map(File)} or {@link #from(ByteBuffer)}.
+ * Operations that create new Tries (like {@link #mapValues(Func)} and {@link #union(Trie)}) copy the words to the heap.
+ *
+ * @author Yevgeny Krasik
+ */
+public class BinaryTrie extends AbstractTrie<String> {
+    private static final int MAGIC = 0x4A414349;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+
+    private final ByteBuffer buffer;
+    private final int numNodes;
+
+    // Offsets of each section in the buffer.
+    private final int numWordsOffset;
+    private final int chainLengthOffset;
+    private final int firstChildSlotOffset;
+    private final int childNodesOffset;
+    private final int charsOffset;
+    private final int wordFlagsOffset;
+
+    /**
+     * The node this Trie starts at. Only different from 0 for a subTrie.
+     */
+    private final int root;
+
+    /**
+     * The characters leading up to the root node. Only non-empty for a subTrie.
+     */
+    private final String prefix;
+
+    private final String longestPrefix;
+
+    private BinaryTrie(ByteBuffer buffer, int numNodes, int numSlots, int root, String prefix) {
+        this.buffer = buffer;
+        this.numNodes = numNodes;
+        this.numWordsOffset = HEADER_SIZE;
+        this.chainLengthOffset = numWordsOffset + numNodes * 4;
+        this.firstChildSlotOffset = chainLengthOffset + numNodes * 4;
+        this.childNodesOffset = firstChildSlotOffset + (numNodes + 1) * 4;
+        this.charsOffset = childNodesOffset + numSlots * 4;
+        this.wordFlagsOffset = charsOffset + numNodes * 2;
+        this.root = root;
+        this.prefix = prefix;
+        this.longestPrefix = calcLongestPrefix();
+    }
+
+    private BinaryTrie(BinaryTrie trie, int root, String prefix) {
+        this.buffer = trie.buffer;
+        this.numNodes = trie.numNodes;
+        this.numWordsOffset = trie.numWordsOffset;
+        this.chainLengthOffset = trie.chainLengthOffset;
+        this.firstChildSlotOffset = trie.firstChildSlotOffset;
+        this.childNodesOffset = trie.childNodesOffset;
+        this.charsOffset = trie.charsOffset;
+        this.wordFlagsOffset = trie.wordFlagsOffset;
+        this.root = root;
+        this.prefix = prefix;
+        this.longestPrefix = calcLongestPrefix();
+    }
+
+    private String calcLongestPrefix() {
+        if (isEmpty()) {
+            return "";
+        }
+
+        // The chain of single-child nodes under the root directly follows it.
+        final StringBuilder prefixBuilder = new StringBuilder(prefix);
+        final int chainLength = getChainLength(root);
+        for (int node = root + 1; node <= root + chainLength; node++) {
+            prefixBuilder.append(getChar(node));
+        }
+        return prefixBuilder.toString();
+    }
+
+    @Override
+    public int size() {
+        return getNumWords(root);
+    }
+
+    @Override
+    public boolean contains(String word) {
+        final int node = getNode(word);
+        return node != -1 && isWord(node);
+    }
+
+    @Override
+    public Opt<String> get(String word) {
+        final int node = getNode(word);
+        if (node == -1 || !isWord(node)) {
+            return Opt.absent();
+        }
+
+        // The lookup is case insensitive, return the word as it is stored.
+        final char[] storedWord = new char[word.length()];
+        prefix.getChars(0, prefix.length(), storedWord, 0);
+        int currentNode = root;
+        for (int i = prefix.length(); i < word.length(); i++) {
+            currentNode = getChild(currentNode, word.charAt(i));
+            storedWord[i] = getChar(currentNode);
+        }
+        return Opt.of(new String(storedWord));
+    }
+
+    @Override
+    public String getLongestPrefix() {
+        return longestPrefix;
+    }
+
+    @Override
+    public Trie<String> subTrie(String prefix) {
+        if (prefix.isEmpty() || this.isEmpty()) {
+            return this;
+        }
+
+        // The given prefix is relative to the original Trie, so it must first match this Trie's prefix.
+        final int prefixLength = Math.min(prefix.length(), this.prefix.length());
+        for (int i = 0; i < prefixLength; i++) {
+            if (!isSameCharacter(this.prefix.charAt(i), prefix.charAt(i))) {
+                return FrozenTrie.emptyTrie();
+            }
+        }
+        if (prefix.length() <= this.prefix.length()) {
+            // All words in this Trie start with the given prefix.
+            return this;
+        }
+
+        // Navigate the rest of the prefix.
+        final StringBuilder prefixBuilder = new StringBuilder(this.prefix);
+        int currentNode = root;
+        for (int i = prefixLength; i < prefix.length(); i++) {
+            currentNode = getChild(currentNode, prefix.charAt(i));
+            if (currentNode == -1) {
+                return FrozenTrie.emptyTrie();
+            }
+            prefixBuilder.append(getChar(currentNode));
+        }
+        return new BinaryTrie(this, currentNode, prefixBuilder.toString());
+    }
+
+    @Override
+    Iterator<Entry<String, String>> entryIterator() {
+        return new IndexedNodeIterator<String>(root, prefix) {
+            @Override
+            protected int getNumChildren(int node) {
+                return getFirstChildSlot(node + 1) - getFirstChildSlot(node);
+            }
+
+            @Override
+            protected int getChild(int node, int index) {
+                return getChildNode(getFirstChildSlot(node) + index);
+            }
+
+            @Override
+            protected char getChar(int node) {
+                return BinaryTrie.this.getChar(node);
+            }
+
+            @Override
+            protected boolean isWord(int node) {
+                return BinaryTrie.this.isWord(node);
+            }
+
+            @Override
+            protected String getValue(int node, String word) {
+                return word;
+            }
+        };
+    }
+
+    @Override
+    Trie<String> childTrie(char c, String prefix) {
+        if (isEmpty()) {
+            return this;
+        }
+        final int child = getChild(root, c);
+        if (child == -1) {
+            return FrozenTrie.emptyTrie();
+        }
+        return new BinaryTrie(this, child, this.prefix + getChar(child));
+    }
+
+    @Override
+    public <A> Trie<A> mapValues(final Func<String, A> function) {
+        if (isEmpty()) {
+            return FrozenTrie.emptyTrie();
+        }
+
+        final Map<String, A> newValues = new HashMap<>(size());
+        visitWords(new TrieVisitor<String>() {
+            @Override
+            public void visit(String word, String value) {
+                final A newValue = function.apply(value);
+                if (newValue != null) {
+                    newValues.put(word, newValue);
+                }
+            }
+        });
+        return FrozenTrie.fromMap(newValues);
+    }
+
+    @Override
+    public Trie<String> union(Trie<String> other) {
+        if (this == other || this.isEmpty()) {
+            return other;
+        }
+        if (other.isEmpty()) {
+            return this;
+        }
+
+        // Values from the other Trie take precedence, just like they would in a TrieBuilder.
+        final Map<String, String> unionValues = new HashMap<>(size() + other.size());
+        unionValues.putAll(this.toMap());
+        unionValues.putAll(other.toMap());
+        return FrozenTrie.fromMap(unionValues);
+    }
+
+    @Override
+    public void visitWords(final TrieVisitor<String> visitor) {
+        // Children are sorted, so visiting in order costs nothing extra.
+        visitWordsInOrder(new InOrderVisitor<String>() {
+            @Override
+            public boolean visit(String word, String value) {
+                visitor.visit(word, value);
+                return true;
+            }
+        });
+    }
+
+    @Override
+    boolean visitWordsInOrder(InOrderVisitor<String> visitor) {
+        return isEmpty() || doVisitInOrder(visitor, root, new StringBuilder(prefix));
+    }
+
+    private boolean doVisitInOrder(InOrderVisitor<String> visitor, int node, StringBuilder wordBuilder) {
+        // A node's word comes before the words of it's children, which are already sorted.
+        if (isWord(node)) {
+            final String word = wordBuilder.toString();
+            if (!visitor.visit(word, word)) {
+                return false;
+            }
+        }
+
+        final int end = getFirstChildSlot(node + 1);
+        for (int slot = getFirstChildSlot(node); slot < end; slot++) {
+            final int child = getChildNode(slot);
+            wordBuilder.append(getChar(child));
+            final boolean proceed = doVisitInOrder(visitor, child, wordBuilder);
+            wordBuilder.deleteCharAt(wordBuilder.length() - 1);
+            if (!proceed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    void collectSimilarWords(SimilarWordsCollector<String> collector) {
+        if (!isEmpty()) {
+            final int[] row = collector.nextRow(collector.initialRow(), prefix);
+            doCollectSimilarWords(collector, root, row, new StringBuilder(prefix));
+        }
+    }
+
+    private void doCollectSimilarWords(SimilarWordsCollector<String> collector, int node, int[] row, StringBuilder wordBuilder) {
+        if (isWord(node)) {
+            final String word = wordBuilder.toString();
+            collector.offer(row, word, word);
+        }
+        if (!collector.canContinue(row)) {
+            // No word under this node can be similar enough.
+            return;
+        }
+
+        final int end = getFirstChildSlot(node + 1);
+        for (int slot = getFirstChildSlot(node); slot < end; slot++) {
+            final int child = getChildNode(slot);
+            final char c = getChar(child);
+            wordBuilder.append(c);
+            doCollectSimilarWords(collector, child, collector.nextRow(row, c), wordBuilder);
+            wordBuilder.deleteCharAt(wordBuilder.length() - 1);
+        }
+    }
+
+    private int getNode(String word) {
+        // The word must start with this Trie's prefix.
+        if (word.length() < prefix.length()) {
+            return -1;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (!isSameCharacter(prefix.charAt(i), word.charAt(i))) {
+                return -1;
+            }
+        }
+
+        // Navigate the tree by the rest of the letters of the word, starting from the root.
+        int currentNode = root;
+        for (int i = prefix.length(); i < word.length() && currentNode != -1; i++) {
+            currentNode = getChild(currentNode, word.charAt(i));
+        }
+        return currentNode;
+    }
+
+    /**
+     * @return Index of the child node for character 'c', or -1 if there is no such child. <b>Case insensitive</b>
+     */
+    private int getChild(int node, char c) {
+        final char lowerCase = Character.toLowerCase(c);
+        final int child = findChild(node, lowerCase);
+        if (child != -1) {
+            return child;
+        }
+        final char upperCase = Character.toUpperCase(c);
+        return upperCase != lowerCase ? findChild(node, upperCase) : -1;
+    }
+
+    private int findChild(int node, char c) {
+        // Children are sorted by character, binary search for 'c'.
+        int low = getFirstChildSlot(node);
+        int high = getFirstChildSlot(node + 1) - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int midNode = getChildNode(mid);
+            final char midChar = getChar(midNode);
+            if (midChar < c) {
+                low = mid + 1;
+            } else if (midChar > c) {
+                high = mid - 1;
+            } else {
+                return midNode;
+            }
+        }
+        return -1;
+    }
+
+    private int getNumWords(int node) {
+        return buffer.getInt(numWordsOffset + node * 4);
+    }
+
+    private int getChainLength(int node) {
+        return buffer.getInt(chainLengthOffset + node * 4);
+    }
+
+    private int getFirstChildSlot(int node) {
+        return buffer.getInt(firstChildSlotOffset + node * 4);
+    }
+
+    private int getChildNode(int slot) {
+        return buffer.getInt(childNodesOffset + slot * 4);
+    }
+
+    private char getChar(int node) {
+        return buffer.getChar(charsOffset + node * 2);
+    }
+
+    private boolean isWord(int node) {
+        return buffer.get(wordFlagsOffset + node) != 0;
+    }
+
+    private static boolean isSameCharacter(char nodeCharacter, char c) {
+        return nodeCharacter == Character.toLowerCase(c) || nodeCharacter == Character.toUpperCase(c);
+    }
+
+    /**
+     * Write the given words to a file, in the binary format of a {@link BinaryTrie}.
+     *
+     * @param words Words to write.
+     * @param file File to write to. Will be overwritten if it exists.
+     * @throws IOException If an error occurred while writing the file.
+     */
+    public static void write(Collection<String> words, File file) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            write(words, out);
+        }
+    }
+
+    /**
+     * Write the given words to a stream, in the binary format of a {@link BinaryTrie}.
+     * Does not close the stream.
+     *
+     * @param words Words to write.
+     * @param out Stream to write to.
+     * @throws IOException If an error occurred while writing to the stream.
+     * @throws IllegalArgumentException If the words contain an empty word or any duplicates.
+     */
+    public static void write(Collection<String> words, OutputStream out) throws IOException {
+        final TrieBuilder<String> builder = new TrieBuilder<>();
+        for (String word : words) {
+            builder.add(word, word);
+        }
+        final FrozenTrie<String> trie = builder.freeze();
+
+        final char[] chars = trie.getChars();
+        final Object[] values = trie.getValues();
+        final int[] childNodes = trie.getChildNodes();
+        final DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(out));
+        dataOut.writeInt(MAGIC);
+        dataOut.writeInt(VERSION);
+        dataOut.writeInt(chars.length);
+        dataOut.writeInt(childNodes.length);
+        writeInts(dataOut, trie.getNumWords());
+        writeInts(dataOut, trie.getChainLength());
+        writeInts(dataOut, trie.getFirstChildSlot());
+        writeInts(dataOut, childNodes);
+        for (char c : chars) {
+            dataOut.writeChar(c);
+        }
+        for (Object value : values) {
+            dataOut.writeByte(value != null ? 1 : 0);
+        }
+        dataOut.flush();
+    }
+
+    private static void writeInts(DataOutputStream dataOut, int[] ints) throws IOException {
+        for (int i : ints) {
+            dataOut.writeInt(i);
+        }
+    }
+
+    /**
+     * Map a file written by {@link #write(Collection, File)} into memory, and read a Trie straight from it.
+     * The file is not read up front - the operating system pages it in as the Trie is queried.
+     *
+     * @param file File to map.
+     * @return A Trie backed by the mapped file.
+     * @throws IOException If an error occurred while mapping the file.
+     * @throws IllegalArgumentException If the file is not in the binary format of a {@link BinaryTrie}.
+     */
+    public static BinaryTrie map(File file) throws IOException {
+        // The mapping remains valid after the channel is closed.
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            return from(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Read a Trie straight from a buffer containing it's binary format, starting at the buffer's current position.
+     * The buffer's contents must not be modified afterwards.
+     *
+     * @param buffer Buffer to read from.
+     * @return A Trie backed by the buffer.
+     * @throws IllegalArgumentException If the buffer does not contain the binary format of a {@link BinaryTrie}.
+     */
+    public static BinaryTrie from(ByteBuffer buffer) {
+        // A slice is big-endian and starts at 0, regardless of the given buffer's order and position.
+        final ByteBuffer slice = buffer.slice();
+        if (slice.remaining() < HEADER_SIZE || slice.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a binary Trie!");
+        }
+        final int version = slice.getInt(4);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported binary Trie version: " + version);
+        }
+
+        final int numNodes = slice.getInt(8);
+        final int numSlots = slice.getInt(12);
+        final long expectedSize = HEADER_SIZE + numNodes * 4L * 3 + 4 + numSlots * 4L + numNodes * 2L + numNodes;
+        if (numNodes <= 0 || numSlots < 0 || slice.remaining() < expectedSize) {
+            throw new IllegalArgumentException("Binary Trie is truncated or corrupt!");
+        }
+        return new BinaryTrie(slice, numNodes, numSlots, 0, "");
+    }
+}
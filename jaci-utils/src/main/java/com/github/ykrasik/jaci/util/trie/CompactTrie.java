@@ -0,0 +1,473 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+import com.github.ykrasik.jaci.util.function.Func;
+import com.github.ykrasik.jaci.util.opt.Opt;
+
+import java.util.*;
+import java.util.Map.Entry;
+
+/**
+ * An implementation of a {@link Trie} that stores all of it's nodes in a few flat arrays, instead of
+ * an object (with a map of children) per node.<br>
+ * Nodes are identified by their index in the arrays. The children of every node are laid out consecutively
+ * and sorted by character, so looking up a child is a binary search over a primitive {@code char[]}.<br>
+ * The amount of words reachable from every node is calculated once, when the Trie is built.
+ * <br>
+ * A subTrie shares the arrays of the Trie it was created from, and only remembers the node it starts at and
+ * the characters leading up to that node.
+ *
+ * @author Yevgeny Krasik
+ */
+public class CompactTrie<T> extends AbstractTrie<T> {
+    /**
+     * The character of each node.
+     */
+    private final char[] chars;
+
+    /**
+     * The index of the first child of each node. The children of node 'i' are the nodes
+     * in the range [firstChild[i], firstChild[i + 1]). Contains an extra last element as a sentinel.
+     */
+    private final int[] firstChild;
+
+    /**
+     * The value of each node, {@code null} if the node isn't a word.
+     */
+    private final Object[] values;
+
+    /**
+     * The amount of words reachable from each node, including the node itself.
+     */
+    private final int[] numWords;
+
+    /**
+     * The node this Trie starts at. Only different from 0 for a subTrie.
+     */
+    private final int root;
+
+    /**
+     * The characters leading up to the root node. Only non-empty for a subTrie.
+     */
+    private final String prefix;
+
+    private CompactTrie(char[] chars, int[] firstChild, Object[] values, int[] numWords, int root, String prefix) {
+        this.chars = chars;
+        this.firstChild = firstChild;
+        this.values = values;
+        this.numWords = numWords;
+        this.root = root;
+        this.prefix = prefix;
+    }
+
+    @Override
+    public int size() {
+        return numWords[root];
+    }
+
+    @Override
+    public boolean contains(String word) {
+        final int node = getNode(word);
+        return node != -1 && values[node] != null;
+    }
+
+    @Override
+    public Opt<T> get(String word) {
+        final int node = getNode(word);
+        if (node == -1) {
+            return Opt.absent();
+        }
+        return Opt.ofNullable(getValue(node));
+    }
+
+    @Override
+    public String getLongestPrefix() {
+        if (isEmpty()) {
+            return "";
+        }
+
+        // Keep going down the tree, until a node has more than 1 children or is a word.
+        final StringBuilder prefixBuilder = new StringBuilder(prefix);
+        int currentNode = root;
+        while (getNumChildren(currentNode) == 1 && values[currentNode] == null) {
+            // currentNode only has 1 child and is not a word.
+            // Move on to currentNode's only child and append it's character to the prefix.
+            currentNode = firstChild[currentNode];
+            prefixBuilder.append(chars[currentNode]);
+        }
+        return prefixBuilder.toString();
+    }
+
+    @Override
+    public Trie<T> subTrie(String prefix) {
+        if (prefix.isEmpty() || this.isEmpty()) {
+            return this;
+        }
+
+        // The given prefix is relative to the original Trie, so it must first match this Trie's prefix.
+        final int prefixLength = Math.min(prefix.length(), this.prefix.length());
+        for (int i = 0; i < prefixLength; i++) {
+            if (!isSameCharacter(this.prefix.charAt(i), prefix.charAt(i))) {
+                return emptyTrie();
+            }
+        }
+        if (prefix.length() <= this.prefix.length()) {
+            // All words in this Trie start with the given prefix.
+            return this;
+        }
+
+        // Navigate the rest of the prefix, recording the actual characters of the nodes along the way.
+        final StringBuilder prefixBuilder = new StringBuilder(this.prefix);
+        int currentNode = root;
+        for (int i = prefixLength; i < prefix.length(); i++) {
+            currentNode = getChild(currentNode, prefix.charAt(i));
+            if (currentNode == -1) {
+                return emptyTrie();
+            }
+            prefixBuilder.append(chars[currentNode]);
+        }
+        return new CompactTrie<>(chars, firstChild, values, numWords, currentNode, prefixBuilder.toString());
+    }
+
+    @Override
+    Iterator<Entry<String, T>> entryIterator() {
+        return new IndexedNodeIterator<T>(root, prefix) {
+            @Override
+            protected int getNumChildren(int node) {
+                return firstChild[node + 1] - firstChild[node];
+            }
+
+            @Override
+            protected int getChild(int node, int index) {
+                return firstChild[node] + index;
+            }
+
+            @Override
+            protected char getChar(int node) {
+                return chars[node];
+            }
+
+            @Override
+            protected boolean isWord(int node) {
+                return values[node] != null;
+            }
+
+            @Override
+            protected T getValue(int node, String word) {
+                return CompactTrie.this.getValue(node);
+            }
+        };
+    }
+
+    @Override
+    Trie<T> childTrie(char c, String prefix) {
+        if (isEmpty()) {
+            return this;
+        }
+        final int child = getChild(root, c);
+        if (child == -1) {
+            return emptyTrie();
+        }
+        return new CompactTrie<>(chars, firstChild, values, numWords, child, this.prefix + chars[child]);
+    }
+
+    @Override
+    public <A> CompactTrie<A> mapValues(final Func<T, A> function) {
+        if (isEmpty()) {
+            return emptyTrie();
+        }
+
+        // The structure of the Trie may change (words may be dropped), so build a new one.
+        final Map<String, A> newValues = new HashMap<>(size());
+        visitWords(new TrieVisitor<T>() {
+            @Override
+            public void visit(String word, T value) {
+                final A newValue = function.apply(value);
+                if (newValue != null) {
+                    newValues.put(word, newValue);
+                }
+            }
+        });
+        return fromMap(newValues);
+    }
+
+    @Override
+    public Trie<T> union(Trie<T> other) {
+        if (this == other || this.isEmpty()) {
+            return other;
+        }
+        if (other.isEmpty()) {
+            return this;
+        }
+
+        // Values from the other Trie take precedence, just like they would in a TrieBuilder.
+        final Map<String, T> unionValues = new HashMap<>(size() + other.size());
+        unionValues.putAll(this.toMap());
+        unionValues.putAll(other.toMap());
+        return fromMap(unionValues);
+    }
+
+    @Override
+    public void visitWords(TrieVisitor<T> visitor) {
+        if (isEmpty()) {
+            return;
+        }
+
+        doVisit(visitor, root, new StringBuilder(prefix));
+    }
+
+    private void doVisit(TrieVisitor<T> visitor, int node, StringBuilder wordBuilder) {
+        // Visit the node if it has a value.
+        final T value = getValue(node);
+        if (value != null) {
+            visitor.visit(wordBuilder.toString(), value);
+        }
+
+        // Visit all the node's children, pushing and popping their character from the prefix.
+        final int end = firstChild[node + 1];
+        for (int child = firstChild[node]; child < end; child++) {
+            wordBuilder.append(chars[child]);
+            doVisit(visitor, child, wordBuilder);
+            wordBuilder.deleteCharAt(wordBuilder.length() - 1);
+        }
+    }
+
+    @Override
+    boolean visitWordsInOrder(InOrderVisitor<T> visitor) {
+        return isEmpty() || doVisitInOrder(visitor, root, new StringBuilder(prefix));
+    }
+
+    private boolean doVisitInOrder(InOrderVisitor<T> visitor, int node, StringBuilder wordBuilder) {
+        // A node's word comes before the words of it's children, which are already sorted.
+        final T value = getValue(node);
+        if (value != null && !visitor.visit(wordBuilder.toString(), value)) {
+            return false;
+        }
+
+        final int end = firstChild[node + 1];
+        for (int child = firstChild[node]; child < end; child++) {
+            wordBuilder.append(chars[child]);
+            final boolean proceed = doVisitInOrder(visitor, child, wordBuilder);
+            wordBuilder.deleteCharAt(wordBuilder.length() - 1);
+            if (!proceed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    void collectSimilarWords(SimilarWordsCollector<T> collector) {
+        if (!isEmpty()) {
+            final int[] row = collector.nextRow(collector.initialRow(), prefix);
+            doCollectSimilarWords(collector, root, row, new StringBuilder(prefix));
+        }
+    }
+
+    private void doCollectSimilarWords(SimilarWordsCollector<T> collector, int node, int[] row, StringBuilder wordBuilder) {
+        final T value = getValue(node);
+        if (value != null) {
+            collector.offer(row, wordBuilder.toString(), value);
+        }
+        if (!collector.canContinue(row)) {
+            // No word under this node can be similar enough.
+            return;
+        }
+
+        final int end = firstChild[node + 1];
+        for (int child = firstChild[node]; child < end; child++) {
+            wordBuilder.append(chars[child]);
+            doCollectSimilarWords(collector, child, collector.nextRow(row, chars[child]), wordBuilder);
+            wordBuilder.deleteCharAt(wordBuilder.length() - 1);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T getValue(int node) {
+        return (T) values[node];
+    }
+
+    private int getNumChildren(int node) {
+        return firstChild[node + 1] - firstChild[node];
+    }
+
+    private int getNode(String word) {
+        // The word must start with this Trie's prefix.
+        if (word.length() < prefix.length()) {
+            return -1;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (!isSameCharacter(prefix.charAt(i), word.charAt(i))) {
+                return -1;
+            }
+        }
+
+        // Navigate the tree by the rest of the letters of the word, starting from the root.
+        int currentNode = root;
+        for (int i = prefix.length(); i < word.length() && currentNode != -1; i++) {
+            currentNode = getChild(currentNode, word.charAt(i));
+        }
+        return currentNode;
+    }
+
+    /**
+     * @return Index of the child node for character 'c', or -1 if there is no such child. <b>Case insensitive</b>
+     */
+    private int getChild(int node, char c) {
+        final int child = findChild(node, Character.toLowerCase(c));
+        if (child != -1) {
+            return child;
+        }
+        return findChild(node, Character.toUpperCase(c));
+    }
+
+    private int findChild(int node, char c) {
+        // Children are sorted by character, binary search for 'c'.
+        int low = firstChild[node];
+        int high = firstChild[node + 1] - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final char midChar = chars[mid];
+            if (midChar < c) {
+                low = mid + 1;
+            } else if (midChar > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isSameCharacter(char nodeCharacter, char c) {
+        return nodeCharacter == Character.toLowerCase(c) || nodeCharacter == Character.toUpperCase(c);
+    }
+
+    /**
+     * Create a Trie from the given word-value mapping. Words mapped to {@code null} are ignored.
+     *
+     * @param map Word-value mapping to create a Trie from.
+     * @param <T> Trie type.
+     * @return A Trie containing the words and values of the given map.
+     */
+    static <T> CompactTrie<T> fromMap(Map<String, T> map) {
+        // Sort the words, so that all words passing through a node are adjacent and
+        // the children of each node are discovered in sorted order.
+        final List<String> words = new ArrayList<>(map.size());
+        int maxNodes = 1;
+        for (Entry<String, T> entry : map.entrySet()) {
+            if (entry.getValue() != null) {
+                words.add(entry.getKey());
+                maxNodes += entry.getKey().length();
+            }
+        }
+        Collections.sort(words);
+
+        final char[] chars = new char[maxNodes];
+        final int[] firstChild = new int[maxNodes + 1];
+        final Object[] values = new Object[maxNodes];
+        final int[] numWords = new int[maxNodes];
+
+        // The range of (sorted) words passing through each node, and the depth of each node.
+        final int[] wordsFrom = new int[maxNodes];
+        final int[] depths = new int[maxNodes];
+        numWords[0] = words.size();
+
+        // Lay out the nodes breadth first, which keeps the children of every node consecutive.
+        // Nodes are processed in the order they are created, so the arrays themselves act as the queue.
+        int numNodes = 1;
+        for (int node = 0; node < numNodes; node++) {
+            int from = wordsFrom[node];
+            final int to = from + numWords[node];
+            final int depth = depths[node];
+
+            // Words are sorted, so if a word ends at this node it is the first in the range.
+            if (from < to && words.get(from).length() == depth) {
+                values[node] = map.get(words.get(from));
+                from++;
+            }
+
+            // The rest of the words are grouped by their next character, each group becomes a child.
+            firstChild[node] = numNodes;
+            while (from < to) {
+                final char c = words.get(from).charAt(depth);
+                int groupEnd = from + 1;
+                while (groupEnd < to && words.get(groupEnd).charAt(depth) == c) {
+                    groupEnd++;
+                }
+
+                chars[numNodes] = c;
+                wordsFrom[numNodes] = from;
+                numWords[numNodes] = groupEnd - from;
+                depths[numNodes] = depth + 1;
+                numNodes++;
+
+                from = groupEnd;
+            }
+        }
+        firstChild[numNodes] = numNodes;
+
+        // Words that share prefixes share nodes, so there are usually less nodes than the upper bound.
+        return new CompactTrie<>(
+            copyOf(chars, numNodes),
+            copyOf(firstChild, numNodes + 1),
+            copyOf(values, numNodes),
+            copyOf(numWords, numNodes),
+            0,
+            ""
+        );
+    }
+
+    private static char[] copyOf(char[] array, int length) {
+        if (array.length == length) {
+            return array;
+        }
+        final char[] copy = new char[length];
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+
+    private static int[] copyOf(int[] array, int length) {
+        if (array.length == length) {
+            return array;
+        }
+        final int[] copy = new int[length];
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+
+    private static Object[] copyOf(Object[] array, int length) {
+        if (array.length == length) {
+            return array;
+        }
+        final Object[] copy = new Object[length];
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+
+    private static final CompactTrie<?> EMPTY_TRIE = fromMap(Collections.<String, Object>emptyMap());
+
+    /**
+     * @param <T> Trie type.
+     * @return An empty Trie.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CompactTrie<T> emptyTrie() {
+        return (CompactTrie<T>) EMPTY_TRIE;
+    }
+}
@@ -0,0 +1,595 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+import com.github.ykrasik.jaci.util.function.Func;
+import com.github.ykrasik.jaci.util.function.Pred;
+import com.github.ykrasik.jaci.util.opt.Opt;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link Trie} that can be modified after it was created, safely from any amount of threads.<br>
+ * The words are kept in a persistent tree of immutable nodes. Modifying a word copies only the nodes on the path
+ * to it and publishes the new root with a compare-and-set, retrying if another thread got there first.
+ * Reads never lock - every read operation works on the root that was current when it started,
+ * and sees a consistent snapshot of the words, unaffected by concurrent modifications.
+ * Tries returned from this Trie's operations (like {@link #subTrie(String)}) are such snapshots, and are immutable.<br>
+ * Like a {@link FoldedTrie}, every edge is keyed by a case folded character and words that only differ in case
+ * are the same word - putting a word replaces any word that only differs from it in case.
+ * Can optionally be case sensitive.<br>
+ * <br>
+ * Intended for Tries that change at runtime while being read, like commands that are registered and unregistered
+ * while other threads auto complete and execute them.
+ *
+ * @author Yevgeny Krasik
+ */
+public class ConcurrentTrie<T> extends AbstractTrie<T> {
+    private final AtomicReference<Node<T>> root;
+    private final boolean caseSensitive;
+
+    /**
+     * Create an empty, case insensitive Trie.
+     */
+    public ConcurrentTrie() {
+        this(false);
+    }
+
+    /**
+     * Create an empty Trie.
+     *
+     * @param caseSensitive Whether the Trie should distinguish between words that only differ in case.
+     */
+    public ConcurrentTrie(boolean caseSensitive) {
+        this.root = new AtomicReference<>(Node.<T>createRoot());
+        this.caseSensitive = caseSensitive;
+    }
+
+    /**
+     * @return {@code true} if this Trie distinguishes between words that only differ in case.
+     */
+    public boolean isCaseSensitive() {
+        return caseSensitive;
+    }
+
+    /**
+     * Set a word-value mapping on this Trie. If a previous mapping exists, it will be overwritten -
+     * including a mapping for a word that only differs in case, if this Trie is case insensitive.
+     *
+     * @param word The word for the word-value mapping.
+     * @param value The value for the word-value mapping.
+     * @return The previous value mapped to the word, if any.
+     */
+    public Opt<T> put(String word, T value) {
+        if (word == null) {
+            throw new java.lang.NullPointerException("word");
+        }
+        if (value == null) {
+            throw new java.lang.NullPointerException("value");
+        }
+        if (word.isEmpty()) {
+            throw new IllegalArgumentException("Empty words aren't allowed!");
+        }
+
+        final String foldedWord = FoldedTrie.fold(word, caseSensitive);
+        while (true) {
+            final Node<T> currentRoot = root.get();
+            final Node<T> newRoot = currentRoot.put(foldedWord, 0, word, value);
+            if (root.compareAndSet(currentRoot, newRoot)) {
+                return getValue(currentRoot.getNode(foldedWord, 0));
+            }
+        }
+    }
+
+    /**
+     * Remove a word-value mapping from this Trie, if it exists.
+     *
+     * @param word The word to remove.
+     * @return The value that was mapped to the word, if any.
+     */
+    public Opt<T> remove(String word) {
+        if (word == null) {
+            throw new java.lang.NullPointerException("word");
+        }
+
+        final String foldedWord = FoldedTrie.fold(word, caseSensitive);
+        while (true) {
+            final Node<T> currentRoot = root.get();
+            final Node<T> newRoot = currentRoot.remove(foldedWord, 0);
+            if (newRoot == currentRoot) {
+                // The word isn't in the Trie, nothing to publish.
+                return Opt.absent();
+            }
+            if (root.compareAndSet(currentRoot, newRoot != null ? newRoot : Node.<T>createRoot())) {
+                return getValue(currentRoot.getNode(foldedWord, 0));
+            }
+        }
+    }
+
+    /**
+     * @return An immutable {@link Trie} containing the words of this Trie at the moment of the call.
+     */
+    public Trie<T> snapshot() {
+        return new Snapshot<>(root.get(), "", caseSensitive);
+    }
+
+    @Override
+    public int size() {
+        return root.get().numWords;
+    }
+
+    @Override
+    public boolean contains(String word) {
+        return snapshot().contains(word);
+    }
+
+    @Override
+    public Opt<T> get(String word) {
+        return snapshot().get(word);
+    }
+
+    @Override
+    public String getLongestPrefix() {
+        return snapshot().getLongestPrefix();
+    }
+
+    @Override
+    public Trie<T> subTrie(String prefix) {
+        return snapshot().subTrie(prefix);
+    }
+
+    @Override
+    Trie<T> childTrie(char c, String prefix) {
+        return childTrie(snapshot(), c, prefix);
+    }
+
+    @Override
+    public <A> Trie<A> mapValues(Func<T, A> function) {
+        return snapshot().mapValues(function);
+    }
+
+    @Override
+    public <R> Trie<R> lazyMapValues(Func<T, R> function) {
+        // A lazy view must not see modifications made after it was created.
+        return snapshot().lazyMapValues(function);
+    }
+
+    @Override
+    public Trie<T> lazyFilter(Pred<T> filter) {
+        // A lazy view must not see modifications made after it was created.
+        return snapshot().lazyFilter(filter);
+    }
+
+    @Override
+    public Trie<T> lazyUnion(Trie<T> other) {
+        return snapshot().lazyUnion(other);
+    }
+
+    @Override
+    public Trie<T> union(Trie<T> other) {
+        return snapshot().union(other);
+    }
+
+    @Override
+    public void visitWords(TrieVisitor<T> visitor) {
+        snapshot().visitWords(visitor);
+    }
+
+    @Override
+    public Collection<String> words() {
+        // The size of a view must match the words it iterates, so views are taken from a snapshot.
+        return snapshot().words();
+    }
+
+    @Override
+    public Collection<T> values() {
+        return snapshot().values();
+    }
+
+    @Override
+    public Set<Entry<String, T>> entrySet() {
+        return snapshot().entrySet();
+    }
+
+    @Override
+    Iterator<Entry<String, T>> entryIterator() {
+        return entryIterator(snapshot());
+    }
+
+    @Override
+    boolean visitWordsInOrder(InOrderVisitor<T> visitor) {
+        return visitInOrder(snapshot(), visitor);
+    }
+
+    @Override
+    void collectSimilarWords(SimilarWordsCollector<T> collector) {
+        collectSimilarWords(snapshot(), collector);
+    }
+
+    private static <T> Opt<T> getValue(Node<T> node) {
+        return node != null ? Opt.ofNullable(node.value) : Opt.<T>absent();
+    }
+
+    /**
+     * An immutable node. The root node has no key.
+     */
+    private static final class Node<T> {
+        private static final Node<?>[] NO_CHILDREN = new Node<?>[0];
+
+        /**
+         * The folded character of the edge leading to this node.
+         */
+        private final char key;
+
+        /**
+         * The actual word that ends at this node, {@code null} if this node isn't a word.
+         */
+        private final String word;
+
+        /**
+         * The value of this node, {@code null} if this node isn't a word.
+         */
+        private final T value;
+
+        /**
+         * Sorted by their keys.
+         */
+        private final Node<T>[] children;
+
+        /**
+         * The amount of words reachable from this node, including this node itself.
+         */
+        private final int numWords;
+
+        private Node(char key, String word, T value, Node<T>[] children, int numWords) {
+            this.key = key;
+            this.word = word;
+            this.value = value;
+            this.children = children;
+            this.numWords = numWords;
+        }
+
+        /**
+         * @return A copy of this node, with the given word-value mapping set on the node the folded word leads to.
+         */
+        private Node<T> put(String foldedWord, int depth, String word, T value) {
+            if (depth == foldedWord.length()) {
+                return new Node<>(key, word, value, children, this.word == null ? numWords + 1 : numWords);
+            }
+
+            final char c = foldedWord.charAt(depth);
+            final int index = indexOf(c);
+            if (index >= 0) {
+                final Node<T> child = children[index];
+                final Node<T> newChild = child.put(foldedWord, depth + 1, word, value);
+                final Node<T>[] newChildren = children.clone();
+                newChildren[index] = newChild;
+                return new Node<>(key, this.word, this.value, newChildren, numWords - child.numWords + newChild.numWords);
+            }
+
+            // There is no child for 'c', insert a new one at it's sorted position.
+            final Node<T> newChild = new Node<T>(c, null, null, Node.<T>noChildren(), 0).put(foldedWord, depth + 1, word, value);
+            final int insertionPoint = -(index + 1);
+            final Node<T>[] newChildren = newArray(children.length + 1);
+            System.arraycopy(children, 0, newChildren, 0, insertionPoint);
+            newChildren[insertionPoint] = newChild;
+            System.arraycopy(children, insertionPoint, newChildren, insertionPoint + 1, children.length - insertionPoint);
+            return new Node<>(key, this.word, this.value, newChildren, numWords + newChild.numWords);
+        }
+
+        /**
+         * @return This node if the folded word isn't under it, {@code null} if removing the word leaves no words
+         *         under this node, or a copy of this node without the word otherwise.
+         */
+        private Node<T> remove(String foldedWord, int depth) {
+            if (depth == foldedWord.length()) {
+                if (word == null) {
+                    return this;
+                }
+                return numWords == 1 ? null : new Node<>(key, null, null, children, numWords - 1);
+            }
+
+            final int index = indexOf(foldedWord.charAt(depth));
+            if (index < 0) {
+                return this;
+            }
+            final Node<T> child = children[index];
+            final Node<T> newChild = child.remove(foldedWord, depth + 1);
+            if (newChild == child) {
+                return this;
+            }
+
+            final Node<T>[] newChildren;
+            if (newChild != null) {
+                newChildren = children.clone();
+                newChildren[index] = newChild;
+            } else {
+                // The child has no more words, drop it.
+                if (numWords == 1) {
+                    return null;
+                }
+                newChildren = newArray(children.length - 1);
+                System.arraycopy(children, 0, newChildren, 0, index);
+                System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            }
+            final int newChildNumWords = newChild != null ? newChild.numWords : 0;
+            return new Node<>(key, word, value, newChildren, numWords - child.numWords + newChildNumWords);
+        }
+
+        /**
+         * @return The node the folded word leads to from this node, or {@code null} if there is no such node.
+         */
+        private Node<T> getNode(String foldedWord, int depth) {
+            Node<T> currentNode = this;
+            for (int i = depth; i < foldedWord.length() && currentNode != null; i++) {
+                currentNode = currentNode.getChild(foldedWord.charAt(i));
+            }
+            return currentNode;
+        }
+
+        private Node<T> getChild(char c) {
+            final int index = indexOf(c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        /**
+         * @return The index of the child with the given key, or (-(insertion point) - 1) if there is no such child.
+         */
+        private int indexOf(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                final int mid = (low + high) >>> 1;
+                final char midKey = children[mid].key;
+                if (midKey < c) {
+                    low = mid + 1;
+                } else if (midKey > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Node<T>[] newArray(int length) {
+            return (Node<T>[]) new Node<?>[length];
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Node<T>[] noChildren() {
+            return (Node<T>[]) NO_CHILDREN;
+        }
+
+        private static <T> Node<T> createRoot() {
+            return new Node<>('\0', null, null, Node.<T>noChildren(), 0);
+        }
+    }
+
+    /**
+     * An immutable view of the words under a node.
+     */
+    private static class Snapshot<T> extends AbstractTrie<T> {
+        private final Node<T> root;
+
+        /**
+         * The folded characters leading up to the root node. Only non-empty for a subTrie.
+         */
+        private final String foldedPrefix;
+
+        private final boolean caseSensitive;
+
+        private Snapshot(Node<T> root, String foldedPrefix, boolean caseSensitive) {
+            this.root = root;
+            this.foldedPrefix = foldedPrefix;
+            this.caseSensitive = caseSensitive;
+        }
+
+        @Override
+        public int size() {
+            return root.numWords;
+        }
+
+        @Override
+        public boolean contains(String word) {
+            final Node<T> node = getNode(word);
+            return node != null && node.word != null;
+        }
+
+        @Override
+        public Opt<T> get(String word) {
+            return getValue(getNode(word));
+        }
+
+        @Override
+        public String getLongestPrefix() {
+            if (isEmpty()) {
+                return "";
+            }
+
+            // Keep going down the tree, until a node has more than 1 children or is a word.
+            Node<T> currentNode = root;
+            int length = foldedPrefix.length();
+            while (currentNode.children.length == 1 && currentNode.word == null) {
+                currentNode = currentNode.children[0];
+                length++;
+            }
+
+            // Only words keep their actual characters, so take the prefix from the first word under the node.
+            while (currentNode.word == null) {
+                currentNode = currentNode.children[0];
+            }
+            return currentNode.word.substring(0, length);
+        }
+
+        @Override
+        public Trie<T> subTrie(String prefix) {
+            if (prefix.isEmpty() || this.isEmpty()) {
+                return this;
+            }
+
+            // The given prefix is relative to the original Trie, so it must first match this Trie's prefix.
+            final String foldedWord = FoldedTrie.fold(prefix, caseSensitive);
+            final int prefixLength = Math.min(foldedWord.length(), foldedPrefix.length());
+            if (!foldedWord.regionMatches(0, foldedPrefix, 0, prefixLength)) {
+                return new Snapshot<>(Node.<T>createRoot(), "", caseSensitive);
+            }
+            if (foldedWord.length() <= foldedPrefix.length()) {
+                // All words in this Trie start with the given prefix.
+                return this;
+            }
+
+            final Node<T> node = root.getNode(foldedWord, prefixLength);
+            if (node == null) {
+                return new Snapshot<>(Node.<T>createRoot(), "", caseSensitive);
+            }
+            return new Snapshot<>(node, foldedWord, caseSensitive);
+        }
+
+        @Override
+        Trie<T> childTrie(char c, String prefix) {
+            final Node<T> child = root.getChild(FoldedTrie.fold(c, caseSensitive));
+            if (child == null) {
+                return new Snapshot<>(Node.<T>createRoot(), "", caseSensitive);
+            }
+            return new Snapshot<>(child, foldedPrefix + child.key, caseSensitive);
+        }
+
+        @Override
+        public <A> Trie<A> mapValues(final Func<T, A> function) {
+            final Map<String, A> newValues = new HashMap<>(size());
+            visitWords(new TrieVisitor<T>() {
+                @Override
+                public void visit(String word, T value) {
+                    final A newValue = function.apply(value);
+                    if (newValue != null) {
+                        newValues.put(word, newValue);
+                    }
+                }
+            });
+            return FoldedTrie.fromMap(newValues, caseSensitive);
+        }
+
+        @Override
+        public Trie<T> union(Trie<T> other) {
+            if (this == other || this.isEmpty()) {
+                return other;
+            }
+            if (other.isEmpty()) {
+                return this;
+            }
+            return FoldedTrie.fromMap(toMap(), caseSensitive).union(other);
+        }
+
+        @Override
+        public void visitWords(TrieVisitor<T> visitor) {
+            doVisit(visitor, root);
+        }
+
+        @Override
+        Iterator<Entry<String, T>> entryIterator() {
+            return new NodeIterator<Node<T>, T>(root, foldedPrefix) {
+                @Override
+                protected void pushChildren(Node<T> node) {
+                    // Push the children in reverse, so they are popped in order.
+                    for (int i = node.children.length - 1; i >= 0; i--) {
+                        push(node.children[i]);
+                    }
+                }
+
+                @Override
+                protected void appendLabel(Node<T> node, StringBuilder wordBuilder) {
+                    wordBuilder.append(node.key);
+                }
+
+                @Override
+                protected T getValue(Node<T> node) {
+                    return node.value;
+                }
+
+                @Override
+                protected String getWord(Node<T> node, StringBuilder wordBuilder) {
+                    // Only words keep their actual characters.
+                    return node.word;
+                }
+            };
+        }
+
+        private void doVisit(TrieVisitor<T> visitor, Node<T> node) {
+            if (node.word != null) {
+                visitor.visit(node.word, node.value);
+            }
+            for (Node<T> child : node.children) {
+                doVisit(visitor, child);
+            }
+        }
+
+        @Override
+        boolean visitWordsInOrder(InOrderVisitor<T> visitor) {
+            // Children are sorted by their folded character, so words are visited in the lexicographic order of their folded form.
+            return doVisitInOrder(visitor, root);
+        }
+
+        private boolean doVisitInOrder(InOrderVisitor<T> visitor, Node<T> node) {
+            if (node.word != null && !visitor.visit(node.word, node.value)) {
+                return false;
+            }
+            for (Node<T> child : node.children) {
+                if (!doVisitInOrder(visitor, child)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        void collectSimilarWords(SimilarWordsCollector<T> collector) {
+            if (!isEmpty()) {
+                final int[] row = collector.nextRow(collector.initialRow(), foldedPrefix);
+                doCollectSimilarWords(collector, root, row);
+            }
+        }
+
+        private void doCollectSimilarWords(SimilarWordsCollector<T> collector, Node<T> node, int[] row) {
+            if (node.word != null) {
+                collector.offer(row, node.word, node.value);
+            }
+            if (!collector.canContinue(row)) {
+                // No word under this node can be similar enough.
+                return;
+            }
+            for (Node<T> child : node.children) {
+                doCollectSimilarWords(collector, child, collector.nextRow(row, child.key));
+            }
+        }
+
+        private Node<T> getNode(String word) {
+            final String foldedWord = FoldedTrie.fold(word, caseSensitive);
+            if (!foldedWord.startsWith(foldedPrefix)) {
+                return null;
+            }
+            return root.getNode(foldedWord, foldedPrefix.length());
+        }
+    }
+}
@@ -0,0 +1,297 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+import com.github.ykrasik.jaci.util.function.Func;
+import com.github.ykrasik.jaci.util.function.Pred;
+import com.github.ykrasik.jaci.util.opt.Opt;
+import com.github.ykrasik.jaci.util.trie.AbstractTrie.FilterFunction;
+import com.github.ykrasik.jaci.util.trie.SimilarWordsCollector.SimilarWord;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+
+/**
+ * A lazy view of a {@link Trie} with a function applied to each of it's values.<br>
+ * Nothing is copied - the function is only applied when a word is accessed or traversed.<br>
+ * A view created by {@link Trie#lazyMapValues} contains every word of the source Trie, so it's amount of words
+ * and longest prefix are the source's, and are answered without applying the function at all.
+ * A view created by {@link Trie#lazyFilter} may drop words - if the function returns {@code null} for a value,
+ * that word does not appear in this Trie. The amount of words of such a view is calculated on first access and cached.
+ *
+ * @author Yevgeny Krasik
+ */
+class MappedTrie<T, R> extends AbstractTrie<R> {
+    private final Trie<T> source;
+    private final Func<T, R> function;
+
+    /**
+     * Whether the function may return {@code null}, dropping words from this view.
+     */
+    private final boolean dropsWords;
+
+    private volatile boolean numWordsCalculated;
+    private int numWords;
+
+    private MappedTrie(Trie<T> source, Func<T, R> function, boolean dropsWords) {
+        this.source = source;
+        this.function = function;
+        this.dropsWords = dropsWords;
+    }
+
+    @Override
+    public int size() {
+        if (!dropsWords) {
+            return source.size();
+        }
+        if (!numWordsCalculated) {
+            // Words for which the function returns null are dropped, so they must all be visited once.
+            // Racing threads will calculate the same result, so no need to synchronize.
+            final CountingVisitor visitor = new CountingVisitor();
+            visitWords(visitor);
+            numWords = visitor.count;
+            numWordsCalculated = true;
+        }
+        return numWords;
+    }
+
+    @Override
+    public Opt<Integer> getKnownSize() {
+        if (!dropsWords) {
+            return source.getKnownSize();
+        }
+        return numWordsCalculated ? Opt.of(numWords) : Opt.<Integer>absent();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        if (!dropsWords) {
+            return source.isEmpty();
+        }
+        if (numWordsCalculated) {
+            return numWords == 0;
+        }
+        // Only walk up to the first word that isn't dropped.
+        return !entryIterator().hasNext();
+    }
+
+    @Override
+    public boolean contains(String word) {
+        return get(word).isPresent();
+    }
+
+    @Override
+    public Opt<R> get(String word) {
+        return source.get(word).map(function);
+    }
+
+    @Override
+    public String getLongestPrefix() {
+        if (!dropsWords || (numWordsCalculated && numWords == source.size())) {
+            // No words were dropped, the longest prefix is the same as the source's.
+            return source.getLongestPrefix();
+        }
+
+        // Words may have been dropped, calculate the longest common prefix of the remaining words.
+        final LongestPrefixVisitor visitor = new LongestPrefixVisitor();
+        visitWords(visitor);
+        return visitor.longestPrefix != null ? visitor.longestPrefix : "";
+    }
+
+    @Override
+    public Trie<R> subTrie(String prefix) {
+        return of(source.subTrie(prefix), function, dropsWords);
+    }
+
+    @Override
+    Trie<R> childTrie(char c, String prefix) {
+        return of(childTrie(source, c, prefix), function, dropsWords);
+    }
+
+    @Override
+    public <A> Trie<A> mapValues(Func<R, A> function) {
+        return source.mapValues(new ComposedFunction<>(this.function, function));
+    }
+
+    @Override
+    public <A> Trie<A> lazyMapValues(Func<R, A> function) {
+        // Compose the functions instead of stacking views.
+        return of(source, new ComposedFunction<>(this.function, function), dropsWords);
+    }
+
+    @Override
+    public Trie<R> lazyFilter(Pred<R> filter) {
+        return of(source, new ComposedFunction<>(this.function, new FilterFunction<>(filter)), true);
+    }
+
+    @Override
+    public Trie<R> union(Trie<R> other) {
+        if (this.isEmpty()) {
+            return other;
+        }
+        if (other.isEmpty()) {
+            return this;
+        }
+        return source.mapValues(function).union(other);
+    }
+
+    @Override
+    Iterator<Entry<String, R>> entryIterator() {
+        final Iterator<Entry<String, T>> sourceIterator = entryIterator(source);
+        return new Iterator<Entry<String, R>>() {
+            private Entry<String, R> next;
+
+            @Override
+            public boolean hasNext() {
+                // Words that don't map to a value are skipped.
+                while (next == null && sourceIterator.hasNext()) {
+                    final Entry<String, T> entry = sourceIterator.next();
+                    final R mappedValue = function.apply(entry.getValue());
+                    if (mappedValue != null) {
+                        next = new SimpleImmutableEntry<>(entry.getKey(), mappedValue);
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public Entry<String, R> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final Entry<String, R> entry = next;
+                next = null;
+                return entry;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("A Trie cannot be modified!");
+            }
+        };
+    }
+
+    @Override
+    public void visitWords(final TrieVisitor<R> visitor) {
+        source.visitWords(new TrieVisitor<T>() {
+            @Override
+            public void visit(String word, T value) {
+                final R mappedValue = function.apply(value);
+                if (mappedValue != null) {
+                    visitor.visit(word, mappedValue);
+                }
+            }
+        });
+    }
+
+    @Override
+    boolean visitWordsInOrder(final InOrderVisitor<R> visitor) {
+        return visitInOrder(source, new InOrderVisitor<T>() {
+            @Override
+            public boolean visit(String word, T value) {
+                // Words that don't map to a value are skipped, the traversal goes on.
+                final R mappedValue = function.apply(value);
+                return mappedValue == null || visitor.visit(word, mappedValue);
+            }
+        });
+    }
+
+    @Override
+    void collectSimilarWords(SimilarWordsCollector<R> collector) {
+        final SimilarWordsCollector<T> sourceCollector = new SimilarWordsCollector<>(collector);
+        collectSimilarWords(source, sourceCollector);
+        for (SimilarWord<T> similarWord : sourceCollector.getSimilarWords()) {
+            final R mappedValue = function.apply(similarWord.value);
+            if (mappedValue != null) {
+                collector.add(similarWord.word, mappedValue, similarWord.distance);
+            }
+        }
+    }
+
+    /**
+     * Create a lazy view of the source Trie with the function applied to each of it's values.
+     *
+     * @param source Trie to create a view of.
+     * @param function Function to apply to each value of the source Trie.
+     * @param dropsWords Whether the function may return {@code null}, which drops that word from the view.
+     * @param <T> Source Trie type.
+     * @param <R> View type.
+     * @return A lazy view of the source Trie with the function applied to each of it's values.
+     */
+    static <T, R> Trie<R> of(Trie<T> source, Func<T, R> function, boolean dropsWords) {
+        if (source.isEmpty()) {
+            return TrieNode.emptyTrie();
+        }
+        return new MappedTrie<>(source, function, dropsWords);
+    }
+
+    /**
+     * A {@link TrieVisitor} that counts the visited words.
+     */
+    private class CountingVisitor implements TrieVisitor<R> {
+        private int count;
+
+        @Override
+        public void visit(String word, R value) {
+            count++;
+        }
+    }
+
+    /**
+     * A {@link TrieVisitor} that calculates the longest common prefix of all visited words.
+     */
+    private class LongestPrefixVisitor implements TrieVisitor<R> {
+        private String longestPrefix;
+
+        @Override
+        public void visit(String word, R value) {
+            if (longestPrefix == null) {
+                longestPrefix = word;
+                return;
+            }
+
+            final int length = Math.min(longestPrefix.length(), word.length());
+            int i = 0;
+            while (i < length && longestPrefix.charAt(i) == word.charAt(i)) {
+                i++;
+            }
+            longestPrefix = longestPrefix.substring(0, i);
+        }
+    }
+
+    /**
+     * A {@link Func} that applies 2 functions one after the other.
+     * If the first returns {@code null}, so does this function.
+     */
+    private static class ComposedFunction<T, R, A> implements Func<T, A> {
+        private final Func<T, R> first;
+        private final Func<R, A> second;
+
+        private ComposedFunction(Func<T, R> first, Func<R, A> second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public A apply(T input) {
+            final R value = first.apply(input);
+            return value != null ? second.apply(value) : null;
+        }
+    }
+}
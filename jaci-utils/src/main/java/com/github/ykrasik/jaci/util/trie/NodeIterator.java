@@ -0,0 +1,136 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+
+/**
+ * A lazy, depth first iterator over the word-value pairs under a node of a linked {@link Trie}.<br>
+ * Walks the nodes with an explicit stack instead of recursion, and only builds the words it returns,
+ * so reading the first few entries only costs as much as getting to them.
+ * Implementations only need to describe the nodes.
+ *
+ * @param <N> Node type.
+ * @param <T> Trie type.
+ * @author Yevgeny Krasik
+ */
+abstract class NodeIterator<N, T> implements Iterator<Entry<String, T>> {
+    /**
+     * Nodes that are yet to be visited, and the length of the word leading up to each of them (excluding it's own label).
+     */
+    private final List<N> nodes = new ArrayList<>();
+    private int[] lengths = new int[16];
+
+    private final StringBuilder wordBuilder;
+    private Entry<String, T> next;
+
+    /**
+     * @param root Node to iterate the words under, including it's own word.
+     * @param prefix The characters leading up to (and including) the root node.
+     */
+    NodeIterator(N root, String prefix) {
+        this.wordBuilder = new StringBuilder(prefix);
+        next = visit(root);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null && !nodes.isEmpty()) {
+            final int top = nodes.size() - 1;
+            final N node = nodes.remove(top);
+            wordBuilder.setLength(lengths[top]);
+            appendLabel(node, wordBuilder);
+            next = visit(node);
+        }
+        return next != null;
+    }
+
+    @Override
+    public Entry<String, T> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final Entry<String, T> entry = next;
+        next = null;
+        return entry;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("A Trie cannot be modified!");
+    }
+
+    /**
+     * Push the node's children to be visited next, and return it's entry if it is a word.
+     */
+    private Entry<String, T> visit(N node) {
+        pushChildren(node);
+        final T value = getValue(node);
+        return value != null ? new SimpleImmutableEntry<>(getWord(node, wordBuilder), value) : null;
+    }
+
+    /**
+     * Push a child node to be visited. Children are visited in the reverse order they are pushed.
+     *
+     * @param child Child node to push.
+     */
+    protected void push(N child) {
+        final int size = nodes.size();
+        if (size == lengths.length) {
+            final int[] newLengths = new int[size * 2];
+            System.arraycopy(lengths, 0, newLengths, 0, size);
+            lengths = newLengths;
+        }
+        nodes.add(child);
+        lengths[size] = wordBuilder.length();
+    }
+
+    /**
+     * Push all children of the given node through {@link #push(Object)}.
+     *
+     * @param node Node to push the children of.
+     */
+    protected abstract void pushChildren(N node);
+
+    /**
+     * Append the characters of the edge leading to the given node.
+     *
+     * @param node Node to append the label of.
+     * @param wordBuilder Builder to append to.
+     */
+    protected abstract void appendLabel(N node, StringBuilder wordBuilder);
+
+    /**
+     * @param node Node to get the value of.
+     * @return The value of the node, {@code null} if it isn't a word.
+     */
+    protected abstract T getValue(N node);
+
+    /**
+     * @param node Node to get the word of. Is a word.
+     * @param wordBuilder Contains the characters leading up to (and including) the node.
+     * @return The word of the node.
+     */
+    protected String getWord(N node, StringBuilder wordBuilder) {
+        return wordBuilder.toString();
+    }
+}
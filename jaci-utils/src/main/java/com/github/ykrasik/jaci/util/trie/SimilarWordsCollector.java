@@ -0,0 +1,175 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Collects the words of a {@link Trie} that are within a maximum edit (Levenshtein) distance from a target word.<br>
+ * The distance is calculated incrementally, one row of the edit distance matrix per character on the path from the root,
+ * so every Trie node is only processed once and branches that can no longer lead to a similar word are never traversed.
+ * <b>Case insensitive</b>
+ *
+ * @author Yevgeny Krasik
+ */
+class SimilarWordsCollector<T> {
+    private final String word;
+    private final int maxDistance;
+    private final List<SimilarWord<T>> similarWords = new ArrayList<>();
+
+    SimilarWordsCollector(String word, int maxDistance) {
+        this.word = word;
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * Create an empty collector for the same target word and maximum distance as another collector.
+     *
+     * @param other Collector to take the target word and maximum distance from.
+     */
+    SimilarWordsCollector(SimilarWordsCollector<?> other) {
+        this(other.word, other.maxDistance);
+    }
+
+    /**
+     * @return The row of the empty string - the distance of each prefix of the target word from an empty string.
+     */
+    int[] initialRow() {
+        final int[] row = new int[word.length() + 1];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = i;
+        }
+        return row;
+    }
+
+    /**
+     * @param row Row of the characters leading up to a node.
+     * @param prefix Characters to append.
+     * @return The row of the characters leading up to the node, followed by the given characters.
+     */
+    int[] nextRow(int[] row, CharSequence prefix) {
+        int[] currentRow = row;
+        for (int i = 0; i < prefix.length(); i++) {
+            currentRow = nextRow(currentRow, prefix.charAt(i));
+        }
+        return currentRow;
+    }
+
+    /**
+     * @param row Row of the characters leading up to a node.
+     * @param c Character of a child node.
+     * @return The row of the characters leading up to the child node.
+     */
+    int[] nextRow(int[] row, char c) {
+        final int[] nextRow = new int[row.length];
+        nextRow[0] = row[0] + 1;
+        for (int i = 1; i < row.length; i++) {
+            final int substituteCost = isSameCharacter(word.charAt(i - 1), c) ? 0 : 1;
+            final int insertOrDelete = Math.min(nextRow[i - 1], row[i]) + 1;
+            nextRow[i] = Math.min(insertOrDelete, row[i - 1] + substituteCost);
+        }
+        return nextRow;
+    }
+
+    /**
+     * @param row Row of the characters leading up to a node.
+     * @return {@code true} if a word under the node may still be similar to the target word.
+     */
+    boolean canContinue(int[] row) {
+        // Appending characters can never decrease the minimum distance in a row.
+        for (int distance : row) {
+            if (distance <= maxDistance) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collect a word if it is similar to the target word.
+     *
+     * @param row Row of the word's characters.
+     * @param word The word in a word-value mapping.
+     * @param value The value in a word-value mapping.
+     */
+    void offer(int[] row, String word, T value) {
+        final int distance = row[row.length - 1];
+        if (distance <= maxDistance) {
+            add(word, value, distance);
+        }
+    }
+
+    /**
+     * Collect a word that is already known to be similar to the target word.
+     *
+     * @param word The word in a word-value mapping.
+     * @param value The value in a word-value mapping.
+     * @param distance The distance of the word from the target word.
+     */
+    void add(String word, T value, int distance) {
+        similarWords.add(new SimilarWord<>(word, value, distance));
+    }
+
+    /**
+     * @return The words collected so far.
+     */
+    List<SimilarWord<T>> getSimilarWords() {
+        return similarWords;
+    }
+
+    /**
+     * Visit all collected words, closest first. Words of the same distance are visited in lexicographic order.
+     *
+     * @param visitor The visitor that will visit each word-value pair.
+     */
+    void visitSimilarWords(TrieVisitor<T> visitor) {
+        Collections.sort(similarWords, new Comparator<SimilarWord<T>>() {
+            @Override
+            public int compare(SimilarWord<T> o1, SimilarWord<T> o2) {
+                if (o1.distance != o2.distance) {
+                    return o1.distance < o2.distance ? -1 : 1;
+                }
+                return o1.word.compareTo(o2.word);
+            }
+        });
+        for (SimilarWord<T> similarWord : similarWords) {
+            visitor.visit(similarWord.word, similarWord.value);
+        }
+    }
+
+    private static boolean isSameCharacter(char c1, char c2) {
+        return c1 == c2 || Character.toLowerCase(c1) == Character.toLowerCase(c2);
+    }
+
+    /**
+     * A collected word, it's value and it's distance from the target word.
+     */
+    static class SimilarWord<T> {
+        final String word;
+        final T value;
+        final int distance;
+
+        private SimilarWord(String word, T value, int distance) {
+            this.word = word;
+            this.value = value;
+            this.distance = distance;
+        }
+    }
+}
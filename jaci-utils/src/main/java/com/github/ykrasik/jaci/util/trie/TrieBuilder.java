@@ -30,8 +30,56 @@ import java.util.Map.Entry;
 public class TrieBuilder<T> {
     private final Map<String, T> map = new HashMap<>();
 
+    /**
+     * The last word that was mapped for each case folded word. A case insensitive {@link TrieType#FOLDED} Trie
+     * is built only from these words. Only tracked while building such a Trie.
+     */
+    private final Map<String, String> foldedWords = new HashMap<>();
+
+    /**
+     * Describes the first pair of words that only differ in case that were mapped before this builder was set to build
+     * a case insensitive {@link TrieType#FOLDED} Trie, if any. It is unknown which of them was mapped last,
+     * so such a Trie can't be built.
+     */
+    private String foldedDuplicate;
+
+    private TrieType type = TrieType.NODE;
+    private boolean caseSensitive;
+
+    /**
+     * Set the implementation of the {@link Trie} that will be built. Defaults to {@link TrieType#NODE}.
+     *
+     * @param type Type of {@link Trie} to build.
+     * @return {@code this}, for chaining.
+     */
+    public TrieBuilder<T> setType(TrieType type) {
+        if (type == null) {
+            throw new java.lang.NullPointerException("type");
+        }
+        final boolean wasCaseFolded = isCaseFolded();
+        this.type = type;
+        onCaseFoldingChanged(wasCaseFolded);
+        return this;
+    }
+
+    /**
+     * Set whether the {@link Trie} that will be built distinguishes between words that only differ in case.
+     * Defaults to {@code false}. Only a {@link TrieType#FOLDED} Trie can be case sensitive.
+     *
+     * @param caseSensitive Whether the {@link Trie} should be case sensitive.
+     * @return {@code this}, for chaining.
+     */
+    public TrieBuilder<T> setCaseSensitive(boolean caseSensitive) {
+        final boolean wasCaseFolded = isCaseFolded();
+        this.caseSensitive = caseSensitive;
+        onCaseFoldingChanged(wasCaseFolded);
+        return this;
+    }
+
     /**
      * Add a word-value mapping to the Trie. Expects there not to be a previous mapping for the word.
+     * For a case insensitive {@link TrieType#FOLDED} Trie, also expects there not to be a previous mapping for
+     * a word that only differs from it in case.
      *
      * @param word The word for the word-value mapping.
      * @param value The value for the word-value mapping.
@@ -41,11 +89,22 @@ public class TrieBuilder<T> {
     public TrieBuilder<T> add(String word, T value) {
         assertNotEmptyWord(word);
 
+        final String foldedWord = isCaseFolded() ? FoldedTrie.fold(word, false) : null;
+        if (foldedWord != null) {
+            final String prevWord = foldedWords.get(foldedWord);
+            if (prevWord != null && !prevWord.equals(word)) {
+                throw new IllegalArgumentException(("Trie already contains a value for '"+prevWord+"', which only differs in case from '"+word+"': "+map.get(prevWord)));
+            }
+        }
+
         // Save the word-value pair in the map. The actual construction will be done later.
         final T prevValue = map.put(word, value);
         if (prevValue != null) {
             throw new IllegalArgumentException(("Trie already contains a value for '"+word+"': "+prevValue));
         }
+        if (foldedWord != null) {
+            foldedWords.put(foldedWord, word);
+        }
         return this;
     }
 
@@ -67,6 +126,8 @@ public class TrieBuilder<T> {
     /**
      * Set a word-value mapping on the Trie. If a previous mapping exists, it will be overwritten.
      * Otherwise, will create a new word-value mapping.
+     * In a case insensitive {@link TrieType#FOLDED} Trie, this also overwrites a previous mapping for a word that
+     * only differs from this word in case.
      *
      * @param word The word for the word-value mapping.
      * @param value The value for the word-value mapping.
@@ -77,6 +138,9 @@ public class TrieBuilder<T> {
 
         // Save the word-value pair in the map. The actual construction will be done later.
         map.put(word, value);
+        if (isCaseFolded()) {
+            foldedWords.put(FoldedTrie.fold(word, false), word);
+        }
         return this;
     }
 
@@ -96,8 +160,85 @@ public class TrieBuilder<T> {
 
     /**
      * @return A {@link Trie} created from the word-value mappings in this {@link TrieBuilder}.
+     * @throws IllegalStateException If a case sensitive Trie was requested of a type other than {@link TrieType#FOLDED},
+     *                               or if a case insensitive {@link TrieType#FOLDED} Trie was requested, and words that
+     *                               only differ in case were mapped before the type and case sensitivity were set.
      */
     public Trie<T> build() {
+        if (caseSensitive && type != TrieType.FOLDED) {
+            throw new IllegalStateException("Only a Trie of type " + TrieType.FOLDED + " can be case sensitive: " + type);
+        }
+        if (isCaseFolded() && foldedDuplicate != null) {
+            throw new IllegalStateException("A case insensitive Trie of type " + TrieType.FOLDED + " can't contain words that only differ in case: " + foldedDuplicate);
+        }
+
+        switch (type) {
+            case COMPACT: return CompactTrie.fromMap(map);
+            case RADIX: return RadixTrie.fromMap(map);
+            case FOLDED: return FoldedTrie.fromMap(caseSensitive ? map : getLastFoldedMappings(), caseSensitive);
+            case FROZEN: return FrozenTrie.fromMap(map);
+            default: return buildTrieNode();
+        }
+    }
+
+    /**
+     * Build an immutable {@link FrozenTrie}, regardless of the type set on this builder.
+     * Word counts, longest prefixes and the sorted order of children are all calculated up front,
+     * so queries on it never synchronize or recompute anything.
+     *
+     * @return A {@link FrozenTrie} created from the word-value mappings in this {@link TrieBuilder}.
+     * @throws IllegalStateException If a case sensitive Trie was requested.
+     */
+    public FrozenTrie<T> freeze() {
+        if (caseSensitive) {
+            throw new IllegalStateException("Only a Trie of type " + TrieType.FOLDED + " can be case sensitive: " + TrieType.FROZEN);
+        }
+        return FrozenTrie.fromMap(map);
+    }
+
+    /**
+     * @return A {@link WordIndex} of a {@link Trie} created from the word-value mappings in this {@link TrieBuilder},
+     *         which can also match words by infix or by camel humps.
+     */
+    public WordIndex<T> buildIndex() {
+        // A case insensitive FOLDED Trie may drop words that only differ in case, so the index is built from the Trie's words.
+        final Trie<T> trie = build();
+        return type == TrieType.FOLDED ? WordIndex.from(trie) : WordIndex.from(trie, map);
+    }
+
+    private boolean isCaseFolded() {
+        return type == TrieType.FOLDED && !caseSensitive;
+    }
+
+    private void onCaseFoldingChanged(boolean wasCaseFolded) {
+        if (wasCaseFolded == isCaseFolded()) {
+            return;
+        }
+        foldedWords.clear();
+        foldedDuplicate = null;
+        if (!isCaseFolded()) {
+            return;
+        }
+
+        // Start tracking the words that were already mapped.
+        for (String word : map.keySet()) {
+            final String prevWord = foldedWords.put(FoldedTrie.fold(word, false), word);
+            if (prevWord != null && foldedDuplicate == null) {
+                foldedDuplicate = "'" + word + "' only differs in case from '" + prevWord + "'";
+            }
+        }
+    }
+
+    private Map<String, T> getLastFoldedMappings() {
+        // Of all words that only differ in case, only the last one that was mapped is kept.
+        final Map<String, T> lastMappings = new HashMap<>(foldedWords.size());
+        for (String word : foldedWords.values()) {
+            lastMappings.put(word, map.get(word));
+        }
+        return lastMappings;
+    }
+
+    private Trie<T> buildTrieNode() {
         final TrieNode<T> root = TrieNode.createRoot();
         for (Entry<String, T> entry : map.entrySet()) {
             createTrieBranch(root, entry.getKey(), entry.getValue());
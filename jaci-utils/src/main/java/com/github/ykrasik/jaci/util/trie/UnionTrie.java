@@ -0,0 +1,413 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+import com.github.ykrasik.jaci.util.function.Func;
+import com.github.ykrasik.jaci.util.opt.Opt;
+import com.github.ykrasik.jaci.util.trie.SimilarWordsCollector.SimilarWord;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * A lazy view of the union of a few {@link Trie}s.<br>
+ * Nothing is copied or merged - every operation is answered by querying the underlying Tries.
+ * If a word is contained in more than one of the Tries, the value from the first Trie that contains it is used.
+ * Words that only differ in case are different words and both appear in this Trie, like in an eager
+ * {@link Trie#union(Trie) union} of case insensitive Tries (an eager union of case insensitive {@link TrieType#FOLDED}
+ * Tries only keeps one of them). Lookups are still case insensitive, like in the underlying Tries.<br>
+ * The amount of words is calculated on first access and cached.
+ *
+ * @author Yevgeny Krasik
+ */
+class UnionTrie<T> extends AbstractTrie<T> {
+    private static final int INITIAL_BATCH_SIZE = 16;
+
+    /**
+     * The Tries of this union. None of them are empty or themselves a {@link UnionTrie}.
+     */
+    private final List<Trie<T>> tries;
+
+    private volatile boolean numWordsCalculated;
+    private int numWords;
+
+    private UnionTrie(List<Trie<T>> tries) {
+        this.tries = tries;
+    }
+
+    @Override
+    public int size() {
+        if (!numWordsCalculated) {
+            // Racing threads will calculate the same result, so no need to synchronize.
+            numWords = calcNumWords();
+            numWordsCalculated = true;
+        }
+        return numWords;
+    }
+
+    @Override
+    public Opt<Integer> getKnownSize() {
+        // Calculating the size checks every word against the other Tries.
+        return numWordsCalculated ? Opt.of(numWords) : Opt.<Integer>absent();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        // Empty Tries are never part of a union, and a union always has at least 2 Tries.
+        return false;
+    }
+
+    private int calcNumWords() {
+        // All words of the largest Trie are counted as is.
+        // Only the words of the other Tries need to be checked against the rest of the Tries for duplicates.
+        Trie<T> largestTrie = tries.get(0);
+        for (Trie<T> trie : tries) {
+            if (trie.size() > largestTrie.size()) {
+                largestTrie = trie;
+            }
+        }
+
+        final List<Trie<T>> countedTries = new ArrayList<>(tries.size());
+        countedTries.add(largestTrie);
+        int count = largestTrie.size();
+        for (Trie<T> trie : tries) {
+            if (trie == largestTrie) {
+                continue;
+            }
+
+            final UniqueWordsVisitor visitor = new UniqueWordsVisitor(countedTries);
+            trie.visitWords(visitor);
+            count += visitor.count;
+            countedTries.add(trie);
+        }
+        return count;
+    }
+
+    @Override
+    public boolean contains(String word) {
+        return containsWord(tries, word);
+    }
+
+    @Override
+    public Opt<T> get(String word) {
+        for (Trie<T> trie : tries) {
+            final Opt<T> value = trie.get(word);
+            if (value.isPresent()) {
+                return value;
+            }
+        }
+        return Opt.absent();
+    }
+
+    @Override
+    public String getLongestPrefix() {
+        // The longest prefix common to all words is the longest prefix common to the longest prefixes of all Tries.
+        String longestPrefix = tries.get(0).getLongestPrefix();
+        for (int i = 1; i < tries.size() && !longestPrefix.isEmpty(); i++) {
+            final String prefix = tries.get(i).getLongestPrefix();
+            final int length = Math.min(longestPrefix.length(), prefix.length());
+            int j = 0;
+            while (j < length && longestPrefix.charAt(j) == prefix.charAt(j)) {
+                j++;
+            }
+            longestPrefix = longestPrefix.substring(0, j);
+        }
+        return longestPrefix;
+    }
+
+    @Override
+    public Trie<T> subTrie(String prefix) {
+        if (prefix.isEmpty()) {
+            return this;
+        }
+
+        final List<Trie<T>> subTries = new ArrayList<>(tries.size());
+        for (Trie<T> trie : tries) {
+            subTries.add(trie.subTrie(prefix));
+        }
+        return of(subTries);
+    }
+
+    @Override
+    Trie<T> childTrie(char c, String prefix) {
+        final List<Trie<T>> childTries = new ArrayList<>(tries.size());
+        for (Trie<T> trie : tries) {
+            childTries.add(childTrie(trie, c, prefix));
+        }
+        return of(childTries);
+    }
+
+    @Override
+    public <A> Trie<A> mapValues(Func<T, A> function) {
+        final List<Trie<A>> mappedTries = new ArrayList<>(tries.size());
+        for (Trie<T> trie : tries) {
+            mappedTries.add(trie.mapValues(function));
+        }
+        return of(mappedTries);
+    }
+
+    @Override
+    public Trie<T> union(Trie<T> other) {
+        if (this == other || other.isEmpty()) {
+            return this;
+        }
+
+        // Materialize the union by performing it on the underlying Tries.
+        Trie<T> union = tries.get(0);
+        for (int i = 1; i < tries.size(); i++) {
+            union = union.union(tries.get(i));
+        }
+        return union.union(other);
+    }
+
+    @Override
+    Iterator<Entry<String, T>> entryIterator() {
+        return new Iterator<Entry<String, T>>() {
+            private int index;
+            private Iterator<Entry<String, T>> iterator = entryIterator(tries.get(0));
+            private Entry<String, T> next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null) {
+                    if (!iterator.hasNext()) {
+                        if (index == tries.size() - 1) {
+                            return false;
+                        }
+                        index++;
+                        iterator = entryIterator(tries.get(index));
+                        continue;
+                    }
+
+                    // Each word is only returned from the first Trie that contains it.
+                    final Entry<String, T> entry = iterator.next();
+                    if (!containsWord(tries.subList(0, index), entry.getKey())) {
+                        next = entry;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public Entry<String, T> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final Entry<String, T> entry = next;
+                next = null;
+                return entry;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("A Trie cannot be modified!");
+            }
+        };
+    }
+
+    @Override
+    public void visitWords(TrieVisitor<T> visitor) {
+        // Each word is only visited by the first Trie that contains it.
+        for (int i = 0; i < tries.size(); i++) {
+            final List<Trie<T>> previousTries = tries.subList(0, i);
+            tries.get(i).visitWords(new UniqueWordsVisitor(previousTries, visitor));
+        }
+    }
+
+    @Override
+    public void visitFirstWords(TrieVisitor<T> visitor, int maxWords) {
+        if (maxWords <= 0) {
+            return;
+        }
+        for (Entry<String, T> entry : getFirstWords(maxWords).entrySet()) {
+            visitor.visit(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    boolean visitWordsInOrder(InOrderVisitor<T> visitor) {
+        // The Tries can't be traversed side by side, so the words are calculated in growing batches of first words.
+        int numVisited = 0;
+        int maxWords = INITIAL_BATCH_SIZE;
+        while (true) {
+            final SortedMap<String, T> firstWords = getFirstWords(maxWords);
+            int i = 0;
+            for (Entry<String, T> entry : firstWords.entrySet()) {
+                if (i++ >= numVisited && !visitor.visit(entry.getKey(), entry.getValue())) {
+                    return false;
+                }
+            }
+            if (firstWords.size() < maxWords) {
+                // There are no more words.
+                return true;
+            }
+            numVisited = firstWords.size();
+            maxWords = maxWords <= Integer.MAX_VALUE / 2 ? maxWords * 2 : Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * The first 'maxWords' words of the union are among the first 'maxWords' words of each Trie
+     * that aren't contained in any of the Tries before it, so only those are traversed and merged.
+     *
+     * @param maxWords Maximum amount of words to return.
+     * @return The first 'maxWords' words of this Trie and their values, in lexicographic order.
+     */
+    private SortedMap<String, T> getFirstWords(int maxWords) {
+        final SortedMap<String, T> firstWords = new TreeMap<>();
+        for (int i = 0; i < tries.size(); i++) {
+            final List<Trie<T>> previousTries = tries.subList(0, i);
+            visitInOrder(tries.get(i), new FirstUniqueWordsVisitor(previousTries, firstWords, maxWords));
+        }
+
+        // Drop the words after the first 'maxWords'.
+        while (firstWords.size() > maxWords) {
+            firstWords.remove(firstWords.lastKey());
+        }
+        return firstWords;
+    }
+
+    @Override
+    void collectSimilarWords(SimilarWordsCollector<T> collector) {
+        // Each word is only collected from the first Trie that contains it.
+        for (int i = 0; i < tries.size(); i++) {
+            final SimilarWordsCollector<T> trieCollector = new SimilarWordsCollector<>(collector);
+            collectSimilarWords(tries.get(i), trieCollector);
+
+            final List<Trie<T>> previousTries = tries.subList(0, i);
+            for (SimilarWord<T> similarWord : trieCollector.getSimilarWords()) {
+                if (!containsWord(previousTries, similarWord.word)) {
+                    collector.add(similarWord.word, similarWord.value, similarWord.distance);
+                }
+            }
+        }
+    }
+
+    private static <T> boolean containsWord(List<Trie<T>> tries, String word) {
+        for (Trie<T> trie : tries) {
+            if (containsExactWord(trie, word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> boolean containsExactWord(Trie<T> trie, String word) {
+        if (!trie.contains(word)) {
+            return false;
+        }
+
+        // The lookup is case insensitive, so the Trie may only contain a word that differs in case.
+        // Only happens for words that are contained in more than one Trie, so it's enough to search
+        // the words that start with this word.
+        for (String trieWord : trie.subTrie(word).words()) {
+            if (trieWord.equals(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A {@link TrieVisitor} that only handles words that aren't contained in any of the given Tries.
+     * Counts such words, and may also pass them on to another visitor.
+     */
+    private class UniqueWordsVisitor implements TrieVisitor<T> {
+        private final List<Trie<T>> otherTries;
+        private final TrieVisitor<T> visitor;
+        private int count;
+
+        private UniqueWordsVisitor(List<Trie<T>> otherTries) {
+            this(otherTries, null);
+        }
+
+        private UniqueWordsVisitor(List<Trie<T>> otherTries, TrieVisitor<T> visitor) {
+            this.otherTries = otherTries;
+            this.visitor = visitor;
+        }
+
+        @Override
+        public void visit(String word, T value) {
+            if (containsWord(otherTries, word)) {
+                return;
+            }
+            count++;
+            if (visitor != null) {
+                visitor.visit(word, value);
+            }
+        }
+    }
+
+    /**
+     * An {@link InOrderVisitor} that collects the first words that aren't contained in any of the given Tries.
+     */
+    private class FirstUniqueWordsVisitor implements InOrderVisitor<T> {
+        private final List<Trie<T>> otherTries;
+        private final Map<String, T> words;
+        private int wordsLeft;
+
+        private FirstUniqueWordsVisitor(List<Trie<T>> otherTries, Map<String, T> words, int maxWords) {
+            this.otherTries = otherTries;
+            this.words = words;
+            this.wordsLeft = maxWords;
+        }
+
+        @Override
+        public boolean visit(String word, T value) {
+            if (containsWord(otherTries, word)) {
+                return true;
+            }
+            words.put(word, value);
+            wordsLeft--;
+            return wordsLeft > 0;
+        }
+    }
+
+    /**
+     * Create a lazy union of the given Tries.
+     * Empty and repeated Tries are dropped, and Tries that are themselves a lazy union are flattened into this one.
+     *
+     * @param tries Tries to create a union of.
+     * @param <T> Trie type.
+     * @return A lazy union of the given Tries.
+     */
+    static <T> Trie<T> of(List<Trie<T>> tries) {
+        final List<Trie<T>> unionTries = new ArrayList<>(tries.size());
+        for (Trie<T> trie : tries) {
+            if (trie instanceof UnionTrie) {
+                unionTries.addAll(((UnionTrie<T>) trie).tries);
+            } else if (!trie.isEmpty() && !unionTries.contains(trie)) {
+                unionTries.add(trie);
+            }
+        }
+
+        if (unionTries.isEmpty()) {
+            return TrieNode.emptyTrie();
+        }
+        if (unionTries.size() == 1) {
+            return unionTries.get(0);
+        }
+        return new UnionTrie<>(Collections.unmodifiableList(unionTries));
+    }
+}
@@ -0,0 +1,449 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * A {@link Trie} together with a secondary index of it's words, which can also match words by something other than
+ * their prefix - see {@link MatchMode}.<br>
+ * Infix queries are answered by a suffix array over the (lower cased) characters of all words, so a query costs
+ * 2 binary searches and is then proportional to the amount of matches.
+ * Camel hump queries are answered by an index of the first 2 or 3 humps of the query, and only the words found through it
+ * are matched against the whole query.<br>
+ * Like a {@link Trie}, cannot be modified once built.
+ *
+ * @author Yevgeny Krasik
+ */
+public class WordIndex<T> {
+    /**
+     * Separates the words in the text. Smaller than any other character, so every suffix ends at the end of it's word.
+     */
+    private static final char SEPARATOR = '\0';
+
+    private final Trie<T> trie;
+
+    /**
+     * All words, sorted. A word is identified by it's index in this array.
+     */
+    private final String[] words;
+    private final Object[] values;
+
+    /**
+     * The lower cased characters of all words, each followed by a {@link #SEPARATOR}.
+     */
+    private final char[] text;
+
+    /**
+     * The index in {@link #text} where each word starts.
+     */
+    private final int[] wordStarts;
+
+    /**
+     * The index in {@link #text} of every suffix of every word, sorted by the characters of the suffix.
+     */
+    private final int[] suffixes;
+
+    /**
+     * Maps the (lower cased) first characters of the first hump and of 1 or 2 later humps (in order)
+     * to all the words with such humps.
+     */
+    private final Map<String, int[]> humpKeys;
+
+    private WordIndex(Trie<T> trie, String[] words, Object[] values, char[] text, int[] wordStarts, int[] suffixes, Map<String, int[]> humpKeys) {
+        this.trie = trie;
+        this.words = words;
+        this.values = values;
+        this.text = text;
+        this.wordStarts = wordStarts;
+        this.suffixes = suffixes;
+        this.humpKeys = humpKeys;
+    }
+
+    /**
+     * @return The indexed {@link Trie}.
+     */
+    public Trie<T> getTrie() {
+        return trie;
+    }
+
+    /**
+     * Find the words that match the query.
+     *
+     * @param query Query to match words against.
+     * @param mode How to match words against the query.
+     * @return A {@link Trie} containing all the words that match the query and their values. <b>Case insensitive</b>
+     */
+    public Trie<T> match(String query, MatchMode mode) {
+        if (mode == null) {
+            throw new java.lang.NullPointerException("mode");
+        }
+        switch (mode) {
+            case INFIX: return matchInfix(query);
+            case CAMEL_HUMPS: return matchCamelHumps(query);
+            default: return trie.subTrie(query);
+        }
+    }
+
+    private Trie<T> matchInfix(String infix) {
+        if (infix.isEmpty()) {
+            return trie;
+        }
+
+        // All suffixes that start with the infix are adjacent in the suffix array.
+        final String lowerCaseInfix = toLowerCase(infix);
+        final int from = findFirstSuffix(lowerCaseInfix, false);
+        final int to = findFirstSuffix(lowerCaseInfix, true);
+
+        final int[] matches = new int[to - from];
+        for (int i = from; i < to; i++) {
+            matches[i - from] = getWord(suffixes[i]);
+        }
+        Arrays.sort(matches);
+
+        // A word may contain the infix more than once.
+        int numMatches = 0;
+        for (int i = 0; i < matches.length; i++) {
+            if (i == 0 || matches[i] != matches[i - 1]) {
+                matches[numMatches++] = matches[i];
+            }
+        }
+        return toTrie(matches, numMatches);
+    }
+
+    /**
+     * @param lowerCaseInfix Infix to look for.
+     * @param after If {@code true}, look for the first suffix that comes after all suffixes starting with the infix.
+     * @return The index of the first suffix that starts with (or comes after) the infix.
+     */
+    private int findFirstSuffix(String lowerCaseInfix, boolean after) {
+        int low = 0;
+        int high = suffixes.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            final int comparison = compareSuffix(suffixes[mid], lowerCaseInfix);
+            if (comparison < 0 || (after && comparison == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return A negative number if the suffix comes before the infix, 0 if it starts with the infix and a positive number otherwise.
+     */
+    private int compareSuffix(int suffix, String lowerCaseInfix) {
+        for (int i = 0; i < lowerCaseInfix.length(); i++) {
+            final char c = text[suffix + i];
+            if (c == SEPARATOR) {
+                // The suffix is a prefix of the infix.
+                return -1;
+            }
+            final char infixCharacter = lowerCaseInfix.charAt(i);
+            if (c != infixCharacter) {
+                return c < infixCharacter ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+
+    private Trie<T> matchCamelHumps(String query) {
+        final List<String> queryHumps = splitHumps(query);
+        if (queryHumps.size() <= 1) {
+            // The whole query is the first hump, which must be a prefix of the word.
+            return trie.subTrie(query);
+        }
+
+        // Only words that have humps starting with the characters of the first 2 or 3 humps of the query may match.
+        final char first = queryHumps.get(0).charAt(0);
+        final char second = queryHumps.get(1).charAt(0);
+        final String key = queryHumps.size() == 2 ? humpKey(first, second) : humpKey(first, second, queryHumps.get(2).charAt(0));
+        final int[] candidates = humpKeys.get(key);
+        if (candidates == null) {
+            return TrieNode.emptyTrie();
+        }
+
+        final int[] matches = new int[candidates.length];
+        int numMatches = 0;
+        for (int candidate : candidates) {
+            if (matchesHumps(words[candidate], queryHumps)) {
+                matches[numMatches++] = candidate;
+            }
+        }
+        return toTrie(matches, numMatches);
+    }
+
+    private boolean matchesHumps(String word, List<String> queryHumps) {
+        // The first hump must match, every other hump of the query is matched against the first possible hump of the word.
+        if (!matchesHump(word, 0, queryHumps.get(0))) {
+            return false;
+        }
+
+        int humpStart = getNextHumpStart(word, 1);
+        for (int i = 1; i < queryHumps.size(); i++) {
+            final String queryHump = queryHumps.get(i);
+            while (humpStart < word.length() && !matchesHump(word, humpStart, queryHump)) {
+                humpStart = getNextHumpStart(word, humpStart + 1);
+            }
+            if (humpStart == word.length()) {
+                return false;
+            }
+            humpStart = getNextHumpStart(word, humpStart + 1);
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code true} if the hump of the word that starts at the given index starts with the query hump.
+     */
+    private boolean matchesHump(String word, int humpStart, String queryHump) {
+        if (!word.regionMatches(true, humpStart, queryHump, 0, queryHump.length())) {
+            return false;
+        }
+        // The query hump must not continue into the next hump of the word.
+        return getNextHumpStart(word, humpStart + 1) >= humpStart + queryHump.length();
+    }
+
+    /**
+     * @return The index of the first hump of the string that starts at or after the given index, or the string's length if there is none.
+     */
+    private static int getNextHumpStart(String str, int from) {
+        int i = from;
+        while (i < str.length() && !isHumpStart(str, i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @param matches The matched words, sorted and without duplicates.
+     * @param numMatches The amount of matched words.
+     * @return A {@link Trie} containing the matched words.
+     */
+    private Trie<T> toTrie(int[] matches, int numMatches) {
+        if (numMatches == words.length) {
+            return trie;
+        }
+
+        final Map<String, T> matchedWords = new HashMap<>(numMatches);
+        for (int i = 0; i < numMatches; i++) {
+            matchedWords.put(words[matches[i]], getValue(matches[i]));
+        }
+        return CompactTrie.fromMap(matchedWords);
+    }
+
+    /**
+     * @return The word the given index in the text belongs to.
+     */
+    private int getWord(int textIndex) {
+        final int index = Arrays.binarySearch(wordStarts, textIndex);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T getValue(int word) {
+        return (T) values[word];
+    }
+
+    @Override
+    public String toString() {
+        return trie.toString();
+    }
+
+    /**
+     * Create an index of the words of the given {@link Trie}.
+     *
+     * @param trie Trie to index.
+     * @param <T> Trie type.
+     * @return An index of the Trie's words.
+     */
+    public static <T> WordIndex<T> from(Trie<T> trie) {
+        return from(trie, trie.toMap());
+    }
+
+    /**
+     * Create an index of the words of the given {@link Trie}, which contains exactly the word-value mappings of the map.
+     */
+    static <T> WordIndex<T> from(Trie<T> trie, Map<String, T> map) {
+        final List<String> sortedWords = new ArrayList<>(map.size());
+        for (Entry<String, T> entry : map.entrySet()) {
+            // An empty word has no infixes or humps, it can only be matched by an empty query - which is answered
+            // by the Trie itself. Tries built by a TrieBuilder never contain one, but other implementations might.
+            if (entry.getValue() != null && !entry.getKey().isEmpty()) {
+                sortedWords.add(entry.getKey());
+            }
+        }
+        Collections.sort(sortedWords);
+
+        final String[] words = sortedWords.toArray(new String[sortedWords.size()]);
+        final Object[] values = new Object[words.length];
+        int textLength = 0;
+        for (int i = 0; i < words.length; i++) {
+            values[i] = map.get(words[i]);
+            textLength += words[i].length() + 1;
+        }
+
+        // Lay out all words one after the other, each followed by a separator.
+        final char[] text = new char[textLength];
+        final int[] wordStarts = new int[words.length];
+        final int[] suffixes = new int[textLength - words.length];
+        int textIndex = 0;
+        int numSuffixes = 0;
+        for (int i = 0; i < words.length; i++) {
+            final String word = words[i];
+            wordStarts[i] = textIndex;
+            for (int j = 0; j < word.length(); j++) {
+                suffixes[numSuffixes++] = textIndex;
+                text[textIndex++] = Character.toLowerCase(word.charAt(j));
+            }
+            text[textIndex++] = SEPARATOR;
+        }
+        sortSuffixes(text, suffixes, 0, suffixes.length, 0);
+
+        return new WordIndex<>(trie, words, values, text, wordStarts, suffixes, createHumpKeys(words));
+    }
+
+    private static Map<String, int[]> createHumpKeys(String[] words) {
+        final Map<String, List<Integer>> humpKeys = new HashMap<>();
+        final List<Character> laterHumps = new ArrayList<>();
+        for (int i = 0; i < words.length; i++) {
+            final String word = words[i];
+            final char first = word.charAt(0);
+
+            laterHumps.clear();
+            for (int j = getNextHumpStart(word, 1); j < word.length(); j = getNextHumpStart(word, j + 1)) {
+                laterHumps.add(word.charAt(j));
+            }
+
+            for (int j = 0; j < laterHumps.size(); j++) {
+                addHumpKey(humpKeys, humpKey(first, laterHumps.get(j)), i);
+                for (int k = j + 1; k < laterHumps.size(); k++) {
+                    addHumpKey(humpKeys, humpKey(first, laterHumps.get(j), laterHumps.get(k)), i);
+                }
+            }
+        }
+
+        final Map<String, int[]> compactHumpKeys = new HashMap<>(humpKeys.size());
+        for (Entry<String, List<Integer>> entry : humpKeys.entrySet()) {
+            final List<Integer> keyWords = entry.getValue();
+            final int[] compactKeyWords = new int[keyWords.size()];
+            for (int i = 0; i < compactKeyWords.length; i++) {
+                compactKeyWords[i] = keyWords.get(i);
+            }
+            compactHumpKeys.put(entry.getKey(), compactKeyWords);
+        }
+        return compactHumpKeys;
+    }
+
+    private static void addHumpKey(Map<String, List<Integer>> humpKeys, String key, int word) {
+        List<Integer> keyWords = humpKeys.get(key);
+        if (keyWords == null) {
+            keyWords = new ArrayList<>();
+            humpKeys.put(key, keyWords);
+        }
+        // A word may have a few humps starting with the same characters, only add it once.
+        if (keyWords.isEmpty() || keyWords.get(keyWords.size() - 1) != word) {
+            keyWords.add(word);
+        }
+    }
+
+    private static String humpKey(char... humps) {
+        final char[] key = new char[humps.length];
+        for (int i = 0; i < humps.length; i++) {
+            key[i] = Character.toLowerCase(humps[i]);
+        }
+        return new String(key);
+    }
+
+    private static List<String> splitHumps(String str) {
+        final List<String> humps = new ArrayList<>();
+        int humpStart = 0;
+        for (int i = 1; i < str.length(); i++) {
+            if (isHumpStart(str, i)) {
+                humps.add(str.substring(humpStart, i));
+                humpStart = i;
+            }
+        }
+        if (humpStart < str.length()) {
+            humps.add(str.substring(humpStart));
+        }
+        return humps;
+    }
+
+    private static boolean isHumpStart(String str, int index) {
+        final char c = str.charAt(index);
+        return Character.isUpperCase(c) || (Character.isLetterOrDigit(c) && !Character.isLetterOrDigit(str.charAt(index - 1)));
+    }
+
+    private static String toLowerCase(String str) {
+        final char[] chars = new char[str.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(str.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Sort the suffixes in the range [from, to), all of which share their first 'depth' characters.
+     * A 3-way radix quicksort - suffixes are partitioned by the character at 'depth', so no character is compared twice
+     * for the same suffix and no suffix is boxed.
+     */
+    private static void sortSuffixes(char[] text, int[] suffixes, int from, int to, int depth) {
+        while (to - from > 1) {
+            // Partition into [from, lt) < pivot, [lt, gt) == pivot, [gt, to) > pivot.
+            final char pivot = text[suffixes[(from + to) >>> 1] + depth];
+            int lt = from;
+            int gt = to;
+            int i = from;
+            while (i < gt) {
+                final char c = text[suffixes[i] + depth];
+                if (c < pivot) {
+                    swap(suffixes, lt++, i++);
+                } else if (c > pivot) {
+                    swap(suffixes, i, --gt);
+                } else {
+                    i++;
+                }
+            }
+
+            sortSuffixes(text, suffixes, from, lt, depth);
+            sortSuffixes(text, suffixes, gt, to, depth);
+
+            // Suffixes that reached the end of their word are equal, the rest continue with the next character.
+            if (pivot == SEPARATOR) {
+                return;
+            }
+            from = lt;
+            to = gt;
+            depth++;
+        }
+    }
+
+    private static void swap(int[] array, int i, int j) {
+        final int temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+}
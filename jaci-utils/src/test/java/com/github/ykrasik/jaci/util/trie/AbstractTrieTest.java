@@ -20,18 +20,32 @@ import com.github.ykrasik.jaci.util.function.Func;
 import com.github.ykrasik.jaci.util.function.Pred;
 import com.github.ykrasik.jaci.util.opt.Opt;
 import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
 
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 import static org.junit.Assert.*;
 
 /**
  * @author Yevgeny Krasik
  */
-public class AbstractTrieTest {
+@RunWith(Parameterized.class)
+public abstract class AbstractTrieTest {
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> trieTypes() {
+        final List<Object[]> trieTypes = new ArrayList<>();
+        for (TrieType trieType : TrieType.values()) {
+            trieTypes.add(new Object[]{ trieType });
+        }
+        return trieTypes;
+    }
+
+    @Parameter
+    public TrieType trieType;
+
     protected Map<String, String> valueMap;
     protected TrieBuilder<String> builder;
     protected Trie<String> trie;
@@ -39,7 +53,7 @@ public class AbstractTrieTest {
     @Before
     public void setUp() {
         this.valueMap = new HashMap<>();
-        this.builder = new TrieBuilder<>();
+        this.builder = new TrieBuilder<String>().setType(trieType);
         this.trie = null;
     }
 
@@ -63,6 +77,14 @@ public class AbstractTrieTest {
         this.trie = builder.build();
     }
 
+    protected Trie<String> toStringTrie(String... words) {
+        final TrieBuilder<String> builder = new TrieBuilder<String>().setType(trieType);
+        for (String word : words) {
+            builder.add(word, "");
+        }
+        return builder.build();
+    }
+
     protected void successfulSubTrie(String prefix) {
         trie = trie.subTrie(prefix);
         assertFalse("No subTrie for prefix: " + prefix, trie.isEmpty());
@@ -80,6 +102,14 @@ public class AbstractTrieTest {
         trie = trie.filter(filter);
     }
 
+    protected void lazyMap(Func<String, String> function) {
+        trie = trie.lazyMapValues(function);
+    }
+
+    protected void lazyFilter(Pred<String> filter) {
+        trie = trie.lazyFilter(filter);
+    }
+
     protected void assertEmpty() {
         assertTrue("Trie isn't empty!", trie.isEmpty());
     }
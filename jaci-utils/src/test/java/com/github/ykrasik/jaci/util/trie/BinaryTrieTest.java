@@ -0,0 +1,119 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Yevgeny Krasik
+ */
+public class BinaryTrieTest {
+    private static final List<String> WORDS = Arrays.asList(
+        "asset", "assets", "assetName", "assetType", "entity", "entityArchetype", "Entities", "e", "zone"
+    );
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testQueries() throws IOException {
+        final BinaryTrie trie = toBinaryTrie(WORDS);
+
+        assertEquals(WORDS.size(), trie.size());
+        assertEquals(new HashSet<>(WORDS), new HashSet<>(trie.words()));
+        assertEquals("", trie.getLongestPrefix());
+        assertTrue(trie.contains("ENTITYARCHETYPE"));
+        assertFalse(trie.contains("entit"));
+        assertEquals("entityArchetype", trie.get("entityarchetype").get());
+        assertFalse(trie.get("assetNam").isPresent());
+
+        final Trie<String> subTrie = trie.subTrie("asset");
+        assertEquals(4, subTrie.size());
+        assertEquals("asset", subTrie.getLongestPrefix());
+        assertEquals("assetType", subTrie.subTrie("assett").getLongestPrefix());
+        assertEquals("assets", subTrie.get("ASSETS").get());
+        assertTrue(subTrie.subTrie("assex").isEmpty());
+        assertFalse(subTrie.contains("entity"));
+
+        final List<String> firstWords = new ArrayList<>();
+        trie.visitFirstWords(new TrieVisitor<String>() {
+            @Override
+            public void visit(String word, String value) {
+                firstWords.add(word);
+            }
+        }, 3);
+        assertEquals(Arrays.asList("Entities", "asset", "assetName"), firstWords);
+    }
+
+    @Test
+    public void testSameAsFrozenTrie() throws IOException {
+        final List<String> words = new StringGenerator(8).generateAllFixedLengthStringPermutations(4);
+        final BinaryTrie trie = toBinaryTrie(words);
+
+        final TrieBuilder<String> builder = new TrieBuilder<>();
+        for (String word : words) {
+            builder.add(word, word);
+        }
+        final FrozenTrie<String> frozenTrie = builder.freeze();
+
+        assertEquals(frozenTrie.toMap(), trie.toMap());
+        for (String prefix : Arrays.asList("a", "ab", "abc", "abcd", "hh", "x")) {
+            assertEquals(frozenTrie.subTrie(prefix).toMap(), trie.subTrie(prefix).toMap());
+            assertEquals(frozenTrie.subTrie(prefix).getLongestPrefix(), trie.subTrie(prefix).getLongestPrefix());
+        }
+    }
+
+    @Test
+    public void testMapFile() throws IOException {
+        final File file = temporaryFolder.newFile();
+        BinaryTrie.write(WORDS, file);
+
+        final BinaryTrie trie = BinaryTrie.map(file);
+        assertEquals(new HashSet<>(WORDS), new HashSet<>(trie.words()));
+        assertEquals("zone", trie.get("Zone").get());
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        final BinaryTrie trie = toBinaryTrie(Collections.<String>emptyList());
+        assertTrue(trie.isEmpty());
+        assertEquals("", trie.getLongestPrefix());
+        assertFalse(trie.contains("a"));
+        assertTrue(trie.subTrie("a").isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidFormat() {
+        BinaryTrie.from(ByteBuffer.wrap(new byte[]{ 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16 }));
+    }
+
+    private BinaryTrie toBinaryTrie(Collection<String> words) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryTrie.write(words, out);
+        return BinaryTrie.from(ByteBuffer.wrap(out.toByteArray()));
+    }
+}
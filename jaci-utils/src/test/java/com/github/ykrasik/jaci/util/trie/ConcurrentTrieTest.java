@@ -0,0 +1,169 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+import com.github.ykrasik.jaci.util.opt.Opt;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Yevgeny Krasik
+ */
+public class ConcurrentTrieTest {
+    private static final int NUM_WRITERS = 4;
+    private static final int NUM_READERS = 4;
+    private static final int WORDS_PER_WRITER = 200;
+    private static final int ROUNDS = 50;
+
+    @Test
+    public void testPutAndRemove() {
+        final ConcurrentTrie<String> trie = new ConcurrentTrie<>();
+        assertTrue(trie.isEmpty());
+
+        assertEquals(Opt.<String>absent(), trie.put("word", "1"));
+        assertEquals(Opt.<String>absent(), trie.put("words", "2"));
+        assertEquals(Opt.<String>absent(), trie.put("worm", "3"));
+        assertEquals(3, trie.size());
+        assertEquals("wor", trie.getLongestPrefix());
+        assertEquals("2", trie.get("WORDS").get());
+
+        assertEquals(Opt.of("1"), trie.put("Word", "4"));
+        assertEquals(3, trie.size());
+        assertEquals(new HashSet<>(Arrays.asList("Word", "words", "worm")), new HashSet<>(trie.words()));
+
+        assertEquals(Opt.of("4"), trie.remove("word"));
+        assertEquals(Opt.<String>absent(), trie.remove("word"));
+        assertEquals(Opt.<String>absent(), trie.remove("wo"));
+        assertEquals(2, trie.size());
+        assertFalse(trie.contains("word"));
+        assertTrue(trie.contains("words"));
+        assertEquals(1, trie.subTrie("word").size());
+
+        trie.remove("words");
+        trie.remove("worm");
+        assertTrue(trie.isEmpty());
+        assertEquals("", trie.getLongestPrefix());
+    }
+
+    @Test
+    public void testCaseSensitive() {
+        final ConcurrentTrie<String> trie = new ConcurrentTrie<>(true);
+        trie.put("Foo", "1");
+        trie.put("foo", "2");
+
+        assertEquals(2, trie.size());
+        assertEquals("1", trie.get("Foo").get());
+        assertFalse(trie.contains("FOO"));
+        assertEquals(Opt.of("2"), trie.remove("foo"));
+        assertEquals(1, trie.size());
+    }
+
+    @Test
+    public void testSnapshotIsImmutable() {
+        final ConcurrentTrie<String> trie = new ConcurrentTrie<>();
+        trie.put("word", "1");
+        trie.put("worm", "2");
+
+        final Trie<String> snapshot = trie.snapshot();
+        final Trie<String> subTrie = trie.subTrie("wor");
+        trie.put("words", "3");
+        trie.remove("worm");
+
+        assertEquals(new HashSet<>(Arrays.asList("word", "worm")), new HashSet<>(snapshot.words()));
+        assertEquals(2, subTrie.size());
+        assertEquals(new HashSet<>(Arrays.asList("word", "words")), new HashSet<>(trie.words()));
+    }
+
+    @Test
+    public void testConcurrentModification() throws Exception {
+        final ConcurrentTrie<String> trie = new ConcurrentTrie<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(NUM_WRITERS + NUM_READERS);
+        final CyclicBarrier startBarrier = new CyclicBarrier(NUM_WRITERS + NUM_READERS);
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            // Every writer owns a disjoint set of words, which it repeatedly puts and removes.
+            final List<Future<?>> writers = new ArrayList<>();
+            for (int i = 0; i < NUM_WRITERS; i++) {
+                final String prefix = "writer" + i + "_";
+                writers.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        startBarrier.await();
+                        for (int round = 0; round < ROUNDS; round++) {
+                            for (int j = 0; j < WORDS_PER_WRITER; j++) {
+                                trie.put(prefix + j, prefix + j);
+                            }
+                            for (int j = 0; j < WORDS_PER_WRITER; j += 2) {
+                                assertTrue(trie.remove(prefix + j).isPresent());
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            // Readers check that every snapshot they see is consistent while the writers are working.
+            final List<Future<?>> readers = new ArrayList<>();
+            for (int i = 0; i < NUM_READERS; i++) {
+                readers.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        startBarrier.await();
+                        while (writing.get()) {
+                            assertConsistent(trie.snapshot());
+                            assertConsistent(trie.subTrie("writer1_1"));
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Only the odd words of every writer remain.
+        assertEquals(NUM_WRITERS * WORDS_PER_WRITER / 2, trie.size());
+        for (int i = 0; i < NUM_WRITERS; i++) {
+            for (int j = 0; j < WORDS_PER_WRITER; j++) {
+                assertEquals(j % 2 == 1, trie.contains("writer" + i + "_" + j));
+            }
+        }
+        assertConsistent(trie);
+    }
+
+    private void assertConsistent(Trie<String> trie) {
+        final Map<String, String> map = trie.toMap();
+        assertEquals("Size doesn't match the words!", map.size(), trie.size());
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            assertEquals(entry.getKey(), entry.getValue());
+            assertEquals(entry.getKey(), trie.get(entry.getKey()).get());
+        }
+    }
+}
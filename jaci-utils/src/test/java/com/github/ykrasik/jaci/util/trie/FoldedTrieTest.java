@@ -0,0 +1,138 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Yevgeny Krasik
+ */
+public class FoldedTrieTest {
+    @Test
+    public void testCaseInsensitive() {
+        final Trie<String> trie = new TrieBuilder<String>()
+            .setType(TrieType.FOLDED)
+            .set("Foo", "Foo")
+            .set("foo", "foo")
+            .set("fOOBar", "fOOBar")
+            .build();
+
+        // The last of the words that only differ in case is kept.
+        assertEquals(2, trie.size());
+        assertEquals(new HashSet<>(Arrays.asList("foo", "fOOBar")), new HashSet<>(trie.words()));
+        assertEquals("foo", trie.get("FOO").get());
+        assertEquals("fOOBar", trie.get("foobar").get());
+        assertTrue(trie.contains("FooBAR"));
+        assertFalse(trie.contains("fo"));
+
+        // The prefix keeps the actual characters of the words.
+        assertEquals("foo", trie.getLongestPrefix());
+        assertEquals("fOOBar", trie.subTrie("FOOB").getLongestPrefix());
+        assertEquals("fOOBar", trie.subTrie("FOOB").get("fooBar").get());
+    }
+
+    @Test
+    public void testCaseSensitive() {
+        final Trie<String> trie = new TrieBuilder<String>()
+            .setType(TrieType.FOLDED)
+            .setCaseSensitive(true)
+            .set("Foo", "Foo")
+            .set("foo", "foo")
+            .build();
+
+        assertEquals(2, trie.size());
+        assertEquals("Foo", trie.get("Foo").get());
+        assertEquals("foo", trie.get("foo").get());
+        assertFalse(trie.contains("FOO"));
+        assertEquals("", trie.getLongestPrefix());
+        assertEquals(1, trie.subTrie("F").size());
+        assertTrue(trie.subTrie("FOO").isEmpty());
+    }
+
+    @Test
+    public void testUnion() {
+        final Trie<String> trie1 = new TrieBuilder<String>().setType(TrieType.FOLDED).set("Foo", "1").set("bar", "1").build();
+        final Trie<String> trie2 = new TrieBuilder<String>().setType(TrieType.FOLDED).set("foo", "2").set("baz", "2").build();
+
+        // Values and words from the other Trie take precedence.
+        final Trie<String> union = trie1.union(trie2);
+        assertEquals(3, union.size());
+        assertEquals(new HashSet<>(Arrays.asList("foo", "bar", "baz")), new HashSet<>(union.words()));
+        assertEquals("2", union.get("FOO").get());
+
+        final Trie<String> reverseUnion = trie2.union(trie1);
+        assertEquals(3, reverseUnion.size());
+        assertEquals(new HashSet<>(Arrays.asList("Foo", "bar", "baz")), new HashSet<>(reverseUnion.words()));
+        assertEquals("1", reverseUnion.get("foo").get());
+    }
+
+    @Test
+    public void testSetLastWordWins() {
+        // 'Foo' sorts before 'foo', but was set after it.
+        final Trie<String> trie = new TrieBuilder<String>()
+            .setType(TrieType.FOLDED)
+            .set("foo", "foo")
+            .set("Foo", "Foo")
+            .build();
+        assertEquals(Arrays.asList("Foo"), new ArrayList<>(trie.words()));
+        assertEquals("Foo", trie.get("foo").get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddCaseFoldedDuplicate() {
+        new TrieBuilder<String>().setType(TrieType.FOLDED).add("Foo", "Foo").add("foo", "foo");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAddCaseFoldedDuplicateBeforeType() {
+        new TrieBuilder<String>().add("Foo", "Foo").add("foo", "foo").setType(TrieType.FOLDED).build();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSetCaseFoldedDuplicateBeforeType() {
+        // It's unknown which word was mapped last.
+        new TrieBuilder<String>().set("Foo", "Foo").set("foo", "foo").setType(TrieType.FOLDED).build();
+    }
+
+    @Test
+    public void testCaseFoldingChangedBeforeBuild() {
+        // Words that only differ in case are only duplicates if the Trie is built case insensitive.
+        final Trie<String> trie = new TrieBuilder<String>().setType(TrieType.FOLDED).set("Foo", "Foo").setCaseSensitive(true).set("foo", "foo").build();
+        assertEquals(2, trie.size());
+    }
+
+    @Test
+    public void testAddDifferentCase() {
+        // Words that only differ in case aren't duplicates in a case sensitive Trie.
+        assertEquals(2, new TrieBuilder<String>().setType(TrieType.FOLDED).setCaseSensitive(true).add("Foo", "Foo").add("foo", "foo").build().size());
+
+        // A later set overrides an added word that only differs in case.
+        final Trie<String> trie = new TrieBuilder<String>().setType(TrieType.FOLDED).add("foo", "foo").set("Foo", "Foo").build();
+        assertEquals(Arrays.asList("Foo"), new ArrayList<>(trie.words()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCaseSensitiveRequiresFolded() {
+        new TrieBuilder<String>().setType(TrieType.COMPACT).setCaseSensitive(true).set("foo", "foo").build();
+    }
+}
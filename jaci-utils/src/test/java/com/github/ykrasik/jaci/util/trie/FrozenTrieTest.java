@@ -0,0 +1,54 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Yevgeny Krasik
+ */
+public class FrozenTrieTest {
+    @Test
+    public void testFreeze() {
+        final FrozenTrie<String> trie = new TrieBuilder<String>()
+            .setType(TrieType.RADIX)
+            .set("prefixWord", "1")
+            .set("prefixWords", "2")
+            .set("prefixWorm", "3")
+            .set("other", "4")
+            .freeze();
+
+        assertEquals(4, trie.size());
+        assertEquals("", trie.getLongestPrefix());
+        assertEquals("3", trie.get("PREFIXWORM").get());
+
+        final Trie<String> subTrie = trie.subTrie("p");
+        assertEquals(3, subTrie.size());
+        assertEquals("prefixWor", subTrie.getLongestPrefix());
+        assertEquals("prefixWord", subTrie.subTrie("prefixword").getLongestPrefix());
+        assertEquals("prefixWords", subTrie.subTrie("prefixwords").getLongestPrefix());
+        assertTrue(subTrie.subTrie("prefixWa").isEmpty());
+        assertEquals("", subTrie.subTrie("prefixWa").getLongestPrefix());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCaseSensitive() {
+        new TrieBuilder<String>().setCaseSensitive(true).set("foo", "foo").freeze();
+    }
+}
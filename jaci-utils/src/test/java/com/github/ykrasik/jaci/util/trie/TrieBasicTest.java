@@ -122,6 +122,78 @@ public class TrieBasicTest extends AbstractTrieTest {
         assertWords("a", "b", "cd");
     }
 
+    @Test
+    public void testLazyMap() {
+        buildAndAssertTrie("1", "2", "3");
+
+        // A function that adds 1 to it's input.
+        lazyMap(new Func<String, String>() {
+            @Override
+            public String apply(String input) {
+                return String.valueOf(Integer.parseInt(input) + 1);
+            }
+        });
+
+        assertNotEmpty();
+        assertTrieSize(3);
+        assertEquals("2", trie.get("1").get());
+        assertEquals("3", trie.get("2").get());
+        assertEquals("4", trie.get("3").get());
+    }
+
+    @Test
+    public void testLazyMapKeepsAllWords() {
+        buildAndAssertTrie("valid1", "valid2", "validity");
+
+        // Every word is kept, so the size and longest prefix don't need the function.
+        final int[] numCalls = new int[1];
+        lazyMap(new Func<String, String>() {
+            @Override
+            public String apply(String input) {
+                numCalls[0]++;
+                return input;
+            }
+        });
+
+        assertNotEmpty();
+        assertTrieSize(3);
+        assertLongestPrefix("valid");
+
+        successfulSubTrie("valid");
+        successfulSubTrie("validi");
+        assertTrieSize(1);
+        assertLongestPrefix("validity");
+        assertEquals(0, numCalls[0]);
+
+        assertEquals("validity", trie.get("validity").get());
+        assertEquals(1, numCalls[0]);
+    }
+
+    @Test
+    public void testLazyFilter() {
+        buildAndAssertTrie("invalid1", "a", "invalid2", "b", "cd", "invalidity", "valid1", "valid2");
+
+        // Filter all values starting with "invalid"
+        lazyFilter(new Pred<String>() {
+            @Override
+            public boolean test(String input) {
+                return !input.startsWith("invalid");
+            }
+        });
+
+        assertWords("a", "b", "cd", "valid1", "valid2");
+        assertInvalidWords("invalid1", "invalid2", "invalidity");
+        assertLongestPrefix("");
+
+        // The longest prefix must only take the words that passed the filter into account.
+        successfulSubTrie("valid");
+        assertWords("valid1", "valid2");
+        assertLongestPrefix("valid");
+
+        trie = trie.subTrie("in");
+        assertEmpty();
+    }
+
     @Test
     public void testVisitWords() {
         buildAndAssertTrie("a", "b", "c");
@@ -0,0 +1,143 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+import com.github.ykrasik.jaci.util.function.Func;
+import com.github.ykrasik.jaci.util.function.Pred;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Yevgeny Krasik
+ */
+public class TrieCursorTest extends AbstractTrieTest {
+    private static final String[] WORDS = { "word", "words", "worm", "wordy", "other", "otters", "b" };
+
+    @Test
+    public void testAdvanceAndRetreat() {
+        buildTrie(WORDS);
+        final TrieCursor<String> cursor = new TrieCursor<>(trie);
+        assertEquals(7, cursor.size());
+        assertEquals("", cursor.getLongestPrefix());
+
+        cursor.advance('W');
+        assertEquals("W", cursor.getPrefix());
+        assertEquals(4, cursor.size());
+        assertEquals("wor", cursor.getLongestPrefix());
+
+        cursor.advance("ord");
+        assertEquals(3, cursor.size());
+        assertEquals("word", cursor.getLongestPrefix());
+        assertEquals(Arrays.asList("word", "words"), cursor.getFirstWords(2));
+
+        cursor.advance('x');
+        assertTrue(cursor.isEmpty());
+        assertEquals("", cursor.getLongestPrefix());
+        cursor.advance('y');
+        assertTrue(cursor.isEmpty());
+
+        assertTrue(cursor.retreat());
+        assertTrue(cursor.retreat());
+        assertEquals("Word", cursor.getPrefix());
+        assertEquals(3, cursor.size());
+
+        assertTrue(cursor.retreat());
+        cursor.advance('m');
+        assertEquals(1, cursor.size());
+        assertEquals(Collections.singletonList("worm"), cursor.getFirstWords(10));
+
+        cursor.reset();
+        assertEquals("", cursor.getPrefix());
+        assertEquals(7, cursor.size());
+        assertFalse(cursor.retreat());
+    }
+
+    @Test
+    public void testSameAsSubTrie() {
+        buildTrie(WORDS);
+        assertSameAsSubTrie(trie, "otters");
+        assertSameAsSubTrie(trie, "WORDY");
+        assertSameAsSubTrie(trie, "wox");
+    }
+
+    @Test
+    public void testLazyViews() {
+        buildTrie(WORDS);
+        final Trie<String> filtered = trie.lazyFilter(new Pred<String>() {
+            @Override
+            public boolean test(String value) {
+                return value.startsWith("wor");
+            }
+        });
+        assertSameAsSubTrie(filtered, "word");
+
+        final Trie<String> mapped = trie.lazyMapValues(new Func<String, String>() {
+            @Override
+            public String apply(String value) {
+                return value.toUpperCase();
+            }
+        });
+        assertSameAsSubTrie(mapped, "word");
+
+        final Trie<String> union = toStringTrie("ottoman", "wordless").lazyUnion(trie);
+        assertSameAsSubTrie(union, "otto");
+        assertSameAsSubTrie(union, "wordl");
+    }
+
+    @Test
+    public void testAdvanceDoesNotMapWords() {
+        buildTrie(WORDS);
+
+        // Like auto completing a directory - a union of lazily mapped Tries.
+        final int[] numCalls = new int[1];
+        final Func<String, String> function = new Func<String, String>() {
+            @Override
+            public String apply(String value) {
+                numCalls[0]++;
+                return value;
+            }
+        };
+        final Trie<String> union = toStringTrie("ottoman", "wordless").lazyMapValues(function).lazyUnion(trie.lazyMapValues(function));
+        final TrieCursor<String> cursor = new TrieCursor<>(union);
+        for (char c : "wordl".toCharArray()) {
+            cursor.advance(c);
+            assertFalse(cursor.isEmpty());
+            assertEquals(0, numCalls[0]);
+        }
+        assertEquals("wordless", cursor.getLongestPrefix());
+        assertEquals(0, numCalls[0]);
+
+        cursor.advance('x');
+        assertTrue(cursor.isEmpty());
+        assertEquals(0, numCalls[0]);
+    }
+
+    private void assertSameAsSubTrie(Trie<String> trie, String prefix) {
+        final TrieCursor<String> cursor = new TrieCursor<>(trie);
+        for (int i = 1; i <= prefix.length(); i++) {
+            cursor.advance(prefix.charAt(i - 1));
+            final Trie<String> subTrie = trie.subTrie(prefix.substring(0, i));
+            assertEquals(subTrie.toMap(), cursor.getTrie().toMap());
+            assertEquals(subTrie.getLongestPrefix(), cursor.getLongestPrefix());
+            assertEquals(subTrie.size(), cursor.size());
+        }
+    }
+}
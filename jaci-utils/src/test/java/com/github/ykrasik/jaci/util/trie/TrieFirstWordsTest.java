@@ -0,0 +1,195 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+import com.github.ykrasik.jaci.util.function.Func;
+import com.github.ykrasik.jaci.util.function.Pred;
+import com.github.ykrasik.jaci.util.opt.Opt;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * @author Yevgeny Krasik
+ */
+public class TrieFirstWordsTest extends AbstractTrieTest {
+    @Test
+    public void testOrder() {
+        buildTrie("word", "b", "words", "a", "worm", "Zed", "ab", "aa");
+
+        if (trieType == TrieType.FOLDED) {
+            // Ordered by the case folded words.
+            assertFirstWords(100, "a", "aa", "ab", "b", "word", "words", "worm", "Zed");
+            assertFirstWords(3, "a", "aa", "ab");
+            assertFirstWords(0);
+            return;
+        }
+
+        assertFirstWords(100, "Zed", "a", "aa", "ab", "b", "word", "words", "worm");
+        assertFirstWords(3, "Zed", "a", "aa");
+        assertFirstWords(1, "Zed");
+        assertFirstWords(0);
+    }
+
+    @Test
+    public void testEmpty() {
+        buildTrie();
+        assertFirstWords(10);
+    }
+
+    @Test
+    public void testSubTrie() {
+        buildTrie("word", "b", "words", "a", "worm", "wordy", "ab", "aa");
+
+        successfulSubTrie("wor");
+        assertFirstWords(100, "word", "words", "wordy", "worm");
+        assertFirstWords(2, "word", "words");
+
+        successfulSubTrie("word");
+        assertFirstWords(2, "word", "words");
+    }
+
+    @Test
+    public void testLazyMapAndFilter() {
+        buildTrie("c", "a", "d", "b", "e");
+
+        lazyFilter(new Pred<String>() {
+            @Override
+            public boolean test(String value) {
+                return !value.equals("b") && !value.equals("c");
+            }
+        });
+        assertFirstWords(2, "a", "d");
+        assertFirstWords(100, "a", "d", "e");
+
+        lazyFilter(new Pred<String>() {
+            @Override
+            public boolean test(String value) {
+                return !value.equals("a");
+            }
+        });
+        assertFirstWords(1, "d");
+
+        lazyMap(new Func<String, String>() {
+            @Override
+            public String apply(String value) {
+                return value;
+            }
+        });
+        assertFirstWords(1, "d");
+    }
+
+    @Test
+    public void testLazyMapOnlyMapsVisitedWords() {
+        final List<String> words = new ArrayList<>();
+        for (int i = 10000; i < 20000; i++) {
+            words.add("word" + i);
+        }
+        buildTrie(words);
+
+        // Like auto complete - the total amount of words, their longest prefix and the first few words.
+        final int[] numCalls = new int[1];
+        lazyMap(new Func<String, String>() {
+            @Override
+            public String apply(String value) {
+                numCalls[0]++;
+                return value;
+            }
+        });
+        successfulSubTrie("word1");
+        assertEquals(10000, trie.size());
+        assertEquals("word1", trie.getLongestPrefix());
+        assertFirstWords(5, "word10000", "word10001", "word10002", "word10003", "word10004");
+        assertEquals(5, numCalls[0]);
+    }
+
+    @Test
+    public void testLazyUnion() {
+        buildTrie("d", "b", "f");
+        trie = trie.lazyUnion(toStringTrie("e", "a", "c", "b"));
+
+        assertFirstWords(100, "a", "b", "c", "d", "e", "f");
+        assertFirstWords(3, "a", "b", "c");
+
+        // Large enough to need more than a single batch when traversed lazily.
+        final List<String> words1 = new ArrayList<>();
+        final List<String> words2 = new ArrayList<>();
+        final List<String> expectedWords = new ArrayList<>();
+        for (int i = 100; i < 200; i++) {
+            final String word = "word" + i;
+            (i % 3 == 0 ? words1 : words2).add(word);
+            expectedWords.add(word);
+        }
+        trie = toStringTrie(words1.toArray(new String[words1.size()]))
+            .lazyUnion(toStringTrie(words2.toArray(new String[words2.size()])));
+        assertFirstWords(100, expectedWords.toArray(new String[expectedWords.size()]));
+
+        lazyMap(new Func<String, String>() {
+            @Override
+            public String apply(String value) {
+                return value;
+            }
+        });
+        assertFirstWords(100, expectedWords.toArray(new String[expectedWords.size()]));
+    }
+
+    @Test
+    public void testKnownSize() {
+        buildTrie("d", "b", "f");
+        assertEquals(Opt.of(3), trie.getKnownSize());
+        assertEquals(Opt.of(3), trie.lazyMapValues(new Func<String, String>() {
+            @Override
+            public String apply(String value) {
+                return value;
+            }
+        }).getKnownSize());
+
+        // Views that may drop or merge words only know their size once it was calculated.
+        trie = trie.lazyUnion(toStringTrie("e", "b"));
+        assertFalse(trie.getKnownSize().isPresent());
+        assertFirstWords(2, "b", "d");
+        assertFalse(trie.getKnownSize().isPresent());
+        assertEquals(4, trie.size());
+        assertEquals(Opt.of(4), trie.getKnownSize());
+
+        lazyFilter(new Pred<String>() {
+            @Override
+            public boolean test(String value) {
+                return false;
+            }
+        });
+        assertFalse(trie.getKnownSize().isPresent());
+        assertEquals(0, trie.size());
+        assertEquals(Opt.of(0), trie.getKnownSize());
+    }
+
+    private void assertFirstWords(int maxWords, String... expectedWords) {
+        final List<String> words = new ArrayList<>();
+        trie.visitFirstWords(new TrieVisitor<String>() {
+            @Override
+            public void visit(String word, String value) {
+                words.add(word);
+            }
+        }, maxWords);
+        assertEquals("Invalid first words!", Arrays.asList(expectedWords), words);
+    }
+}
@@ -0,0 +1,117 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+import com.github.ykrasik.jaci.util.function.Func;
+import com.github.ykrasik.jaci.util.function.Pred;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.Map.Entry;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Yevgeny Krasik
+ */
+public class TrieIteratorTest extends AbstractTrieTest {
+    private static final String[] WORDS = { "word", "words", "worm", "wordy", "other", "otters", "b", "bb", "bbb" };
+
+    @Test
+    public void testIterateAll() {
+        buildTrie(WORDS);
+        assertIterates(trie);
+        assertIterates(trie.subTrie("wor"));
+        assertIterates(trie.subTrie("word"));
+        assertIterates(trie.subTrie("x"));
+    }
+
+    @Test
+    public void testEmpty() {
+        buildTrie();
+        assertIterates(trie);
+        assertFalse(trie.words().iterator().hasNext());
+    }
+
+    @Test
+    public void testLazyViews() {
+        buildTrie(WORDS);
+        final Trie<String> mapped = trie.lazyFilter(new Pred<String>() {
+            @Override
+            public boolean test(String value) {
+                return !value.startsWith("o");
+            }
+        }).lazyMapValues(new Func<String, String>() {
+            @Override
+            public String apply(String value) {
+                return value.toUpperCase();
+            }
+        });
+        assertIterates(mapped);
+        assertIterates(mapped.subTrie("wo"));
+
+        final Trie<String> union = toStringTrie("ottoman", "word", "bbbb").lazyUnion(trie);
+        assertIterates(union);
+        assertIterates(union.subTrie("b"));
+    }
+
+    @Test
+    public void testPartialIteration() {
+        buildTrie(WORDS);
+        final Iterator<Entry<String, String>> iterator = trie.subTrie("b").entrySet().iterator();
+        final Entry<String, String> entry = iterator.next();
+        assertEquals(entry.getKey(), entry.getValue());
+        assertTrue(entry.getKey().startsWith("b"));
+        assertTrue(iterator.hasNext());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testNextAfterEnd() {
+        buildTrie(WORDS);
+        final Iterator<String> iterator = trie.subTrie("worm").words().iterator();
+        assertEquals("worm", iterator.next());
+        iterator.next();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnly() {
+        buildTrie(WORDS);
+        final Iterator<String> iterator = trie.values().iterator();
+        iterator.next();
+        iterator.remove();
+    }
+
+    private void assertIterates(Trie<String> trie) {
+        final Map<String, String> expected = trie.toMap();
+
+        final Map<String, String> entries = new HashMap<>();
+        for (Entry<String, String> entry : trie.entrySet()) {
+            assertNull("Word iterated twice: " + entry.getKey(), entries.put(entry.getKey(), entry.getValue()));
+        }
+        assertEquals(expected, entries);
+        assertEquals(expected.size(), trie.entrySet().size());
+
+        assertEquals(expected.keySet(), new HashSet<>(trie.words()));
+        assertEquals(expected.size(), trie.words().size());
+
+        final List<String> values = new ArrayList<>(trie.values());
+        final List<String> expectedValues = new ArrayList<>(expected.values());
+        Collections.sort(values);
+        Collections.sort(expectedValues);
+        assertEquals(expectedValues, values);
+    }
+}
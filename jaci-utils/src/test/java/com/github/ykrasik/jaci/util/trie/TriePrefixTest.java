@@ -118,6 +118,33 @@ public class TriePrefixTest extends AbstractTrieTest {
         assertLongestPrefix("prefiz");
     }
 
+    @Test
+    public void testNestedPrefix() {
+        // "pre" -> "prefix"
+        successfulSubTrie("pre");
+        successfulSubTrie("prefix");
+        assertWords("prefix", "prefixprefix1", "prefixprefix2");
+        assertLongestPrefix("prefix");
+        assertInvalidWords("pre", "pre2", "prefiz");
+
+        // A prefix shorter than the current one doesn't narrow the subTrie down any further.
+        successfulSubTrie("pr");
+        assertWords("prefix", "prefixprefix1", "prefixprefix2");
+
+        failedSubTrie("prefiz");
+        failedSubTrie("other");
+    }
+
+    @Test
+    public void testPrefixUnion() {
+        final Trie<String> trie1 = trie.subTrie("pre1");
+        final Trie<String> trie2 = trie.subTrie("prefixp");
+
+        trie = trie1.union(trie2);
+        assertWords("pre1fix", "prefixprefix1", "prefixprefix2");
+        assertLongestPrefix("pre");
+    }
+
     @Test
     public void testFailedPrefix() {
         // Invalid prefixes
@@ -0,0 +1,104 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+import com.github.ykrasik.jaci.util.function.Pred;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Yevgeny Krasik
+ */
+public class TrieSimilarWordsTest extends AbstractTrieTest {
+    @Test
+    public void testExactMatch() {
+        buildTrie("command", "comment", "other");
+
+        assertSimilarWords("command", 0, "command");
+        assertSimilarWords("COMMAND", 0, "command");
+        assertSimilarWords("commnd", 0);
+    }
+
+    @Test
+    public void testDistance() {
+        buildTrie("command", "comand", "commands", "commend", "comet", "cd", "ls");
+
+        // Closest first, then lexicographic.
+        assertSimilarWords("command", 1, "command", "comand", "commands", "commend");
+        assertSimilarWords("commmand", 1, "command");
+        assertSimilarWords("comand", 2, "comand", "command", "commands", "commend");
+        assertSimilarWords("lc", 1, "ls");
+        assertSimilarWords("xyz", 2);
+        assertSimilarWords("", 2, "cd", "ls");
+    }
+
+    @Test
+    public void testSubTrie() {
+        buildTrie("command", "comand", "commands", "other", "others");
+
+        successfulSubTrie("comm");
+        assertSimilarWords("comand", 1, "command");
+
+        successfulSubTrie("command");
+        assertSimilarWords("comand", 1, "command");
+        assertSimilarWords("commandz", 1, "command", "commands");
+    }
+
+    @Test
+    public void testLazyFilterAndUnion() {
+        buildTrie("word1", "word2", "wrd");
+
+        lazyFilter(new Pred<String>() {
+            @Override
+            public boolean test(String value) {
+                return !value.equals("word2");
+            }
+        });
+        assertSimilarWords("word", 1, "word1", "wrd");
+
+        trie = trie.lazyUnion(toStringTrie("word3", "word1", "other"));
+        assertSimilarWords("word", 1, "word1", "word3", "wrd");
+    }
+
+    @Test
+    public void testLongWords() {
+        final List<String> words = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            words.add("some.long.prefix.to.a.command" + i);
+        }
+        buildTrie(words);
+
+        assertSimilarWords("some.long.prefix.to.a.comand42", 1, "some.long.prefix.to.a.command42");
+        assertSimilarWords("some.lng.prefix.to.a.command999", 1, "some.long.prefix.to.a.command999");
+    }
+
+    private void assertSimilarWords(String word, int maxDistance, String... expectedWords) {
+        final List<String> words = new ArrayList<>();
+        trie.visitSimilarWords(word, maxDistance, new TrieVisitor<String>() {
+            @Override
+            public void visit(String word, String value) {
+                words.add(word);
+            }
+        });
+        assertEquals("Invalid similar words!", Arrays.asList(expectedWords), words);
+    }
+}
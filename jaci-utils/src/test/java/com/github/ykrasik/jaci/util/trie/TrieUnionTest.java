@@ -18,6 +18,7 @@ package com.github.ykrasik.jaci.util.trie;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 
@@ -29,32 +30,32 @@ import static org.junit.Assert.assertEquals;
 public class TrieUnionTest extends AbstractTrieTest {
     @Test
     public void testSimpleUnion() {
-        final Trie<String> trie1 = Tries.toStringTrie("one");
-        final Trie<String> trie2 = Tries.toStringTrie("two");
+        final Trie<String> trie1 = toStringTrie("one");
+        final Trie<String> trie2 = toStringTrie("two");
 
         assertUnion(trie1, trie2, "", "one", "two");
     }
 
     @Test
     public void prefixUnionTest() {
-        final Trie<String> trie1 = Tries.toStringTrie("word1");
-        final Trie<String> trie2 = Tries.toStringTrie("word2");
+        final Trie<String> trie1 = toStringTrie("word1");
+        final Trie<String> trie2 = toStringTrie("word2");
 
         assertUnion(trie1, trie2, "word", "word1", "word2");
     }
 
     @Test
     public void emptyUnionTest() {
-        final Trie<String> trie1 = Tries.toStringTrie("single");
-        final Trie<String> trie2 = Tries.toStringTrie();
+        final Trie<String> trie1 = toStringTrie("single");
+        final Trie<String> trie2 = toStringTrie();
 
         assertUnion(trie1, trie2, "single", "single");
     }
 
     @Test
     public void testSameValue() {
-        final Trie<String> trie1 = Tries.toStringTrie("single");
-        final Trie<String> trie2 = Tries.toStringTrie("single");
+        final Trie<String> trie1 = toStringTrie("single");
+        final Trie<String> trie2 = toStringTrie("single");
 
         assertUnion(trie1, trie2, "single", "single");
     }
@@ -62,37 +63,64 @@ public class TrieUnionTest extends AbstractTrieTest {
     @Test
     public void testSameValues() {
         final String[] words = { "one", "two", "three" };
-        final Trie<String> trie1 = Tries.toStringTrie(words);
-        final Trie<String> trie2 = Tries.toStringTrie(words);
+        final Trie<String> trie1 = toStringTrie(words);
+        final Trie<String> trie2 = toStringTrie(words);
 
         assertUnion(trie1, trie2, "", words);
     }
 
     @Test
     public void testCommonValues() {
-        final Trie<String> trie1 = Tries.toStringTrie("one", "common");
-        final Trie<String> trie2 = Tries.toStringTrie("common", "two");
+        final Trie<String> trie1 = toStringTrie("one", "common");
+        final Trie<String> trie2 = toStringTrie("common", "two");
 
         assertUnion(trie1, trie2, "", "one", "two", "common");
     }
 
     @Test
     public void testDifferentCase() {
-        final Trie<String> trie1 = Tries.toStringTrie("one", "commonCase");
-        final Trie<String> trie2 = Tries.toStringTrie("commoncase", "two");
+        final Trie<String> trie1 = toStringTrie("one", "commonCase");
+        final Trie<String> trie2 = toStringTrie("commoncase", "two");
+
+        if (trieType == TrieType.FOLDED) {
+            // Words that only differ in case are the same word, the one from the other Trie is kept.
+            doAssertUnion(trie1.union(trie2), "", "one", "two", "commoncase");
+            doAssertUnion(trie2.union(trie1), "", "one", "two", "commonCase");
+        } else {
+            assertEagerUnion(trie1, trie2, "", "one", "two", "commoncase", "commonCase");
+        }
+    }
 
-        assertUnion(trie1, trie2, "", "one", "two", "commoncase", "commonCase");
+    @Test
+    public void testLazyDifferentCase() {
+        final Trie<String> trie1 = toStringTrie("one", "commonCase");
+        final Trie<String> trie2 = toStringTrie("commoncase", "two");
+
+        // A lazy union keeps both words that only differ in case, for all Trie types.
+        assertLazyUnion(trie1, trie2, "", "one", "two", "commoncase", "commonCase");
+
+        final List<String> firstWords = new ArrayList<>();
+        trie1.lazyUnion(trie2).visitFirstWords(new TrieVisitor<String>() {
+            @Override
+            public void visit(String word, String value) {
+                firstWords.add(word);
+            }
+        }, 10);
+        assertEquals(4, firstWords.size());
     }
 
     @Test
     public void compoundUnionTest() {
-        final Trie<String> trie1 = Tries.toStringTrie("word1", "another1", "extra");
-        final Trie<String> trie2 = Tries.toStringTrie("word2");
-        final Trie<String> trie3 = Tries.toStringTrie("another2", "extra2");
-        final Trie<String> trie4 = Tries.toStringTrie("newWord", "many", "other", "words");
+        final Trie<String> trie1 = toStringTrie("word1", "another1", "extra");
+        final Trie<String> trie2 = toStringTrie("word2");
+        final Trie<String> trie3 = toStringTrie("another2", "extra2");
+        final Trie<String> trie4 = toStringTrie("newWord", "many", "other", "words");
+
+        assertCompoundUnion(trie1.union(trie2), trie3.union(trie4));
+        assertCompoundUnion(trie1.lazyUnion(trie2), trie3.lazyUnion(trie4));
+    }
 
-        final Trie<String> union1 = trie1.union(trie2);
-        final Trie<String> union2 = trie3.union(trie4);
+    private void assertCompoundUnion(Trie<String> union1, Trie<String> union2) {
         final Trie<String> union3 = union1.union(union2);
 
         this.trie = union1;
@@ -121,12 +149,22 @@ public class TrieUnionTest extends AbstractTrieTest {
     }
 
     private void assertUnion(Trie<String> trie1, Trie<String> trie2, String longestPrefix, String... words) {
-        doAssertUnion(trie1, trie2, longestPrefix, words);
-        doAssertUnion(trie2, trie1, longestPrefix, words);
+        assertEagerUnion(trie1, trie2, longestPrefix, words);
+        assertLazyUnion(trie1, trie2, longestPrefix, words);
+    }
+
+    private void assertEagerUnion(Trie<String> trie1, Trie<String> trie2, String longestPrefix, String... words) {
+        doAssertUnion(trie1.union(trie2), longestPrefix, words);
+        doAssertUnion(trie2.union(trie1), longestPrefix, words);
+    }
+
+    private void assertLazyUnion(Trie<String> trie1, Trie<String> trie2, String longestPrefix, String... words) {
+        doAssertUnion(trie1.lazyUnion(trie2), longestPrefix, words);
+        doAssertUnion(trie2.lazyUnion(trie1), longestPrefix, words);
     }
 
-    private void doAssertUnion(Trie<String> trie1, Trie<String> trie2, String longestPrefix, String... words) {
-        this.trie = trie1.union(trie2);
+    private void doAssertUnion(Trie<String> union, String longestPrefix, String... words) {
+        this.trie = union;
         assertWords(words);
         assertLongestPrefix(longestPrefix);
     }
@@ -0,0 +1,160 @@
+/******************************************************************************
+ * Copyright (C) 2014 Yevgeny Krasik                                          *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ * http://www.apache.org/licenses/LICENSE-2.0                                 *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package com.github.ykrasik.jaci.util.trie;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Yevgeny Krasik
+ */
+public class WordIndexTest extends AbstractTrieTest {
+    private WordIndex<String> index;
+
+    @Test
+    public void testPrefix() {
+        buildIndex("setShadowMapSize", "setSize", "getSize", "shadow");
+
+        match("set", MatchMode.PREFIX);
+        assertWords("setShadowMapSize", "setSize");
+    }
+
+    @Test
+    public void testInfix() {
+        buildIndex("setShadowMapSize", "setSize", "getSize", "shadow", "mapmap");
+
+        match("Size", MatchMode.INFIX);
+        assertWords("setShadowMapSize", "setSize", "getSize");
+
+        match("shadow", MatchMode.INFIX);
+        assertWords("setShadowMapSize", "shadow");
+
+        match("map", MatchMode.INFIX);
+        assertWords("setShadowMapSize", "mapmap");
+
+        match("e", MatchMode.INFIX);
+        assertWords("setShadowMapSize", "setSize", "getSize");
+
+        match("", MatchMode.INFIX);
+        assertWords("setShadowMapSize", "setSize", "getSize", "shadow", "mapmap");
+
+        match("sizes", MatchMode.INFIX);
+        assertWords();
+
+        match("zeg", MatchMode.INFIX);
+        assertWords();
+    }
+
+    @Test
+    public void testCamelHumps() {
+        buildIndex("setShadowMapSize", "setSize", "getSize", "shadowMap", "set_map_size", "parseHTMLString");
+
+        match("sMS", MatchMode.CAMEL_HUMPS);
+        assertWords("setShadowMapSize", "set_map_size");
+
+        match("setSi", MatchMode.CAMEL_HUMPS);
+        assertWords("setShadowMapSize", "setSize", "set_map_size");
+
+        match("sSMS", MatchMode.CAMEL_HUMPS);
+        assertWords("setShadowMapSize");
+
+        match("gS", MatchMode.CAMEL_HUMPS);
+        assertWords("getSize");
+
+        match("pHS", MatchMode.CAMEL_HUMPS);
+        assertWords("parseHTMLString");
+
+        match("se", MatchMode.CAMEL_HUMPS);
+        assertWords("setShadowMapSize", "setSize", "set_map_size");
+
+        match("MS", MatchMode.CAMEL_HUMPS);
+        assertWords();
+
+        match("sSM", MatchMode.CAMEL_HUMPS);
+        assertWords("setShadowMapSize");
+
+        match("sMSh", MatchMode.CAMEL_HUMPS);
+        assertWords();
+    }
+
+    @Test
+    public void testFromTrie() {
+        buildTrie("setShadowMapSize", "setSize", "getSize");
+        index = WordIndex.from(trie);
+
+        match("size", MatchMode.INFIX);
+        assertWords("setShadowMapSize", "setSize", "getSize");
+
+        match("gS", MatchMode.CAMEL_HUMPS);
+        assertWords("getSize");
+    }
+
+    @Test
+    public void testEmptyWord() {
+        // Tries built here never contain an empty word, but other Trie implementations might.
+        buildTrie("setShadowMapSize", "setSize");
+        final Map<String, String> map = new HashMap<>(trie.toMap());
+        map.put("", "");
+        index = WordIndex.from(trie, map);
+
+        match("size", MatchMode.INFIX);
+        assertWords("setShadowMapSize", "setSize");
+
+        match("sMS", MatchMode.CAMEL_HUMPS);
+        assertWords("setShadowMapSize");
+
+        match("sS", MatchMode.CAMEL_HUMPS);
+        assertWords("setShadowMapSize", "setSize");
+    }
+
+    @Test
+    public void testManyWords() {
+        final List<String> words = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            words.add("entity" + i + "Component");
+        }
+        buildIndex(words.toArray(new String[words.size()]));
+
+        match("y9999C", MatchMode.INFIX);
+        assertWords("entity9999Component");
+
+        match("99C", MatchMode.INFIX);
+        assertTrieSize(100);
+
+        // Digits don't start a new hump.
+        match("entity1234C", MatchMode.CAMEL_HUMPS);
+        assertWords("entity1234Component");
+
+        match("eC", MatchMode.CAMEL_HUMPS);
+        assertTrieSize(10000);
+    }
+
+    private void buildIndex(String... words) {
+        for (String word : words) {
+            addWord(word, word);
+        }
+        index = builder.buildIndex();
+    }
+
+    private void match(String query, MatchMode mode) {
+        trie = index.match(query, mode);
+    }
+}